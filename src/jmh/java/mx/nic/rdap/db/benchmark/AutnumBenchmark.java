@@ -0,0 +1,86 @@
+package mx.nic.rdap.db.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AutnumDAO#getByRange(long)}, single, batched and as an existence
+ * check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutnumBenchmark {
+
+	/** Number of 16-ASN blocks. */
+	@Param({ "1000", "100000", "1000000" })
+	private int size;
+
+	/** Keys per batch lookup. */
+	@Param({ "16" })
+	private int batchSize;
+
+	private AutnumDAO dao;
+	private List<Long>[] batches;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		dao = BenchmarkData.load(new RegistrySnapshot.Builder().addAutnums(BenchmarkData.autnums(size)))
+				.getAutnumDAO();
+
+		batches = new List[64];
+		for (int i = 0; i < batches.length; i++) {
+			batches[i] = new ArrayList<>(batchSize);
+			for (int j = 0; j < batchSize; j++) {
+				batches[i].add(randomAutnum());
+			}
+		}
+	}
+
+	private long randomAutnum() {
+		return 1000L + ThreadLocalRandom.current().nextLong(size * 16L);
+	}
+
+	@Benchmark
+	public Autnum getByRange() throws Exception {
+		return dao.getByRange(randomAutnum());
+	}
+
+	@Benchmark
+	public List<Autnum> getByRanges() throws Exception {
+		return dao.getByRanges(batches[ThreadLocalRandom.current().nextInt(batches.length)]);
+	}
+
+	@Benchmark
+	public boolean existsByRange() throws Exception {
+		return dao.existsByRange(randomAutnum());
+	}
+
+	@Benchmark
+	public Autnum getByRangeMiss() throws Exception {
+		return dao.getByRange(1000L + size * 16L + ThreadLocalRandom.current().nextInt(1000000));
+	}
+
+}
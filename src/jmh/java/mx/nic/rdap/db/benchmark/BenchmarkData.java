@@ -0,0 +1,220 @@
+package mx.nic.rdap.db.benchmark;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import mx.nic.rdap.core.catalog.IpVersion;
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.IpAddress;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.core.db.VCard;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.memory.InMemoryDataAccessImplementation;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+
+/**
+ * Deterministic synthetic registry data, so runs are comparable.
+ */
+class BenchmarkData {
+
+	static final long SEED = 0x5EED;
+
+	private static final String[] ZONES = { "mx", "com.mx", "org.mx", "net.mx", "gob.mx", "edu.mx" };
+	private static final char[] LETTERS = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+	private BenchmarkData() {
+		// No code.
+	}
+
+	/**
+	 * Returns <code>size</code> domains named <code>&lt;word&gt;&lt;i&gt;.&lt;zone&gt;</code>.
+	 */
+	static List<Domain> domains(int size) {
+		Random random = new Random(SEED);
+		List<Domain> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Domain domain = new Domain();
+			domain.setHandle("DOM" + i);
+			domain.setLdhName(word(random) + i);
+			domain.setZone(ZONES[i % ZONES.length]);
+			result.add(domain);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an {@link InMemoryDataAccessImplementation} that serves
+	 * <code>snapshot</code>, the implementation every benchmark measures.
+	 */
+	static InMemoryDataAccessImplementation load(RegistrySnapshot.Builder snapshot) throws RdapDataAccessException {
+		InMemoryDataAccessImplementation result = new InMemoryDataAccessImplementation();
+		result.reload(snapshot.build());
+		return result;
+	}
+
+	/**
+	 * Returns <code>size</code> nameservers named
+	 * <code>ns&lt;i&gt;.&lt;word&gt;.&lt;zone&gt;</code>, each with the address
+	 * {@link #nameserverAddress(int)} returns.
+	 */
+	static List<Nameserver> nameservers(int size) {
+		Random random = new Random(SEED + 1);
+		List<Nameserver> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Nameserver nameserver = new Nameserver();
+			nameserver.setHandle("NS" + i);
+			nameserver.setLdhName("ns" + i + "." + word(random) + "." + ZONES[i % ZONES.length]);
+			IpAddress address = new IpAddress();
+			try {
+				address.setAddress(InetAddress.getByAddress(nameserverAddress(i)));
+			} catch (UnknownHostException e) {
+				throw new IllegalArgumentException(e);
+			}
+			nameserver.getIpAddresses().getIpv4Adresses().add(address);
+			result.add(nameserver);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the address of nameserver <code>i</code>, out of 10.0.0.0/8.
+	 */
+	static byte[] nameserverAddress(int i) {
+		return ipv4(0x0A000000 | i);
+	}
+
+	/**
+	 * Delegates every domain to two consecutive nameservers of
+	 * <code>nameservers</code>, round-robin.
+	 */
+	static void delegate(List<Domain> domains, List<Nameserver> nameservers) {
+		for (int i = 0; i < domains.size(); i++) {
+			domains.get(i).getNameServers().add(nameservers.get(i % nameservers.size()));
+			domains.get(i).getNameServers().add(nameservers.get((i + 1) % nameservers.size()));
+		}
+	}
+
+	/**
+	 * Returns <code>size</code> entities whose handles are
+	 * <code>ENT&lt;i&gt;</code>, and whose vCard names are
+	 * <code>&lt;word&gt; &lt;i&gt;</code>.
+	 */
+	static List<Entity> entities(int size) {
+		Random random = new Random(SEED + 2);
+		List<Entity> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Entity entity = new Entity();
+			entity.setHandle("ENT" + i);
+			VCard vCard = new VCard();
+			vCard.setName(word(random) + " " + i);
+			entity.getVCardList().add(vCard);
+			result.add(entity);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns <code>size</code> users named <code>user&lt;i&gt;</code>.
+	 */
+	static List<RdapUser> users(int size) {
+		List<RdapUser> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			RdapUser user = new RdapUser();
+			user.setName("user" + i);
+			user.setPass("secret" + i);
+			result.add(user);
+		}
+		return result;
+	}
+
+	static String fqdn(Domain domain) {
+		return domain.getLdhName() + "." + domain.getZone();
+	}
+
+	/**
+	 * Returns <code>size</code> IPv4 /24 networks, grouped into /16 parents
+	 * (one per 256 children), plus some IPv6 /48s.
+	 */
+	static List<IpNetwork> ipNetworks(int size) {
+		List<IpNetwork> result = new ArrayList<>(size + size / 256 + 1);
+		for (int i = 0; i < size; i++) {
+			result.add(network("NET4-" + i, ipv4(i << 8), 24));
+			if ((i & 0xFF) == 0) {
+				result.add(network("NET4-P" + (i >>> 8), ipv4(i << 8), 16));
+			}
+		}
+		for (int i = 0; i < size / 8; i++) {
+			byte[] address = new byte[16];
+			address[0] = 0x20;
+			address[1] = 0x01;
+			address[2] = 0x0D;
+			address[3] = (byte) 0xB8;
+			address[4] = (byte) (i >>> 8);
+			address[5] = (byte) i;
+			result.add(network("NET6-" + i, address, 48));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the address of one of the IPv4 networks created by
+	 * {@link #ipNetworks(int)}, plus some host bits.
+	 */
+	static byte[] ipv4(int value) {
+		return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+	}
+
+	private static IpNetwork network(String handle, byte[] address, int prefix) {
+		IpNetwork network = new IpNetwork();
+		network.setHandle(handle);
+		try {
+			network.setStartAddress(InetAddress.getByAddress(address));
+		} catch (UnknownHostException e) {
+			throw new IllegalArgumentException(e);
+		}
+		network.setPrefix(prefix);
+		network.setIpVersion((address.length == 4) ? IpVersion.V4 : IpVersion.V6);
+		return network;
+	}
+
+	/**
+	 * Returns <code>size</code> autnum blocks of 16 ASNs each, with every 64
+	 * of them nested in a 1024-ASN parent.
+	 */
+	static List<Autnum> autnums(int size) {
+		List<Autnum> result = new ArrayList<>(size + size / 64 + 1);
+		for (int i = 0; i < size; i++) {
+			long start = 1000L + i * 16L;
+			result.add(autnum("AS-" + i, start, start + 15));
+			if (i % 64 == 0) {
+				result.add(autnum("AS-P" + (i / 64), start, start + 1023));
+			}
+		}
+		return result;
+	}
+
+	private static Autnum autnum(String handle, long start, long end) {
+		Autnum autnum = new Autnum();
+		autnum.setHandle(handle);
+		autnum.setStartAutnum(start);
+		autnum.setEndAutnum(end);
+		return autnum;
+	}
+
+	private static String word(Random random) {
+		int length = 4 + random.nextInt(8);
+		char[] word = new char[length];
+		for (int i = 0; i < length; i++) {
+			word[i] = LETTERS[random.nextInt(LETTERS.length)];
+		}
+		return new String(word);
+	}
+
+}
@@ -0,0 +1,179 @@
+package mx.nic.rdap.db.benchmark;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Name lookups (single, batched and existence checks), wildcard searches,
+ * nameserver searches, counts and regular expression searches of
+ * {@link DomainDAO}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainBenchmark {
+
+	/** Number of domains. */
+	@Param({ "1000", "100000", "1000000" })
+	private int size;
+
+	/** Maximum results per search, as configured in the RDAP server. */
+	@Param({ "10" })
+	private int resultLimit;
+
+	/** Keys per batch lookup. */
+	@Param({ "16" })
+	private int batchSize;
+
+	private DomainDAO dao;
+	private DomainLabel[] names;
+	/** "abc*.mx" patterns. */
+	private DomainLabel[] zonePrefixes;
+	/** "abc*" patterns. */
+	private DomainLabel[] barePrefixes;
+	/** Expressions with a selective literal. */
+	private String[] literalRegexes;
+	private DomainLabel[] missingNames;
+	private List<DomainLabel>[] batches;
+	/** "ns&lt;i&gt;*" patterns. */
+	private DomainLabel[] nsPrefixes;
+	private String[] nsIps;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		List<Domain> domains = BenchmarkData.domains(size);
+		// Every nameserver serves 16 domains.
+		List<Nameserver> nameservers = BenchmarkData.nameservers(Math.max(1, size / 8));
+		BenchmarkData.delegate(domains, nameservers);
+		dao = BenchmarkData.load(new RegistrySnapshot.Builder().addDomains(domains)).getDomainDAO();
+
+		names = new DomainLabel[1024];
+		zonePrefixes = new DomainLabel[1024];
+		barePrefixes = new DomainLabel[1024];
+		literalRegexes = new String[1024];
+		missingNames = new DomainLabel[1024];
+		nsPrefixes = new DomainLabel[1024];
+		nsIps = new String[1024];
+		for (int i = 0; i < names.length; i++) {
+			Domain domain = domains.get(ThreadLocalRandom.current().nextInt(size));
+			String label = domain.getLdhName();
+			names[i] = new DomainLabel(BenchmarkData.fqdn(domain));
+			zonePrefixes[i] = new DomainLabel(label.substring(0, 3) + "*." + domain.getZone(), false);
+			barePrefixes[i] = new DomainLabel(label.substring(0, 3) + "*", false);
+			literalRegexes[i] = "^" + label.substring(0, 4) + "[a-z]*[0-9]+\\." + domain.getZone().replace(".", "\\.")
+					+ "$";
+			missingNames[i] = new DomainLabel(label + "x." + domain.getZone());
+
+			int nameserver = ThreadLocalRandom.current().nextInt(nameservers.size());
+			nsPrefixes[i] = new DomainLabel("ns" + nameserver + "*", false);
+			nsIps[i] = InetAddress.getByAddress(BenchmarkData.nameserverAddress(nameserver)).getHostAddress();
+		}
+
+		batches = new List[64];
+		for (int i = 0; i < batches.length; i++) {
+			DomainLabel[] batch = new DomainLabel[batchSize];
+			for (int j = 0; j < batch.length; j++) {
+				batch[j] = names[next(names)];
+			}
+			batches[i] = Arrays.asList(batch);
+		}
+	}
+
+	private static int next(Object[] array) {
+		return ThreadLocalRandom.current().nextInt(array.length);
+	}
+
+	@Benchmark
+	public Domain getByName() throws Exception {
+		return dao.getByName(names[next(names)]);
+	}
+
+	@Benchmark
+	public List<Domain> getByNames() throws Exception {
+		return dao.getByNames(batches[next(batches)]);
+	}
+
+	@Benchmark
+	public boolean exists() throws Exception {
+		return dao.exists(names[next(names)]);
+	}
+
+	@Benchmark
+	public boolean existsMiss() throws Exception {
+		return dao.exists(missingNames[next(missingNames)]);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Domain> searchByNameZoneWildcard() throws Exception {
+		return dao.searchByName(zonePrefixes[next(zonePrefixes)], resultLimit);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Domain> searchByNameBareWildcard() throws Exception {
+		return dao.searchByName(barePrefixes[next(barePrefixes)], resultLimit);
+	}
+
+	@Benchmark
+	public int countByName() throws Exception {
+		return dao.countByName(zonePrefixes[next(zonePrefixes)], 1000);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Domain> searchByNsLDHName() throws Exception {
+		return dao.searchByNsLDHName(nsPrefixes[next(nsPrefixes)], resultLimit);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Domain> searchByNsIp() throws Exception {
+		return dao.searchByNsIp(nsIps[next(nsIps)], resultLimit);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Domain> searchByRegexNameLiteral() throws Exception {
+		return dao.searchByRegexName(literalRegexes[next(literalRegexes)], resultLimit);
+	}
+
+	/**
+	 * An expression with no usable literal; scans until the limit is reached.
+	 */
+	@Benchmark
+	public SearchResultStruct<Domain> searchByRegexNameScan() throws Exception {
+		return dao.searchByRegexName("^[a-z]+1[0-9]*\\.[a-z.]+$", resultLimit);
+	}
+
+	/**
+	 * An expression whose literal appears nowhere, so the trigram index
+	 * should reject it without running it.
+	 */
+	@Benchmark
+	public SearchResultStruct<Domain> searchByRegexNameNoMatch() throws Exception {
+		return dao.searchByRegexName("^[a-z]+\\.example$", resultLimit);
+	}
+
+}
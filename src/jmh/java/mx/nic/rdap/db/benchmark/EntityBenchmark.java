@@ -0,0 +1,136 @@
+package mx.nic.rdap.db.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Handle lookups (single, batched and existence checks), handle and vCard
+ * name searches, counts and regular expression searches of {@link EntityDAO}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityBenchmark {
+
+	/** Number of entities. */
+	@Param({ "1000", "100000", "1000000" })
+	private int size;
+
+	/** Maximum results per search, as configured in the RDAP server. */
+	@Param({ "10" })
+	private int resultLimit;
+
+	/** Keys per batch lookup. */
+	@Param({ "16" })
+	private int batchSize;
+
+	private EntityDAO dao;
+	private String[] handles;
+	private String[] missingHandles;
+	private List<String>[] batches;
+	/** "ENT&lt;i&gt;*" patterns. */
+	private String[] handlePrefixes;
+	/** "abc*" patterns. */
+	private String[] vCardNamePrefixes;
+	/** Expressions with a selective literal. */
+	private String[] literalRegexes;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		List<Entity> entities = BenchmarkData.entities(size);
+		dao = BenchmarkData.load(new RegistrySnapshot.Builder().addEntities(entities)).getEntityDAO();
+
+		handles = new String[1024];
+		missingHandles = new String[1024];
+		handlePrefixes = new String[1024];
+		vCardNamePrefixes = new String[1024];
+		literalRegexes = new String[1024];
+		for (int i = 0; i < handles.length; i++) {
+			int index = ThreadLocalRandom.current().nextInt(size);
+			Entity entity = entities.get(index);
+			String name = entity.getVCardList().get(0).getName();
+			handles[i] = entity.getHandle();
+			missingHandles[i] = "MISSING" + index;
+			handlePrefixes[i] = "ENT" + index + "*";
+			vCardNamePrefixes[i] = name.substring(0, 3) + "*";
+			literalRegexes[i] = "^" + name.substring(0, 4) + "[a-z]* [0-9]+$";
+		}
+
+		batches = new List[64];
+		for (int i = 0; i < batches.length; i++) {
+			String[] batch = new String[batchSize];
+			for (int j = 0; j < batch.length; j++) {
+				batch[j] = handles[next(handles)];
+			}
+			batches[i] = Arrays.asList(batch);
+		}
+	}
+
+	private static int next(Object[] array) {
+		return ThreadLocalRandom.current().nextInt(array.length);
+	}
+
+	@Benchmark
+	public Entity getByHandle() throws Exception {
+		return dao.getByHandle(handles[next(handles)]);
+	}
+
+	@Benchmark
+	public List<Entity> getByHandles() throws Exception {
+		return dao.getByHandles(batches[next(batches)]);
+	}
+
+	@Benchmark
+	public boolean existsByHandle() throws Exception {
+		return dao.existsByHandle(handles[next(handles)]);
+	}
+
+	@Benchmark
+	public boolean existsByHandleMiss() throws Exception {
+		return dao.existsByHandle(missingHandles[next(missingHandles)]);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Entity> searchByHandle() throws Exception {
+		return dao.searchByHandle(handlePrefixes[next(handlePrefixes)], resultLimit);
+	}
+
+	@Benchmark
+	public int countByHandle() throws Exception {
+		return dao.countByHandle(handlePrefixes[next(handlePrefixes)], 1000);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Entity> searchByVCardName() throws Exception {
+		return dao.searchByVCardName(vCardNamePrefixes[next(vCardNamePrefixes)], resultLimit);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Entity> searchByRegexVCardNameLiteral() throws Exception {
+		return dao.searchByRegexVCardName(literalRegexes[next(literalRegexes)], resultLimit);
+	}
+
+}
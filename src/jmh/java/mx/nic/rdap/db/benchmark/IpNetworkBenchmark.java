@@ -0,0 +1,105 @@
+package mx.nic.rdap.db.benchmark;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link IpNetworkDAO#getByAddressBlock(AddressBlock)}: single addresses,
+ * networks, and addresses outside of every network; also batched and as an
+ * existence check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IpNetworkBenchmark {
+
+	/** Number of /24 networks. */
+	@Param({ "1000", "100000", "1000000" })
+	private int size;
+
+	/** Keys per batch lookup. */
+	@Param({ "16" })
+	private int batchSize;
+
+	private IpNetworkDAO dao;
+	/** Pre-built queries, so the benchmark does not measure their parsing. */
+	private AddressBlock[] hosts;
+	private AddressBlock[] networks;
+	private AddressBlock[] misses;
+	private List<AddressBlock>[] batches;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		dao = BenchmarkData.load(new RegistrySnapshot.Builder().addIpNetworks(BenchmarkData.ipNetworks(size)))
+				.getIpNetworkDAO();
+
+		hosts = new AddressBlock[1024];
+		networks = new AddressBlock[1024];
+		misses = new AddressBlock[1024];
+		for (int i = 0; i < hosts.length; i++) {
+			int network = ThreadLocalRandom.current().nextInt(size) << 8;
+			hosts[i] = new AddressBlock(InetAddress.getByAddress(BenchmarkData.ipv4(network | (i & 0xFF))), 32);
+			networks[i] = new AddressBlock(InetAddress.getByAddress(BenchmarkData.ipv4(network)), 24);
+			misses[i] = new AddressBlock(InetAddress.getByAddress(BenchmarkData.ipv4(0xC0000200 | (i & 0xFF))), 32);
+		}
+
+		batches = new List[64];
+		for (int i = 0; i < batches.length; i++) {
+			AddressBlock[] batch = new AddressBlock[batchSize];
+			for (int j = 0; j < batch.length; j++) {
+				batch[j] = hosts[ThreadLocalRandom.current().nextInt(hosts.length)];
+			}
+			batches[i] = Arrays.asList(batch);
+		}
+	}
+
+	@Benchmark
+	public IpNetwork getByAddressBlockHost() throws Exception {
+		return dao.getByAddressBlock(hosts[ThreadLocalRandom.current().nextInt(hosts.length)]);
+	}
+
+	@Benchmark
+	public IpNetwork getByAddressBlockNetwork() throws Exception {
+		return dao.getByAddressBlock(networks[ThreadLocalRandom.current().nextInt(networks.length)]);
+	}
+
+	@Benchmark
+	public List<IpNetwork> getByAddressBlocks() throws Exception {
+		return dao.getByAddressBlocks(batches[ThreadLocalRandom.current().nextInt(batches.length)]);
+	}
+
+	@Benchmark
+	public boolean existsByAddressBlock() throws Exception {
+		return dao.existsByAddressBlock(hosts[ThreadLocalRandom.current().nextInt(hosts.length)]);
+	}
+
+	@Benchmark
+	public IpNetwork getByAddressBlockMiss() throws Exception {
+		return dao.getByAddressBlock(misses[ThreadLocalRandom.current().nextInt(misses.length)]);
+	}
+
+}
@@ -0,0 +1,144 @@
+package mx.nic.rdap.db.benchmark;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Name and handle lookups (single, batched and existence checks), name and IP
+ * searches, counts and regular expression searches of {@link NameserverDAO}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameserverBenchmark {
+
+	/** Number of nameservers. */
+	@Param({ "1000", "100000", "1000000" })
+	private int size;
+
+	/** Maximum results per search, as configured in the RDAP server. */
+	@Param({ "10" })
+	private int resultLimit;
+
+	/** Keys per batch lookup. */
+	@Param({ "16" })
+	private int batchSize;
+
+	private NameserverDAO dao;
+	private DomainLabel[] names;
+	private DomainLabel[] missingNames;
+	private String[] handles;
+	private List<DomainLabel>[] batches;
+	/** "ns&lt;i&gt;*" patterns. */
+	private DomainLabel[] namePrefixes;
+	private String[] ips;
+	/** Expressions with a selective literal. */
+	private String[] literalRegexes;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		List<Nameserver> nameservers = BenchmarkData.nameservers(size);
+		dao = BenchmarkData.load(new RegistrySnapshot.Builder().addNameservers(nameservers)).getNameserverDAO();
+
+		names = new DomainLabel[1024];
+		missingNames = new DomainLabel[1024];
+		handles = new String[1024];
+		namePrefixes = new DomainLabel[1024];
+		ips = new String[1024];
+		literalRegexes = new String[1024];
+		for (int i = 0; i < names.length; i++) {
+			int index = ThreadLocalRandom.current().nextInt(size);
+			Nameserver nameserver = nameservers.get(index);
+			names[i] = new DomainLabel(nameserver.getLdhName());
+			missingNames[i] = new DomainLabel("missing" + nameserver.getLdhName());
+			handles[i] = nameserver.getHandle();
+			namePrefixes[i] = new DomainLabel("ns" + index + "*", false);
+			ips[i] = InetAddress.getByAddress(BenchmarkData.nameserverAddress(index)).getHostAddress();
+			literalRegexes[i] = "^ns" + index + "\\.[a-z]+\\.";
+		}
+
+		batches = new List[64];
+		for (int i = 0; i < batches.length; i++) {
+			DomainLabel[] batch = new DomainLabel[batchSize];
+			for (int j = 0; j < batch.length; j++) {
+				batch[j] = names[next(names)];
+			}
+			batches[i] = Arrays.asList(batch);
+		}
+	}
+
+	private static int next(Object[] array) {
+		return ThreadLocalRandom.current().nextInt(array.length);
+	}
+
+	@Benchmark
+	public Nameserver getByName() throws Exception {
+		return dao.getByName(names[next(names)]);
+	}
+
+	@Benchmark
+	public Nameserver getByHandle() throws Exception {
+		return dao.getByHandle(handles[next(handles)]);
+	}
+
+	@Benchmark
+	public List<Nameserver> getByNames() throws Exception {
+		return dao.getByNames(batches[next(batches)]);
+	}
+
+	@Benchmark
+	public boolean existsByName() throws Exception {
+		return dao.existsByName(names[next(names)]);
+	}
+
+	@Benchmark
+	public boolean existsByNameMiss() throws Exception {
+		return dao.existsByName(missingNames[next(missingNames)]);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Nameserver> searchByName() throws Exception {
+		return dao.searchByName(namePrefixes[next(namePrefixes)], resultLimit);
+	}
+
+	@Benchmark
+	public int countByName() throws Exception {
+		return dao.countByName(namePrefixes[next(namePrefixes)], 1000);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Nameserver> searchByIp() throws Exception {
+		return dao.searchByIp(ips[next(ips)], resultLimit);
+	}
+
+	@Benchmark
+	public SearchResultStruct<Nameserver> searchByRegexNameLiteral() throws Exception {
+		return dao.searchByRegexName(literalRegexes[next(literalRegexes)], resultLimit);
+	}
+
+}
@@ -0,0 +1,78 @@
+package mx.nic.rdap.db.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link RdapUserDAO#getByUsername(String)}, single and batched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RdapUserBenchmark {
+
+	/** Number of users. */
+	@Param({ "1000", "100000" })
+	private int size;
+
+	/** Keys per batch lookup. */
+	@Param({ "16" })
+	private int batchSize;
+
+	private RdapUserDAO dao;
+	private String[] usernames;
+	private List<String>[] batches;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		dao = BenchmarkData.load(new RegistrySnapshot.Builder().addUsers(BenchmarkData.users(size)))
+				.getRdapUserDAO();
+
+		usernames = new String[1024];
+		for (int i = 0; i < usernames.length; i++) {
+			usernames[i] = "user" + ThreadLocalRandom.current().nextInt(size);
+		}
+
+		batches = new List[64];
+		for (int i = 0; i < batches.length; i++) {
+			String[] batch = new String[batchSize];
+			for (int j = 0; j < batch.length; j++) {
+				batch[j] = usernames[ThreadLocalRandom.current().nextInt(usernames.length)];
+			}
+			batches[i] = Arrays.asList(batch);
+		}
+	}
+
+	@Benchmark
+	public RdapUser getByUsername() throws Exception {
+		return dao.getByUsername(usernames[ThreadLocalRandom.current().nextInt(usernames.length)]);
+	}
+
+	@Benchmark
+	public List<RdapUser> getByUsernames() throws Exception {
+		return dao.getByUsernames(batches[ThreadLocalRandom.current().nextInt(batches.length)]);
+	}
+
+}
@@ -0,0 +1,42 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DAO;
+
+/**
+ * Non-blocking version of {@link AutnumDAO}.
+ * <p>
+ * Every method mirrors its namesake in {@link AutnumDAO}. Instead of throwing,
+ * the returned futures complete exceptionally with the
+ * {@link mx.nic.rdap.db.exception.RdapDataAccessException} the blocking
+ * version would have thrown.
+ */
+public interface AsyncAutnumDAO extends DAO {
+
+	/**
+	 * See {@link AutnumDAO#getByRange(long)}.
+	 */
+	public CompletableFuture<Autnum> getByRange(long autnum);
+
+	/**
+	 * See {@link AutnumDAO#getByRanges(Collection)}. The default implementation
+	 * performs the lookups concurrently.
+	 */
+	public default CompletableFuture<List<Autnum>> getByRanges(Collection<Long> autnums) {
+		return AsyncProbes.lookUpEach(autnums, this::getByRange);
+	}
+
+	/**
+	 * See {@link AutnumDAO#existsByRange(long)}. The default implementation
+	 * performs the lookup and discards the result.
+	 */
+	public default CompletableFuture<Boolean> existsByRange(long autnum) {
+		return AsyncProbes.exists(getByRange(autnum));
+	}
+
+}
@@ -0,0 +1,67 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the executor that runs blocking DAOs on behalf of the
+ * asynchronous API, as read from the user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>async.executor</code>: <code>virtual</code> (one virtual thread per
+ * call; falls back to <code>fixed</code> if the JVM does not support virtual
+ * threads) or <code>fixed</code> (a pool of platform threads). Default:
+ * <code>virtual</code>.</li>
+ * <li><code>async.threads</code>: Size of the <code>fixed</code> pool.
+ * Default: {@value #DEFAULT_THREADS}.</li>
+ * </ul>
+ */
+public class AsyncConfiguration {
+
+	public static final String EXECUTOR_PROPERTY = "async.executor";
+	public static final String THREADS_PROPERTY = "async.threads";
+
+	public static final int DEFAULT_THREADS = 64;
+
+	/**
+	 * Kinds of executors the asynchronous API can run blocking DAOs on.
+	 */
+	public enum ExecutorType {
+		VIRTUAL, FIXED;
+	}
+
+	private final ExecutorType executorType;
+	private final int threads;
+
+	public AsyncConfiguration(Properties config) throws InitializationException {
+		String type = ConfigurationUtils.getString(config, EXECUTOR_PROPERTY);
+		if (type == null) {
+			executorType = ExecutorType.VIRTUAL;
+		} else {
+			try {
+				executorType = ExecutorType.valueOf(type.toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new InitializationException("Property '" + EXECUTOR_PROPERTY
+						+ "' is supposed to be 'virtual' or 'fixed'. (Found '" + type + "'.)", e);
+			}
+		}
+
+		threads = ConfigurationUtils.getInt(config, THREADS_PROPERTY, DEFAULT_THREADS);
+		if (threads < 1) {
+			throw new InitializationException("Property '" + THREADS_PROPERTY + "' must be positive. (Found "
+					+ threads + ".)");
+		}
+	}
+
+	public ExecutorType getExecutorType() {
+		return executorType;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+}
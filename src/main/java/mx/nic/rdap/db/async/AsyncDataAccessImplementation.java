@@ -0,0 +1,31 @@
+package mx.nic.rdap.db.async;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+
+/**
+ * Non-blocking counterpart of {@link DataAccessImplementation}.
+ * <p>
+ * Implementations that can talk to their data source asynchronously can
+ * implement this interface in addition to {@link DataAccessImplementation}.
+ * Every getter can return <code>null</code> to express that the
+ * implementation has no native asynchronous version of the DAO; in that case
+ * the blocking DAO is run on an executor instead (see
+ * {@link BlockingAsyncDataAccessImplementation}). This way, DAOs can be
+ * migrated one at a time.
+ */
+public interface AsyncDataAccessImplementation {
+
+	public AsyncAutnumDAO getAsyncAutnumDAO() throws RdapDataAccessException;
+
+	public AsyncDomainDAO getAsyncDomainDAO() throws RdapDataAccessException;
+
+	public AsyncEntityDAO getAsyncEntityDAO() throws RdapDataAccessException;
+
+	public AsyncIpNetworkDAO getAsyncIpNetworkDAO() throws RdapDataAccessException;
+
+	public AsyncNameserverDAO getAsyncNameserverDAO() throws RdapDataAccessException;
+
+	public AsyncRdapUserDAO getAsyncRdapUserDAO() throws RdapDataAccessException;
+
+}
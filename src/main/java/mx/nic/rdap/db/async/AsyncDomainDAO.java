@@ -0,0 +1,136 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.DAO;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Non-blocking version of {@link DomainDAO}.
+ * <p>
+ * Every method mirrors its namesake in {@link DomainDAO}. Instead of throwing,
+ * the returned futures complete exceptionally with the
+ * {@link mx.nic.rdap.db.exception.RdapDataAccessException} the blocking
+ * version would have thrown.
+ */
+public interface AsyncDomainDAO extends DAO {
+
+	/**
+	 * See {@link DomainDAO#getByName(DomainLabel)}.
+	 */
+	public CompletableFuture<Domain> getByName(DomainLabel domainLabel);
+
+	/**
+	 * See {@link DomainDAO#searchByName(DomainLabel, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Domain>> searchByName(DomainLabel namePattern, int resultLimit);
+
+	/**
+	 * See {@link DomainDAO#searchByNsLDHName(DomainLabel, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Domain>> searchByNsLDHName(DomainLabel nsName, int resultLimit);
+
+	/**
+	 * See {@link DomainDAO#searchByNsIp(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Domain>> searchByNsIp(String ip, int resultLimit);
+
+	/**
+	 * See {@link DomainDAO#searchByRegexName(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Domain>> searchByRegexName(String regexName, int resultLimit);
+
+	/**
+	 * See {@link DomainDAO#searchByRegexNsLDHName(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Domain>> searchByRegexNsLDHName(String regexNsName, int resultLimit);
+
+	/**
+	 * See {@link DomainDAO#searchByRegexNsIp(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Domain>> searchByRegexNsIp(String ip, int resultLimit);
+
+	/**
+	 * See {@link DomainDAO#getByNames(Collection)}. The default implementation
+	 * performs the lookups concurrently.
+	 */
+	public default CompletableFuture<List<Domain>> getByNames(Collection<DomainLabel> domainLabels) {
+		return AsyncProbes.lookUpEach(domainLabels, this::getByName);
+	}
+
+	/**
+	 * See {@link DomainDAO#exists(DomainLabel)}. The default implementation
+	 * performs the lookup and discards the result.
+	 */
+	public default CompletableFuture<Boolean> exists(DomainLabel domainLabel) {
+		return AsyncProbes.exists(getByName(domainLabel));
+	}
+
+	/**
+	 * See {@link DomainDAO#countByName(DomainLabel, int)}. The default
+	 * implementation performs the search and discards the result.
+	 */
+	public default CompletableFuture<Integer> countByName(DomainLabel namePattern, int countLimit) {
+		return AsyncProbes.count(searchByName(namePattern, countLimit), countLimit);
+	}
+
+	/**
+	 * See {@link DomainDAO#pageByName(DomainLabel, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Domain>> pageByName(DomainLabel namePattern, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link DomainDAO#pageByNsLDHName(DomainLabel, String, int)}. The
+	 * default implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Domain>> pageByNsLDHName(DomainLabel nsName, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link DomainDAO#pageByNsIp(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Domain>> pageByNsIp(String ip, String cursor, int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link DomainDAO#pageByRegexName(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Domain>> pageByRegexName(String regexName, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link DomainDAO#pageByRegexNsLDHName(String, String, int)}. The
+	 * default implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Domain>> pageByRegexNsLDHName(String regexNsName, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link DomainDAO#pageByRegexNsIp(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Domain>> pageByRegexNsIp(String ip, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+}
@@ -0,0 +1,108 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.DAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Non-blocking version of {@link EntityDAO}.
+ * <p>
+ * Every method mirrors its namesake in {@link EntityDAO}. Instead of throwing,
+ * the returned futures complete exceptionally with the
+ * {@link mx.nic.rdap.db.exception.RdapDataAccessException} the blocking
+ * version would have thrown.
+ */
+public interface AsyncEntityDAO extends DAO {
+
+	/**
+	 * See {@link EntityDAO#getByHandle(String)}.
+	 */
+	public CompletableFuture<Entity> getByHandle(String entityHandle);
+
+	/**
+	 * See {@link EntityDAO#searchByHandle(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Entity>> searchByHandle(String handle, int resultLimit);
+
+	/**
+	 * See {@link EntityDAO#searchByVCardName(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Entity>> searchByVCardName(String vCardName, int resultLimit);
+
+	/**
+	 * See {@link EntityDAO#searchByRegexHandle(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Entity>> searchByRegexHandle(String regexHandle, int resultLimit);
+
+	/**
+	 * See {@link EntityDAO#searchByRegexVCardName(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Entity>> searchByRegexVCardName(String vCardName, int resultLimit);
+
+	/**
+	 * See {@link EntityDAO#getByHandles(Collection)}. The default
+	 * implementation performs the lookups concurrently.
+	 */
+	public default CompletableFuture<List<Entity>> getByHandles(Collection<String> entityHandles) {
+		return AsyncProbes.lookUpEach(entityHandles, this::getByHandle);
+	}
+
+	/**
+	 * See {@link EntityDAO#existsByHandle(String)}. The default implementation
+	 * performs the lookup and discards the result.
+	 */
+	public default CompletableFuture<Boolean> existsByHandle(String entityHandle) {
+		return AsyncProbes.exists(getByHandle(entityHandle));
+	}
+
+	/**
+	 * See {@link EntityDAO#countByHandle(String, int)}. The default
+	 * implementation performs the search and discards the result.
+	 */
+	public default CompletableFuture<Integer> countByHandle(String handle, int countLimit) {
+		return AsyncProbes.count(searchByHandle(handle, countLimit), countLimit);
+	}
+
+	/**
+	 * See {@link EntityDAO#pageByHandle(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Entity>> pageByHandle(String handle, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link EntityDAO#pageByVCardName(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Entity>> pageByVCardName(String vCardName, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link EntityDAO#pageByRegexHandle(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Entity>> pageByRegexHandle(String regexHandle, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link EntityDAO#pageByRegexVCardName(String, String, int)}. The
+	 * default implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Entity>> pageByRegexVCardName(String vCardName, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+}
@@ -0,0 +1,51 @@
+package mx.nic.rdap.db.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import mx.nic.rdap.db.async.AsyncConfiguration.ExecutorType;
+import mx.nic.rdap.db.util.DaemonThreadFactory;
+
+/**
+ * Creates the executors that run blocking DAOs.
+ */
+public class AsyncExecutors {
+
+	private static final Logger logger = Logger.getLogger(AsyncExecutors.class.getName());
+
+	private AsyncExecutors() {
+		// No code.
+	}
+
+	/**
+	 * Returns a new executor, as requested by <code>config</code>.
+	 */
+	public static ExecutorService create(AsyncConfiguration config) {
+		if (config.getExecutorType() == ExecutorType.VIRTUAL) {
+			ExecutorService result = newVirtualThreadPerTaskExecutor();
+			if (result != null) {
+				return result;
+			}
+			logger.info("This JVM does not support virtual threads; "
+					+ "falling back to a fixed pool for asynchronous data access.");
+		}
+		return Executors.newFixedThreadPool(config.getThreads(), new DaemonThreadFactory("rdap-async-dao-"));
+	}
+
+	/**
+	 * Returns <code>Executors.newVirtualThreadPerTaskExecutor()</code>, or
+	 * <code>null</code> if this JVM predates it. (This project still compiles
+	 * against Java 8, hence the reflection.)
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.spi.DAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * Non-blocking version of {@link IpNetworkDAO}.
+ * <p>
+ * Every method mirrors its namesake in {@link IpNetworkDAO}. Instead of throwing,
+ * the returned futures complete exceptionally with the
+ * {@link mx.nic.rdap.db.exception.RdapDataAccessException} the blocking
+ * version would have thrown.
+ */
+public interface AsyncIpNetworkDAO extends DAO {
+
+	/**
+	 * See {@link IpNetworkDAO#getByAddressBlock(AddressBlock)}.
+	 */
+	public CompletableFuture<IpNetwork> getByAddressBlock(AddressBlock block);
+
+	/**
+	 * See {@link IpNetworkDAO#getByAddressBlocks(Collection)}. The default
+	 * implementation performs the lookups concurrently.
+	 */
+	public default CompletableFuture<List<IpNetwork>> getByAddressBlocks(Collection<AddressBlock> blocks) {
+		return AsyncProbes.lookUpEach(blocks, this::getByAddressBlock);
+	}
+
+	/**
+	 * See {@link IpNetworkDAO#existsByAddressBlock(AddressBlock)}. The default
+	 * implementation performs the lookup and discards the result.
+	 */
+	public default CompletableFuture<Boolean> existsByAddressBlock(AddressBlock block) {
+		return AsyncProbes.exists(getByAddressBlock(block));
+	}
+
+}
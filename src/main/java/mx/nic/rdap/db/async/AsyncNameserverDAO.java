@@ -0,0 +1,141 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.DAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Non-blocking version of {@link NameserverDAO}.
+ * <p>
+ * Every method mirrors its namesake in {@link NameserverDAO}. Instead of throwing,
+ * the returned futures complete exceptionally with the
+ * {@link mx.nic.rdap.db.exception.RdapDataAccessException} the blocking
+ * version would have thrown.
+ */
+public interface AsyncNameserverDAO extends DAO {
+
+	/**
+	 * See {@link NameserverDAO#getByName(DomainLabel)}.
+	 */
+	public CompletableFuture<Nameserver> getByName(DomainLabel name);
+
+	/**
+	 * See {@link NameserverDAO#getByHandle(String)}.
+	 */
+	public CompletableFuture<Nameserver> getByHandle(String handle);
+
+	/**
+	 * See {@link NameserverDAO#getNameserverCount(DomainLabel)}.
+	 */
+	public CompletableFuture<Integer> getNameserverCount(DomainLabel name);
+
+	/**
+	 * See {@link NameserverDAO#searchByName(DomainLabel, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByName(DomainLabel namePattern, int resultLimit);
+
+	/**
+	 * See {@link NameserverDAO#searchByIp(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByIp(String ipaddressPattern, int resultLimit);
+
+	/**
+	 * See {@link NameserverDAO#searchByRegexName(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByRegexName(String namePattern, int resultLimit);
+
+	/**
+	 * See {@link NameserverDAO#searchByRegexIp(String, int)}.
+	 */
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByRegexIp(String ipaddressPattern, int resultLimit);
+
+	/**
+	 * See {@link NameserverDAO#isNameserverSharingNameConformance()}. (Not a
+	 * data access, so not asynchronous.)
+	 */
+	public boolean isNameserverSharingNameConformance();
+
+	/**
+	 * See {@link NameserverDAO#getByNames(Collection)}. The default
+	 * implementation performs the lookups concurrently.
+	 */
+	public default CompletableFuture<List<Nameserver>> getByNames(Collection<DomainLabel> names) {
+		return AsyncProbes.lookUpEach(names, this::getByName);
+	}
+
+	/**
+	 * See {@link NameserverDAO#getByHandles(Collection)}. The default
+	 * implementation performs the lookups concurrently.
+	 */
+	public default CompletableFuture<List<Nameserver>> getByHandles(Collection<String> handles) {
+		return AsyncProbes.lookUpEach(handles, this::getByHandle);
+	}
+
+	/**
+	 * See {@link NameserverDAO#existsByName(DomainLabel)}. The default
+	 * implementation performs the lookup and discards the result.
+	 */
+	public default CompletableFuture<Boolean> existsByName(DomainLabel name) {
+		return AsyncProbes.exists(getByName(name));
+	}
+
+	/**
+	 * See {@link NameserverDAO#existsByHandle(String)}. The default
+	 * implementation performs the lookup and discards the result.
+	 */
+	public default CompletableFuture<Boolean> existsByHandle(String handle) {
+		return AsyncProbes.exists(getByHandle(handle));
+	}
+
+	/**
+	 * See {@link NameserverDAO#countByName(DomainLabel, int)}. The default
+	 * implementation performs the search and discards the result.
+	 */
+	public default CompletableFuture<Integer> countByName(DomainLabel namePattern, int countLimit) {
+		return AsyncProbes.count(searchByName(namePattern, countLimit), countLimit);
+	}
+
+	/**
+	 * See {@link NameserverDAO#pageByName(DomainLabel, String, int)}. The
+	 * default implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Nameserver>> pageByName(DomainLabel namePattern, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link NameserverDAO#pageByIp(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Nameserver>> pageByIp(String ipaddressPattern, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link NameserverDAO#pageByRegexName(String, String, int)}. The
+	 * default implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Nameserver>> pageByRegexName(String namePattern, String cursor,
+			int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+	/**
+	 * See {@link NameserverDAO#pageByRegexIp(String, String, int)}. The default
+	 * implementation fails with {@link NotImplementedException}.
+	 */
+	public default CompletableFuture<SearchResultStruct<Nameserver>> pageByRegexIp(String ipaddressPattern,
+			String cursor, int resultLimit) {
+		return AsyncProbes.notImplemented();
+	}
+
+}
@@ -0,0 +1,115 @@
+package mx.nic.rdap.db.async;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+import mx.nic.rdap.db.util.BatchLookups;
+import mx.nic.rdap.db.util.Probes;
+
+/**
+ * Default implementations of the batch, existence, count and paging methods of
+ * the asynchronous DAOs, in terms of their lookups and searches. They mirror
+ * {@link BatchLookups}, {@link Probes} and the paging defaults of the blocking
+ * DAOs.
+ * <p>
+ * As the rest of the asynchronous API, the futures they return complete
+ * exceptionally with the original exception, not a wrapper.
+ */
+public class AsyncProbes {
+
+	private AsyncProbes() {
+		// No code.
+	}
+
+	/**
+	 * Asynchronous version of {@link BatchLookups#lookUpEach(Collection,
+	 * mx.nic.rdap.db.util.BatchLookups.Lookup)}. The lookups run concurrently.
+	 */
+	public static <K, T> CompletableFuture<List<T>> lookUpEach(Collection<K> keys,
+			Function<K, CompletableFuture<T>> lookup) {
+		List<CompletableFuture<T>> lookups = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			lookups.add(lookup.apply(key).handle((object, error) -> {
+				if (error == null || unwrap(error) instanceof NotFoundException) {
+					return object;
+				}
+				throw wrap(error);
+			}));
+		}
+
+		CompletableFuture<List<T>> result = new CompletableFuture<>();
+		CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[lookups.size()]))
+				.whenComplete((nothing, error) -> {
+					if (error != null) {
+						result.completeExceptionally(unwrap(error));
+						return;
+					}
+					List<T> objects = new ArrayList<>(lookups.size());
+					for (CompletableFuture<T> future : lookups) {
+						objects.add(future.join());
+					}
+					result.complete(objects);
+				});
+		return result;
+	}
+
+	/**
+	 * Asynchronous version of {@link Probes#exists(Object,
+	 * mx.nic.rdap.db.util.BatchLookups.Lookup)}.
+	 */
+	public static CompletableFuture<Boolean> exists(CompletableFuture<?> lookup) {
+		CompletableFuture<Boolean> result = new CompletableFuture<>();
+		lookup.whenComplete((object, error) -> {
+			if (error == null) {
+				result.complete(object != null);
+			} else if (unwrap(error) instanceof NotFoundException) {
+				result.complete(false);
+			} else {
+				result.completeExceptionally(unwrap(error));
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Asynchronous version of {@link Probes#count(SearchResultStruct, int)}.
+	 */
+	public static CompletableFuture<Integer> count(CompletableFuture<? extends SearchResultStruct<?>> search,
+			int countLimit) {
+		CompletableFuture<Integer> result = new CompletableFuture<>();
+		search.whenComplete((found, error) -> {
+			if (error == null) {
+				result.complete(Probes.count(found, countLimit));
+			} else {
+				result.completeExceptionally(unwrap(error));
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Returns a future that has already failed with
+	 * {@link NotImplementedException}, as the paged searches do by default.
+	 */
+	public static <T> CompletableFuture<T> notImplemented() {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		result.completeExceptionally(new NotImplementedException());
+		return result;
+	}
+
+	private static Throwable unwrap(Throwable error) {
+		return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+	}
+
+	private static CompletionException wrap(Throwable error) {
+		return (error instanceof CompletionException) ? (CompletionException) error : new CompletionException(error);
+	}
+
+}
@@ -0,0 +1,34 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.spi.DAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * Non-blocking version of {@link RdapUserDAO}.
+ * <p>
+ * Every method mirrors its namesake in {@link RdapUserDAO}. Instead of throwing,
+ * the returned futures complete exceptionally with the
+ * {@link mx.nic.rdap.db.exception.RdapDataAccessException} the blocking
+ * version would have thrown.
+ */
+public interface AsyncRdapUserDAO extends DAO {
+
+	/**
+	 * See {@link RdapUserDAO#getByUsername(String)}.
+	 */
+	public CompletableFuture<RdapUser> getByUsername(String username);
+
+	/**
+	 * See {@link RdapUserDAO#getByUsernames(Collection)}. The default
+	 * implementation performs the lookups concurrently.
+	 */
+	public default CompletableFuture<List<RdapUser>> getByUsernames(Collection<String> usernames) {
+		return AsyncProbes.lookUpEach(usernames, this::getByUsername);
+	}
+
+}
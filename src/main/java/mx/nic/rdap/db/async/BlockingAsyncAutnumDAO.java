@@ -0,0 +1,47 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AsyncAutnumDAO} that runs the calls of a blocking {@link AutnumDAO} on
+ * an {@link Executor}.
+ */
+public class BlockingAsyncAutnumDAO implements AsyncAutnumDAO {
+
+	private final AutnumDAO delegate;
+	private final Executor executor;
+
+	public BlockingAsyncAutnumDAO(AutnumDAO delegate, Executor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<Autnum> getByRange(long autnum) {
+		return BlockingCalls.submit(() -> delegate.getByRange(autnum), executor);
+	}
+
+	@Override
+	public CompletableFuture<List<Autnum>> getByRanges(Collection<Long> autnums) {
+		return BlockingCalls.submit(() -> delegate.getByRanges(autnums), executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> existsByRange(long autnum) {
+		return BlockingCalls.submit(() -> delegate.existsByRange(autnum), executor);
+	}
+
+	/**
+	 * Returns the blocking DAO this one is adapting.
+	 */
+	public AutnumDAO getDelegate() {
+		return delegate;
+	}
+
+}
@@ -0,0 +1,113 @@
+package mx.nic.rdap.db.async;
+
+import java.util.concurrent.Executor;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link AsyncDataAccessImplementation} that serves every DAO from an
+ * {@link AsyncDataAccessImplementation} if it has a native version, and
+ * otherwise adapts the blocking DAO of a {@link DataAccessImplementation} by
+ * running its calls on an {@link Executor}.
+ * <p>
+ * As with {@link DataAccessImplementation}, getters return <code>null</code>
+ * when neither source provides the DAO.
+ */
+public class BlockingAsyncDataAccessImplementation implements AsyncDataAccessImplementation {
+
+	private final DataAccessImplementation blocking;
+	/** Can be null. */
+	private final AsyncDataAccessImplementation nativeAsync;
+	private final Executor executor;
+
+	/**
+	 * @param blocking
+	 *            Source of the DAOs <code>nativeAsync</code> does not provide.
+	 * @param nativeAsync
+	 *            Source of the DAOs the implementation can serve
+	 *            asynchronously on its own. Can be <code>null</code>.
+	 * @param executor
+	 *            Runs the calls of the blocking DAOs.
+	 */
+	public BlockingAsyncDataAccessImplementation(DataAccessImplementation blocking,
+			AsyncDataAccessImplementation nativeAsync, Executor executor) {
+		this.blocking = blocking;
+		this.nativeAsync = nativeAsync;
+		this.executor = executor;
+	}
+
+	@Override
+	public AsyncAutnumDAO getAsyncAutnumDAO() throws RdapDataAccessException {
+		AsyncAutnumDAO result = (nativeAsync != null) ? nativeAsync.getAsyncAutnumDAO() : null;
+		if (result != null) {
+			return result;
+		}
+		AutnumDAO dao = blocking.getAutnumDAO();
+		return (dao != null) ? new BlockingAsyncAutnumDAO(dao, executor) : null;
+	}
+
+	@Override
+	public AsyncDomainDAO getAsyncDomainDAO() throws RdapDataAccessException {
+		AsyncDomainDAO result = (nativeAsync != null) ? nativeAsync.getAsyncDomainDAO() : null;
+		if (result != null) {
+			return result;
+		}
+		DomainDAO dao = blocking.getDomainDAO();
+		return (dao != null) ? new BlockingAsyncDomainDAO(dao, executor) : null;
+	}
+
+	@Override
+	public AsyncEntityDAO getAsyncEntityDAO() throws RdapDataAccessException {
+		AsyncEntityDAO result = (nativeAsync != null) ? nativeAsync.getAsyncEntityDAO() : null;
+		if (result != null) {
+			return result;
+		}
+		EntityDAO dao = blocking.getEntityDAO();
+		return (dao != null) ? new BlockingAsyncEntityDAO(dao, executor) : null;
+	}
+
+	@Override
+	public AsyncIpNetworkDAO getAsyncIpNetworkDAO() throws RdapDataAccessException {
+		AsyncIpNetworkDAO result = (nativeAsync != null) ? nativeAsync.getAsyncIpNetworkDAO() : null;
+		if (result != null) {
+			return result;
+		}
+		IpNetworkDAO dao = blocking.getIpNetworkDAO();
+		return (dao != null) ? new BlockingAsyncIpNetworkDAO(dao, executor) : null;
+	}
+
+	@Override
+	public AsyncNameserverDAO getAsyncNameserverDAO() throws RdapDataAccessException {
+		AsyncNameserverDAO result = (nativeAsync != null) ? nativeAsync.getAsyncNameserverDAO() : null;
+		if (result != null) {
+			return result;
+		}
+		NameserverDAO dao = blocking.getNameserverDAO();
+		return (dao != null) ? new BlockingAsyncNameserverDAO(dao, executor) : null;
+	}
+
+	@Override
+	public AsyncRdapUserDAO getAsyncRdapUserDAO() throws RdapDataAccessException {
+		AsyncRdapUserDAO result = (nativeAsync != null) ? nativeAsync.getAsyncRdapUserDAO() : null;
+		if (result != null) {
+			return result;
+		}
+		RdapUserDAO dao = blocking.getRdapUserDAO();
+		return (dao != null) ? new BlockingAsyncRdapUserDAO(dao, executor) : null;
+	}
+
+	/**
+	 * Returns the executor the blocking DAOs run on.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+}
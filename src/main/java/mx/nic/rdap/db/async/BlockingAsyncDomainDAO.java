@@ -0,0 +1,118 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link AsyncDomainDAO} that runs the calls of a blocking {@link DomainDAO} on
+ * an {@link Executor}.
+ */
+public class BlockingAsyncDomainDAO implements AsyncDomainDAO {
+
+	private final DomainDAO delegate;
+	private final Executor executor;
+
+	public BlockingAsyncDomainDAO(DomainDAO delegate, Executor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<Domain> getByName(DomainLabel domainLabel) {
+		return BlockingCalls.submit(() -> delegate.getByName(domainLabel), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> searchByName(DomainLabel namePattern, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByName(namePattern, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> searchByNsLDHName(DomainLabel nsName, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByNsLDHName(nsName, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> searchByNsIp(String ip, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByNsIp(ip, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> searchByRegexName(String regexName, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByRegexName(regexName, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> searchByRegexNsLDHName(String regexNsName, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByRegexNsLDHName(regexNsName, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> searchByRegexNsIp(String ip, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByRegexNsIp(ip, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<List<Domain>> getByNames(Collection<DomainLabel> domainLabels) {
+		return BlockingCalls.submit(() -> delegate.getByNames(domainLabels), executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> exists(DomainLabel domainLabel) {
+		return BlockingCalls.submit(() -> delegate.exists(domainLabel), executor);
+	}
+
+	@Override
+	public CompletableFuture<Integer> countByName(DomainLabel namePattern, int countLimit) {
+		return BlockingCalls.submit(() -> delegate.countByName(namePattern, countLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> pageByName(DomainLabel namePattern, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByName(namePattern, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> pageByNsLDHName(DomainLabel nsName, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByNsLDHName(nsName, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> pageByNsIp(String ip, String cursor, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByNsIp(ip, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> pageByRegexName(String regexName, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByRegexName(regexName, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> pageByRegexNsLDHName(String regexNsName, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByRegexNsLDHName(regexNsName, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Domain>> pageByRegexNsIp(String ip, String cursor, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByRegexNsIp(ip, cursor, resultLimit), executor);
+	}
+
+	/**
+	 * Returns the blocking DAO this one is adapting.
+	 */
+	public DomainDAO getDelegate() {
+		return delegate;
+	}
+
+}
@@ -0,0 +1,96 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link AsyncEntityDAO} that runs the calls of a blocking {@link EntityDAO} on
+ * an {@link Executor}.
+ */
+public class BlockingAsyncEntityDAO implements AsyncEntityDAO {
+
+	private final EntityDAO delegate;
+	private final Executor executor;
+
+	public BlockingAsyncEntityDAO(EntityDAO delegate, Executor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<Entity> getByHandle(String entityHandle) {
+		return BlockingCalls.submit(() -> delegate.getByHandle(entityHandle), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> searchByHandle(String handle, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByHandle(handle, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> searchByVCardName(String vCardName, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByVCardName(vCardName, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> searchByRegexHandle(String regexHandle, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByRegexHandle(regexHandle, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> searchByRegexVCardName(String vCardName, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByRegexVCardName(vCardName, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<List<Entity>> getByHandles(Collection<String> entityHandles) {
+		return BlockingCalls.submit(() -> delegate.getByHandles(entityHandles), executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> existsByHandle(String entityHandle) {
+		return BlockingCalls.submit(() -> delegate.existsByHandle(entityHandle), executor);
+	}
+
+	@Override
+	public CompletableFuture<Integer> countByHandle(String handle, int countLimit) {
+		return BlockingCalls.submit(() -> delegate.countByHandle(handle, countLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> pageByHandle(String handle, String cursor, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByHandle(handle, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> pageByVCardName(String vCardName, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByVCardName(vCardName, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> pageByRegexHandle(String regexHandle, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByRegexHandle(regexHandle, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Entity>> pageByRegexVCardName(String vCardName, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByRegexVCardName(vCardName, cursor, resultLimit), executor);
+	}
+
+	/**
+	 * Returns the blocking DAO this one is adapting.
+	 */
+	public EntityDAO getDelegate() {
+		return delegate;
+	}
+
+}
@@ -0,0 +1,48 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link AsyncIpNetworkDAO} that runs the calls of a blocking {@link IpNetworkDAO} on
+ * an {@link Executor}.
+ */
+public class BlockingAsyncIpNetworkDAO implements AsyncIpNetworkDAO {
+
+	private final IpNetworkDAO delegate;
+	private final Executor executor;
+
+	public BlockingAsyncIpNetworkDAO(IpNetworkDAO delegate, Executor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<IpNetwork> getByAddressBlock(AddressBlock block) {
+		return BlockingCalls.submit(() -> delegate.getByAddressBlock(block), executor);
+	}
+
+	@Override
+	public CompletableFuture<List<IpNetwork>> getByAddressBlocks(Collection<AddressBlock> blocks) {
+		return BlockingCalls.submit(() -> delegate.getByAddressBlocks(blocks), executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> existsByAddressBlock(AddressBlock block) {
+		return BlockingCalls.submit(() -> delegate.existsByAddressBlock(block), executor);
+	}
+
+	/**
+	 * Returns the blocking DAO this one is adapting.
+	 */
+	public IpNetworkDAO getDelegate() {
+		return delegate;
+	}
+
+}
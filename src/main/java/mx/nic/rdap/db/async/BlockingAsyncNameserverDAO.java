@@ -0,0 +1,123 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link AsyncNameserverDAO} that runs the calls of a blocking {@link NameserverDAO} on
+ * an {@link Executor}.
+ */
+public class BlockingAsyncNameserverDAO implements AsyncNameserverDAO {
+
+	private final NameserverDAO delegate;
+	private final Executor executor;
+
+	public BlockingAsyncNameserverDAO(NameserverDAO delegate, Executor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<Nameserver> getByName(DomainLabel name) {
+		return BlockingCalls.submit(() -> delegate.getByName(name), executor);
+	}
+
+	@Override
+	public CompletableFuture<Nameserver> getByHandle(String handle) {
+		return BlockingCalls.submit(() -> delegate.getByHandle(handle), executor);
+	}
+
+	@Override
+	public CompletableFuture<Integer> getNameserverCount(DomainLabel name) {
+		return BlockingCalls.submit(() -> delegate.getNameserverCount(name), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByName(DomainLabel namePattern, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByName(namePattern, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByIp(String ipaddressPattern, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByIp(ipaddressPattern, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByRegexName(String namePattern, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByRegexName(namePattern, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> searchByRegexIp(String ipaddressPattern, int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.searchByRegexIp(ipaddressPattern, resultLimit), executor);
+	}
+
+	@Override
+	public boolean isNameserverSharingNameConformance() {
+		return delegate.isNameserverSharingNameConformance();
+	}
+
+	@Override
+	public CompletableFuture<List<Nameserver>> getByNames(Collection<DomainLabel> names) {
+		return BlockingCalls.submit(() -> delegate.getByNames(names), executor);
+	}
+
+	@Override
+	public CompletableFuture<List<Nameserver>> getByHandles(Collection<String> handles) {
+		return BlockingCalls.submit(() -> delegate.getByHandles(handles), executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> existsByName(DomainLabel name) {
+		return BlockingCalls.submit(() -> delegate.existsByName(name), executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> existsByHandle(String handle) {
+		return BlockingCalls.submit(() -> delegate.existsByHandle(handle), executor);
+	}
+
+	@Override
+	public CompletableFuture<Integer> countByName(DomainLabel namePattern, int countLimit) {
+		return BlockingCalls.submit(() -> delegate.countByName(namePattern, countLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> pageByName(DomainLabel namePattern, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByName(namePattern, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> pageByIp(String ipaddressPattern, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByIp(ipaddressPattern, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> pageByRegexName(String namePattern, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByRegexName(namePattern, cursor, resultLimit), executor);
+	}
+
+	@Override
+	public CompletableFuture<SearchResultStruct<Nameserver>> pageByRegexIp(String ipaddressPattern, String cursor,
+			int resultLimit) {
+		return BlockingCalls.submit(() -> delegate.pageByRegexIp(ipaddressPattern, cursor, resultLimit), executor);
+	}
+
+	/**
+	 * Returns the blocking DAO this one is adapting.
+	 */
+	public NameserverDAO getDelegate() {
+		return delegate;
+	}
+
+}
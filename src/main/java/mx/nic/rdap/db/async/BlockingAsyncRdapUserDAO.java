@@ -0,0 +1,42 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link AsyncRdapUserDAO} that runs the calls of a blocking {@link RdapUserDAO} on
+ * an {@link Executor}.
+ */
+public class BlockingAsyncRdapUserDAO implements AsyncRdapUserDAO {
+
+	private final RdapUserDAO delegate;
+	private final Executor executor;
+
+	public BlockingAsyncRdapUserDAO(RdapUserDAO delegate, Executor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<RdapUser> getByUsername(String username) {
+		return BlockingCalls.submit(() -> delegate.getByUsername(username), executor);
+	}
+
+	@Override
+	public CompletableFuture<List<RdapUser>> getByUsernames(Collection<String> usernames) {
+		return BlockingCalls.submit(() -> delegate.getByUsernames(usernames), executor);
+	}
+
+	/**
+	 * Returns the blocking DAO this one is adapting.
+	 */
+	public RdapUserDAO getDelegate() {
+		return delegate;
+	}
+
+}
@@ -0,0 +1,60 @@
+package mx.nic.rdap.db.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import mx.nic.rdap.db.deadline.Deadline;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.fetch.FetchPlan;
+import mx.nic.rdap.db.intercept.DAOCall;
+
+/**
+ * Runs blocking DAO calls on an {@link Executor}.
+ */
+class BlockingCalls {
+
+	private BlockingCalls() {
+		// No code.
+	}
+
+	/**
+	 * Schedules <code>call</code> on <code>executor</code>. The future
+	 * completes with the call's result, or exceptionally with whatever it
+	 * threw. (Unlike {@link CompletableFuture#supplyAsync}, checked exceptions
+	 * are not wrapped.)
+	 * <p>
+	 * The caller's {@link Deadline}, if any, and {@link FetchPlan} are bound
+	 * to the thread that runs the call.
+	 */
+	static <T> CompletableFuture<T> submit(DAOCall<T> call, Executor executor) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		Deadline deadline = Deadline.current();
+		FetchPlan plan = FetchPlan.current();
+		try {
+			executor.execute(() -> {
+				if (result.isDone()) {
+					return; // Cancelled while queued.
+				}
+				try {
+					result.complete(callWithin(deadline, plan, call));
+				} catch (Throwable t) {
+					result.completeExceptionally(t);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("try") // The scopes are bound, not referenced.
+	private static <T> T callWithin(Deadline deadline, FetchPlan plan, DAOCall<T> call)
+			throws RdapDataAccessException {
+		try (Deadline.Scope scope = (deadline != null) ? deadline.bind() : null;
+				FetchPlan.Scope planScope = plan.bind()) {
+			return call.call();
+		}
+	}
+
+}
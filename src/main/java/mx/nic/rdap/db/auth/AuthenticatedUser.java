@@ -0,0 +1,96 @@
+package mx.nic.rdap.db.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import mx.nic.rdap.db.RdapUser;
+
+/**
+ * Immutable, authorization-oriented view of an {@link RdapUser}, as kept by
+ * the {@link UserCache}.
+ * <p>
+ * The access roles are folded into a mask (see {@link RoleMasks}), and the
+ * password is kept only as a digest, which the candidate passwords are
+ * compared against in constant time.
+ */
+public class AuthenticatedUser {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private final String name;
+	private final Integer maxSearchResults;
+	private final long roleMask;
+	private final byte[] passwordDigest;
+	private final RoleMasks masks;
+
+	AuthenticatedUser(RdapUser user, RoleMasks masks) {
+		this.name = user.getName();
+		this.maxSearchResults = user.getMaxSearchResults();
+		this.roleMask = masks.maskOf(user.getAccessRoles());
+		this.passwordDigest = (user.getPass() != null) ? digest(user.getPass()) : null;
+		this.masks = masks;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Integer getMaxSearchResults() {
+		return maxSearchResults;
+	}
+
+	/**
+	 * Returns the mask of the user's access roles. (See {@link RoleMasks}.)
+	 */
+	public long getRoleMask() {
+		return roleMask;
+	}
+
+	/**
+	 * Returns whether the user has the <code>role</code> role. Roles no user
+	 * has ever had are not registered in the {@link RoleMasks}.
+	 */
+	public boolean hasRole(String role) {
+		return (roleMask & masks.findBitOf(role)) != 0;
+	}
+
+	/**
+	 * Returns whether the user has at least one of the roles in
+	 * <code>mask</code>.
+	 */
+	public boolean hasAnyRole(long mask) {
+		return (roleMask & mask) != 0;
+	}
+
+	/**
+	 * Returns whether the user has every role in <code>mask</code>.
+	 */
+	public boolean hasAllRoles(long mask) {
+		return (roleMask & mask) == mask;
+	}
+
+	/**
+	 * Returns whether <code>candidate</code> is the user's password.
+	 * <p>
+	 * Both sides are digested before they are compared, so the time it takes
+	 * does not depend on where (or whether) they differ, nor on their lengths.
+	 * The candidate must be in the same form the DAO stores the password in.
+	 */
+	public boolean checkPassword(String candidate) {
+		if (passwordDigest == null || candidate == null) {
+			return false;
+		}
+		return MessageDigest.isEqual(passwordDigest, digest(candidate));
+	}
+
+	private static byte[] digest(String password) {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(password.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256.
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
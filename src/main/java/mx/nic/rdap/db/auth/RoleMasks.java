@@ -0,0 +1,87 @@
+package mx.nic.rdap.db.auth;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every access role name its own bit, so sets of roles can be
+ * represented as <code>long</code> masks, and role checks become a single
+ * AND.
+ * <p>
+ * Bits are assigned in order of appearance and never change afterwards, so
+ * masks computed at different times are comparable. There is room for
+ * {@value #MAX_ROLES} roles; registries are expected to define a handful.
+ * <p>
+ * Instances are thread-safe.
+ */
+public class RoleMasks {
+
+	public static final int MAX_ROLES = Long.SIZE;
+
+	private final ConcurrentHashMap<String, Long> bits = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the bit of the <code>role</code> role, assigning it one if it
+	 * doesn't have it yet.
+	 * 
+	 * @throws IllegalStateException
+	 *             There are already {@value #MAX_ROLES} roles.
+	 */
+	public long bitOf(String role) {
+		Long bit = bits.get(role);
+		if (bit != null) {
+			return bit;
+		}
+
+		synchronized (bits) {
+			bit = bits.get(role);
+			if (bit == null) {
+				if (bits.size() >= MAX_ROLES) {
+					throw new IllegalStateException("There are more than " + MAX_ROLES + " access roles.");
+				}
+				bit = 1L << bits.size();
+				bits.put(role, bit);
+			}
+			return bit;
+		}
+	}
+
+	/**
+	 * Returns the bit of the <code>role</code> role, or 0 if it doesn't have
+	 * one. Unlike {@link #bitOf(String)}, does not assign bits, so it can be
+	 * used with role names that come from the outside.
+	 */
+	public long findBitOf(String role) {
+		Long bit = bits.get(role);
+		return (bit != null) ? bit : 0;
+	}
+
+	/**
+	 * Returns the mask of the roles in <code>roles</code>.
+	 * 
+	 * @throws IllegalStateException
+	 *             The roles do not fit in a mask.
+	 */
+	public long maskOf(Collection<String> roles) {
+		long mask = 0;
+		if (roles != null) {
+			for (String role : roles) {
+				mask |= bitOf(role);
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Vararg version of {@link #maskOf(Collection)}. Meant to precompute the
+	 * masks of the checks the caller performs often.
+	 */
+	public long maskOf(String... roles) {
+		long mask = 0;
+		for (String role : roles) {
+			mask |= bitOf(role);
+		}
+		return mask;
+	}
+
+}
@@ -0,0 +1,87 @@
+package mx.nic.rdap.db.auth;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.cache.BoundedCache;
+import mx.nic.rdap.db.cache.CacheStatistics;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * Cache of the users that authenticate against the server, meant to take the
+ * {@link RdapUserDAO} call and the role set lookups off the path of every
+ * authenticated request.
+ * <p>
+ * Users are cached as {@link AuthenticatedUser}s, whose roles are already
+ * folded into masks. Only users that exist are cached, so new users can log in
+ * immediately; changes to existing ones are noticed once they expire, or as
+ * soon as they are {@link #invalidate(String) invalidated}.
+ */
+public class UserCache {
+
+	private final RdapUserDAO dao;
+	private final RoleMasks masks = new RoleMasks();
+	private final BoundedCache<String, AuthenticatedUser> cache;
+
+	public UserCache(RdapUserDAO dao, UserCacheConfiguration config) {
+		this.dao = dao;
+		this.cache = new BoundedCache<>(config.getMaxSize(), config.getTtl() * 1000L);
+	}
+
+	/**
+	 * Returns the user whose username is <code>username</code>, or
+	 * <code>null</code> if there is no such user.
+	 */
+	public AuthenticatedUser get(String username) throws RdapDataAccessException {
+		if (username == null) {
+			return null;
+		}
+
+		AuthenticatedUser result = cache.get(username);
+		if (result != null) {
+			return result;
+		}
+
+		RdapUser user;
+		try {
+			user = dao.getByUsername(username);
+		} catch (NotFoundException e) {
+			return null;
+		}
+		if (user == null) {
+			return null;
+		}
+
+		result = new AuthenticatedUser(user, masks);
+		cache.put(username, result);
+		return result;
+	}
+
+	/**
+	 * Returns the role masks the cached users are computed with. Callers
+	 * should precompute the masks of their role checks through it.
+	 */
+	public RoleMasks getRoleMasks() {
+		return masks;
+	}
+
+	/**
+	 * Forgets the user whose username is <code>username</code>. Intended to be
+	 * called when its password or roles change.
+	 */
+	public void invalidate(String username) {
+		cache.invalidate(username);
+	}
+
+	/**
+	 * Forgets every user.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public CacheStatistics getStatistics() {
+		return cache.getStatistics();
+	}
+
+}
@@ -0,0 +1,58 @@
+package mx.nic.rdap.db.auth;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link UserCache}, as read from the user-supplied
+ * properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>user-cache.enabled</code>: Whether the user cache should be
+ * created at all. Default: <code>false</code>.</li>
+ * <li><code>user-cache.max-size</code>: Maximum number of users the cache can
+ * hold. Default: {@value #DEFAULT_MAX_SIZE}.</li>
+ * <li><code>user-cache.ttl</code>: Seconds a user stays cached, and therefore
+ * the longest a password or role change can take to be noticed, unless the
+ * user is invalidated explicitly. Default: {@value #DEFAULT_TTL}.</li>
+ * </ul>
+ */
+public class UserCacheConfiguration {
+
+	public static final String ENABLED_PROPERTY = "user-cache.enabled";
+	private static final String MAX_SIZE_PROPERTY = "user-cache.max-size";
+	private static final String TTL_PROPERTY = "user-cache.ttl";
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+	public static final long DEFAULT_TTL = 60;
+
+	private final int maxSize;
+	private final long ttl;
+
+	public UserCacheConfiguration(Properties config) throws InitializationException {
+		this.maxSize = ConfigurationUtils.getInt(config, MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+		this.ttl = ConfigurationUtils.getLong(config, TTL_PROPERTY, DEFAULT_TTL);
+	}
+
+	/**
+	 * Returns whether the user wants the user cache.
+	 */
+	public static boolean isEnabled(Properties config) throws InitializationException {
+		return ConfigurationUtils.getBoolean(config, ENABLED_PROPERTY, false);
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of seconds a user stays cached.
+	 */
+	public long getTtl() {
+		return ttl;
+	}
+
+}
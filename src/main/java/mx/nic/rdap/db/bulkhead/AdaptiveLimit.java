@@ -0,0 +1,144 @@
+package mx.nic.rdap.db.bulkhead;
+
+import java.util.EnumMap;
+
+import mx.nic.rdap.db.intercept.DAOOperation;
+
+/**
+ * A concurrency limit that adjusts itself to the latency of the calls it
+ * admits, AIMD-style.
+ * <p>
+ * Every operation keeps two moving averages of the latency of its successful
+ * calls: a short one, which follows the last dozen calls or so, and a long
+ * one, which follows the last {@value #BASELINE_CALLS} or so and approximates
+ * what the operation usually costs. (Operations are tracked separately, so a
+ * change in the mix of cheap and expensive operations is not mistaken for
+ * queuing.) When the short average of an operation exceeds
+ * {@value #LATENCY_TOLERANCE} times its long one, the backend is taken to be
+ * queuing, and the limit shrinks multiplicatively (at most once per limit's
+ * worth of calls). Otherwise, the limit grows by one per limit's worth of
+ * calls, but only while it is actually being used.
+ * <p>
+ * Comparing averages rather than single calls means that a backend whose
+ * latency merely varies keeps its limit; only a sustained rise shrinks it. A
+ * backend that becomes slower for good eventually drags the long average up
+ * with it, and the limit recovers.
+ * <p>
+ * The latency of failed calls is not recorded; a call that failed fast says
+ * nothing about the usual cost of the operation. But failures that signal
+ * overload (time outs, backend errors) shrink the limit just like queuing
+ * does, since they are the clearest sign of it.
+ * <p>
+ * Instances are thread-safe.
+ */
+class AdaptiveLimit {
+
+	private static final double BACKOFF_RATIO = 0.9;
+	private static final double LATENCY_TOLERANCE = 2.0;
+	/** Weight of a new latency in the short average. */
+	private static final double SHORT_WEIGHT = 0.1;
+	/** Roughly, the number of calls the long average follows. */
+	private static final int BASELINE_CALLS = 500;
+
+	private final int minLimit;
+	private final int maxLimit;
+
+	private double limit;
+	private int inFlight;
+	private int callsSinceBackoff;
+
+	private final EnumMap<DAOOperation, Latency> latencies = new EnumMap<>(DAOOperation.class);
+
+	AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+		this.minLimit = Math.max(minLimit, 1);
+		this.maxLimit = Math.max(maxLimit, this.minLimit);
+		this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+	}
+
+	/**
+	 * Claims a slot. Returns <code>false</code> if the limit was reached.
+	 */
+	synchronized boolean tryAcquire() {
+		if (inFlight >= (int) limit) {
+			return false;
+		}
+		inFlight++;
+		return true;
+	}
+
+	/**
+	 * Returns the slot of a successful <code>operation</code> call that took
+	 * <code>latencyNanos</code>, and adjusts the limit accordingly.
+	 */
+	synchronized void release(DAOOperation operation, long latencyNanos) {
+		int concurrency = inFlight;
+		inFlight--;
+
+		Latency latency = latencies.computeIfAbsent(operation, key -> new Latency());
+		latency.record(latencyNanos);
+
+		callsSinceBackoff++;
+		if (latency.shortAverage > latency.longAverage * LATENCY_TOLERANCE) {
+			backOff();
+		} else if (2 * concurrency >= limit) {
+			limit = Math.min(maxLimit, limit + 1 / limit);
+		}
+	}
+
+	/**
+	 * Returns the slot of a call that failed for reasons that say nothing
+	 * about the load of the backend. Does not adjust the limit.
+	 */
+	synchronized void release() {
+		inFlight--;
+	}
+
+	/**
+	 * Returns the slot of a call that failed because the backend is
+	 * overloaded (eg. it timed out), and shrinks the limit as queuing would.
+	 */
+	synchronized void releaseOverloaded() {
+		inFlight--;
+		callsSinceBackoff++;
+		backOff();
+	}
+
+	/** Shrinks the limit, unless it was already shrunk recently. */
+	private void backOff() {
+		if (callsSinceBackoff >= limit) {
+			limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+			callsSinceBackoff = 0;
+		}
+	}
+
+	synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Exponentially weighted moving averages of the latency of an operation.
+	 */
+	private static class Latency {
+
+		private double shortAverage;
+		private double longAverage;
+		private boolean empty = true;
+
+		private void record(long latencyNanos) {
+			if (empty) {
+				shortAverage = latencyNanos;
+				longAverage = latencyNanos;
+				empty = false;
+				return;
+			}
+			shortAverage += (latencyNanos - shortAverage) * SHORT_WEIGHT;
+			longAverage += (latencyNanos - longAverage) / BASELINE_CALLS;
+		}
+
+	}
+
+}
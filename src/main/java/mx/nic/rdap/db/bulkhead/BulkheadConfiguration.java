@@ -0,0 +1,98 @@
+package mx.nic.rdap.db.bulkhead;
+
+import java.util.EnumMap;
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.intercept.OperationClass;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link BulkheadInterceptor}, as read from the
+ * user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>bulkhead.enabled</code>: Whether the bulkheads should be applied at
+ * all. Default: <code>false</code>.</li>
+ * <li><code>bulkhead.&lt;class&gt;.initial-limit</code>: Number of concurrent
+ * calls of operation class <code>&lt;class&gt;</code> allowed at startup.
+ * <code>&lt;class&gt;</code> can be <code>lookup</code>, <code>search</code>,
+ * <code>regex-search</code> or <code>count</code>.</li>
+ * <li><code>bulkhead.&lt;class&gt;.min-limit</code>: The limit never adapts
+ * below this.</li>
+ * <li><code>bulkhead.&lt;class&gt;.max-limit</code>: The limit never adapts
+ * above this.</li>
+ * </ul>
+ * The default initial/min/max limits are 100/10/500 for lookups, 20/2/100 for
+ * searches, 5/1/20 for regular expression searches and 50/5/200 for counts.
+ */
+public class BulkheadConfiguration {
+
+	public static final String ENABLED_PROPERTY = "bulkhead.enabled";
+	private static final String PREFIX = "bulkhead.";
+	private static final String INITIAL_LIMIT_SUFFIX = ".initial-limit";
+	private static final String MIN_LIMIT_SUFFIX = ".min-limit";
+	private static final String MAX_LIMIT_SUFFIX = ".max-limit";
+
+	/** Initial, min and max limit of the lookups. */
+	private static final int[] DEFAULT_LOOKUP_LIMITS = { 100, 10, 500 };
+	/** Initial, min and max limit of the searches. */
+	private static final int[] DEFAULT_SEARCH_LIMITS = { 20, 2, 100 };
+	/** Initial, min and max limit of the regular expression searches. */
+	private static final int[] DEFAULT_REGEX_SEARCH_LIMITS = { 5, 1, 20 };
+	/** Initial, min and max limit of the counts. */
+	private static final int[] DEFAULT_COUNT_LIMITS = { 50, 5, 200 };
+
+	private final EnumMap<OperationClass, int[]> limits = new EnumMap<>(OperationClass.class);
+
+	public BulkheadConfiguration(Properties config) throws InitializationException {
+		for (OperationClass operationClass : OperationClass.values()) {
+			String prefix = PREFIX + getPropertyName(operationClass);
+			int[] defaults = getDefaultLimits(operationClass);
+			limits.put(operationClass, new int[] {
+					ConfigurationUtils.getInt(config, prefix + INITIAL_LIMIT_SUFFIX, defaults[0]),
+					ConfigurationUtils.getInt(config, prefix + MIN_LIMIT_SUFFIX, defaults[1]),
+					ConfigurationUtils.getInt(config, prefix + MAX_LIMIT_SUFFIX, defaults[2]), });
+		}
+	}
+
+	/**
+	 * Returns whether the user wants the bulkheads applied to the data access
+	 * implementation.
+	 */
+	public static boolean isEnabled(Properties config) throws InitializationException {
+		return ConfigurationUtils.getBoolean(config, ENABLED_PROPERTY, false);
+	}
+
+	private static String getPropertyName(OperationClass operationClass) {
+		return operationClass.name().toLowerCase().replace('_', '-');
+	}
+
+	private static int[] getDefaultLimits(OperationClass operationClass) {
+		switch (operationClass) {
+		case LOOKUP:
+			return DEFAULT_LOOKUP_LIMITS;
+		case SEARCH:
+			return DEFAULT_SEARCH_LIMITS;
+		case REGEX_SEARCH:
+			return DEFAULT_REGEX_SEARCH_LIMITS;
+		case COUNT:
+			return DEFAULT_COUNT_LIMITS;
+		}
+		throw new IllegalArgumentException("Unknown operation class: " + operationClass);
+	}
+
+	public int getInitialLimit(OperationClass operationClass) {
+		return limits.get(operationClass)[0];
+	}
+
+	public int getMinLimit(OperationClass operationClass) {
+		return limits.get(operationClass)[1];
+	}
+
+	public int getMaxLimit(OperationClass operationClass) {
+		return limits.get(operationClass)[2];
+	}
+
+}
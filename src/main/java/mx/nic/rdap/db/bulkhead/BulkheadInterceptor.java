@@ -0,0 +1,167 @@
+package mx.nic.rdap.db.bulkhead;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.BulkheadRejectedException;
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+import mx.nic.rdap.db.exception.http.HttpException;
+import mx.nic.rdap.db.exception.http.ServiceUnavailableException;
+import mx.nic.rdap.db.intercept.BatchCall;
+import mx.nic.rdap.db.intercept.BatchCalls;
+import mx.nic.rdap.db.intercept.CursorCall;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.intercept.OperationClass;
+import mx.nic.rdap.db.struct.ForwardingSearchCursor;
+import mx.nic.rdap.db.struct.SearchCursor;
+
+/**
+ * Interceptor that caps the number of concurrent DAO calls of every
+ * {@link OperationClass} separately, so a burst of expensive searches cannot
+ * take every backend connection and starve the lookups.
+ * <p>
+ * Each class has its own {@link AdaptiveLimit}, which grows while the calls
+ * are fast and shrinks when they start queuing. Calls beyond the limit are not
+ * queued; they fail immediately with a {@link BulkheadRejectedException}.
+ * <p>
+ * A batch call takes a single slot. So does a cursor, from the moment it is
+ * opened until it is closed.
+ */
+public class BulkheadInterceptor implements DAOInterceptor {
+
+	private final EnumMap<OperationClass, AdaptiveLimit> limits = new EnumMap<>(OperationClass.class);
+	private final EnumMap<OperationClass, LongAdder> rejections = new EnumMap<>(OperationClass.class);
+
+	public BulkheadInterceptor(BulkheadConfiguration config) {
+		for (OperationClass operationClass : OperationClass.values()) {
+			limits.put(operationClass, new AdaptiveLimit(config.getInitialLimit(operationClass),
+					config.getMinLimit(operationClass), config.getMaxLimit(operationClass)));
+			rejections.put(operationClass, new LongAdder());
+		}
+	}
+
+	@Override
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException {
+		AdaptiveLimit limit = acquire(operation);
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = call.call();
+		} catch (Throwable e) {
+			release(limit, e);
+			throw e;
+		}
+		limit.release(operation, System.nanoTime() - start);
+		return result;
+	}
+
+	@Override
+	public <T> List<T> interceptBatch(DAOOperation operation, List<?> keys, BatchCall<T> call)
+			throws RdapDataAccessException {
+		return intercept(operation, keys, () -> call.call(BatchCalls.allPositions(keys.size())));
+	}
+
+	/**
+	 * The slot is held until the cursor is closed. Only the time spent inside
+	 * the cursor counts as latency; the caller's time between pulls does not.
+	 */
+	@Override
+	public <T extends RdapObject> SearchCursor<T> interceptCursor(DAOOperation operation, Object key,
+			CursorCall<T> call) throws RdapDataAccessException {
+		AdaptiveLimit limit = acquire(operation);
+		long start = System.nanoTime();
+		SearchCursor<T> cursor;
+		try {
+			cursor = call.call();
+		} catch (Throwable e) {
+			release(limit, e);
+			throw e;
+		}
+		long openNanos = System.nanoTime() - start;
+
+		return new ForwardingSearchCursor<T>(cursor) {
+			private long busyNanos = openNanos;
+			private Throwable failure;
+
+			@Override
+			public T next() throws RdapDataAccessException {
+				long nextStart = System.nanoTime();
+				try {
+					return delegate.next();
+				} catch (Throwable e) {
+					failure = e;
+					throw e;
+				} finally {
+					busyNanos += System.nanoTime() - nextStart;
+				}
+			}
+
+			@Override
+			protected void onClose() {
+				if (failure != null) {
+					release(limit, failure);
+				} else {
+					limit.release(operation, busyNanos);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Returns the slot of a call that failed with <code>error</code>. Time
+	 * outs and backend errors mean the backend is struggling, so they shrink
+	 * the limit; legitimate answers (such as "not found") do not.
+	 */
+	private static void release(AdaptiveLimit limit, Throwable error) {
+		if (isCongestion(error)) {
+			limit.releaseOverloaded();
+		} else {
+			limit.release();
+		}
+	}
+
+	private static boolean isCongestion(Throwable error) {
+		return !(error instanceof HttpException) || error instanceof GatewayTimeoutException
+				|| error instanceof ServiceUnavailableException;
+	}
+
+	private AdaptiveLimit acquire(DAOOperation operation) throws BulkheadRejectedException {
+		OperationClass operationClass = operation.getOperationClass();
+		AdaptiveLimit limit = limits.get(operationClass);
+		if (!limit.tryAcquire()) {
+			rejections.get(operationClass).increment();
+			throw new BulkheadRejectedException("Too many concurrent requests of this kind. Please try again later.");
+		}
+		return limit;
+	}
+
+	/**
+	 * Returns the current concurrency limit of <code>operationClass</code>
+	 * calls.
+	 */
+	public int getLimit(OperationClass operationClass) {
+		return limits.get(operationClass).getLimit();
+	}
+
+	/**
+	 * Returns the number of <code>operationClass</code> calls currently
+	 * running.
+	 */
+	public int getInFlight(OperationClass operationClass) {
+		return limits.get(operationClass).getInFlight();
+	}
+
+	/**
+	 * Returns the number of <code>operationClass</code> calls that were
+	 * turned down because the limit had been reached.
+	 */
+	public long getRejectedCount(OperationClass operationClass) {
+		return rejections.get(operationClass).sum();
+	}
+
+}
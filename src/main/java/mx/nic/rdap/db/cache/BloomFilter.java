@@ -0,0 +1,186 @@
+package mx.nic.rdap.db.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe Bloom filter of strings.
+ * <p>
+ * {@link #mightContain(String)} never returns <code>false</code> for a string
+ * that was {@link #put(String)}, and returns <code>true</code> for a string
+ * that wasn't with a probability close to the false positive probability
+ * requested during creation.
+ */
+public class BloomFilter {
+
+	/** Identifies the serialized form; "RDBF". */
+	private static final int MAGIC = 0x52444246;
+	private static final int VERSION = 1;
+
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashCount;
+	private final AtomicLong insertions;
+
+	private BloomFilter(AtomicLongArray bits, int hashCount, long insertions) {
+		this.bits = bits;
+		this.bitCount = ((long) bits.length()) * Long.SIZE;
+		this.hashCount = hashCount;
+		this.insertions = new AtomicLong(insertions);
+	}
+
+	/**
+	 * Creates an empty filter sized so that it will yield false positives with
+	 * probability <code>falsePositiveProbability</code> once
+	 * <code>expectedInsertions</code> strings have been added.
+	 */
+	public static BloomFilter create(long expectedInsertions, double falsePositiveProbability) {
+		if (expectedInsertions < 1) {
+			expectedInsertions = 1;
+		}
+		if (falsePositiveProbability <= 0 || 1 <= falsePositiveProbability) {
+			throw new IllegalArgumentException("The false positive probability must lie in (0, 1). (Found "
+					+ falsePositiveProbability + ".)");
+		}
+
+		// m = -n ln(p) / (ln 2)^2, k = m/n ln 2
+		double ln2 = Math.log(2);
+		long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2));
+		long words = (optimalBits + Long.SIZE - 1) / Long.SIZE;
+		if (words > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The requested Bloom filter is too big.");
+		}
+		int hashCount = Math.max(1, (int) Math.round(((double) words * Long.SIZE) / expectedInsertions * ln2));
+		return new BloomFilter(new AtomicLongArray((int) words), hashCount, 0);
+	}
+
+	/**
+	 * Adds <code>key</code> to the set.
+	 */
+	public void put(String key) {
+		long hash1 = hash(key);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < hashCount; i++) {
+			setBit(((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount);
+		}
+		insertions.incrementAndGet();
+	}
+
+	/**
+	 * Returns <code>false</code> if <code>key</code> was definitely never
+	 * added, <code>true</code> if it probably was.
+	 */
+	public boolean mightContain(String key) {
+		long hash1 = hash(key);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < hashCount; i++) {
+			long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void setBit(long bit) {
+		int index = (int) (bit >>> 6);
+		long mask = 1L << bit;
+		long current;
+		do {
+			current = bits.get(index);
+			if ((current & mask) != 0) {
+				return;
+			}
+		} while (!bits.compareAndSet(index, current, current | mask));
+	}
+
+	/**
+	 * Returns the probability of a false positive, given the number of strings
+	 * that have been added so far.
+	 */
+	public double getExpectedFalsePositiveProbability() {
+		// (1 - e^(-kn/m))^k
+		double exponent = -((double) hashCount) * insertions.get() / bitCount;
+		return Math.pow(1 - Math.exp(exponent), hashCount);
+	}
+
+	/**
+	 * Returns the number of times {@link #put(String)} has been called.
+	 */
+	public long getInsertionCount() {
+		return insertions.get();
+	}
+
+	/**
+	 * Serializes the filter, so it can later be restored by
+	 * {@link #readFrom(InputStream)}. Does not close the stream.
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(hashCount);
+		data.writeLong(insertions.get());
+		data.writeInt(bits.length());
+		for (int i = 0; i < bits.length(); i++) {
+			data.writeLong(bits.get(i));
+		}
+		data.flush();
+	}
+
+	/**
+	 * Restores a filter that was serialized by
+	 * {@link #writeTo(OutputStream)}. Does not close the stream.
+	 */
+	public static BloomFilter readFrom(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("The stream does not contain a Bloom filter.");
+		}
+		int version = data.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported Bloom filter version: " + version);
+		}
+		int hashCount = data.readInt();
+		long insertions = data.readLong();
+		int words = data.readInt();
+		if (hashCount < 1 || words < 1) {
+			throw new IOException("The Bloom filter is corrupted.");
+		}
+
+		AtomicLongArray bits = new AtomicLongArray(words);
+		for (int i = 0; i < words; i++) {
+			bits.set(i, data.readLong());
+		}
+		return new BloomFilter(bits, hashCount, insertions);
+	}
+
+	/**
+	 * 64-bit FNV-1a over the characters of <code>key</code>, followed by a
+	 * finalizer so the low bits are well distributed.
+	 */
+	private static long hash(String key) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001B3L;
+		}
+		return mix(hash);
+	}
+
+	/** MurmurHash3's 64-bit finalizer. */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
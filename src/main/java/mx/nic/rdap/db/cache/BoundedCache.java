@@ -0,0 +1,264 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, size-bounded cache whose entries expire after a fixed time to
+ * live.
+ * <p>
+ * The eviction policy is segmented LRU: new entries land in a probationary
+ * segment, and only entries that are requested again get promoted to a
+ * protected segment. A burst of one-hit wonders (eg. a scanner walking the
+ * namespace) therefore can only flush the probationary segment, not the
+ * popular objects.
+ * <p>
+ * The cache is split into independently locked stripes to reduce contention.
+ * Each stripe runs its own SLRU.
+ *
+ * @param <K>
+ *            key type. Must implement {@link Object#equals(Object)} and
+ *            {@link Object#hashCode()} properly.
+ * @param <V>
+ *            value type.
+ */
+public class BoundedCache<K, V> {
+
+	/** Fraction of every stripe's capacity reserved for the protected segment. */
+	private static final double PROTECTED_RATIO = 0.8;
+	/** Stripes are never smaller than this, to keep the SLRU meaningful. */
+	private static final int MIN_STRIPE_CAPACITY = 16;
+	private static final int MAX_STRIPES = 16;
+
+	private final Stripe<K, V>[] stripes;
+	private final int stripeMask;
+	private final long ttlNanos;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+
+	/**
+	 * @param maxSize
+	 *            Maximum number of entries the cache is allowed to hold.
+	 *            Nonpositive means the cache will not store anything.
+	 * @param ttlMillis
+	 *            Milliseconds an entry lives after it is stored. Nonpositive
+	 *            means the cache will not store anything.
+	 */
+	@SuppressWarnings("unchecked")
+	public BoundedCache(int maxSize, long ttlMillis) {
+		int stripeCount = 1;
+		while (stripeCount < MAX_STRIPES && maxSize / (stripeCount * 2) >= MIN_STRIPE_CAPACITY) {
+			stripeCount *= 2;
+		}
+
+		int capacity = (ttlMillis > 0) ? Math.max(maxSize, 0) : 0;
+		this.stripes = (Stripe<K, V>[]) new Stripe<?, ?>[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			// Distribute the remainder so the sum of capacities is exactly maxSize.
+			int stripeCapacity = capacity / stripeCount + ((i < capacity % stripeCount) ? 1 : 0);
+			stripes[i] = new Stripe<>(stripeCapacity);
+		}
+		this.stripeMask = stripeCount - 1;
+		this.ttlNanos = ttlMillis * 1000000L;
+	}
+
+	/**
+	 * Returns the value mapped to <code>key</code>, or <code>null</code> if
+	 * the cache does not contain it (or it expired).
+	 */
+	public V get(K key) {
+		return get(key, true);
+	}
+
+	/**
+	 * Like {@link #get(Object)}, except misses are not counted. For callers
+	 * that try several keys on behalf of a single request.
+	 */
+	public V probe(K key) {
+		return get(key, false);
+	}
+
+	private V get(K key, boolean countMiss) {
+		Stripe<K, V> stripe = stripeFor(key);
+		Entry<V> entry;
+		synchronized (stripe) {
+			entry = stripe.get(key);
+			if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+				stripe.remove(key);
+				expirations.increment();
+				entry = null;
+			}
+		}
+
+		if (entry == null) {
+			if (countMiss) {
+				misses.increment();
+			}
+			return null;
+		}
+		hits.increment();
+		return entry.value;
+	}
+
+	/**
+	 * Maps <code>value</code> to <code>key</code>, evicting the least valuable
+	 * entries if the cache is full. <code>null</code> values are ignored.
+	 */
+	public void put(K key, V value) {
+		if (value == null) {
+			return;
+		}
+		Stripe<K, V> stripe = stripeFor(key);
+		if (stripe.capacity == 0) {
+			return;
+		}
+
+		Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+		int evicted;
+		synchronized (stripe) {
+			evicted = stripe.put(key, entry);
+		}
+		if (evicted > 0) {
+			evictions.add(evicted);
+		}
+	}
+
+	/**
+	 * Removes <code>key</code>'s mapping, if any.
+	 */
+	public void invalidate(K key) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			stripe.remove(key);
+		}
+	}
+
+	/**
+	 * Removes every entry.
+	 */
+	public void invalidateAll() {
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				stripe.probation.clear();
+				stripe.protect.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of entries currently stored, including the ones that
+	 * expired but haven't been purged yet.
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.probation.size() + stripe.protect.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns a snapshot of the cache's counters.
+	 */
+	public CacheStatistics getStatistics() {
+		return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size());
+	}
+
+	private Stripe<K, V> stripeFor(K key) {
+		int hash = (key == null) ? 0 : key.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes[hash & stripeMask];
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/**
+	 * One independently locked segmented LRU. Callers must synchronize on it.
+	 */
+	private static class Stripe<K, V> {
+
+		private final int capacity;
+		private final int protectedCapacity;
+		/** Entries that have been requested once. Insertion order. */
+		private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>();
+		/** Entries that have been requested more than once. Access order. */
+		private final LinkedHashMap<K, Entry<V>> protect = new LinkedHashMap<>(16, 0.75f, true);
+
+		private Stripe(int capacity) {
+			this.capacity = capacity;
+			this.protectedCapacity = (int) (capacity * PROTECTED_RATIO);
+		}
+
+		private Entry<V> get(K key) {
+			Entry<V> entry = protect.get(key);
+			if (entry != null) {
+				return entry;
+			}
+
+			entry = probation.remove(key);
+			if (entry != null) {
+				promote(key, entry);
+			}
+			return entry;
+		}
+
+		/**
+		 * Moves a probationary entry to the protected segment, demoting the
+		 * protected segment's least recently used entry if needed.
+		 */
+		private void promote(K key, Entry<V> entry) {
+			protect.put(key, entry);
+			if (protect.size() > protectedCapacity) {
+				Iterator<Map.Entry<K, Entry<V>>> iterator = protect.entrySet().iterator();
+				Map.Entry<K, Entry<V>> eldest = iterator.next();
+				iterator.remove();
+				probation.put(eldest.getKey(), eldest.getValue());
+			}
+		}
+
+		/**
+		 * Returns the number of entries evicted to make room for the new one.
+		 */
+		private int put(K key, Entry<V> entry) {
+			if (protect.containsKey(key)) {
+				protect.put(key, entry);
+				return 0;
+			}
+			probation.remove(key);
+			probation.put(key, entry);
+
+			int evicted = 0;
+			while (probation.size() + protect.size() > capacity) {
+				LinkedHashMap<K, Entry<V>> victims = probation.isEmpty() ? protect : probation;
+				Iterator<K> iterator = victims.keySet().iterator();
+				iterator.next();
+				iterator.remove();
+				evicted++;
+			}
+			return evicted;
+		}
+
+		private void remove(K key) {
+			if (protect.remove(key) == null) {
+				probation.remove(key);
+			}
+		}
+
+	}
+
+}
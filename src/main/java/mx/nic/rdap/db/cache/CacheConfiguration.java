@@ -0,0 +1,86 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.EnumMap;
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.intercept.ObjectType;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link CachingInterceptor}, as read from the
+ * user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>cache.enabled</code>: Whether the cache should be applied at all.
+ * Default: <code>false</code>.</li>
+ * <li><code>cache.searches</code>: Whether search results should also be
+ * cached (keyed by pattern and result limit), not just lookups. Default:
+ * <code>false</code>.</li>
+ * <li><code>cache.&lt;type&gt;.max-size</code>: Maximum number of objects of
+ * type <code>&lt;type&gt;</code> (see {@link ObjectType#getPropertyName()})
+ * the cache can hold. Zero disables caching for the type. Default:
+ * {@value #DEFAULT_MAX_SIZE}.</li>
+ * <li><code>cache.&lt;type&gt;.ttl</code>: Seconds objects of type
+ * <code>&lt;type&gt;</code> stay cached. Zero disables caching for the type.
+ * Default: {@value #DEFAULT_TTL}.</li>
+ * </ul>
+ */
+public class CacheConfiguration {
+
+	public static final String ENABLED_PROPERTY = "cache.enabled";
+	public static final String SEARCHES_PROPERTY = "cache.searches";
+	private static final String PREFIX = "cache.";
+	private static final String MAX_SIZE_SUFFIX = ".max-size";
+	private static final String TTL_SUFFIX = ".ttl";
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+	public static final long DEFAULT_TTL = 300;
+
+	private final boolean searchesCached;
+	private final EnumMap<ObjectType, Integer> maxSizes = new EnumMap<>(ObjectType.class);
+	private final EnumMap<ObjectType, Long> ttls = new EnumMap<>(ObjectType.class);
+
+	public CacheConfiguration(Properties config) throws InitializationException {
+		searchesCached = ConfigurationUtils.getBoolean(config, SEARCHES_PROPERTY, false);
+		for (ObjectType type : ObjectType.values()) {
+			String prefix = PREFIX + type.getPropertyName();
+			maxSizes.put(type, ConfigurationUtils.getInt(config, prefix + MAX_SIZE_SUFFIX, DEFAULT_MAX_SIZE));
+			ttls.put(type, ConfigurationUtils.getLong(config, prefix + TTL_SUFFIX, DEFAULT_TTL));
+		}
+	}
+
+	/**
+	 * Returns whether the user wants the cache applied to the data access
+	 * implementation.
+	 */
+	public static boolean isEnabled(Properties config) throws InitializationException {
+		return ConfigurationUtils.getBoolean(config, ENABLED_PROPERTY, false);
+	}
+
+	/**
+	 * Stops the cache from holding <code>type</code> objects, regardless of
+	 * what the properties said. (For objects some other layer already caches
+	 * and invalidates.)
+	 */
+	public void disable(ObjectType type) {
+		maxSizes.put(type, 0);
+	}
+
+	public boolean isSearchesCached() {
+		return searchesCached;
+	}
+
+	public int getMaxSize(ObjectType type) {
+		return maxSizes.get(type);
+	}
+
+	/**
+	 * Returns the TTL of <code>type</code> objects, in seconds.
+	 */
+	public long getTtl(ObjectType type) {
+		return ttls.get(type);
+	}
+
+}
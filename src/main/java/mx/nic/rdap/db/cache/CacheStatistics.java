@@ -0,0 +1,72 @@
+package mx.nic.rdap.db.cache;
+
+/**
+ * Immutable snapshot of the counters of a {@link BoundedCache}.
+ */
+public class CacheStatistics {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final long expirationCount;
+	private final int size;
+
+	public CacheStatistics(long hitCount, long missCount, long evictionCount, long expirationCount, int size) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.expirationCount = expirationCount;
+		this.size = size;
+	}
+
+	/**
+	 * Number of lookups that were answered by the cache.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Number of lookups that had to be forwarded to the backend.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Number of entries that were dropped to make room for new ones.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Number of entries that were dropped because they outlived their TTL.
+	 */
+	public long getExpirationCount() {
+		return expirationCount;
+	}
+
+	/**
+	 * Number of entries the cache held when the snapshot was taken.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the fraction of lookups that were hits, or 0 if there haven't
+	 * been any lookups.
+	 */
+	public double getHitRate() {
+		long total = hitCount + missCount;
+		return (total == 0) ? 0 : ((double) hitCount) / total;
+	}
+
+	@Override
+	public String toString() {
+		return "[hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + ", expirations="
+				+ expirationCount + ", size=" + size + "]";
+	}
+
+}
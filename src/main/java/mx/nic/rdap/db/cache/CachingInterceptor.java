@@ -0,0 +1,183 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.fetch.FetchPlan;
+import mx.nic.rdap.db.intercept.BatchCall;
+import mx.nic.rdap.db.intercept.BatchCalls;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.intercept.ObjectType;
+import mx.nic.rdap.db.intercept.OperationClass;
+
+/**
+ * Interceptor that remembers the results of the DAO calls, so repeated lookups
+ * do not reach the backend.
+ * <p>
+ * There is one {@link BoundedCache} per {@link ObjectType}, sized and timed
+ * according to the {@link CacheConfiguration}. Only results that report
+ * something exists are cached; <code>null</code>, <code>false</code> and
+ * zero (as returned by the <code>exists</code> and <code>count</code>
+ * methods) are not, so objects created afterwards are not hidden for the
+ * whole TTL. (Absences are {@link NegativeLookupInterceptor}'s business.)
+ * Exceptions are never cached.
+ * <p>
+ * Results are cached under the {@link FetchPlan} they were fetched with, and
+ * serve the calls whose plan asks for as much or less; a {@link FetchPlan#FULL}
+ * domain can answer a shallow search, but not the other way around.
+ * <p>
+ * Note that the cached objects are shared between requests, so the caller is
+ * not supposed to modify them.
+ */
+public class CachingInterceptor implements DAOInterceptor {
+
+	private final boolean searchesCached;
+	private final EnumMap<ObjectType, BoundedCache<OperationKey, Object>> caches = new EnumMap<>(ObjectType.class);
+
+	public CachingInterceptor(CacheConfiguration config) {
+		this.searchesCached = config.isSearchesCached();
+		for (ObjectType type : ObjectType.values()) {
+			caches.put(type, new BoundedCache<>(config.getMaxSize(type), config.getTtl(type) * 1000L));
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException {
+		if (!isCacheable(operation)) {
+			return call.call();
+		}
+
+		BoundedCache<OperationKey, Object> cache = caches.get(operation.getObjectType());
+		FetchPlan plan = FetchPlan.current();
+		T result = (T) get(cache, operation, key, plan);
+		if (result == null) {
+			result = call.call();
+			if (!isAbsence(result)) {
+				cache.put(new OperationKey(operation, key, plan), result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Answers the cached keys of the batch, and forwards the rest as a single,
+	 * smaller batch.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> List<T> interceptBatch(DAOOperation operation, List<?> keys, BatchCall<T> call)
+			throws RdapDataAccessException {
+		if (!isCacheable(operation)) {
+			return call.call(BatchCalls.allPositions(keys.size()));
+		}
+
+		BoundedCache<OperationKey, Object> cache = caches.get(operation.getObjectType());
+		FetchPlan plan = FetchPlan.current();
+		List<T> result = new ArrayList<>(keys.size());
+		int[] misses = new int[keys.size()];
+		int missCount = 0;
+		for (int i = 0; i < keys.size(); i++) {
+			T cached = (T) get(cache, operation, keys.get(i), plan);
+			result.add(cached);
+			if (cached == null) {
+				misses[missCount++] = i;
+			}
+		}
+		if (missCount == 0) {
+			return result;
+		}
+
+		misses = Arrays.copyOf(misses, missCount);
+		List<T> fetched = call.call(misses);
+		for (int i = 0; i < missCount; i++) {
+			T object = fetched.get(i);
+			result.set(misses[i], object);
+			if (!isAbsence(object)) {
+				cache.put(new OperationKey(operation, keys.get(misses[i]), plan), object);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the cached result of the call, fetched with <code>plan</code> or
+	 * with any plan that covers it.
+	 */
+	private static Object get(BoundedCache<OperationKey, Object> cache, DAOOperation operation, Object key,
+			FetchPlan plan) {
+		FetchPlan[] plans = FetchPlan.values();
+		for (int i = plans.length - 1; i > plan.ordinal(); i--) {
+			Object cached = cache.probe(new OperationKey(operation, key, plans[i]));
+			if (cached != null) {
+				return cached;
+			}
+		}
+		// Only this one counts as a miss.
+		return cache.get(new OperationKey(operation, key, plan));
+	}
+
+	/**
+	 * Returns whether <code>result</code> means the object (or any match) does
+	 * not exist.
+	 */
+	private static boolean isAbsence(Object result) {
+		if (result == null || Boolean.FALSE.equals(result)) {
+			return true;
+		}
+		return (result instanceof Number) && ((Number) result).longValue() == 0;
+	}
+
+	private boolean isCacheable(DAOOperation operation) {
+		switch (operation.getOperationClass()) {
+		case LOOKUP:
+		case COUNT:
+			return true;
+		case SEARCH:
+		case REGEX_SEARCH:
+			return searchesCached;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the result of the <code>operation</code> call whose key is
+	 * <code>key</code> from the cache. Intended to be called when the backend
+	 * reports the object changed.
+	 */
+	public void invalidate(DAOOperation operation, Object key) {
+		BoundedCache<OperationKey, Object> cache = caches.get(operation.getObjectType());
+		for (FetchPlan plan : FetchPlan.values()) {
+			cache.invalidate(new OperationKey(operation, key, plan));
+		}
+	}
+
+	/**
+	 * Empties the cache of <code>type</code> objects.
+	 */
+	public void invalidateAll(ObjectType type) {
+		caches.get(type).invalidateAll();
+	}
+
+	/**
+	 * Empties every cache.
+	 */
+	public void invalidateAll() {
+		for (BoundedCache<OperationKey, Object> cache : caches.values()) {
+			cache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Returns the hit/miss statistics of the <code>type</code> object cache.
+	 */
+	public CacheStatistics getStatistics(ObjectType type) {
+		return caches.get(type).getStatistics();
+	}
+
+}
@@ -0,0 +1,42 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link CoalescingInterceptor}, as read from the
+ * user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>coalescing.enabled</code>: Whether concurrent identical calls
+ * should be coalesced at all. Default: <code>false</code>.</li>
+ * <li><code>coalescing.searches</code>: Whether searches should also be
+ * coalesced, not just lookups and counts. Default: <code>true</code>.</li>
+ * </ul>
+ */
+public class CoalescingConfiguration {
+
+	public static final String ENABLED_PROPERTY = "coalescing.enabled";
+	public static final String SEARCHES_PROPERTY = "coalescing.searches";
+
+	private final boolean searchesCoalesced;
+
+	public CoalescingConfiguration(Properties config) throws InitializationException {
+		searchesCoalesced = ConfigurationUtils.getBoolean(config, SEARCHES_PROPERTY, true);
+	}
+
+	/**
+	 * Returns whether the user wants concurrent identical calls coalesced.
+	 */
+	public static boolean isEnabled(Properties config) throws InitializationException {
+		return ConfigurationUtils.getBoolean(config, ENABLED_PROPERTY, false);
+	}
+
+	public boolean isSearchesCoalesced() {
+		return searchesCoalesced;
+	}
+
+}
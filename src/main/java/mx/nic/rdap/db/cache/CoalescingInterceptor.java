@@ -0,0 +1,128 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import mx.nic.rdap.db.deadline.Deadline;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+import mx.nic.rdap.db.fetch.FetchPlan;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.DAOOperation;
+
+/**
+ * Interceptor that makes concurrent identical DAO calls share a single backend
+ * call. ("Single flight.")
+ * <p>
+ * The first thread to request a key of an operation performs the call; the
+ * threads that request the same key while it's still running wait for it, and
+ * receive the same result, or the same exception. Nothing is remembered once
+ * the call is over; that's the {@link CachingInterceptor}'s job. This one only
+ * keeps a burst of misses of the same key (eg. when a popular domain expires
+ * from the cache) from turning into a burst of backend calls.
+ * <p>
+ * A waiting thread only waits as long as its own {@link Deadline} allows; a
+ * slow leader does not drag the others past theirs.
+ * <p>
+ * As with the {@link CachingInterceptor}, the result is shared between the
+ * callers, so they are not supposed to modify it. Batch calls are forwarded
+ * as they are.
+ */
+public class CoalescingInterceptor implements DAOInterceptor {
+
+	private final boolean searchesCoalesced;
+	private final ConcurrentHashMap<OperationKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder coalescedCalls = new LongAdder();
+
+	public CoalescingInterceptor(CoalescingConfiguration config) {
+		this.searchesCoalesced = config.isSearchesCoalesced();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException {
+		if (!isCoalesced(operation)) {
+			return call.call();
+		}
+
+		OperationKey flightKey = new OperationKey(operation, key, FetchPlan.current());
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+		if (leader != null) {
+			coalescedCalls.increment();
+			return (T) await(leader);
+		}
+
+		try {
+			T result = call.call();
+			flight.complete(result);
+			return result;
+		} catch (RdapDataAccessException | RuntimeException | Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(flightKey, flight);
+		}
+	}
+
+	/**
+	 * Waits for the leader's call, and returns or throws whatever it did.
+	 *
+	 * @throws GatewayTimeoutException
+	 *             The current thread's deadline passed first.
+	 */
+	private static Object await(CompletableFuture<Object> leader) throws RdapDataAccessException {
+		Deadline deadline = Deadline.current();
+		try {
+			return (deadline != null) ? leader.get(deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+					: leader.get();
+		} catch (TimeoutException e) {
+			throw new GatewayTimeoutException("The request ran out of time waiting for an identical call.", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RdapDataAccessException("Interrupted while waiting for an identical call to finish.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RdapDataAccessException) {
+				throw (RdapDataAccessException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	private boolean isCoalesced(DAOOperation operation) {
+		switch (operation.getOperationClass()) {
+		case LOOKUP:
+		case COUNT:
+			return true;
+		case SEARCH:
+		case REGEX_SEARCH:
+			return searchesCoalesced;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of calls that were answered by some other thread's
+	 * call, and therefore did not reach the backend.
+	 */
+	public long getCoalescedCount() {
+		return coalescedCalls.sum();
+	}
+
+	/**
+	 * Returns the number of distinct calls currently running.
+	 */
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+}
@@ -0,0 +1,75 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.intercept.ObjectType;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link NegativeLookupInterceptor}, as read from the
+ * user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>negative-cache.enabled</code>: Whether the negative lookup layer
+ * should be applied at all. Default: <code>false</code>.</li>
+ * <li><code>negative-cache.max-size</code>: Maximum number of misses
+ * remembered per lookup method. Default: {@value #DEFAULT_MAX_SIZE}.</li>
+ * <li><code>negative-cache.ttl</code>: Seconds a miss is remembered. Default:
+ * {@value #DEFAULT_TTL}.</li>
+ * <li><code>negative-cache.&lt;type&gt;.bloom-filter</code>: Path to a file
+ * created by {@link BloomFilter#writeTo(java.io.OutputStream)} containing the
+ * keys of every existing <code>&lt;type&gt;</code> object. <code>type</code>
+ * can be <code>domain</code>, <code>nameserver</code> or <code>entity</code>.
+ * Optional.</li>
+ * </ul>
+ */
+public class NegativeLookupConfiguration {
+
+	public static final String ENABLED_PROPERTY = "negative-cache.enabled";
+	private static final String MAX_SIZE_PROPERTY = "negative-cache.max-size";
+	private static final String TTL_PROPERTY = "negative-cache.ttl";
+	private static final String BLOOM_FILTER_PROPERTY = "negative-cache.%s.bloom-filter";
+
+	public static final int DEFAULT_MAX_SIZE = 100000;
+	public static final long DEFAULT_TTL = 30;
+
+	private final int maxSize;
+	private final long ttl;
+	private final Properties config;
+
+	public NegativeLookupConfiguration(Properties config) throws InitializationException {
+		this.maxSize = ConfigurationUtils.getInt(config, MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+		this.ttl = ConfigurationUtils.getLong(config, TTL_PROPERTY, DEFAULT_TTL);
+		this.config = config;
+	}
+
+	/**
+	 * Returns whether the user wants the negative lookup layer applied to the
+	 * data access implementation.
+	 */
+	public static boolean isEnabled(Properties config) throws InitializationException {
+		return ConfigurationUtils.getBoolean(config, ENABLED_PROPERTY, false);
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of seconds a miss is remembered.
+	 */
+	public long getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * Returns the path of the Bloom filter file of <code>type</code> objects,
+	 * or <code>null</code> if the user did not configure one.
+	 */
+	public String getBloomFilterPath(ObjectType type) {
+		return ConfigurationUtils.getString(config, String.format(BLOOM_FILTER_PROPERTY, type.getPropertyName()));
+	}
+
+}
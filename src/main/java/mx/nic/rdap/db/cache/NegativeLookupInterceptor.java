@@ -0,0 +1,251 @@
+package mx.nic.rdap.db.cache;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.intercept.BatchCall;
+import mx.nic.rdap.db.intercept.BatchCalls;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.intercept.ObjectType;
+
+/**
+ * Interceptor that answers lookups of objects that are known not to exist
+ * without touching the backend.
+ * <p>
+ * It applies to {@link DAOOperation#DOMAIN_GET_BY_NAME},
+ * {@link DAOOperation#NAMESERVER_GET_BY_NAME} and
+ * {@link DAOOperation#ENTITY_GET_BY_HANDLE}. Two mechanisms are involved:
+ * <ol>
+ * <li>A short-lived cache of keys the backend recently reported as absent
+ * (either by returning <code>null</code> or by throwing
+ * {@link NotFoundException}).</li>
+ * <li>Optionally, a {@link BloomFilter} containing the keys of every existing
+ * object. Keys the filter rejects are absent for sure. The filter must be kept
+ * up to date through {@link #recordExisting(DAOOperation, String)}, or objects
+ * created after it was built will not be found.</li>
+ * </ol>
+ */
+public class NegativeLookupInterceptor implements DAOInterceptor {
+
+	/** Remembered in the miss cache when the backend returned null. */
+	private static final Object NULL_MISS = new Object();
+
+	private final EnumMap<DAOOperation, Target> targets = new EnumMap<>(DAOOperation.class);
+
+	public NegativeLookupInterceptor(NegativeLookupConfiguration config) throws InitializationException {
+		long ttlMillis = config.getTtl() * 1000L;
+		targets.put(DAOOperation.DOMAIN_GET_BY_NAME, new Target(config.getMaxSize(), ttlMillis));
+		targets.put(DAOOperation.NAMESERVER_GET_BY_NAME, new Target(config.getMaxSize(), ttlMillis));
+		targets.put(DAOOperation.ENTITY_GET_BY_HANDLE, new Target(config.getMaxSize(), ttlMillis));
+
+		for (DAOOperation operation : targets.keySet()) {
+			String path = config.getBloomFilterPath(operation.getObjectType());
+			if (path != null) {
+				targets.get(operation).filter = loadBloomFilter(path);
+			}
+		}
+	}
+
+	private static BloomFilter loadBloomFilter(String path) throws InitializationException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(path)))) {
+			return BloomFilter.readFrom(in);
+		} catch (IOException e) {
+			throw new InitializationException("Could not load Bloom filter " + path + ".", e);
+		}
+	}
+
+	@Override
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException {
+		Target target = targets.get(operation);
+		if (target == null || key == null) {
+			return call.call();
+		}
+
+		BloomFilter filter = target.filter;
+		if (filter != null && !filter.mightContain(key.toString())) {
+			target.filterRejections.increment();
+			return null;
+		}
+
+		Object miss = target.misses.get(key);
+		if (miss != null) {
+			target.missCacheHits.increment();
+			if (miss == NULL_MISS) {
+				return null;
+			}
+			throw new NotFoundException(((NotFoundException) miss).getMessage());
+		}
+
+		T result;
+		try {
+			result = call.call();
+		} catch (NotFoundException e) {
+			onMiss(target, filter, key, e);
+			throw e;
+		}
+
+		if (result == null) {
+			onMiss(target, filter, key, NULL_MISS);
+		}
+		return result;
+	}
+
+	/**
+	 * Drops the keys known to be absent from the batch, and forwards the rest.
+	 * Absent objects are reported as <code>null</code>, as batch methods do.
+	 */
+	@Override
+	public <T> List<T> interceptBatch(DAOOperation operation, List<?> keys, BatchCall<T> call)
+			throws RdapDataAccessException {
+		Target target = targets.get(operation);
+		if (target == null) {
+			return call.call(BatchCalls.allPositions(keys.size()));
+		}
+
+		BloomFilter filter = target.filter;
+		List<T> result = new ArrayList<>(keys.size());
+		int[] candidates = new int[keys.size()];
+		int candidateCount = 0;
+		for (int i = 0; i < keys.size(); i++) {
+			result.add(null);
+			Object key = keys.get(i);
+			if (key == null) {
+				candidates[candidateCount++] = i;
+			} else if (filter != null && !filter.mightContain(key.toString())) {
+				target.filterRejections.increment();
+			} else if (target.misses.get(key) != null) {
+				target.missCacheHits.increment();
+			} else {
+				candidates[candidateCount++] = i;
+			}
+		}
+		if (candidateCount == 0) {
+			return result;
+		}
+
+		candidates = Arrays.copyOf(candidates, candidateCount);
+		List<T> fetched = call.call(candidates);
+		for (int i = 0; i < candidateCount; i++) {
+			T object = fetched.get(i);
+			Object key = keys.get(candidates[i]);
+			if (object != null) {
+				result.set(candidates[i], object);
+			} else if (key != null) {
+				onMiss(target, filter, key, NULL_MISS);
+			}
+		}
+		return result;
+	}
+
+	private static void onMiss(Target target, BloomFilter filter, Object key, Object miss) {
+		if (filter != null) {
+			target.falsePositives.increment();
+		}
+		target.misses.put(key, miss);
+	}
+
+	/**
+	 * Replaces the Bloom filter used to screen the keys of
+	 * <code>operation</code>. <code>null</code> removes the filter.
+	 *
+	 * @param operation
+	 *            {@link DAOOperation#DOMAIN_GET_BY_NAME},
+	 *            {@link DAOOperation#NAMESERVER_GET_BY_NAME} or
+	 *            {@link DAOOperation#ENTITY_GET_BY_HANDLE}.
+	 * @param filter
+	 *            The keys of all the existing objects, normalized as
+	 *            {@link mx.nic.rdap.db.intercept.LookupKeys} does.
+	 */
+	public void setBloomFilter(DAOOperation operation, BloomFilter filter) {
+		getTarget(operation).filter = filter;
+	}
+
+	/**
+	 * Builds a fresh Bloom filter out of <code>existingKeys</code> and starts
+	 * using it to screen the keys of <code>operation</code>.
+	 */
+	public void rebuildBloomFilter(DAOOperation operation, Iterable<String> existingKeys, long expectedKeys,
+			double falsePositiveProbability) {
+		BloomFilter filter = BloomFilter.create(expectedKeys, falsePositiveProbability);
+		for (String key : existingKeys) {
+			filter.put(key);
+		}
+		setBloomFilter(operation, filter);
+	}
+
+	/**
+	 * Tells the interceptor that an object has been created, so it stops
+	 * reporting it as absent.
+	 */
+	public void recordExisting(DAOOperation operation, String key) {
+		Target target = getTarget(operation);
+		BloomFilter filter = target.filter;
+		if (filter != null) {
+			filter.put(key);
+		}
+		target.misses.invalidate(key);
+	}
+
+	/**
+	 * Returns the counters of the <code>operation</code> lookups.
+	 */
+	public NegativeLookupStatistics getStatistics(DAOOperation operation) {
+		Target target = getTarget(operation);
+		BloomFilter filter = target.filter;
+		return new NegativeLookupStatistics(target.filterRejections.sum(), target.missCacheHits.sum(),
+				target.falsePositives.sum(), (filter != null) ? filter.getExpectedFalsePositiveProbability() : 0);
+	}
+
+	/**
+	 * Returns the counters of the lookups of <code>type</code> objects, or
+	 * <code>null</code> if this interceptor does not screen them.
+	 */
+	public NegativeLookupStatistics getStatistics(ObjectType type) {
+		for (DAOOperation operation : targets.keySet()) {
+			if (operation.getObjectType() == type) {
+				return getStatistics(operation);
+			}
+		}
+		return null;
+	}
+
+	private Target getTarget(DAOOperation operation) {
+		Target target = targets.get(operation);
+		if (target == null) {
+			throw new IllegalArgumentException(operation + " is not screened by the negative lookup layer.");
+		}
+		return target;
+	}
+
+	/**
+	 * State of one of the screened operations.
+	 */
+	private static class Target {
+
+		private volatile BloomFilter filter;
+		private final BoundedCache<Object, Object> misses;
+
+		private final LongAdder filterRejections = new LongAdder();
+		private final LongAdder missCacheHits = new LongAdder();
+		private final LongAdder falsePositives = new LongAdder();
+
+		private Target(int maxSize, long ttlMillis) {
+			this.misses = new BoundedCache<>(maxSize, ttlMillis);
+		}
+
+	}
+
+}
@@ -0,0 +1,74 @@
+package mx.nic.rdap.db.cache;
+
+/**
+ * Immutable snapshot of the counters of one lookup method of the
+ * {@link NegativeLookupInterceptor}.
+ */
+public class NegativeLookupStatistics {
+
+	private final long filterRejections;
+	private final long missCacheHits;
+	private final long falsePositives;
+	private final double expectedFalsePositiveRate;
+
+	public NegativeLookupStatistics(long filterRejections, long missCacheHits, long falsePositives,
+			double expectedFalsePositiveRate) {
+		this.filterRejections = filterRejections;
+		this.missCacheHits = missCacheHits;
+		this.falsePositives = falsePositives;
+		this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+	}
+
+	/**
+	 * Number of lookups the Bloom filter answered as definitely absent.
+	 */
+	public long getFilterRejections() {
+		return filterRejections;
+	}
+
+	/**
+	 * Number of lookups answered from the remembered misses.
+	 */
+	public long getMissCacheHits() {
+		return missCacheHits;
+	}
+
+	/**
+	 * Number of lookups the Bloom filter let through, which the backend then
+	 * reported as absent.
+	 */
+	public long getFalsePositives() {
+		return falsePositives;
+	}
+
+	/**
+	 * Number of lookups that did not have to reach the backend.
+	 */
+	public long getBackendCallsSaved() {
+		return filterRejections + missCacheHits;
+	}
+
+	/**
+	 * Observed fraction of absent keys the Bloom filter failed to reject. 0 if
+	 * there is no filter or no absent keys have been requested.
+	 */
+	public double getFalsePositiveRate() {
+		long negatives = falsePositives + filterRejections;
+		return (negatives == 0) ? 0 : ((double) falsePositives) / negatives;
+	}
+
+	/**
+	 * False positive rate the Bloom filter should theoretically have, given its
+	 * size and the number of keys it contains. 0 if there is no filter.
+	 */
+	public double getExpectedFalsePositiveRate() {
+		return expectedFalsePositiveRate;
+	}
+
+	@Override
+	public String toString() {
+		return "[saved=" + getBackendCallsSaved() + ", filterRejections=" + filterRejections + ", missCacheHits="
+				+ missCacheHits + ", falsePositives=" + falsePositives + "]";
+	}
+
+}
@@ -0,0 +1,43 @@
+package mx.nic.rdap.db.cache;
+
+import mx.nic.rdap.db.fetch.FetchPlan;
+import mx.nic.rdap.db.intercept.DAOOperation;
+
+/**
+ * Pairs a key with its operation, since the same key can mean different
+ * things to different operations. (eg. a nameserver's name vs its count.)
+ * <p>
+ * The {@link FetchPlan} is part of the key too, so a shallow result is never
+ * mistaken for a full one.
+ */
+final class OperationKey {
+
+	private final DAOOperation operation;
+	private final Object key;
+	private final FetchPlan plan;
+
+	OperationKey(DAOOperation operation, Object key, FetchPlan plan) {
+		this.operation = operation;
+		this.key = key;
+		this.plan = plan;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 31 * operation.ordinal() + plan.ordinal();
+		return 31 * result + ((key == null) ? 0 : key.hashCode());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof OperationKey))
+			return false;
+		OperationKey other = (OperationKey) obj;
+		if (operation != other.operation || plan != other.plan)
+			return false;
+		return (key == null) ? (other.key == null) : key.equals(other.key);
+	}
+
+}
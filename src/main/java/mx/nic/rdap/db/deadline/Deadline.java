@@ -0,0 +1,120 @@
+package mx.nic.rdap.db.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+
+/**
+ * The moment by which a request must have been answered.
+ * <p>
+ * Deadlines are bound to the thread that serves the request, so they reach
+ * every DAO call without changing the DAO methods:
+ * 
+ * <pre>
+ * try (Deadline.Scope scope = Deadline.after(5, TimeUnit.SECONDS).bind()) {
+ * 	DataAccessService.getDomainDAO().searchByName(pattern, limit);
+ * }
+ * </pre>
+ * 
+ * Implementations retrieve it through {@link #current()}, and are expected to
+ * use it to bound their work; eg. by turning it into a query timeout (see
+ * {@link #getQueryTimeout()}), or by stopping a scan early and returning the
+ * results found so far, flagged as limited.
+ * <p>
+ * Instances are immutable.
+ */
+public final class Deadline {
+
+	private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+	/** In {@link System#nanoTime()} terms. */
+	private final long expiresAt;
+
+	private Deadline(long expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * Returns the deadline that expires <code>duration</code>
+	 * <code>unit</code>s from now.
+	 */
+	public static Deadline after(long duration, TimeUnit unit) {
+		return new Deadline(System.nanoTime() + unit.toNanos(duration));
+	}
+
+	/**
+	 * Returns the deadline bound to the current thread, or <code>null</code>
+	 * if the request is not bounded.
+	 */
+	public static Deadline current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Binds this deadline to the current thread, until the returned scope is
+	 * closed.
+	 * <p>
+	 * If the thread was already bound to an earlier deadline, that one stays
+	 * in effect; a nested call cannot extend the time its caller was given.
+	 */
+	public Scope bind() {
+		Deadline previous = CURRENT.get();
+		CURRENT.set((previous != null && previous.expiresAt - expiresAt < 0) ? previous : this);
+		return new Scope(previous);
+	}
+
+	/**
+	 * Returns the time left, in <code>unit</code>s. Negative if the deadline
+	 * has already passed.
+	 */
+	public long remaining(TimeUnit unit) {
+		return unit.convert(expiresAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+
+	public boolean isExpired() {
+		return expiresAt - System.nanoTime() <= 0;
+	}
+
+	/**
+	 * Throws if the deadline has passed.
+	 */
+	public void check() throws GatewayTimeoutException {
+		if (isExpired()) {
+			throw new GatewayTimeoutException("The request ran out of time.");
+		}
+	}
+
+	/**
+	 * Returns the time left in whole seconds, rounded up and never less than
+	 * one, as expected by {@link java.sql.Statement#setQueryTimeout(int)}.
+	 */
+	public int getQueryTimeout() {
+		long nanos = expiresAt - System.nanoTime();
+		long seconds = (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+		return (int) Math.min(Math.max(seconds, 1), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * The binding of a deadline to a thread. Closing it restores the deadline
+	 * that was bound before.
+	 */
+	public static final class Scope implements AutoCloseable {
+
+		private final Deadline previous;
+
+		private Scope(Deadline previous) {
+			this.previous = previous;
+		}
+
+		@Override
+		public void close() {
+			if (previous != null) {
+				CURRENT.set(previous);
+			} else {
+				CURRENT.remove();
+			}
+		}
+
+	}
+
+}
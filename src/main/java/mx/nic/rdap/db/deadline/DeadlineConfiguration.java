@@ -0,0 +1,50 @@
+package mx.nic.rdap.db.deadline;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link DeadlineInterceptor}, as read from the
+ * user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>deadline.enabled</code>: Whether the DAO calls should be checked
+ * against their {@link Deadline}s at all. Default: <code>false</code>.</li>
+ * <li><code>deadline.default-timeout</code>: Milliseconds a DAO call is
+ * allowed to take when the caller did not bind a deadline. Zero means such
+ * calls are not bounded. Default: {@value #DEFAULT_TIMEOUT}.</li>
+ * </ul>
+ */
+public class DeadlineConfiguration {
+
+	public static final String ENABLED_PROPERTY = "deadline.enabled";
+	private static final String DEFAULT_TIMEOUT_PROPERTY = "deadline.default-timeout";
+
+	public static final long DEFAULT_TIMEOUT = 0;
+
+	private final long defaultTimeout;
+
+	public DeadlineConfiguration(Properties config) throws InitializationException {
+		this.defaultTimeout = ConfigurationUtils.getLong(config, DEFAULT_TIMEOUT_PROPERTY, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * Returns whether the user wants the DAO calls checked against their
+	 * deadlines.
+	 */
+	public static boolean isEnabled(Properties config) throws InitializationException {
+		return ConfigurationUtils.getBoolean(config, ENABLED_PROPERTY, false);
+	}
+
+	/**
+	 * Returns the milliseconds unbounded calls are allowed to take; zero if
+	 * they should stay unbounded.
+	 */
+	public long getDefaultTimeout() {
+		return defaultTimeout;
+	}
+
+}
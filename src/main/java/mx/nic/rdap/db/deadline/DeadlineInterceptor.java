@@ -0,0 +1,89 @@
+package mx.nic.rdap.db.deadline;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.BatchCall;
+import mx.nic.rdap.db.intercept.BatchCalls;
+import mx.nic.rdap.db.intercept.CursorCall;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.struct.ForwardingSearchCursor;
+import mx.nic.rdap.db.struct.SearchCursor;
+
+/**
+ * Interceptor that refuses to start DAO calls whose {@link Deadline} has
+ * already passed, since nobody will be waiting for their result.
+ * <p>
+ * It can also bind a default deadline to the calls that arrive without one,
+ * so the implementation can bound them as well.
+ */
+public class DeadlineInterceptor implements DAOInterceptor {
+
+	private final long defaultTimeout;
+
+	public DeadlineInterceptor(DeadlineConfiguration config) {
+		this.defaultTimeout = config.getDefaultTimeout();
+	}
+
+	@Override
+	@SuppressWarnings("try") // The scope is bound, not referenced.
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException {
+		Deadline deadline = Deadline.current();
+		if (deadline != null) {
+			deadline.check();
+			return call.call();
+		}
+		if (defaultTimeout <= 0) {
+			return call.call();
+		}
+
+		try (Deadline.Scope scope = Deadline.after(defaultTimeout, TimeUnit.MILLISECONDS).bind()) {
+			return call.call();
+		}
+	}
+
+	/**
+	 * The deadline (the caller's, or the default one) also bounds every
+	 * {@link SearchCursor#next()}, since that's where the cursor does most of
+	 * its work.
+	 */
+	@Override
+	@SuppressWarnings("try")
+	public <T extends RdapObject> SearchCursor<T> interceptCursor(DAOOperation operation, Object key,
+			CursorCall<T> call) throws RdapDataAccessException {
+		Deadline deadline = Deadline.current();
+		if (deadline == null) {
+			if (defaultTimeout <= 0) {
+				return call.call();
+			}
+			deadline = Deadline.after(defaultTimeout, TimeUnit.MILLISECONDS);
+		}
+
+		Deadline cursorDeadline = deadline;
+		cursorDeadline.check();
+		SearchCursor<T> cursor;
+		try (Deadline.Scope scope = cursorDeadline.bind()) {
+			cursor = call.call();
+		}
+		return new ForwardingSearchCursor<T>(cursor) {
+			@Override
+			public T next() throws RdapDataAccessException {
+				cursorDeadline.check();
+				try (Deadline.Scope scope = cursorDeadline.bind()) {
+					return delegate.next();
+				}
+			}
+		};
+	}
+
+	@Override
+	public <T> List<T> interceptBatch(DAOOperation operation, List<?> keys, BatchCall<T> call)
+			throws RdapDataAccessException {
+		return intercept(operation, keys, () -> call.call(BatchCalls.allPositions(keys.size())));
+	}
+
+}
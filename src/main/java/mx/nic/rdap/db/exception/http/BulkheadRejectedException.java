@@ -0,0 +1,22 @@
+package mx.nic.rdap.db.exception.http;
+
+/**
+ * Signals that the request was shed by a
+ * {@link mx.nic.rdap.db.bulkhead.BulkheadInterceptor} because too many
+ * requests of its kind were running already. It's a
+ * {@link ServiceUnavailableException} (503), but callers can tell it apart
+ * from the other reasons the Registry might be unavailable.
+ */
+public class BulkheadRejectedException extends ServiceUnavailableException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BulkheadRejectedException() {
+		super();
+	}
+
+	public BulkheadRejectedException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,30 @@
+package mx.nic.rdap.db.exception.http;
+
+/**
+ * Signals that the request ran out of time before the Registry could answer
+ * it. (See {@link mx.nic.rdap.db.deadline.Deadline}.) If the server is HTTP,
+ * this will become a 504.
+ */
+public class GatewayTimeoutException extends HttpException {
+
+	private static final long serialVersionUID = 1L;
+	private static final int CODE = 504;
+	private static final String DEFAULT_MSG = "Gateway Timeout";
+
+	public GatewayTimeoutException() {
+		super(CODE, DEFAULT_MSG);
+	}
+
+	public GatewayTimeoutException(String message) {
+		super(CODE, message);
+	}
+
+	public GatewayTimeoutException(Throwable cause) {
+		super(CODE, DEFAULT_MSG, cause);
+	}
+
+	public GatewayTimeoutException(String message, Throwable cause) {
+		super(CODE, message, cause);
+	}
+
+}
@@ -0,0 +1,30 @@
+package mx.nic.rdap.db.exception.http;
+
+/**
+ * Signals that the request was turned down because the Registry is overloaded,
+ * rather than because of something wrong with it. The client is expected to
+ * try again later. If the server is HTTP, this will become a 503.
+ */
+public class ServiceUnavailableException extends HttpException {
+
+	private static final long serialVersionUID = 1L;
+	private static final int CODE = 503;
+	private static final String DEFAULT_MSG = "Service Unavailable";
+
+	public ServiceUnavailableException() {
+		super(CODE, DEFAULT_MSG);
+	}
+
+	public ServiceUnavailableException(String message) {
+		super(CODE, message);
+	}
+
+	public ServiceUnavailableException(Throwable cause) {
+		super(CODE, DEFAULT_MSG, cause);
+	}
+
+	public ServiceUnavailableException(String message, Throwable cause) {
+		super(CODE, message, cause);
+	}
+
+}
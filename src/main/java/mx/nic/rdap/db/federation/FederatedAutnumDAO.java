@@ -0,0 +1,30 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AutnumDAO} of the {@link FederatedDataAccessImplementation}.
+ */
+class FederatedAutnumDAO implements AutnumDAO {
+
+	private final ShardSet shards;
+
+	FederatedAutnumDAO(ShardSet shards) {
+		this.shards = shards;
+	}
+
+	@Override
+	public Autnum getByRange(long autnum) throws RdapDataAccessException {
+		return shards.route(shards.getRouter().routeAutnum(autnum), shard -> shard.getAutnumDAO().getByRange(autnum));
+	}
+
+	@Override
+	public boolean existsByRange(long autnum) throws RdapDataAccessException {
+		Boolean result = shards.route(shards.getRouter().routeAutnum(autnum),
+				shard -> shard.getAutnumDAO().existsByRange(autnum));
+		return Boolean.TRUE.equals(result);
+	}
+
+}
@@ -0,0 +1,140 @@
+package mx.nic.rdap.db.federation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+import mx.nic.rdap.db.util.DaemonThreadFactory;
+
+/**
+ * {@link DataAccessImplementation} that splits the registry over several
+ * backends (shards), each holding a disjoint part of it.
+ * <p>
+ * Lookups are routed by key: domains by zone, IP networks by block and autnums
+ * by range, as declared in the {@link FederationConfiguration}. Objects that
+ * cannot be routed (entities, nameservers, users) are looked up in every shard
+ * at once. Searches are scattered over the shards that can hold matches, and
+ * gathered until the result limit is reached; the rest of the shard calls are
+ * cancelled then. (See {@link ShardSet}.)
+ * <p>
+ * The shards are implementations themselves, instantiated and initialized by
+ * this one. They are expected to provide the same DAOs; the first shard
+ * decides which ones are available.
+ * <p>
+ * Not listed in META-INF/services; select it through the
+ * <code>data-access-implementation</code> property.
+ */
+public class FederatedDataAccessImplementation implements DataAccessImplementation, AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(FederatedDataAccessImplementation.class.getName());
+
+	private List<Shard> shardList;
+	private ExecutorService executor;
+
+	private AutnumDAO autnumDAO;
+	private DomainDAO domainDAO;
+	private EntityDAO entityDAO;
+	private IpNetworkDAO ipNetworkDAO;
+	private NameserverDAO nameserverDAO;
+	private RdapUserDAO rdapUserDAO;
+
+	@Override
+	public void init(Properties properties) throws InitializationException {
+		FederationConfiguration config = new FederationConfiguration(properties);
+
+		shardList = new ArrayList<>();
+		for (String name : config.getShards()) {
+			DataAccessImplementation implementation = instantiate(config.getImplementation(name));
+			implementation.init(config.getProperties(name));
+			shardList.add(new Shard(name, implementation));
+		}
+		executor = Executors.newCachedThreadPool(new DaemonThreadFactory("rdap-federation-"));
+		ShardSet shards = new ShardSet(new ShardRouter(shardList, config), executor);
+
+		DataAccessImplementation first = shardList.get(0).getImplementation();
+		try {
+			autnumDAO = (first.getAutnumDAO() != null) ? new FederatedAutnumDAO(shards) : null;
+			domainDAO = (first.getDomainDAO() != null) ? new FederatedDomainDAO(shards) : null;
+			entityDAO = (first.getEntityDAO() != null) ? new FederatedEntityDAO(shards) : null;
+			ipNetworkDAO = (first.getIpNetworkDAO() != null) ? new FederatedIpNetworkDAO(shards) : null;
+			NameserverDAO firstNameserverDAO = first.getNameserverDAO();
+			nameserverDAO = (firstNameserverDAO != null)
+					? new FederatedNameserverDAO(shards, firstNameserverDAO.isNameserverSharingNameConformance())
+					: null;
+			rdapUserDAO = (first.getRdapUserDAO() != null) ? new FederatedRdapUserDAO(shards) : null;
+		} catch (RdapDataAccessException e) {
+			throw new InitializationException("Could not retrieve the DAOs of the first shard.", e);
+		}
+
+		logger.info("Federated data access initialized: " + config.getShards());
+	}
+
+	private static DataAccessImplementation instantiate(String className) throws InitializationException {
+		try {
+			return (DataAccessImplementation) Class.forName(className).newInstance();
+		} catch (InstantiationException | IllegalAccessException | ClassNotFoundException | ClassCastException e) {
+			throw new InitializationException("Could not instantiate shard class " + className + ".", e);
+		}
+	}
+
+	/**
+	 * Stops the shard threads, and closes the shards that can be closed.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+		for (Shard shard : shardList) {
+			if (shard.getImplementation() instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) shard.getImplementation()).close();
+				} catch (Exception e) {
+					logger.log(Level.WARNING, "Could not close shard '" + shard.getName() + "'.", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public AutnumDAO getAutnumDAO() {
+		return autnumDAO;
+	}
+
+	@Override
+	public DomainDAO getDomainDAO() {
+		return domainDAO;
+	}
+
+	@Override
+	public EntityDAO getEntityDAO() {
+		return entityDAO;
+	}
+
+	@Override
+	public IpNetworkDAO getIpNetworkDAO() {
+		return ipNetworkDAO;
+	}
+
+	@Override
+	public NameserverDAO getNameserverDAO() {
+		return nameserverDAO;
+	}
+
+	@Override
+	public RdapUserDAO getRdapUserDAO() {
+		return rdapUserDAO;
+	}
+
+}
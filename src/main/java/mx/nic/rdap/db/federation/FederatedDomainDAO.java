@@ -0,0 +1,134 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.LookupKeys;
+import mx.nic.rdap.db.paging.PagedSearch;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link DomainDAO} of the {@link FederatedDataAccessImplementation}.
+ * <p>
+ * Lookups and name searches only reach the shards of the relevant zones. The
+ * nameserver searches reach every shard, since any zone can delegate to any
+ * nameserver.
+ */
+class FederatedDomainDAO implements DomainDAO {
+
+	private final ShardSet shards;
+
+	FederatedDomainDAO(ShardSet shards) {
+		this.shards = shards;
+	}
+
+	@Override
+	public Domain getByName(DomainLabel domainLabel) throws RdapDataAccessException {
+		return shards.route(shards.getRouter().routeDomain(LookupKeys.of(domainLabel)),
+				shard -> shard.getDomainDAO().getByName(domainLabel));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().routeDomainPattern(LookupKeys.of(namePattern)),
+				shard -> shard.getDomainDAO().searchByName(namePattern, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsLDHName(DomainLabel nsName, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getDomainDAO().searchByNsLDHName(nsName, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(), shard -> shard.getDomainDAO().searchByNsIp(ip, resultLimit),
+				resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexName(String regexName, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getDomainDAO().searchByRegexName(regexName, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getDomainDAO().searchByRegexNsLDHName(regexNsName, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getDomainDAO().searchByRegexNsIp(ip, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().routeDomainPattern(LookupKeys.of(namePattern)),
+				PagedSearch.DOMAIN_BY_NAME.scope(namePattern), cursor, resultLimit, Pages::domainKey,
+				shard -> shard.getDomainDAO().pageByName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByNsLDHName(DomainLabel nsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.DOMAIN_BY_NS_LDH_NAME.scope(nsName), cursor,
+				resultLimit, Pages::domainKey,
+				shard -> shard.getDomainDAO().pageByNsLDHName(nsName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.DOMAIN_BY_NS_IP.scope(ip), cursor, resultLimit,
+				Pages::domainKey, shard -> shard.getDomainDAO().pageByNsIp(ip, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexName(String regexName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.DOMAIN_BY_REGEX_NAME.scope(regexName), cursor,
+				resultLimit, Pages::domainKey,
+				shard -> shard.getDomainDAO().pageByRegexName(regexName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexNsLDHName(String regexNsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.DOMAIN_BY_REGEX_NS_LDH_NAME.scope(regexNsName),
+				cursor, resultLimit, Pages::domainKey,
+				shard -> shard.getDomainDAO().pageByRegexNsLDHName(regexNsName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.DOMAIN_BY_REGEX_NS_IP.scope(ip), cursor,
+				resultLimit, Pages::domainKey,
+				shard -> shard.getDomainDAO().pageByRegexNsIp(ip, cursor, resultLimit));
+	}
+
+	@Override
+	public boolean exists(DomainLabel domainLabel) throws RdapDataAccessException {
+		Boolean result = shards.route(shards.getRouter().routeDomain(LookupKeys.of(domainLabel)),
+				shard -> shard.getDomainDAO().exists(domainLabel));
+		return Boolean.TRUE.equals(result);
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		int result = shards.sum(shards.getRouter().routeDomainPattern(LookupKeys.of(namePattern)),
+				shard -> shard.getDomainDAO().countByName(namePattern, countLimit));
+		return Math.min(result, countLimit);
+	}
+
+}
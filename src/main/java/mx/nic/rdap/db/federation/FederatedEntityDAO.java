@@ -0,0 +1,99 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.paging.PagedSearch;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link EntityDAO} of the {@link FederatedDataAccessImplementation}.
+ */
+class FederatedEntityDAO implements EntityDAO {
+
+	private final ShardSet shards;
+
+	FederatedEntityDAO(ShardSet shards) {
+		this.shards = shards;
+	}
+
+	@Override
+	public Entity getByHandle(String entityHandle) throws RdapDataAccessException {
+		return shards.findFirst(shard -> shard.getEntityDAO().getByHandle(entityHandle));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getEntityDAO().searchByHandle(handle, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getEntityDAO().searchByVCardName(vCardName, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getEntityDAO().searchByRegexHandle(regexHandle, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getEntityDAO().searchByRegexVCardName(vCardName, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByHandle(String handle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.ENTITY_BY_HANDLE.scope(handle), cursor,
+				resultLimit, Pages::entityKey,
+				shard -> shard.getEntityDAO().pageByHandle(handle, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.ENTITY_BY_VCARD_NAME.scope(vCardName), cursor,
+				resultLimit, Pages::entityKey,
+				shard -> shard.getEntityDAO().pageByVCardName(vCardName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByRegexHandle(String regexHandle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.ENTITY_BY_REGEX_HANDLE.scope(regexHandle),
+				cursor, resultLimit, Pages::entityKey,
+				shard -> shard.getEntityDAO().pageByRegexHandle(regexHandle, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByRegexVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.ENTITY_BY_REGEX_VCARD_NAME.scope(vCardName),
+				cursor, resultLimit, Pages::entityKey,
+				shard -> shard.getEntityDAO().pageByRegexVCardName(vCardName, cursor, resultLimit));
+	}
+
+	@Override
+	public boolean existsByHandle(String entityHandle) throws RdapDataAccessException {
+		// null means "not here", so the other shards are still waited for.
+		Boolean result = shards.findFirst(shard -> shard.getEntityDAO().existsByHandle(entityHandle) ? true : null);
+		return result != null;
+	}
+
+	@Override
+	public int countByHandle(String handle, int countLimit) throws RdapDataAccessException {
+		int result = shards.sum(shards.getRouter().getAll(),
+				shard -> shard.getEntityDAO().countByHandle(handle, countLimit));
+		return Math.min(result, countLimit);
+	}
+
+}
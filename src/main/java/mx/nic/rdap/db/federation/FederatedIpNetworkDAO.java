@@ -0,0 +1,32 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link IpNetworkDAO} of the {@link FederatedDataAccessImplementation}.
+ */
+class FederatedIpNetworkDAO implements IpNetworkDAO {
+
+	private final ShardSet shards;
+
+	FederatedIpNetworkDAO(ShardSet shards) {
+		this.shards = shards;
+	}
+
+	@Override
+	public IpNetwork getByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		return shards.route(shards.getRouter().routeAddressBlock(block),
+				shard -> shard.getIpNetworkDAO().getByAddressBlock(block));
+	}
+
+	@Override
+	public boolean existsByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		Boolean result = shards.route(shards.getRouter().routeAddressBlock(block),
+				shard -> shard.getIpNetworkDAO().existsByAddressBlock(block));
+		return Boolean.TRUE.equals(result);
+	}
+
+}
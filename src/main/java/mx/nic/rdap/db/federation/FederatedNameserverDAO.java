@@ -0,0 +1,127 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.paging.PagedSearch;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link NameserverDAO} of the {@link FederatedDataAccessImplementation}.
+ * <p>
+ * Nameservers are not routed by zone, since a shard stores the nameservers of
+ * its domains regardless of their names.
+ */
+class FederatedNameserverDAO implements NameserverDAO {
+
+	private final ShardSet shards;
+	private final boolean sharingNameConformance;
+
+	FederatedNameserverDAO(ShardSet shards, boolean sharingNameConformance) {
+		this.shards = shards;
+		this.sharingNameConformance = sharingNameConformance;
+	}
+
+	@Override
+	public Nameserver getByName(DomainLabel name) throws RdapDataAccessException {
+		return shards.findFirst(shard -> shard.getNameserverDAO().getByName(name));
+	}
+
+	@Override
+	public Nameserver getByHandle(String handle) throws RdapDataAccessException {
+		return shards.findFirst(shard -> shard.getNameserverDAO().getByHandle(handle));
+	}
+
+	@Override
+	public boolean isNameserverSharingNameConformance() {
+		return sharingNameConformance;
+	}
+
+	@Override
+	public int getNameserverCount(DomainLabel name) throws RdapDataAccessException {
+		return shards.sum(shard -> shard.getNameserverDAO().getNameserverCount(name));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getNameserverDAO().searchByName(namePattern, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getNameserverDAO().searchByIp(ipaddressPattern, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getNameserverDAO().searchByRegexName(namePattern, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.search(shards.getRouter().getAll(),
+				shard -> shard.getNameserverDAO().searchByRegexIp(ipaddressPattern, resultLimit), resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.NAMESERVER_BY_NAME.scope(namePattern), cursor,
+				resultLimit, Pages::nameserverKey,
+				shard -> shard.getNameserverDAO().pageByName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.NAMESERVER_BY_IP.scope(ipaddressPattern),
+				cursor, resultLimit, Pages::nameserverKey,
+				shard -> shard.getNameserverDAO().pageByIp(ipaddressPattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByRegexName(String namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.NAMESERVER_BY_REGEX_NAME.scope(namePattern),
+				cursor, resultLimit, Pages::nameserverKey,
+				shard -> shard.getNameserverDAO().pageByRegexName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByRegexIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return shards.page(shards.getRouter().getAll(), PagedSearch.NAMESERVER_BY_REGEX_IP.scope(ipaddressPattern),
+				cursor, resultLimit, Pages::nameserverKey,
+				shard -> shard.getNameserverDAO().pageByRegexIp(ipaddressPattern, cursor, resultLimit));
+	}
+
+	@Override
+	public boolean existsByName(DomainLabel name) throws RdapDataAccessException {
+		// null means "not here", so the other shards are still waited for.
+		Boolean result = shards.findFirst(shard -> shard.getNameserverDAO().existsByName(name) ? true : null);
+		return result != null;
+	}
+
+	@Override
+	public boolean existsByHandle(String handle) throws RdapDataAccessException {
+		Boolean result = shards.findFirst(shard -> shard.getNameserverDAO().existsByHandle(handle) ? true : null);
+		return result != null;
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		int result = shards.sum(shards.getRouter().getAll(),
+				shard -> shard.getNameserverDAO().countByName(namePattern, countLimit));
+		return Math.min(result, countLimit);
+	}
+
+}
@@ -0,0 +1,23 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link RdapUserDAO} of the {@link FederatedDataAccessImplementation}.
+ */
+class FederatedRdapUserDAO implements RdapUserDAO {
+
+	private final ShardSet shards;
+
+	FederatedRdapUserDAO(ShardSet shards) {
+		this.shards = shards;
+	}
+
+	@Override
+	public RdapUser getByUsername(String username) throws RdapDataAccessException {
+		return shards.findFirst(shard -> shard.getRdapUserDAO().getByUsername(username));
+	}
+
+}
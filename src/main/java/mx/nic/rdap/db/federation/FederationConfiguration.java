@@ -0,0 +1,113 @@
+package mx.nic.rdap.db.federation;
+
+import java.util.List;
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link FederatedDataAccessImplementation}, as read
+ * from the user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>federation.shards</code>: Comma-separated names of the shards.
+ * Mandatory.</li>
+ * <li><code>federation.data-access-implementation</code>: Class of the
+ * {@link mx.nic.rdap.db.spi.DataAccessImplementation} of the shards.
+ * Mandatory, unless every shard defines its own.</li>
+ * <li><code>federation.&lt;shard&gt;.data-access-implementation</code>: Class
+ * of the implementation of shard <code>&lt;shard&gt;</code>, if it
+ * differs.</li>
+ * <li><code>federation.&lt;shard&gt;.zones</code>: Comma-separated zones
+ * (eg. <code>mx, com.mx</code>) whose domains the shard holds. A domain
+ * belongs to the shard of its longest zone.</li>
+ * <li><code>federation.&lt;shard&gt;.ip-blocks</code>: Comma-separated CIDR
+ * blocks whose networks the shard holds. A network belongs to the shard of
+ * its longest block.</li>
+ * <li><code>federation.&lt;shard&gt;.autnum-ranges</code>: Comma-separated
+ * autonomous system numbers or ranges (eg. <code>64496-64511</code>) the shard
+ * holds. Ranges cannot overlap.</li>
+ * <li><code>federation.default-shard</code>: Shard that receives the keys no
+ * other shard claims. Optional; by default, such keys are not found.</li>
+ * <li><code>federation.&lt;shard&gt;.&lt;property&gt;</code>: Value of
+ * <code>&lt;property&gt;</code> for shard <code>&lt;shard&gt;</code>. Every
+ * shard is initialized with the whole configuration, overridden by its own
+ * properties.</li>
+ * </ul>
+ */
+public class FederationConfiguration {
+
+	private static final String PREFIX = "federation.";
+	public static final String SHARDS_PROPERTY = "federation.shards";
+	public static final String IMPLEMENTATION_PROPERTY = "data-access-implementation";
+	private static final String DEFAULT_SHARD_PROPERTY = "federation.default-shard";
+	private static final String ZONES_SUFFIX = ".zones";
+	private static final String IP_BLOCKS_SUFFIX = ".ip-blocks";
+	private static final String AUTNUM_RANGES_SUFFIX = ".autnum-ranges";
+
+	private final List<String> shards;
+	private final String defaultShard;
+	private final Properties config;
+
+	public FederationConfiguration(Properties config) throws InitializationException {
+		this.shards = ConfigurationUtils.getList(config, SHARDS_PROPERTY);
+		if (shards.isEmpty()) {
+			throw new InitializationException("The '" + SHARDS_PROPERTY + "' property is mandatory.");
+		}
+		this.defaultShard = ConfigurationUtils.getString(config, DEFAULT_SHARD_PROPERTY);
+		if (defaultShard != null && !shards.contains(defaultShard)) {
+			throw new InitializationException("The default shard '" + defaultShard + "' is not listed in '"
+					+ SHARDS_PROPERTY + "'.");
+		}
+		this.config = config;
+	}
+
+	public List<String> getShards() {
+		return shards;
+	}
+
+	/**
+	 * Returns the name of the shard that receives the unclaimed keys, or
+	 * <code>null</code>.
+	 */
+	public String getDefaultShard() {
+		return defaultShard;
+	}
+
+	/**
+	 * Returns the class name of the implementation of shard <code>shard</code>.
+	 */
+	public String getImplementation(String shard) throws InitializationException {
+		String result = ConfigurationUtils.getString(config, PREFIX + shard + "." + IMPLEMENTATION_PROPERTY);
+		if (result == null) {
+			result = ConfigurationUtils.getString(config, PREFIX + IMPLEMENTATION_PROPERTY);
+		}
+		if (result == null) {
+			throw new InitializationException("Shard '" + shard + "' lacks a data access implementation.");
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the configuration shard <code>shard</code> should be initialized
+	 * with.
+	 */
+	public Properties getProperties(String shard) {
+		return ConfigurationUtils.overlay(config, PREFIX + shard + ".");
+	}
+
+	public List<String> getZones(String shard) {
+		return ConfigurationUtils.getList(config, PREFIX + shard + ZONES_SUFFIX);
+	}
+
+	public List<String> getIpBlocks(String shard) {
+		return ConfigurationUtils.getList(config, PREFIX + shard + IP_BLOCKS_SUFFIX);
+	}
+
+	public List<String> getAutnumRanges(String shard) {
+		return ConfigurationUtils.getList(config, PREFIX + shard + AUTNUM_RANGES_SUFFIX);
+	}
+
+}
@@ -0,0 +1,31 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+
+/**
+ * One of the backends of a {@link FederatedDataAccessImplementation}.
+ */
+class Shard {
+
+	private final String name;
+	private final DataAccessImplementation implementation;
+
+	Shard(String name, DataAccessImplementation implementation) {
+		this.name = name;
+		this.implementation = implementation;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	DataAccessImplementation getImplementation() {
+		return implementation;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
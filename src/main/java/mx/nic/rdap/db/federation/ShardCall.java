@@ -0,0 +1,17 @@
+package mx.nic.rdap.db.federation;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+
+/**
+ * A DAO call that can be performed on any shard.
+ *
+ * @param <T>
+ *            the return type of the DAO method.
+ */
+@FunctionalInterface
+interface ShardCall<T> {
+
+	public T call(DataAccessImplementation shard) throws RdapDataAccessException;
+
+}
@@ -0,0 +1,193 @@
+package mx.nic.rdap.db.federation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.core.ip.IpAddressFormatException;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.index.IpPrefixTrie;
+import mx.nic.rdap.db.intercept.LookupKeys;
+
+/**
+ * Decides which shard holds each key, according to the zones, IP blocks and
+ * autnum ranges of the {@link FederationConfiguration}.
+ * <p>
+ * Immutable once built.
+ */
+class ShardRouter {
+
+	private final Map<String, Shard> zones = new HashMap<>();
+	private final IpPrefixTrie<Shard> blocks = new IpPrefixTrie<>();
+	/** Sorted by start; {@link #rangeEnds} and {@link #rangeShards} follow. */
+	private final long[] rangeStarts;
+	private final long[] rangeEnds;
+	private final Shard[] rangeShards;
+	private final Shard defaultShard;
+	private final List<Shard> all;
+
+	ShardRouter(List<Shard> shards, FederationConfiguration config) throws InitializationException {
+		List<long[]> ranges = new ArrayList<>();
+		Shard defaultShard = null;
+		for (int i = 0; i < shards.size(); i++) {
+			Shard shard = shards.get(i);
+			if (shard.getName().equals(config.getDefaultShard())) {
+				defaultShard = shard;
+			}
+			for (String zone : config.getZones(shard.getName())) {
+				Shard previous = zones.put(LookupKeys.normalizeName(zone), shard);
+				if (previous != null) {
+					throw new InitializationException(
+							"Zone '" + zone + "' is claimed by shards '" + previous + "' and '" + shard + "'.");
+				}
+			}
+			for (String block : config.getIpBlocks(shard.getName())) {
+				blocks.put(parseBlock(block), shard);
+			}
+			for (String range : config.getAutnumRanges(shard.getName())) {
+				long[] parsed = parseRange(range);
+				ranges.add(new long[] { parsed[0], parsed[1], i });
+			}
+		}
+
+		ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+		rangeStarts = new long[ranges.size()];
+		rangeEnds = new long[ranges.size()];
+		rangeShards = new Shard[ranges.size()];
+		for (int i = 0; i < ranges.size(); i++) {
+			long[] range = ranges.get(i);
+			if (i > 0 && range[0] <= rangeEnds[i - 1]) {
+				throw new InitializationException("Autnum ranges overlap around " + range[0] + ".");
+			}
+			rangeStarts[i] = range[0];
+			rangeEnds[i] = range[1];
+			rangeShards[i] = shards.get((int) range[2]);
+		}
+
+		this.defaultShard = defaultShard;
+		this.all = shards;
+	}
+
+	/**
+	 * Returns the shard that holds the domain named <code>name</code>
+	 * (normalized), or <code>null</code> if no shard does.
+	 */
+	Shard routeDomain(String name) {
+		if (name == null) {
+			return defaultShard;
+		}
+		for (String suffix = name; suffix != null; suffix = parent(suffix)) {
+			Shard shard = zones.get(suffix);
+			if (shard != null) {
+				return shard;
+			}
+		}
+		return defaultShard;
+	}
+
+	/**
+	 * Returns the shards that can hold domains matched by <code>pattern</code>
+	 * (normalized, with wildcards).
+	 * <p>
+	 * Only the labels to the right of the last wildcard narrow the search
+	 * down. Their owner is relevant, and so are the shards of the zones below
+	 * them that are short enough to hold a match. (That includes the zones
+	 * whose apex itself matches, since {@link #routeDomain(String)} sends the
+	 * apex to the zone's shard.)
+	 */
+	List<Shard> routeDomainPattern(String pattern) {
+		if (pattern == null) {
+			return all;
+		}
+		String[] labels = pattern.split("\\.");
+		int firstFixed = labels.length;
+		while (firstFixed > 0 && labels[firstFixed - 1].indexOf('*') < 0) {
+			firstFixed--;
+		}
+		if (firstFixed == labels.length) {
+			return all; // The top-level label is a wildcard.
+		}
+		if (firstFixed == 0) {
+			Shard shard = routeDomain(pattern);
+			return (shard != null) ? Arrays.asList(shard) : new ArrayList<>();
+		}
+
+		String suffix = String.join(".", Arrays.copyOfRange(labels, firstFixed, labels.length));
+		Set<Shard> result = new LinkedHashSet<>();
+		Shard owner = routeDomain(suffix);
+		if (owner != null) {
+			result.add(owner);
+		}
+		for (Map.Entry<String, Shard> zone : zones.entrySet()) {
+			String name = zone.getKey();
+			if (name.endsWith("." + suffix) && name.split("\\.").length <= labels.length) {
+				result.add(zone.getValue());
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	/**
+	 * Returns the shard that holds the network that contains
+	 * <code>block</code>, or <code>null</code> if no shard does.
+	 */
+	Shard routeAddressBlock(AddressBlock block) {
+		Shard shard = blocks.longestPrefixMatch(block);
+		return (shard != null) ? shard : defaultShard;
+	}
+
+	/**
+	 * Returns the shard that holds autonomous system number
+	 * <code>autnum</code>, or <code>null</code> if no shard does.
+	 */
+	Shard routeAutnum(long autnum) {
+		int index = Arrays.binarySearch(rangeStarts, autnum);
+		if (index < 0) {
+			index = -index - 2; // The last range that starts before autnum.
+		}
+		if (index >= 0 && autnum <= rangeEnds[index]) {
+			return rangeShards[index];
+		}
+		return defaultShard;
+	}
+
+	List<Shard> getAll() {
+		return all;
+	}
+
+	private static String parent(String name) {
+		int dot = name.indexOf('.');
+		return (dot >= 0) ? name.substring(dot + 1) : null;
+	}
+
+	private static AddressBlock parseBlock(String block) throws InitializationException {
+		int slash = block.indexOf('/');
+		try {
+			return (slash < 0)
+					? new AddressBlock(block)
+					: new AddressBlock(block.substring(0, slash), Integer.valueOf(block.substring(slash + 1)));
+		} catch (IpAddressFormatException | NumberFormatException e) {
+			throw new InitializationException("'" + block + "' is not a valid IP block.", e);
+		}
+	}
+
+	private static long[] parseRange(String range) throws InitializationException {
+		int dash = range.indexOf('-');
+		try {
+			long start = Long.parseLong(((dash < 0) ? range : range.substring(0, dash)).trim());
+			long end = (dash < 0) ? start : Long.parseLong(range.substring(dash + 1).trim());
+			if (end < start) {
+				throw new InitializationException("Autnum range '" + range + "' ends before it starts.");
+			}
+			return new long[] { start, end };
+		} catch (NumberFormatException e) {
+			throw new InitializationException("'" + range + "' is not a valid autnum range.", e);
+		}
+	}
+
+}
@@ -0,0 +1,269 @@
+package mx.nic.rdap.db.federation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.deadline.Deadline;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.exception.http.ServiceUnavailableException;
+import mx.nic.rdap.db.fetch.FetchPlan;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Scatters DAO calls over the shards of a federation, and gathers their
+ * results.
+ * <p>
+ * The shards are queried in parallel, and their results are merged in the
+ * order they arrive. As soon as the merged result is complete (the search
+ * limit is reached, or a lookup is found) the calls still in flight are
+ * cancelled, so a slow shard cannot hold the response back once it's no
+ * longer needed. The request deadline, if any, travels to every shard.
+ */
+class ShardSet {
+
+	private final ShardRouter router;
+	private final ExecutorService executor;
+
+	ShardSet(ShardRouter router, ExecutorService executor) {
+		this.router = router;
+		this.executor = executor;
+	}
+
+	ShardRouter getRouter() {
+		return router;
+	}
+
+	/**
+	 * Performs <code>call</code> on <code>shard</code>, or returns
+	 * <code>null</code> if there is no shard.
+	 */
+	<T> T route(Shard shard, ShardCall<T> call) throws RdapDataAccessException {
+		return (shard != null) ? call.call(shard.getImplementation()) : null;
+	}
+
+	/**
+	 * Performs search <code>call</code> on every shard of <code>shards</code>,
+	 * and merges the results, up to <code>resultLimit</code>.
+	 * <p>
+	 * Shards that answer "not found" contribute no results.
+	 */
+	<T extends RdapObject> SearchResultStruct<T> search(List<Shard> shards, ShardCall<SearchResultStruct<T>> call,
+			int resultLimit) throws RdapDataAccessException {
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		if (shards.size() == 1) {
+			SearchResultStruct<T> partial = notFoundAsNull(shards.get(0), call);
+			if (partial != null) {
+				merge(result, partial, resultLimit);
+			}
+			return result;
+		}
+
+		CompletionService<SearchResultStruct<T>> completion = new ExecutorCompletionService<>(executor);
+		List<Future<SearchResultStruct<T>>> futures = submitAll(shards, call, completion);
+		try {
+			for (int pending = futures.size(); pending > 0; pending--) {
+				SearchResultStruct<T> partial = take(completion);
+				if (partial != null && merge(result, partial, resultLimit)) {
+					break;
+				}
+			}
+		} finally {
+			cancel(futures);
+		}
+		return result;
+	}
+
+	/**
+	 * Performs paged search <code>call</code> on every shard of
+	 * <code>shards</code>, and merges the pages by page key (see
+	 * {@link Pages#merge(List, Function, String, int)}).
+	 * <p>
+	 * Every shard is asked for the page that follows the same cursor, so none
+	 * of them can be cancelled early: any of them may hold the first objects of
+	 * the merged page.
+	 */
+	<T extends RdapObject> SearchResultStruct<T> page(List<Shard> shards, String scope, String cursor,
+			int resultLimit, Function<? super T, String> keyOf, ShardCall<SearchResultStruct<T>> call)
+			throws RdapDataAccessException {
+		// Rejects foreign cursors before bothering the shards.
+		Pages.after(scope, cursor);
+
+		List<SearchResultStruct<T>> pages = new ArrayList<>(shards.size());
+		CompletionService<SearchResultStruct<T>> completion = new ExecutorCompletionService<>(executor);
+		List<Future<SearchResultStruct<T>>> futures = submitAll(shards, call, completion);
+		try {
+			for (int pending = futures.size(); pending > 0; pending--) {
+				pages.add(take(completion));
+			}
+		} finally {
+			cancel(futures);
+		}
+		return Pages.merge(pages, keyOf, scope, resultLimit);
+	}
+
+	/**
+	 * Performs lookup <code>call</code> on every shard, and returns the first
+	 * result found, or <code>null</code> if no shard has it.
+	 */
+	<T> T findFirst(ShardCall<T> call) throws RdapDataAccessException {
+		List<Shard> shards = router.getAll();
+		if (shards.size() == 1) {
+			return notFoundAsNull(shards.get(0), call);
+		}
+
+		CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+		List<Future<T>> futures = submitAll(shards, call, completion);
+		RdapDataAccessException failure = null;
+		try {
+			for (int pending = futures.size(); pending > 0; pending--) {
+				try {
+					T result = take(completion);
+					if (result != null) {
+						return result;
+					}
+				} catch (GatewayTimeoutException e) {
+					throw e;
+				} catch (RdapDataAccessException e) {
+					// Another shard might still have it.
+					failure = e;
+				}
+			}
+		} finally {
+			cancel(futures);
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+		return null;
+	}
+
+	/**
+	 * Performs count <code>call</code> on every shard, and adds up the
+	 * results.
+	 */
+	int sum(ShardCall<Integer> call) throws RdapDataAccessException {
+		return sum(router.getAll(), call);
+	}
+
+	/**
+	 * Performs count <code>call</code> on every shard of <code>shards</code>,
+	 * and adds up the results.
+	 */
+	int sum(List<Shard> shards, ShardCall<Integer> call) throws RdapDataAccessException {
+		CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+		List<Future<Integer>> futures = submitAll(shards, call, completion);
+		int result = 0;
+		try {
+			for (int pending = futures.size(); pending > 0; pending--) {
+				Integer count = take(completion);
+				if (count != null) {
+					result += count;
+				}
+			}
+		} finally {
+			cancel(futures);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the results of <code>partial</code> to <code>result</code>. Returns
+	 * whether <code>result</code> is full.
+	 */
+	private static <T extends RdapObject> boolean merge(SearchResultStruct<T> result, SearchResultStruct<T> partial,
+			int resultLimit) {
+		if (Boolean.TRUE.equals(partial.getResultSetWasLimitedByUserConfiguration())) {
+			result.setResultSetWasLimitedByUserConfiguration(true);
+		}
+		for (T object : partial.getResults()) {
+			if (result.getResults().size() >= resultLimit) {
+				result.setResultSetWasLimitedByUserConfiguration(true);
+				return true;
+			}
+			result.getResults().add(object);
+		}
+		return false;
+	}
+
+	@SuppressWarnings("try") // The scopes are bound, not referenced.
+	private <T> List<Future<T>> submitAll(List<Shard> shards, ShardCall<T> call, CompletionService<T> completion)
+			throws RdapDataAccessException {
+		Deadline deadline = Deadline.current();
+		FetchPlan plan = FetchPlan.current();
+		List<Future<T>> futures = new ArrayList<>(shards.size());
+		try {
+			for (Shard shard : shards) {
+				futures.add(completion.submit(() -> {
+					try (Deadline.Scope scope = (deadline != null) ? deadline.bind() : null;
+							FetchPlan.Scope planScope = plan.bind()) {
+						return notFoundAsNull(shard, call);
+					}
+				}));
+			}
+		} catch (RejectedExecutionException e) {
+			cancel(futures);
+			throw new ServiceUnavailableException("The federation cannot take more calls.", e);
+		}
+		return futures;
+	}
+
+	/**
+	 * Waits for the next shard to finish, as long as the deadline allows.
+	 */
+	private static <T> T take(CompletionService<T> completion) throws RdapDataAccessException {
+		Deadline deadline = Deadline.current();
+		Future<T> future;
+		try {
+			if (deadline == null) {
+				future = completion.take();
+			} else {
+				future = completion.poll(Math.max(deadline.remaining(TimeUnit.NANOSECONDS), 0),
+						TimeUnit.NANOSECONDS);
+				if (future == null) {
+					throw new GatewayTimeoutException("Some shards did not answer in time.");
+				}
+			}
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RdapDataAccessException("Interrupted while waiting for a shard.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RdapDataAccessException) {
+				throw (RdapDataAccessException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RdapDataAccessException("A shard failed.", cause);
+		}
+	}
+
+	private static <T> T notFoundAsNull(Shard shard, ShardCall<T> call) throws RdapDataAccessException {
+		try {
+			return call.call(shard.getImplementation());
+		} catch (NotFoundException e) {
+			return null;
+		}
+	}
+
+	private static void cancel(List<? extends Future<?>> futures) {
+		for (Future<?> future : futures) {
+			future.cancel(true);
+		}
+	}
+
+}
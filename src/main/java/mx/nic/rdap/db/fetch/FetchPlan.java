@@ -0,0 +1,109 @@
+package mx.nic.rdap.db.fetch;
+
+/**
+ * How much of each object the caller is going to use.
+ * <p>
+ * Search responses only need a summary of every object they list, yet a
+ * complete {@link mx.nic.rdap.core.db.Domain} graph can cost a backend several
+ * joins and plenty of allocations. The plan is bound to the thread that serves
+ * the request, so it reaches every DAO call without changing the DAO methods:
+ *
+ * <pre>
+ * try (FetchPlan.Scope scope = FetchPlan.SHALLOW.bind()) {
+ * 	DataAccessService.getDomainDAO().searchByName(pattern, limit);
+ * }
+ * </pre>
+ *
+ * Implementations retrieve it through {@link #current()}, and may use it to
+ * leave out the sub-objects the caller did not ask for. It's a hint, not a
+ * filter: returning more than the plan asks for is always correct, so
+ * implementations that get the whole graph for free (eg.
+ * {@link mx.nic.rdap.db.memory.InMemoryDataAccessImplementation}) can ignore
+ * it. Callers must not rely on the excluded sub-objects being absent.
+ */
+public enum FetchPlan {
+
+	/**
+	 * The object's own fields only: handle, names, status, port43, lang and
+	 * (for nameservers) IP addresses. Entities, events, links, remarks and
+	 * nested objects may be left out.
+	 */
+	SHALLOW,
+	/**
+	 * {@link #SHALLOW}, plus the entities directly related to the object
+	 * (themselves {@link #SHALLOW}).
+	 */
+	WITH_ENTITIES,
+	/**
+	 * The complete object graph. This is the default.
+	 */
+	FULL;
+
+	private static final ThreadLocal<FetchPlan> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Returns the plan bound to the current thread, or {@link #FULL} if there
+	 * is none.
+	 */
+	public static FetchPlan current() {
+		FetchPlan plan = CURRENT.get();
+		return (plan != null) ? plan : FULL;
+	}
+
+	/**
+	 * Binds this plan to the current thread, until the returned scope is
+	 * closed. Replaces any plan bound earlier.
+	 */
+	public Scope bind() {
+		FetchPlan previous = CURRENT.get();
+		CURRENT.set(this);
+		return new Scope(previous);
+	}
+
+	/**
+	 * Returns whether the entities related to the object should be fetched.
+	 */
+	public boolean includesEntities() {
+		return this != SHALLOW;
+	}
+
+	/**
+	 * Returns whether events, links, remarks and the entities' own
+	 * sub-objects should be fetched.
+	 */
+	public boolean includesDetails() {
+		return this == FULL;
+	}
+
+	/**
+	 * Returns whether an object fetched according to this plan contains
+	 * everything <code>other</code> asks for.
+	 */
+	public boolean covers(FetchPlan other) {
+		return compareTo(other) >= 0;
+	}
+
+	/**
+	 * The binding of a plan to a thread. Closing it restores the plan that was
+	 * bound before.
+	 */
+	public static final class Scope implements AutoCloseable {
+
+		private final FetchPlan previous;
+
+		private Scope(FetchPlan previous) {
+			this.previous = previous;
+		}
+
+		@Override
+		public void close() {
+			if (previous != null) {
+				CURRENT.set(previous);
+			} else {
+				CURRENT.remove();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,182 @@
+package mx.nic.rdap.db.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import mx.nic.rdap.core.db.Autnum;
+
+/**
+ * Immutable index of {@link Autnum} blocks, for "which block contains this
+ * ASN?" queries.
+ * <p>
+ * During construction, the blocks are flattened into sorted, disjoint
+ * segments, each of which points to the innermost block that covers it. (So
+ * nested blocks are supported; partially overlapping ones aren't.) The
+ * segments are stored in primitive arrays, and the blocks in a separate table
+ * the segments refer to by index, so a query is a binary search over a
+ * <code>long[]</code> followed by two array reads.
+ */
+public class AutnumRangeIndex {
+
+	private static final AutnumRangeIndex EMPTY = new AutnumRangeIndex(new long[0], new long[0], new int[0],
+			new Autnum[0]);
+
+	/** First ASN of every segment. Sorted, ascending. */
+	private final long[] starts;
+	/** Last ASN of every segment. */
+	private final long[] ends;
+	/** Index, in {@link #autnums}, of the block every segment belongs to. */
+	private final int[] ids;
+	private final Autnum[] autnums;
+
+	private AutnumRangeIndex(long[] starts, long[] ends, int[] ids, Autnum[] autnums) {
+		this.starts = starts;
+		this.ends = ends;
+		this.ids = ids;
+		this.autnums = autnums;
+	}
+
+	/**
+	 * Returns an index that contains no blocks.
+	 */
+	public static AutnumRangeIndex empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Builds an index out of <code>blocks</code>.
+	 *
+	 * @throws IllegalArgumentException
+	 *             A block lacks its limits, its limits are inverted, or it
+	 *             partially overlaps another block.
+	 */
+	public static AutnumRangeIndex build(Collection<Autnum> blocks) {
+		Autnum[] autnums = blocks.toArray(new Autnum[blocks.size()]);
+		for (Autnum autnum : autnums) {
+			if (autnum.getStartAutnum() == null || autnum.getEndAutnum() == null) {
+				throw new IllegalArgumentException("Autnum " + autnum.getHandle() + " lacks its limits.");
+			}
+			if (autnum.getStartAutnum() > autnum.getEndAutnum()) {
+				throw new IllegalArgumentException("Autnum " + autnum.getHandle() + "'s limits are inverted.");
+			}
+		}
+
+		// Outer blocks before the blocks they contain.
+		Arrays.sort(autnums, Comparator.comparing(Autnum::getStartAutnum)
+				.thenComparing(Autnum::getEndAutnum, Comparator.reverseOrder()));
+
+		SegmentBuilder builder = new SegmentBuilder(autnums.length);
+		int[] stack = new int[autnums.length];
+		int stackSize = 0;
+		long cursor = 0;
+
+		for (int i = 0; i < autnums.length; i++) {
+			long start = autnums[i].getStartAutnum();
+			long end = autnums[i].getEndAutnum();
+
+			// Close the blocks that end before this one starts.
+			while (stackSize > 0 && autnums[stack[stackSize - 1]].getEndAutnum() < start) {
+				int closed = stack[--stackSize];
+				cursor = builder.add(cursor, autnums[closed].getEndAutnum(), closed);
+			}
+
+			if (stackSize > 0) {
+				int outer = stack[stackSize - 1];
+				if (autnums[outer].getEndAutnum() < end) {
+					throw new IllegalArgumentException("Autnum " + autnums[i].getHandle()
+							+ " partially overlaps autnum " + autnums[outer].getHandle() + ".");
+				}
+				// The outer block owns the gap before this one.
+				builder.add(cursor, start - 1, outer);
+			}
+
+			stack[stackSize++] = i;
+			cursor = start;
+		}
+		while (stackSize > 0) {
+			int closed = stack[--stackSize];
+			cursor = builder.add(cursor, autnums[closed].getEndAutnum(), closed);
+		}
+
+		return builder.build(autnums);
+	}
+
+	/**
+	 * Returns the innermost block that contains <code>asn</code>, or
+	 * <code>null</code> if no block does.
+	 */
+	public Autnum get(long asn) {
+		int length = starts.length;
+		if (length == 0) {
+			return null;
+		}
+
+		// Find the last segment that starts at or before asn. The ternary is
+		// meant to compile into a conditional move rather than a branch.
+		int base = 0;
+		while (length > 1) {
+			int half = length >>> 1;
+			base = (starts[base + half] <= asn) ? base + half : base;
+			length -= half;
+		}
+
+		if (starts[base] <= asn && asn <= ends[base]) {
+			return autnums[ids[base]];
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of blocks indexed.
+	 */
+	public int size() {
+		return autnums.length;
+	}
+
+	/**
+	 * Accumulates segments into growable primitive arrays.
+	 */
+	private static class SegmentBuilder {
+
+		private long[] starts;
+		private long[] ends;
+		private int[] ids;
+		private int size;
+
+		private SegmentBuilder(int expectedBlocks) {
+			// n nested blocks yield at most 2n - 1 segments.
+			int capacity = Math.max(1, 2 * expectedBlocks);
+			starts = new long[capacity];
+			ends = new long[capacity];
+			ids = new int[capacity];
+		}
+
+		/**
+		 * Adds segment [<code>start</code>, <code>end</code>] if it's not
+		 * empty. Returns the start of the next segment.
+		 */
+		private long add(long start, long end, int id) {
+			if (start > end) {
+				return start;
+			}
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			starts[size] = start;
+			ends[size] = end;
+			ids[size] = id;
+			size++;
+			return end + 1;
+		}
+
+		private AutnumRangeIndex build(Autnum[] autnums) {
+			return new AutnumRangeIndex(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+					Arrays.copyOf(ids, size), autnums);
+		}
+
+	}
+
+}
@@ -0,0 +1,428 @@
+package mx.nic.rdap.db.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+import mx.nic.rdap.db.intercept.LookupKeys;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Immutable index of objects by domain or host name, for exact and partial
+ * name searches (such as {@link mx.nic.rdap.db.spi.DomainDAO#searchByName} and
+ * {@link mx.nic.rdap.db.spi.NameserverDAO#searchByName}).
+ * <p>
+ * Names are stored in a trie of reversed labels ("www.example.mx" is stored
+ * as "mx" -> "example" -> "www"), with every node's children sorted. A pattern
+ * such as "exa*.mx" is resolved by walking the exact labels ("mx") and then
+ * binary searching the children of the resulting node for the range of labels
+ * that start with "exa". Patterns whose only label is partial ("exa*") are
+ * resolved through a sorted array of leftmost labels instead.
+ * <p>
+ * Every node also stores the running count of the objects below each of its
+ * children, so the number of matches of any pattern is known without
+ * enumerating them.
+ * <p>
+ * The objects of every node, the children of every node and the array of
+ * leftmost labels are also sorted by page key (see
+ * {@link Pages#nameKey(String, String)}), so the matches of any pattern are a
+ * sorted range, and a page of them can be found by binary search (see
+ * {@link #page(DomainLabel, String, int)}).
+ * <p>
+ * Supported patterns: exact names, and names whose leftmost label ends with an
+ * asterisk. Any other use of the asterisk is rejected with
+ * {@link UnprocessableEntityException}.
+ *
+ * @param <T>
+ *            type of the indexed objects.
+ */
+public class DomainNameIndex<T extends RdapObject> {
+
+	private static final String WILDCARD = "*";
+	private static final Comparator<Object[]> BY_KEY = Comparator.comparing(entry -> (String) entry[0]);
+
+	private final Node root;
+	/**
+	 * Page key of every indexed object, sorted. (Every key starts with the
+	 * leftmost label of the object's name.)
+	 */
+	private final String[] leftmostKeys;
+	/** Object of every entry of {@link #leftmostKeys}. */
+	private final Object[] leftmostValues;
+
+	private DomainNameIndex(Node root, String[] leftmostKeys, Object[] leftmostValues) {
+		this.root = root;
+		this.leftmostKeys = leftmostKeys;
+		this.leftmostValues = leftmostValues;
+	}
+
+	/**
+	 * Returns the objects whose name matches <code>pattern</code>, up to
+	 * <code>resultLimit</code> of them. The result's
+	 * {@link SearchResultStruct#getResultSetWasLimitedByUserConfiguration()}
+	 * is set if there were more matches than that.
+	 */
+	public SearchResultStruct<T> search(DomainLabel pattern, int resultLimit) throws UnprocessableEntityException {
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		int total = collect(pattern, resultLimit, result.getResults());
+		result.setResultSetWasLimitedByUserConfiguration(total > resultLimit);
+		return result;
+	}
+
+	/**
+	 * Returns the objects whose name matches <code>pattern</code> and whose
+	 * page key is greater than <code>after</code> (unless it's
+	 * <code>null</code>), sorted by page key, up to <code>resultLimit</code>
+	 * of them. The start of the page is found by binary search, so deep pages
+	 * cost the same as the first one.
+	 * <p>
+	 * The page key of an object is
+	 * {@link Pages#nameKey(String, String) Pages.nameKey(name, handle)},
+	 * where <code>name</code> is the name the object was indexed under.
+	 */
+	public SearchResultStruct<T> page(DomainLabel pattern, String after, int resultLimit)
+			throws UnprocessableEntityException {
+		String[] labels = toAsciiLabels(pattern);
+		String first = labels[0];
+
+		if (!first.endsWith(WILDCARD)) {
+			Node node = walk(labels, 0);
+			if (node == null) {
+				return new SearchResultStruct<>();
+			}
+			return page(0, node.values.length, i -> node.keys[i], i -> node.values[i], after, resultLimit);
+		}
+
+		String prefix = first.substring(0, first.length() - 1);
+		if (labels.length == 1) {
+			int from = lowerBound(leftmostKeys, prefix, false);
+			int to = lowerBound(leftmostKeys, prefix, true);
+			return page(from, to, i -> leftmostKeys[i], i -> leftmostValues[i], after, resultLimit);
+		}
+
+		Node parent = walk(labels, 1);
+		if (parent == null) {
+			return new SearchResultStruct<>();
+		}
+		// The objects of the matching children, numbered as if they were
+		// a single array (see Node.valueCounts).
+		int from = parent.valueCounts[lowerBound(parent.childLabels, prefix, false)];
+		int to = parent.valueCounts[lowerBound(parent.childLabels, prefix, true)];
+		return page(from, to, i -> {
+			int child = parent.childOf(i);
+			return parent.children[child].keys[i - parent.valueCounts[child]];
+		}, i -> {
+			int child = parent.childOf(i);
+			return parent.children[child].values[i - parent.valueCounts[child]];
+		}, after, resultLimit);
+	}
+
+	/**
+	 * Returns the page of the <code>[from, to)</code> range of a sorted
+	 * sequence of objects that follows <code>after</code>.
+	 */
+	private SearchResultStruct<T> page(int from, int to, IntFunction<String> keyAt, IntFunction<Object> valueAt,
+			String after, int resultLimit) {
+		int start = from;
+		if (after != null) {
+			int end = to;
+			while (start < end) {
+				int middle = (start + end) >>> 1;
+				if (keyAt.apply(middle).compareTo(after) <= 0) {
+					start = middle + 1;
+				} else {
+					end = middle;
+				}
+			}
+		}
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		List<T> results = result.getResults();
+		for (int i = start; i < to && results.size() < resultLimit; i++) {
+			results.add(cast(valueAt.apply(i)));
+		}
+		result.setResultSetWasLimitedByUserConfiguration(to - start > resultLimit);
+		return result;
+	}
+
+	/**
+	 * Returns the number of objects whose name matches <code>pattern</code>.
+	 * Does not visit the matches.
+	 */
+	public int count(DomainLabel pattern) throws UnprocessableEntityException {
+		return collect(pattern, 0, null);
+	}
+
+	/**
+	 * Returns the objects whose name is exactly <code>name</code>. (There can
+	 * be more than one, eg. nameservers that share a name.)
+	 */
+	public List<T> get(DomainLabel name) {
+		String[] labels = LookupKeys.of(name).split("\\.");
+		Node node = walk(labels, 0);
+		return (node != null) ? toList(node.values) : Collections.emptyList();
+	}
+
+	/**
+	 * Adds up to <code>limit</code> matches of <code>pattern</code> to
+	 * <code>results</code>, and returns the total number of matches.
+	 */
+	private int collect(DomainLabel pattern, int limit, List<T> results) throws UnprocessableEntityException {
+		String[] labels = toAsciiLabels(pattern);
+		String first = labels[0];
+
+		if (!first.endsWith(WILDCARD)) {
+			Node node = walk(labels, 0);
+			if (node == null) {
+				return 0;
+			}
+			addAll(node.values, limit, results);
+			return node.values.length;
+		}
+
+		String prefix = first.substring(0, first.length() - 1);
+		if (labels.length == 1) {
+			int from = lowerBound(leftmostKeys, prefix, false);
+			int to = lowerBound(leftmostKeys, prefix, true);
+			if (results != null) {
+				for (int i = from; i < to && results.size() < limit; i++) {
+					results.add(cast(leftmostValues[i]));
+				}
+			}
+			return to - from;
+		}
+
+		Node parent = walk(labels, 1);
+		if (parent == null) {
+			return 0;
+		}
+		int from = lowerBound(parent.childLabels, prefix, false);
+		int to = lowerBound(parent.childLabels, prefix, true);
+		if (results != null) {
+			for (int i = from; i < to && results.size() < limit; i++) {
+				addAll(parent.children[i].values, limit, results);
+			}
+		}
+		return parent.valueCounts[to] - parent.valueCounts[from];
+	}
+
+	/**
+	 * Splits <code>pattern</code> into ASCII labels (leftmost first), and
+	 * validates its use of the wildcard.
+	 */
+	private static String[] toAsciiLabels(DomainLabel pattern) throws UnprocessableEntityException {
+		String[] labels = LookupKeys.normalizeName(pattern.getLabel()).split("\\.", -1);
+		for (int i = 0; i < labels.length; i++) {
+			String label = labels[i];
+			int wildcard = label.indexOf(WILDCARD);
+			if (wildcard == -1) {
+				labels[i] = DomainLabel.nameToASCII(label, false);
+				continue;
+			}
+
+			if (i != 0 || wildcard != label.length() - 1) {
+				throw new UnprocessableEntityException(
+						"Only one trailing asterisk, in the leftmost label, is supported.");
+			}
+			for (int c = 0; c < wildcard; c++) {
+				if (label.charAt(c) > 0x7F) {
+					throw new UnprocessableEntityException(
+							"Partial matching of internationalized labels is not supported.");
+				}
+			}
+		}
+		return labels;
+	}
+
+	/**
+	 * Walks the trie through <code>labels</code>, from the rightmost one down
+	 * to the one at index <code>stop</code>.
+	 */
+	private Node walk(String[] labels, int stop) {
+		Node node = root;
+		for (int i = labels.length - 1; i >= stop && node != null; i--) {
+			int index = Arrays.binarySearch(node.childLabels, labels[i]);
+			node = (index >= 0) ? node.children[index] : null;
+		}
+		return node;
+	}
+
+	/**
+	 * Returns the index of the first element of <code>sorted</code> that is
+	 * not less than <code>prefix</code> or, if <code>past</code>, the index of
+	 * the first element that is greater than <code>prefix</code> and does not
+	 * start with it.
+	 */
+	private static int lowerBound(String[] sorted, String prefix, boolean past) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int comparison = comparePrefix(sorted[middle], prefix);
+			if (comparison < 0 || (past && comparison == 0)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Like {@link String#compareTo(String)}, except strings that start with
+	 * <code>prefix</code> are considered equal to it.
+	 */
+	private static int comparePrefix(String string, String prefix) {
+		int length = Math.min(string.length(), prefix.length());
+		for (int i = 0; i < length; i++) {
+			int difference = string.charAt(i) - prefix.charAt(i);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return (string.length() >= prefix.length()) ? 0 : -1;
+	}
+
+	private void addAll(Object[] values, int limit, List<T> results) {
+		if (results == null) {
+			return;
+		}
+		for (int i = 0; i < values.length && results.size() < limit; i++) {
+			results.add(cast(values[i]));
+		}
+	}
+
+	private List<T> toList(Object[] values) {
+		List<T> result = new ArrayList<>(values.length);
+		addAll(values, values.length, result);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T cast(Object value) {
+		return (T) value;
+	}
+
+	/**
+	 * Creates {@link DomainNameIndex}es.
+	 */
+	public static class Builder<T extends RdapObject> {
+
+		private final BuildNode root = new BuildNode();
+		private final List<Object[]> leftmost = new ArrayList<>();
+
+		/**
+		 * Indexes <code>object</code> under <code>name</code>, which is
+		 * expected to be in ASCII form.
+		 */
+		public Builder<T> add(String name, T object) {
+			String[] labels = LookupKeys.normalizeName(name).split("\\.");
+			BuildNode node = root;
+			for (int i = labels.length - 1; i >= 0; i--) {
+				node = node.children.computeIfAbsent(labels[i], label -> new BuildNode());
+			}
+			Object[] entry = { Pages.nameKey(name, object.getHandle()), object };
+			node.values.add(entry);
+			leftmost.add(entry);
+			return this;
+		}
+
+		public DomainNameIndex<T> build() {
+			leftmost.sort(BY_KEY);
+			String[] keys = new String[leftmost.size()];
+			Object[] values = new Object[leftmost.size()];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = (String) leftmost.get(i)[0];
+				values[i] = leftmost.get(i)[1];
+			}
+			return new DomainNameIndex<>(root.freeze(), keys, values);
+		}
+
+	}
+
+	private static class BuildNode {
+
+		private final TreeMap<String, BuildNode> children = new TreeMap<>();
+		/** Page key and object of every object named after this node. */
+		private final List<Object[]> values = new ArrayList<>(1);
+
+		private Node freeze() {
+			int size = children.size();
+			String[] childLabels = new String[size];
+			Node[] frozenChildren = new Node[size];
+			int[] valueCounts = new int[size + 1];
+
+			int i = 0;
+			for (Map.Entry<String, BuildNode> child : children.entrySet()) {
+				childLabels[i] = child.getKey();
+				frozenChildren[i] = child.getValue().freeze();
+				valueCounts[i + 1] = valueCounts[i] + frozenChildren[i].values.length;
+				i++;
+			}
+
+			values.sort(BY_KEY);
+			String[] keys = new String[values.size()];
+			Object[] objects = new Object[values.size()];
+			for (int v = 0; v < keys.length; v++) {
+				keys[v] = (String) values.get(v)[0];
+				objects[v] = values.get(v)[1];
+			}
+			return new Node(childLabels, frozenChildren, valueCounts, keys, objects);
+		}
+
+	}
+
+	private static class Node {
+
+		/** Sorted. */
+		private final String[] childLabels;
+		private final Node[] children;
+		/**
+		 * <code>valueCounts[i]</code> is the number of objects named exactly
+		 * after children 0 to i-1.
+		 */
+		private final int[] valueCounts;
+		/** Page keys of {@link #values}. Sorted. */
+		private final String[] keys;
+		/** Objects whose name ends at this node. */
+		private final Object[] values;
+
+		private Node(String[] childLabels, Node[] children, int[] valueCounts, String[] keys, Object[] values) {
+			this.childLabels = childLabels;
+			this.children = children;
+			this.valueCounts = valueCounts;
+			this.keys = keys;
+			this.values = values;
+		}
+
+		/**
+		 * Returns the index of the child the <code>value</code>th object
+		 * below this node (see {@link #valueCounts}) is named after.
+		 */
+		private int childOf(int value) {
+			// The last child whose count starts at or before value.
+			int low = 0;
+			int high = children.length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (valueCounts[middle + 1] <= value) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+	}
+
+}
@@ -0,0 +1,111 @@
+package mx.nic.rdap.db.index;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AutnumDAO} that answers {@link #getByRange(long)} out of an in-memory
+ * {@link AutnumRangeIndex}.
+ * <p>
+ * As {@link IndexedIpNetworkDAO}, it can be used on its own or in front of a
+ * fallback DAO that holds the complete table. The fallback is queried unless
+ * the index found a block of a single ASN, and the narrower of both blocks
+ * wins. The index is replaced atomically by {@link #reload(Collection)};
+ * lookups never wait for it.
+ * <p>
+ * Also like {@link IndexedIpNetworkDAO}, ranges of ASNs the index is known to
+ * be complete for can be declared "covered"; the index's answer for them is
+ * final, hit or miss. Covering 0-4294967295 makes the index authoritative.
+ */
+public class IndexedAutnumDAO implements AutnumDAO {
+
+	private final AutnumDAO fallback;
+	private final AutnumRangeIndex coverage;
+	private final AtomicReference<AutnumRangeIndex> index = new AtomicReference<>(AutnumRangeIndex.empty());
+
+	/**
+	 * Creates a standalone, empty index.
+	 */
+	public IndexedAutnumDAO() {
+		this(null);
+	}
+
+	/**
+	 * Creates an empty index that will forward its misses to
+	 * <code>fallback</code>. <code>fallback</code> can be <code>null</code>.
+	 */
+	public IndexedAutnumDAO(AutnumDAO fallback) {
+		this.fallback = fallback;
+		this.coverage = AutnumRangeIndex.empty();
+	}
+
+	/**
+	 * Creates an empty index that will forward its misses to
+	 * <code>fallback</code>, except for the ASNs contained by
+	 * <code>covered</code>, for which the index's answer is final. Only the
+	 * limits of the <code>covered</code> blocks are used.
+	 * <code>fallback</code> can be <code>null</code>.
+	 *
+	 * @throws IllegalArgumentException
+	 *             A covered block lacks its limits, its limits are inverted, or
+	 *             it partially overlaps another covered block.
+	 */
+	public IndexedAutnumDAO(AutnumDAO fallback, Collection<Autnum> covered) {
+		this.fallback = fallback;
+		this.coverage = AutnumRangeIndex.build(covered);
+	}
+
+	/**
+	 * Replaces the index with a new one built out of <code>blocks</code>.
+	 * Returns the index that was replaced.
+	 */
+	public AutnumRangeIndex reload(Collection<Autnum> blocks) throws RdapDataAccessException {
+		AutnumRangeIndex newIndex;
+		try {
+			newIndex = AutnumRangeIndex.build(blocks);
+		} catch (IllegalArgumentException e) {
+			throw new RdapDataAccessException(e.getMessage(), e);
+		}
+		return index.getAndSet(newIndex);
+	}
+
+	@Override
+	public Autnum getByRange(long autnum) throws RdapDataAccessException {
+		Autnum indexed = index.get().get(autnum);
+		if (fallback == null || (indexed != null && sizeOf(indexed) == 1) || coverage.get(autnum) != null) {
+			return indexed;
+		}
+
+		Autnum fallen = fallback.getByRange(autnum);
+		if (indexed == null) {
+			return fallen;
+		}
+		if (fallen == null) {
+			return indexed;
+		}
+		return (sizeOf(fallen) < sizeOf(indexed)) ? fallen : indexed;
+	}
+
+	/**
+	 * Returns the number of ASNs of <code>block</code>. Blocks that lack their
+	 * limits are assumed to be as wide as they can be.
+	 */
+	private static long sizeOf(Autnum block) {
+		if (block.getStartAutnum() == null || block.getEndAutnum() == null) {
+			return Long.MAX_VALUE;
+		}
+		return block.getEndAutnum() - block.getStartAutnum() + 1;
+	}
+
+	/**
+	 * Returns the number of blocks currently indexed.
+	 */
+	public int getIndexedBlockCount() {
+		return index.get().size();
+	}
+
+}
@@ -0,0 +1,175 @@
+package mx.nic.rdap.db.index;
+
+import java.util.Collection;
+
+import mx.nic.rdap.core.catalog.IpVersion;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.core.ip.IpAddressFormatException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link IpNetworkDAO} that answers {@link #getByAddressBlock(AddressBlock)}
+ * out of an in-memory {@link IpPrefixTrie}.
+ * <p>
+ * It can be used on its own, or in front of another {@link IpNetworkDAO} (the
+ * "fallback"), which holds the complete allocation table. The latter allows
+ * the index to hold only part of it (eg. the most requested networks). The
+ * fallback is queried unless the index has a network that is exactly the
+ * requested block, since it might have a more specific network than the one
+ * the index found; the more specific of both wins.
+ * <p>
+ * That makes a partial index a cache of sorts, but not an accelerator: most
+ * lookups still reach the fallback. When the index is known to hold every
+ * network within some blocks (eg. because it is loaded from the same table as
+ * the fallback), those blocks can be declared "covered"; the index's answer
+ * for any block they contain is final, hit or miss, and the fallback is only
+ * queried for the rest. Covering <code>0.0.0.0/0</code> and <code>::/0</code>
+ * makes the index authoritative.
+ * <p>
+ * The index can be replaced at any time through {@link #reload(Collection)};
+ * readers are never blocked and never see a partially built index.
+ */
+public class IndexedIpNetworkDAO implements IpNetworkDAO {
+
+	private final IpNetworkDAO fallback;
+	private final IpPrefixTrie<Boolean> coverage = new IpPrefixTrie<>();
+	private volatile IpPrefixTrie<IpNetwork> index = new IpPrefixTrie<>();
+
+	/**
+	 * Creates a standalone, empty index.
+	 */
+	public IndexedIpNetworkDAO() {
+		this(null);
+	}
+
+	/**
+	 * Creates an empty index that will forward its misses to
+	 * <code>fallback</code>. <code>fallback</code> can be <code>null</code>.
+	 */
+	public IndexedIpNetworkDAO(IpNetworkDAO fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Creates an empty index that will forward its misses to
+	 * <code>fallback</code>, except for the blocks contained by
+	 * <code>covered</code>, for which the index's answer is final.
+	 * <code>fallback</code> can be <code>null</code>.
+	 */
+	public IndexedIpNetworkDAO(IpNetworkDAO fallback, Collection<AddressBlock> covered) {
+		this.fallback = fallback;
+		for (AddressBlock block : covered) {
+			coverage.put(block, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Replaces the index with a new one built out of <code>networks</code>.
+	 * <p>
+	 * Networks are indexed by their start address and prefix length or, if
+	 * they lack a prefix length, by their start and end addresses. (In the
+	 * latter case the range does not need to be a CIDR block.)
+	 */
+	public void reload(Collection<IpNetwork> networks) throws RdapDataAccessException {
+		index = buildIndex(networks);
+	}
+
+	/**
+	 * Builds the trie {@link #reload(Collection)} would use, without
+	 * publishing it.
+	 */
+	public static IpPrefixTrie<IpNetwork> buildIndex(Collection<IpNetwork> networks) throws RdapDataAccessException {
+		IpPrefixTrie<IpNetwork> result = new IpPrefixTrie<>();
+		for (IpNetwork network : networks) {
+			if (network.getStartAddress() == null) {
+				throw new RdapDataAccessException("IP network " + network.getHandle() + " lacks a start address.");
+			}
+
+			if (network.getPrefix() != null) {
+				try {
+					result.put(new AddressBlock(network.getStartAddress(), network.getPrefix()), network);
+				} catch (IpAddressFormatException e) {
+					throw new RdapDataAccessException("IP network " + network.getHandle() + " is invalid.", e);
+				}
+			} else if (network.getEndAddress() != null) {
+				try {
+					result.putRange(network.getStartAddress(), network.getEndAddress(), network);
+				} catch (IllegalArgumentException e) {
+					throw new RdapDataAccessException("IP network " + network.getHandle() + " is invalid.", e);
+				}
+			} else {
+				throw new RdapDataAccessException("IP network " + network.getHandle()
+						+ " has neither prefix length nor end address.");
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public IpNetwork getByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		IpPrefixTrie<IpNetwork> index = this.index;
+		IpVersion version = block.getIpVersion();
+		byte[] address = block.getAddress().getAddress();
+		long high = IpPrefixTrie.high(address);
+		long low = IpPrefixTrie.low(address);
+		int prefix = block.getPrefix();
+
+		IpNetwork indexed = index.longestPrefixMatch(version, high, low, prefix);
+		if (fallback == null || coverage.longestPrefixMatch(version, high, low, prefix) != null) {
+			return indexed;
+		}
+
+		int indexedLength = (indexed != null) ? index.longestPrefixMatchLength(version, high, low, prefix) : -1;
+		if (indexedLength == prefix) {
+			// Nothing can be more specific.
+			return indexed;
+		}
+		IpNetwork fallen = fallback.getByAddressBlock(block);
+		if (indexed == null) {
+			return fallen;
+		}
+		if (fallen == null) {
+			return indexed;
+		}
+		return (prefixLengthOf(fallen, version) > indexedLength) ? fallen : indexed;
+	}
+
+	/**
+	 * Returns the prefix length of <code>network</code>. Networks that are not
+	 * CIDR blocks get the length of the smallest block that could contain them,
+	 * and networks that lack their limits are assumed to span the whole
+	 * address space.
+	 */
+	private static int prefixLengthOf(IpNetwork network, IpVersion version) {
+		if (network.getPrefix() != null) {
+			return network.getPrefix();
+		}
+		if (network.getStartAddress() == null || network.getEndAddress() == null) {
+			return 0;
+		}
+
+		byte[] start = network.getStartAddress().getAddress();
+		byte[] end = network.getEndAddress().getAddress();
+		long startLow = IpPrefixTrie.low(start);
+		long endLow = IpPrefixTrie.low(end);
+		long diffLow = endLow - startLow;
+		long borrow = (Long.compareUnsigned(endLow, startLow) < 0) ? 1 : 0;
+		long diffHigh = IpPrefixTrie.high(end) - IpPrefixTrie.high(start) - borrow;
+
+		// IPv4 addresses sit at the top of the 128 bits, so this works for both.
+		int length = (diffHigh != 0) ? Long.numberOfLeadingZeros(diffHigh)
+				: 64 + Long.numberOfLeadingZeros(diffLow);
+		return Math.min(length, (version == IpVersion.V4) ? 32 : 128);
+	}
+
+	/**
+	 * Returns the number of prefixes currently indexed. (Non-CIDR networks
+	 * might count more than once.)
+	 */
+	public int getIndexedPrefixCount() {
+		return index.size();
+	}
+
+}
@@ -0,0 +1,374 @@
+package mx.nic.rdap.db.index;
+
+import java.net.InetAddress;
+
+import mx.nic.rdap.core.catalog.IpVersion;
+import mx.nic.rdap.core.ip.AddressBlock;
+
+/**
+ * Path-compressed binary trie (a.k.a. Patricia trie) of IP prefixes, for
+ * longest-prefix matching.
+ * <p>
+ * Addresses are handled as 128-bit unsigned numbers split in two
+ * <code>long</code>s (<code>high</code> and <code>low</code>); IPv4 addresses
+ * occupy the 32 most significant bits of <code>high</code>. IPv4 and IPv6
+ * prefixes live in separate trees.
+ * <p>
+ * Lookup cost is bounded by the address length (32 or 128 levels, usually far
+ * less thanks to path compression), not by the number of prefixes stored, and
+ * the primitive lookup methods do not allocate.
+ * <p>
+ * This class is not safe for concurrent modification. It's safe to read from
+ * several threads once it has been fully built and safely published, which is
+ * what {@link IndexedIpNetworkDAO} does.
+ *
+ * @param <V>
+ *            type of the value associated to each prefix.
+ */
+public class IpPrefixTrie<V> {
+
+	private Node<V> ipv4Root;
+	private Node<V> ipv6Root;
+	private int size;
+
+	/**
+	 * Associates <code>value</code> with the <code>block</code> prefix,
+	 * replacing the previous value, if any.
+	 */
+	public void put(AddressBlock block, V value) {
+		byte[] address = block.getAddress().getAddress();
+		put(block.getIpVersion(), high(address), low(address), block.getPrefix(), value);
+	}
+
+	/**
+	 * Associates <code>value</code> with every address from
+	 * <code>first</code> to <code>last</code>, both inclusive. The range does
+	 * not need to be a CIDR block; it's decomposed into the minimal set of
+	 * prefixes that cover it exactly.
+	 */
+	public void putRange(InetAddress first, InetAddress last, V value) {
+		byte[] firstBytes = first.getAddress();
+		byte[] lastBytes = last.getAddress();
+		if (firstBytes.length != lastBytes.length) {
+			throw new IllegalArgumentException("Range limits belong to different IP versions: " + first + " - "
+					+ last);
+		}
+
+		if (firstBytes.length == 4) {
+			putIpv4Range(toInt(firstBytes, 0) & 0xFFFFFFFFL, toInt(lastBytes, 0) & 0xFFFFFFFFL, value);
+		} else {
+			putIpv6Range(toLong(firstBytes, 0), toLong(firstBytes, 8), toLong(lastBytes, 0), toLong(lastBytes, 8),
+					value);
+		}
+	}
+
+	private void putIpv4Range(long current, long last, V value) {
+		if (current > last) {
+			throw new IllegalArgumentException("IPv4 range is inverted.");
+		}
+
+		while (true) {
+			// Start with the largest block aligned to the current address...
+			int hostBits = (current == 0) ? 32 : Long.numberOfTrailingZeros(current);
+			// ...then shrink it until it stops overflowing the range.
+			while (hostBits > 0 && current + (1L << hostBits) - 1 > last) {
+				hostBits--;
+			}
+			put(IpVersion.V4, current << 32, 0, 32 - hostBits, value);
+
+			long end = current + (1L << hostBits) - 1;
+			if (end == last) {
+				return;
+			}
+			current = end + 1;
+		}
+	}
+
+	private void putIpv6Range(long high, long low, long lastHigh, long lastLow, V value) {
+		if (compare(high, low, lastHigh, lastLow) > 0) {
+			throw new IllegalArgumentException("IPv6 range is inverted.");
+		}
+
+		while (true) {
+			// Same as IPv4, except with 128-bit arithmetic.
+			int hostBits = trailingZeros(high, low);
+			while (hostBits > 0 && compare(blockEndHigh(high, hostBits), blockEndLow(low, hostBits), lastHigh,
+					lastLow) > 0) {
+				hostBits--;
+			}
+			put(IpVersion.V6, high, low, 128 - hostBits, value);
+
+			long endHigh = blockEndHigh(high, hostBits);
+			long endLow = blockEndLow(low, hostBits);
+			if (endHigh == lastHigh && endLow == lastLow) {
+				return;
+			}
+			low = endLow + 1;
+			high = (low == 0) ? endHigh + 1 : endHigh;
+		}
+	}
+
+	/**
+	 * Associates <code>value</code> with the prefix whose first address is
+	 * <code>high</code>:<code>low</code> and whose length is
+	 * <code>prefixLength</code>. Host bits are ignored.
+	 */
+	public void put(IpVersion version, long high, long low, int prefixLength, V value) {
+		validateLength(version, prefixLength);
+		high = maskHigh(high, prefixLength);
+		low = maskLow(low, prefixLength);
+
+		Node<V> node = getRoot(version);
+		if (node == null) {
+			setRoot(version, new Node<>(high, low, prefixLength, value));
+			size++;
+			return;
+		}
+
+		Node<V> parent = null;
+		while (true) {
+			int common = Math.min(commonPrefixLength(high, low, node.high, node.low),
+					Math.min(prefixLength, node.length));
+
+			if (common < node.length) {
+				// The new prefix diverges from (or is shorter than) the node's;
+				// split the edge.
+				Node<V> replacement;
+				if (common == prefixLength) {
+					replacement = new Node<>(high, low, prefixLength, value);
+				} else {
+					replacement = new Node<>(maskHigh(high, common), maskLow(low, common), common, null);
+					replacement.setChild(bit(high, low, common), new Node<>(high, low, prefixLength, value));
+				}
+				replacement.setChild(bit(node.high, node.low, common), node);
+				replace(version, parent, node, replacement);
+				size++;
+				return;
+			}
+
+			if (prefixLength == node.length) {
+				if (node.value == null) {
+					size++;
+				}
+				node.value = value;
+				return;
+			}
+
+			int direction = bit(high, low, node.length);
+			Node<V> child = node.getChild(direction);
+			if (child == null) {
+				node.setChild(direction, new Node<>(high, low, prefixLength, value));
+				size++;
+				return;
+			}
+			parent = node;
+			node = child;
+		}
+	}
+
+	/**
+	 * Returns the value of the longest stored prefix that completely
+	 * encompasses <code>block</code>, or <code>null</code> if there is none.
+	 */
+	public V longestPrefixMatch(AddressBlock block) {
+		byte[] address = block.getAddress().getAddress();
+		return longestPrefixMatch(block.getIpVersion(), high(address), low(address), block.getPrefix());
+	}
+
+	/**
+	 * Returns the value of the longest stored prefix that completely
+	 * encompasses the <code>high</code>:<code>low</code>/
+	 * <code>prefixLength</code> block, or <code>null</code> if there is none.
+	 * Does not allocate.
+	 */
+	public V longestPrefixMatch(IpVersion version, long high, long low, int prefixLength) {
+		V best = null;
+		Node<V> node = getRoot(version);
+		while (node != null && node.length <= prefixLength) {
+			if (commonPrefixLength(high, low, node.high, node.low) < node.length) {
+				break;
+			}
+			if (node.value != null) {
+				best = node.value;
+			}
+			if (node.length == prefixLength) {
+				break;
+			}
+			node = node.getChild(bit(high, low, node.length));
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the length of the prefix
+	 * {@link #longestPrefixMatch(IpVersion, long, long, int)} would have
+	 * matched, or -1 if it would have matched nothing. Does not allocate.
+	 */
+	public int longestPrefixMatchLength(IpVersion version, long high, long low, int prefixLength) {
+		int best = -1;
+		Node<V> node = getRoot(version);
+		while (node != null && node.length <= prefixLength) {
+			if (commonPrefixLength(high, low, node.high, node.low) < node.length) {
+				break;
+			}
+			if (node.value != null) {
+				best = node.length;
+			}
+			if (node.length == prefixLength) {
+				break;
+			}
+			node = node.getChild(bit(high, low, node.length));
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the number of prefixes stored.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private Node<V> getRoot(IpVersion version) {
+		return (version == IpVersion.V4) ? ipv4Root : ipv6Root;
+	}
+
+	private void setRoot(IpVersion version, Node<V> root) {
+		if (version == IpVersion.V4) {
+			ipv4Root = root;
+		} else {
+			ipv6Root = root;
+		}
+	}
+
+	private void replace(IpVersion version, Node<V> parent, Node<V> oldChild, Node<V> newChild) {
+		if (parent == null) {
+			setRoot(version, newChild);
+		} else if (parent.left == oldChild) {
+			parent.left = newChild;
+		} else {
+			parent.right = newChild;
+		}
+	}
+
+	private static void validateLength(IpVersion version, int prefixLength) {
+		if (prefixLength < 0 || maxLength(version) < prefixLength) {
+			throw new IllegalArgumentException("Invalid " + version + " prefix length: " + prefixLength);
+		}
+	}
+
+	private static int maxLength(IpVersion version) {
+		return (version == IpVersion.V4) ? 32 : 128;
+	}
+
+	/* 128-bit arithmetic helpers. */
+
+	static long high(byte[] address) {
+		if (address.length == 4) {
+			return ((long) toInt(address, 0)) << 32;
+		}
+		return toLong(address, 0);
+	}
+
+	static long low(byte[] address) {
+		return (address.length == 4) ? 0 : toLong(address, 8);
+	}
+
+	private static int toInt(byte[] bytes, int offset) {
+		return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+				| (bytes[offset + 3] & 0xFF);
+	}
+
+	private static long toLong(byte[] bytes, int offset) {
+		return (((long) toInt(bytes, offset)) << 32) | (toInt(bytes, offset + 4) & 0xFFFFFFFFL);
+	}
+
+	/** Returns bit <code>index</code>, counting from the most significant. */
+	private static int bit(long high, long low, int index) {
+		if (index < 64) {
+			return (int) (high >>> (63 - index)) & 1;
+		}
+		return (int) (low >>> (127 - index)) & 1;
+	}
+
+	private static int commonPrefixLength(long high1, long low1, long high2, long low2) {
+		long diff = high1 ^ high2;
+		if (diff != 0) {
+			return Long.numberOfLeadingZeros(diff);
+		}
+		return 64 + Long.numberOfLeadingZeros(low1 ^ low2);
+	}
+
+	private static long maskHigh(long high, int length) {
+		if (length >= 64) {
+			return high;
+		}
+		return (length == 0) ? 0 : high & (-1L << (64 - length));
+	}
+
+	private static long maskLow(long low, int length) {
+		if (length <= 64) {
+			return 0;
+		}
+		return (length == 128) ? low : low & (-1L << (128 - length));
+	}
+
+	private static int trailingZeros(long high, long low) {
+		if (low != 0) {
+			return Long.numberOfTrailingZeros(low);
+		}
+		return 64 + Long.numberOfTrailingZeros(high);
+	}
+
+	/** Returns the high half of the last address of the block. */
+	private static long blockEndHigh(long high, int hostBits) {
+		if (hostBits <= 64) {
+			return high;
+		}
+		return high | ((hostBits == 128) ? -1L : ((1L << (hostBits - 64)) - 1));
+	}
+
+	/** Returns the low half of the last address of the block. */
+	private static long blockEndLow(long low, int hostBits) {
+		if (hostBits >= 64) {
+			return -1L;
+		}
+		return low | ((1L << hostBits) - 1);
+	}
+
+	private static int compare(long high1, long low1, long high2, long low2) {
+		int result = Long.compareUnsigned(high1, high2);
+		return (result != 0) ? result : Long.compareUnsigned(low1, low2);
+	}
+
+	private static class Node<V> {
+
+		private final long high;
+		private final long low;
+		private final int length;
+		private V value;
+		private Node<V> left;
+		private Node<V> right;
+
+		private Node(long high, long low, int length, V value) {
+			this.high = high;
+			this.low = low;
+			this.length = length;
+			this.value = value;
+		}
+
+		private Node<V> getChild(int direction) {
+			return (direction == 0) ? left : right;
+		}
+
+		private void setChild(int direction, Node<V> child) {
+			if (direction == 0) {
+				left = child;
+			} else {
+				right = child;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,30 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.List;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+/**
+ * A pending invocation of a batch DAO method (such as
+ * {@link mx.nic.rdap.db.spi.DomainDAO#getByNames(java.util.Collection)}), as
+ * seen by a {@link DAOInterceptor}.
+ * <p>
+ * The interceptor can choose to forward only part of the batch, by listing
+ * the positions of the keys it needs.
+ *
+ * @param <T>
+ *            type of the objects being looked up.
+ */
+@FunctionalInterface
+public interface BatchCall<T> {
+
+	/**
+	 * Performs the actual DAO call, for the keys at <code>positions</code> in
+	 * the original batch only. Positions must be ascending and distinct.
+	 * 
+	 * @return The objects, in the order of <code>positions</code>.
+	 *         <code>null</code> represents absent objects.
+	 */
+	public List<T> call(int[] positions) throws RdapDataAccessException;
+
+}
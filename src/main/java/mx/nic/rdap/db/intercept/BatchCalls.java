@@ -0,0 +1,79 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+/**
+ * Plumbing shared by the batch methods of the intercepted DAOs and by the
+ * interceptors that implement
+ * {@link DAOInterceptor#interceptBatch(DAOOperation, List, BatchCall)}.
+ */
+public class BatchCalls {
+
+	private BatchCalls() {
+		// No code.
+	}
+
+	/**
+	 * Returns <code>{ 0, 1, ..., size - 1 }</code>.
+	 */
+	public static int[] allPositions(int size) {
+		int[] result = new int[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = i;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the elements of <code>list</code> at <code>positions</code>.
+	 */
+	public static <E> List<E> select(List<E> list, int[] positions) {
+		if (positions.length == list.size()) {
+			return list; // Positions are distinct, so these are all of them.
+		}
+		List<E> result = new ArrayList<>(positions.length);
+		for (int position : positions) {
+			result.add(list.get(position));
+		}
+		return result;
+	}
+
+	/**
+	 * Converts DAO arguments into interceptor keys.
+	 */
+	@FunctionalInterface
+	interface KeyFunction<A> {
+
+		public Object toKey(A argument);
+
+	}
+
+	/**
+	 * The batch method of the decorated DAO.
+	 */
+	@FunctionalInterface
+	interface BatchMethod<A, T> {
+
+		public List<T> call(Collection<A> arguments) throws RdapDataAccessException;
+
+	}
+
+	/**
+	 * Routes a batch DAO call through <code>interceptor</code>.
+	 */
+	static <A, T> List<T> intercept(DAOInterceptor interceptor, DAOOperation operation, Collection<A> arguments,
+			KeyFunction<A> keyFunction, BatchMethod<A, T> method) throws RdapDataAccessException {
+		List<A> argumentList = new ArrayList<>(arguments);
+		List<Object> keys = new ArrayList<>(argumentList.size());
+		for (A argument : argumentList) {
+			keys.add(keyFunction.toKey(argument));
+		}
+		return interceptor.interceptBatch(operation, keys,
+				positions -> method.call(select(argumentList, positions)));
+	}
+
+}
@@ -0,0 +1,22 @@
+package mx.nic.rdap.db.intercept;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.struct.SearchCursor;
+
+/**
+ * A pending invocation of a cursor DAO method, as seen by a
+ * {@link DAOInterceptor}.
+ * 
+ * @param <T>
+ *            type of the objects the cursor yields.
+ */
+@FunctionalInterface
+public interface CursorCall<T extends RdapObject> {
+
+	/**
+	 * Opens the actual cursor.
+	 */
+	public SearchCursor<T> call() throws RdapDataAccessException;
+
+}
@@ -0,0 +1,19 @@
+package mx.nic.rdap.db.intercept;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+/**
+ * A pending invocation of a DAO method, as seen by a {@link DAOInterceptor}.
+ * 
+ * @param <T>
+ *            the return type of the DAO method.
+ */
+@FunctionalInterface
+public interface DAOCall<T> {
+
+	/**
+	 * Performs the actual DAO call.
+	 */
+	public T call() throws RdapDataAccessException;
+
+}
@@ -0,0 +1,89 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.List;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.struct.SearchCursor;
+
+/**
+ * Code that wants to run around every DAO call, regardless of the DAO or the
+ * method.
+ * <p>
+ * Interceptors are attached to an implementation through
+ * {@link InterceptedDataAccessImplementation}.
+ */
+@FunctionalInterface
+public interface DAOInterceptor {
+
+	/**
+	 * Runs <code>call</code>, or not, and returns whatever the DAO method should
+	 * return.
+	 * 
+	 * @param operation
+	 *            The DAO method being called.
+	 * @param key
+	 *            A normalized representation of the method's arguments. Two
+	 *            calls to the same operation whose keys are equal are expected
+	 *            to yield the same result. See {@link LookupKeys}.
+	 * @param call
+	 *            The call to the next interceptor, or to the actual DAO.
+	 */
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException;
+
+	/**
+	 * Batch version of {@link #intercept(DAOOperation, Object, DAOCall)}.
+	 * Called by the batch DAO methods.
+	 * <p>
+	 * The default implementation forwards the whole batch. Interceptors that
+	 * can answer some of the keys on their own should override it, and only
+	 * forward the rest.
+	 * 
+	 * @param operation
+	 *            The single-key version of the DAO method being called. (eg.
+	 *            {@link DAOOperation#DOMAIN_GET_BY_NAME} for
+	 *            {@link mx.nic.rdap.db.spi.DomainDAO#getByNames(java.util.Collection)}.)
+	 * @param keys
+	 *            The normalized keys of the batch, as
+	 *            {@link #intercept(DAOOperation, Object, DAOCall)} would have
+	 *            received them one by one.
+	 * @param call
+	 *            The call to the next interceptor, or to the actual DAO.
+	 * @return One object per key, in the order of <code>keys</code>.
+	 */
+	public default <T> List<T> interceptBatch(DAOOperation operation, List<?> keys, BatchCall<T> call)
+			throws RdapDataAccessException {
+		return call.call(BatchCalls.allPositions(keys.size()));
+	}
+
+	/**
+	 * Cursor version of {@link #intercept(DAOOperation, Object, DAOCall)}.
+	 * Called by the cursor DAO methods (such as
+	 * {@link mx.nic.rdap.db.spi.DomainDAO#cursorByName(mx.nic.rdap.core.db.DomainLabel, int)}).
+	 * <p>
+	 * The call is not over when the cursor is returned, but when the caller
+	 * closes it. Interceptors that hold resources for the duration of a call
+	 * should wrap the cursor (see
+	 * {@link mx.nic.rdap.db.struct.ForwardingSearchCursor}) and release them
+	 * in its {@link SearchCursor#close()}.
+	 * <p>
+	 * The default implementation returns the cursor untouched. Interceptors
+	 * that work on whole results (eg. caches) have nothing to do with
+	 * cursors, which exist to avoid them.
+	 * 
+	 * @param operation
+	 *            The search version of the DAO method being called. (eg.
+	 *            {@link DAOOperation#DOMAIN_SEARCH_BY_NAME} for
+	 *            {@link mx.nic.rdap.db.spi.DomainDAO#cursorByName(mx.nic.rdap.core.db.DomainLabel, int)}.)
+	 * @param key
+	 *            See {@link #intercept(DAOOperation, Object, DAOCall)}.
+	 * @param call
+	 *            Opens the cursor of the next interceptor, or of the actual
+	 *            DAO.
+	 */
+	public default <T extends RdapObject> SearchCursor<T> interceptCursor(DAOOperation operation, Object key,
+			CursorCall<T> call) throws RdapDataAccessException {
+		return call.call();
+	}
+
+}
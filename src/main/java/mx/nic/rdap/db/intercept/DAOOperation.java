@@ -0,0 +1,81 @@
+package mx.nic.rdap.db.intercept;
+
+/**
+ * Every intercepted method of the DAO interfaces.
+ */
+public enum DAOOperation {
+
+	AUTNUM_GET_BY_RANGE(ObjectType.AUTNUM, OperationClass.LOOKUP),
+	AUTNUM_EXISTS_BY_RANGE(ObjectType.AUTNUM, OperationClass.LOOKUP),
+
+	DOMAIN_GET_BY_NAME(ObjectType.DOMAIN, OperationClass.LOOKUP),
+	DOMAIN_SEARCH_BY_NAME(ObjectType.DOMAIN, OperationClass.SEARCH),
+	DOMAIN_SEARCH_BY_NS_LDH_NAME(ObjectType.DOMAIN, OperationClass.SEARCH),
+	DOMAIN_SEARCH_BY_NS_IP(ObjectType.DOMAIN, OperationClass.SEARCH),
+	DOMAIN_SEARCH_BY_REGEX_NAME(ObjectType.DOMAIN, OperationClass.REGEX_SEARCH),
+	DOMAIN_SEARCH_BY_REGEX_NS_LDH_NAME(ObjectType.DOMAIN, OperationClass.REGEX_SEARCH),
+	DOMAIN_SEARCH_BY_REGEX_NS_IP(ObjectType.DOMAIN, OperationClass.REGEX_SEARCH),
+	DOMAIN_PAGE_BY_NAME(ObjectType.DOMAIN, OperationClass.SEARCH),
+	DOMAIN_PAGE_BY_NS_LDH_NAME(ObjectType.DOMAIN, OperationClass.SEARCH),
+	DOMAIN_PAGE_BY_NS_IP(ObjectType.DOMAIN, OperationClass.SEARCH),
+	DOMAIN_PAGE_BY_REGEX_NAME(ObjectType.DOMAIN, OperationClass.REGEX_SEARCH),
+	DOMAIN_PAGE_BY_REGEX_NS_LDH_NAME(ObjectType.DOMAIN, OperationClass.REGEX_SEARCH),
+	DOMAIN_PAGE_BY_REGEX_NS_IP(ObjectType.DOMAIN, OperationClass.REGEX_SEARCH),
+	DOMAIN_EXISTS(ObjectType.DOMAIN, OperationClass.LOOKUP),
+	DOMAIN_COUNT_BY_NAME(ObjectType.DOMAIN, OperationClass.COUNT),
+
+	ENTITY_GET_BY_HANDLE(ObjectType.ENTITY, OperationClass.LOOKUP),
+	ENTITY_SEARCH_BY_HANDLE(ObjectType.ENTITY, OperationClass.SEARCH),
+	ENTITY_SEARCH_BY_VCARD_NAME(ObjectType.ENTITY, OperationClass.SEARCH),
+	ENTITY_SEARCH_BY_REGEX_HANDLE(ObjectType.ENTITY, OperationClass.REGEX_SEARCH),
+	ENTITY_SEARCH_BY_REGEX_VCARD_NAME(ObjectType.ENTITY, OperationClass.REGEX_SEARCH),
+	ENTITY_PAGE_BY_HANDLE(ObjectType.ENTITY, OperationClass.SEARCH),
+	ENTITY_PAGE_BY_VCARD_NAME(ObjectType.ENTITY, OperationClass.SEARCH),
+	ENTITY_PAGE_BY_REGEX_HANDLE(ObjectType.ENTITY, OperationClass.REGEX_SEARCH),
+	ENTITY_PAGE_BY_REGEX_VCARD_NAME(ObjectType.ENTITY, OperationClass.REGEX_SEARCH),
+	ENTITY_EXISTS_BY_HANDLE(ObjectType.ENTITY, OperationClass.LOOKUP),
+	ENTITY_COUNT_BY_HANDLE(ObjectType.ENTITY, OperationClass.COUNT),
+
+	IP_NETWORK_GET_BY_ADDRESS_BLOCK(ObjectType.IP_NETWORK, OperationClass.LOOKUP),
+	IP_NETWORK_EXISTS_BY_ADDRESS_BLOCK(ObjectType.IP_NETWORK, OperationClass.LOOKUP),
+
+	NAMESERVER_GET_BY_NAME(ObjectType.NAMESERVER, OperationClass.LOOKUP),
+	NAMESERVER_GET_BY_HANDLE(ObjectType.NAMESERVER, OperationClass.LOOKUP),
+	NAMESERVER_GET_COUNT(ObjectType.NAMESERVER, OperationClass.COUNT),
+	NAMESERVER_SEARCH_BY_NAME(ObjectType.NAMESERVER, OperationClass.SEARCH),
+	NAMESERVER_SEARCH_BY_IP(ObjectType.NAMESERVER, OperationClass.SEARCH),
+	NAMESERVER_SEARCH_BY_REGEX_NAME(ObjectType.NAMESERVER, OperationClass.REGEX_SEARCH),
+	NAMESERVER_SEARCH_BY_REGEX_IP(ObjectType.NAMESERVER, OperationClass.REGEX_SEARCH),
+	NAMESERVER_PAGE_BY_NAME(ObjectType.NAMESERVER, OperationClass.SEARCH),
+	NAMESERVER_PAGE_BY_IP(ObjectType.NAMESERVER, OperationClass.SEARCH),
+	NAMESERVER_PAGE_BY_REGEX_NAME(ObjectType.NAMESERVER, OperationClass.REGEX_SEARCH),
+	NAMESERVER_PAGE_BY_REGEX_IP(ObjectType.NAMESERVER, OperationClass.REGEX_SEARCH),
+	NAMESERVER_EXISTS_BY_NAME(ObjectType.NAMESERVER, OperationClass.LOOKUP),
+	NAMESERVER_EXISTS_BY_HANDLE(ObjectType.NAMESERVER, OperationClass.LOOKUP),
+	NAMESERVER_COUNT_BY_NAME(ObjectType.NAMESERVER, OperationClass.COUNT),
+
+	RDAP_USER_GET_BY_USERNAME(ObjectType.RDAP_USER, OperationClass.LOOKUP);
+
+	private final ObjectType objectType;
+	private final OperationClass operationClass;
+
+	private DAOOperation(ObjectType objectType, OperationClass operationClass) {
+		this.objectType = objectType;
+		this.operationClass = operationClass;
+	}
+
+	/**
+	 * Returns the type of the objects this operation hands out.
+	 */
+	public ObjectType getObjectType() {
+		return objectType;
+	}
+
+	/**
+	 * Returns the cost category of this operation.
+	 */
+	public OperationClass getOperationClass() {
+		return operationClass;
+	}
+
+}
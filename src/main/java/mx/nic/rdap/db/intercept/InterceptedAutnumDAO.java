@@ -0,0 +1,45 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AutnumDAO} that routes every call through a {@link DAOInterceptor}.
+ */
+public class InterceptedAutnumDAO implements AutnumDAO {
+
+	private final AutnumDAO delegate;
+	private final DAOInterceptor interceptor;
+
+	public InterceptedAutnumDAO(AutnumDAO delegate, DAOInterceptor interceptor) {
+		this.delegate = delegate;
+		this.interceptor = interceptor;
+	}
+
+	@Override
+	public Autnum getByRange(long autnum) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.AUTNUM_GET_BY_RANGE, autnum, () -> delegate.getByRange(autnum));
+	}
+
+	@Override
+	public List<Autnum> getByRanges(Collection<Long> autnums) throws RdapDataAccessException {
+		return BatchCalls.intercept(interceptor, DAOOperation.AUTNUM_GET_BY_RANGE, autnums, autnum -> autnum, delegate::getByRanges);
+	}
+
+	/**
+	 * Returns the DAO this one is decorating.
+	 */
+	public AutnumDAO getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public boolean existsByRange(long autnum) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.AUTNUM_EXISTS_BY_RANGE, autnum, () -> delegate.existsByRange(autnum));
+	}
+
+}
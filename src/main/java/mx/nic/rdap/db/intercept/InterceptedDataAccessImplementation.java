@@ -0,0 +1,114 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * A {@link DataAccessImplementation} that decorates every DAO of another
+ * implementation with a {@link DAOInterceptor}.
+ * <p>
+ * The delegate does not need to know it's being decorated. DAOs the delegate
+ * does not provide (<code>null</code>) stay <code>null</code>.
+ */
+public class InterceptedDataAccessImplementation implements DataAccessImplementation {
+
+	private final DataAccessImplementation delegate;
+	private final DAOInterceptor interceptor;
+
+	public InterceptedDataAccessImplementation(DataAccessImplementation delegate, DAOInterceptor interceptor) {
+		if (delegate == null || interceptor == null) {
+			throw new NullPointerException("Both the delegate and the interceptor are mandatory.");
+		}
+		this.delegate = delegate;
+		this.interceptor = interceptor;
+	}
+
+	/**
+	 * Initializes the delegate.
+	 */
+	@Override
+	public void init(Properties properties) throws InitializationException {
+		delegate.init(properties);
+	}
+
+	@Override
+	public AutnumDAO getAutnumDAO() throws RdapDataAccessException {
+		AutnumDAO dao = delegate.getAutnumDAO();
+		return (dao != null) ? new InterceptedAutnumDAO(dao, interceptor) : null;
+	}
+
+	@Override
+	public DomainDAO getDomainDAO() throws RdapDataAccessException {
+		DomainDAO dao = delegate.getDomainDAO();
+		return (dao != null) ? new InterceptedDomainDAO(dao, interceptor) : null;
+	}
+
+	@Override
+	public EntityDAO getEntityDAO() throws RdapDataAccessException {
+		EntityDAO dao = delegate.getEntityDAO();
+		return (dao != null) ? new InterceptedEntityDAO(dao, interceptor) : null;
+	}
+
+	@Override
+	public IpNetworkDAO getIpNetworkDAO() throws RdapDataAccessException {
+		IpNetworkDAO dao = delegate.getIpNetworkDAO();
+		return (dao != null) ? new InterceptedIpNetworkDAO(dao, interceptor) : null;
+	}
+
+	@Override
+	public NameserverDAO getNameserverDAO() throws RdapDataAccessException {
+		NameserverDAO dao = delegate.getNameserverDAO();
+		return (dao != null) ? new InterceptedNameserverDAO(dao, interceptor) : null;
+	}
+
+	@Override
+	public RdapUserDAO getRdapUserDAO() throws RdapDataAccessException {
+		RdapUserDAO dao = delegate.getRdapUserDAO();
+		return (dao != null) ? new InterceptedRdapUserDAO(dao, interceptor) : null;
+	}
+
+	/**
+	 * Returns the implementation this one is decorating.
+	 */
+	public DataAccessImplementation getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Returns the interceptor this implementation applies to its delegate's
+	 * DAOs.
+	 */
+	public DAOInterceptor getInterceptor() {
+		return interceptor;
+	}
+
+	/**
+	 * Walks the decoration chain that starts at <code>implementation</code>
+	 * and returns the first interceptor that is an instance of
+	 * <code>type</code>.
+	 * <p>
+	 * Returns <code>null</code> if there is no such interceptor.
+	 */
+	public static <T extends DAOInterceptor> T findInterceptor(DataAccessImplementation implementation,
+			Class<T> type) {
+		DataAccessImplementation current = implementation;
+		while (current instanceof InterceptedDataAccessImplementation) {
+			InterceptedDataAccessImplementation intercepted = (InterceptedDataAccessImplementation) current;
+			if (type.isInstance(intercepted.interceptor)) {
+				return type.cast(intercepted.interceptor);
+			}
+			current = intercepted.delegate;
+		}
+		return null;
+	}
+
+}
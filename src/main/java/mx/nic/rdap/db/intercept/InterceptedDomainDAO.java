@@ -0,0 +1,190 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link DomainDAO} that routes every call through a {@link DAOInterceptor}.
+ * <p>
+ * Cursors go through
+ * {@link DAOInterceptor#interceptCursor(DAOOperation, Object, CursorCall)},
+ * under the operation of the equivalent search.
+ */
+public class InterceptedDomainDAO implements DomainDAO {
+
+	private final DomainDAO delegate;
+	private final DAOInterceptor interceptor;
+
+	public InterceptedDomainDAO(DomainDAO delegate, DAOInterceptor interceptor) {
+		this.delegate = delegate;
+		this.interceptor = interceptor;
+	}
+
+	@Override
+	public Domain getByName(DomainLabel domainLabel) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_GET_BY_NAME, LookupKeys.of(domainLabel),
+				() -> delegate.getByName(domainLabel));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_SEARCH_BY_NAME, LookupKeys.search(namePattern, resultLimit),
+				() -> delegate.searchByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsLDHName(DomainLabel nsName, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_SEARCH_BY_NS_LDH_NAME, LookupKeys.search(nsName, resultLimit),
+				() -> delegate.searchByNsLDHName(nsName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_SEARCH_BY_NS_IP, LookupKeys.search(ip, resultLimit),
+				() -> delegate.searchByNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexName(String regexName, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NAME, LookupKeys.search(regexName, resultLimit),
+				() -> delegate.searchByRegexName(regexName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NS_LDH_NAME,
+				LookupKeys.search(regexNsName, resultLimit),
+				() -> delegate.searchByRegexNsLDHName(regexNsName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NS_IP, LookupKeys.search(ip, resultLimit),
+				() -> delegate.searchByRegexNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByName(DomainLabel namePattern, int resultLimit) throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.DOMAIN_SEARCH_BY_NAME,
+				LookupKeys.search(namePattern, resultLimit),
+				() -> delegate.cursorByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByNsLDHName(DomainLabel nsName, int resultLimit) throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.DOMAIN_SEARCH_BY_NS_LDH_NAME,
+				LookupKeys.search(nsName, resultLimit),
+				() -> delegate.cursorByNsLDHName(nsName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.DOMAIN_SEARCH_BY_NS_IP, LookupKeys.search(ip, resultLimit),
+				() -> delegate.cursorByNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByRegexName(String regexName, int resultLimit) throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NAME,
+				LookupKeys.search(regexName, resultLimit),
+				() -> delegate.cursorByRegexName(regexName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NS_LDH_NAME,
+				LookupKeys.search(regexNsName, resultLimit),
+				() -> delegate.cursorByRegexNsLDHName(regexNsName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NS_IP,
+				LookupKeys.search(ip, resultLimit),
+				() -> delegate.cursorByRegexNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_PAGE_BY_NAME,
+				LookupKeys.page(namePattern, cursor, resultLimit),
+				() -> delegate.pageByName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByNsLDHName(DomainLabel nsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_PAGE_BY_NS_LDH_NAME,
+				LookupKeys.page(nsName, cursor, resultLimit),
+				() -> delegate.pageByNsLDHName(nsName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_PAGE_BY_NS_IP, LookupKeys.page(ip, cursor, resultLimit),
+				() -> delegate.pageByNsIp(ip, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexName(String regexName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_PAGE_BY_REGEX_NAME,
+				LookupKeys.page(regexName, cursor, resultLimit),
+				() -> delegate.pageByRegexName(regexName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexNsLDHName(String regexNsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_PAGE_BY_REGEX_NS_LDH_NAME,
+				LookupKeys.page(regexNsName, cursor, resultLimit),
+				() -> delegate.pageByRegexNsLDHName(regexNsName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_PAGE_BY_REGEX_NS_IP,
+				LookupKeys.page(ip, cursor, resultLimit),
+				() -> delegate.pageByRegexNsIp(ip, cursor, resultLimit));
+	}
+
+	@Override
+	public List<Domain> getByNames(Collection<DomainLabel> domainLabels) throws RdapDataAccessException {
+		return BatchCalls.intercept(interceptor, DAOOperation.DOMAIN_GET_BY_NAME, domainLabels, LookupKeys::of, delegate::getByNames);
+	}
+
+	/**
+	 * Returns the DAO this one is decorating.
+	 */
+	public DomainDAO getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public boolean exists(DomainLabel domainLabel) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_EXISTS, LookupKeys.of(domainLabel),
+				() -> delegate.exists(domainLabel));
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.DOMAIN_COUNT_BY_NAME, LookupKeys.search(namePattern, countLimit),
+				() -> delegate.countByName(namePattern, countLimit));
+	}
+
+}
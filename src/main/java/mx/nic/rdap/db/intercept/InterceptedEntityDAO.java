@@ -0,0 +1,148 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link EntityDAO} that routes every call through a {@link DAOInterceptor}.
+ * <p>
+ * Cursors go through
+ * {@link DAOInterceptor#interceptCursor(DAOOperation, Object, CursorCall)},
+ * under the operation of the equivalent search.
+ */
+public class InterceptedEntityDAO implements EntityDAO {
+
+	private final EntityDAO delegate;
+	private final DAOInterceptor interceptor;
+
+	public InterceptedEntityDAO(EntityDAO delegate, DAOInterceptor interceptor) {
+		this.delegate = delegate;
+		this.interceptor = interceptor;
+	}
+
+	@Override
+	public Entity getByHandle(String entityHandle) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_GET_BY_HANDLE, entityHandle,
+				() -> delegate.getByHandle(entityHandle));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_SEARCH_BY_HANDLE, LookupKeys.search(handle, resultLimit),
+				() -> delegate.searchByHandle(handle, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_SEARCH_BY_VCARD_NAME,
+				LookupKeys.search(vCardName, resultLimit), () -> delegate.searchByVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_SEARCH_BY_REGEX_HANDLE,
+				LookupKeys.search(regexHandle, resultLimit),
+				() -> delegate.searchByRegexHandle(regexHandle, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_SEARCH_BY_REGEX_VCARD_NAME,
+				LookupKeys.search(vCardName, resultLimit),
+				() -> delegate.searchByRegexVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.ENTITY_SEARCH_BY_HANDLE, LookupKeys.search(handle, resultLimit),
+				() -> delegate.cursorByHandle(handle, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByVCardName(String vCardName, int resultLimit) throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.ENTITY_SEARCH_BY_VCARD_NAME,
+				LookupKeys.search(vCardName, resultLimit),
+				() -> delegate.cursorByVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.ENTITY_SEARCH_BY_REGEX_HANDLE,
+				LookupKeys.search(regexHandle, resultLimit),
+				() -> delegate.cursorByRegexHandle(regexHandle, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.ENTITY_SEARCH_BY_REGEX_VCARD_NAME,
+				LookupKeys.search(vCardName, resultLimit),
+				() -> delegate.cursorByRegexVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByHandle(String handle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_PAGE_BY_HANDLE, LookupKeys.page(handle, cursor, resultLimit),
+				() -> delegate.pageByHandle(handle, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_PAGE_BY_VCARD_NAME,
+				LookupKeys.page(vCardName, cursor, resultLimit),
+				() -> delegate.pageByVCardName(vCardName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByRegexHandle(String regexHandle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_PAGE_BY_REGEX_HANDLE,
+				LookupKeys.page(regexHandle, cursor, resultLimit),
+				() -> delegate.pageByRegexHandle(regexHandle, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByRegexVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_PAGE_BY_REGEX_VCARD_NAME,
+				LookupKeys.page(vCardName, cursor, resultLimit),
+				() -> delegate.pageByRegexVCardName(vCardName, cursor, resultLimit));
+	}
+
+	@Override
+	public List<Entity> getByHandles(Collection<String> entityHandles) throws RdapDataAccessException {
+		return BatchCalls.intercept(interceptor, DAOOperation.ENTITY_GET_BY_HANDLE, entityHandles, handle -> handle, delegate::getByHandles);
+	}
+
+	/**
+	 * Returns the DAO this one is decorating.
+	 */
+	public EntityDAO getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public boolean existsByHandle(String entityHandle) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_EXISTS_BY_HANDLE, entityHandle,
+				() -> delegate.existsByHandle(entityHandle));
+	}
+
+	@Override
+	public int countByHandle(String handle, int countLimit) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.ENTITY_COUNT_BY_HANDLE, LookupKeys.search(handle, countLimit),
+				() -> delegate.countByHandle(handle, countLimit));
+	}
+
+}
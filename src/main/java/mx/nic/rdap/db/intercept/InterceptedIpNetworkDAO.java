@@ -0,0 +1,48 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link IpNetworkDAO} that routes every call through a {@link DAOInterceptor}.
+ */
+public class InterceptedIpNetworkDAO implements IpNetworkDAO {
+
+	private final IpNetworkDAO delegate;
+	private final DAOInterceptor interceptor;
+
+	public InterceptedIpNetworkDAO(IpNetworkDAO delegate, DAOInterceptor interceptor) {
+		this.delegate = delegate;
+		this.interceptor = interceptor;
+	}
+
+	@Override
+	public IpNetwork getByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.IP_NETWORK_GET_BY_ADDRESS_BLOCK, block,
+				() -> delegate.getByAddressBlock(block));
+	}
+
+	@Override
+	public List<IpNetwork> getByAddressBlocks(Collection<AddressBlock> blocks) throws RdapDataAccessException {
+		return BatchCalls.intercept(interceptor, DAOOperation.IP_NETWORK_GET_BY_ADDRESS_BLOCK, blocks, block -> block, delegate::getByAddressBlocks);
+	}
+
+	/**
+	 * Returns the DAO this one is decorating.
+	 */
+	public IpNetworkDAO getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public boolean existsByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.IP_NETWORK_EXISTS_BY_ADDRESS_BLOCK, block,
+				() -> delegate.existsByAddressBlock(block));
+	}
+
+}
@@ -0,0 +1,181 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link NameserverDAO} that routes every call through a {@link DAOInterceptor}.
+ * <p>
+ * Cursors go through
+ * {@link DAOInterceptor#interceptCursor(DAOOperation, Object, CursorCall)},
+ * under the operation of the equivalent search.
+ */
+public class InterceptedNameserverDAO implements NameserverDAO {
+
+	private final NameserverDAO delegate;
+	private final DAOInterceptor interceptor;
+
+	public InterceptedNameserverDAO(NameserverDAO delegate, DAOInterceptor interceptor) {
+		this.delegate = delegate;
+		this.interceptor = interceptor;
+	}
+
+	@Override
+	public Nameserver getByName(DomainLabel name) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_GET_BY_NAME, LookupKeys.of(name),
+				() -> delegate.getByName(name));
+	}
+
+	@Override
+	public Nameserver getByHandle(String handle) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_GET_BY_HANDLE, handle, () -> delegate.getByHandle(handle));
+	}
+
+	@Override
+	public boolean isNameserverSharingNameConformance() {
+		return delegate.isNameserverSharingNameConformance();
+	}
+
+	@Override
+	public int getNameserverCount(DomainLabel name) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_GET_COUNT, LookupKeys.of(name),
+				() -> delegate.getNameserverCount(name));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_SEARCH_BY_NAME,
+				LookupKeys.search(namePattern, resultLimit), () -> delegate.searchByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_SEARCH_BY_IP,
+				LookupKeys.search(ipaddressPattern, resultLimit),
+				() -> delegate.searchByIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_SEARCH_BY_REGEX_NAME,
+				LookupKeys.search(namePattern, resultLimit), () -> delegate.searchByRegexName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_SEARCH_BY_REGEX_IP,
+				LookupKeys.search(ipaddressPattern, resultLimit),
+				() -> delegate.searchByRegexIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.NAMESERVER_SEARCH_BY_NAME,
+				LookupKeys.search(namePattern, resultLimit),
+				() -> delegate.cursorByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.NAMESERVER_SEARCH_BY_IP,
+				LookupKeys.search(ipaddressPattern, resultLimit),
+				() -> delegate.cursorByIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.NAMESERVER_SEARCH_BY_REGEX_NAME,
+				LookupKeys.search(namePattern, resultLimit),
+				() -> delegate.cursorByRegexName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.interceptCursor(DAOOperation.NAMESERVER_SEARCH_BY_REGEX_IP,
+				LookupKeys.search(ipaddressPattern, resultLimit),
+				() -> delegate.cursorByRegexIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_PAGE_BY_NAME,
+				LookupKeys.page(namePattern, cursor, resultLimit),
+				() -> delegate.pageByName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_PAGE_BY_IP,
+				LookupKeys.page(ipaddressPattern, cursor, resultLimit),
+				() -> delegate.pageByIp(ipaddressPattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByRegexName(String namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_PAGE_BY_REGEX_NAME,
+				LookupKeys.page(namePattern, cursor, resultLimit),
+				() -> delegate.pageByRegexName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByRegexIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_PAGE_BY_REGEX_IP,
+				LookupKeys.page(ipaddressPattern, cursor, resultLimit),
+				() -> delegate.pageByRegexIp(ipaddressPattern, cursor, resultLimit));
+	}
+
+	@Override
+	public List<Nameserver> getByNames(Collection<DomainLabel> names) throws RdapDataAccessException {
+		return BatchCalls.intercept(interceptor, DAOOperation.NAMESERVER_GET_BY_NAME, names, LookupKeys::of, delegate::getByNames);
+	}
+
+	@Override
+	public List<Nameserver> getByHandles(Collection<String> handles) throws RdapDataAccessException {
+		return BatchCalls.intercept(interceptor, DAOOperation.NAMESERVER_GET_BY_HANDLE, handles, handle -> handle, delegate::getByHandles);
+	}
+
+	/**
+	 * Returns the DAO this one is decorating.
+	 */
+	public NameserverDAO getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public boolean existsByName(DomainLabel name) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_EXISTS_BY_NAME, LookupKeys.of(name),
+				() -> delegate.existsByName(name));
+	}
+
+	@Override
+	public boolean existsByHandle(String handle) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_EXISTS_BY_HANDLE, handle,
+				() -> delegate.existsByHandle(handle));
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.NAMESERVER_COUNT_BY_NAME, LookupKeys.search(namePattern, countLimit),
+				() -> delegate.countByName(namePattern, countLimit));
+	}
+
+}
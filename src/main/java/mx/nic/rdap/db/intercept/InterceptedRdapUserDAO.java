@@ -0,0 +1,41 @@
+package mx.nic.rdap.db.intercept;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link RdapUserDAO} that routes every call through a {@link DAOInterceptor}.
+ */
+public class InterceptedRdapUserDAO implements RdapUserDAO {
+
+	private final RdapUserDAO delegate;
+	private final DAOInterceptor interceptor;
+
+	public InterceptedRdapUserDAO(RdapUserDAO delegate, DAOInterceptor interceptor) {
+		this.delegate = delegate;
+		this.interceptor = interceptor;
+	}
+
+	@Override
+	public RdapUser getByUsername(String username) throws RdapDataAccessException {
+		return interceptor.intercept(DAOOperation.RDAP_USER_GET_BY_USERNAME, username,
+				() -> delegate.getByUsername(username));
+	}
+
+	@Override
+	public List<RdapUser> getByUsernames(Collection<String> usernames) throws RdapDataAccessException {
+		return BatchCalls.intercept(interceptor, DAOOperation.RDAP_USER_GET_BY_USERNAME, usernames, username -> username, delegate::getByUsernames);
+	}
+
+	/**
+	 * Returns the DAO this one is decorating.
+	 */
+	public RdapUserDAO getDelegate() {
+		return delegate;
+	}
+
+}
@@ -0,0 +1,95 @@
+package mx.nic.rdap.db.intercept;
+
+import mx.nic.rdap.core.db.DomainLabel;
+
+/**
+ * Builds the normalized keys the intercepted DAOs hand to the
+ * {@link DAOInterceptor}s.
+ * <p>
+ * Two requests that are bound to yield the same response must produce equal
+ * keys, so anything that does not affect the response (casing, Unicode vs
+ * ASCII form, the root label's trailing dot) is stripped here.
+ */
+public class LookupKeys {
+
+	private LookupKeys() {
+		// No code.
+	}
+
+	/**
+	 * Returns the normalized form of <code>label</code>: its lowercase A-label,
+	 * without trailing dot.
+	 */
+	public static String of(DomainLabel label) {
+		if (label == null) {
+			return null;
+		}
+		return normalizeName(label.getALabel());
+	}
+
+	/**
+	 * Returns the normalized form of the <code>name</code> domain or host name.
+	 * <code>name</code> is expected to be in ASCII form already.
+	 */
+	public static String normalizeName(String name) {
+		if (name == null) {
+			return null;
+		}
+		int end = name.length();
+		if (end > 1 && name.charAt(end - 1) == '.') {
+			end--;
+		}
+		return toLowerCase(name, end);
+	}
+
+	/**
+	 * Returns the key of a search.
+	 */
+	public static SearchKey search(String pattern, int resultLimit) {
+		return new SearchKey(pattern, resultLimit);
+	}
+
+	/**
+	 * Returns the key of a search whose pattern is a domain label.
+	 */
+	public static SearchKey search(DomainLabel pattern, int resultLimit) {
+		return new SearchKey(of(pattern), resultLimit);
+	}
+
+	/**
+	 * Returns the key of a paged search.
+	 */
+	public static SearchKey page(String pattern, String cursor, int resultLimit) {
+		return new SearchKey(pattern, cursor, resultLimit);
+	}
+
+	/**
+	 * Returns the key of a paged search whose pattern is a domain label.
+	 */
+	public static SearchKey page(DomainLabel pattern, String cursor, int resultLimit) {
+		return new SearchKey(of(pattern), cursor, resultLimit);
+	}
+
+	/**
+	 * ASCII-only lowercase of the first <code>end</code> characters of
+	 * <code>name</code>. Avoids copying in the (common) case the name is
+	 * already normalized.
+	 */
+	private static String toLowerCase(String name, int end) {
+		for (int i = 0; i < end; i++) {
+			char c = name.charAt(i);
+			if ('A' <= c && c <= 'Z') {
+				char[] chars = name.substring(0, end).toCharArray();
+				for (int j = i; j < end; j++) {
+					c = chars[j];
+					if ('A' <= c && c <= 'Z') {
+						chars[j] = (char) (c + ('a' - 'A'));
+					}
+				}
+				return new String(chars);
+			}
+		}
+		return (end == name.length()) ? name : name.substring(0, end);
+	}
+
+}
@@ -0,0 +1,30 @@
+package mx.nic.rdap.db.intercept;
+
+/**
+ * The kinds of objects the DAOs hand out. Decorators use this to keep separate
+ * configuration and bookkeeping per object type.
+ */
+public enum ObjectType {
+
+	AUTNUM("autnum"), //
+	DOMAIN("domain"), //
+	ENTITY("entity"), //
+	IP_NETWORK("ip-network"), //
+	NAMESERVER("nameserver"), //
+	RDAP_USER("rdap-user");
+
+	/** Name used to refer to this object type in configuration properties. */
+	private final String propertyName;
+
+	private ObjectType(String propertyName) {
+		this.propertyName = propertyName;
+	}
+
+	/**
+	 * @see #propertyName
+	 */
+	public String getPropertyName() {
+		return propertyName;
+	}
+
+}
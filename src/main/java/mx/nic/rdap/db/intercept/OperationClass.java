@@ -0,0 +1,17 @@
+package mx.nic.rdap.db.intercept;
+
+/**
+ * Rough cost category of a DAO operation.
+ */
+public enum OperationClass {
+
+	/** Retrieval of one object by its key. */
+	LOOKUP,
+	/** Search by exact value or trailing wildcard pattern. */
+	SEARCH,
+	/** Search by regular expression. */
+	REGEX_SEARCH,
+	/** Computes a number instead of returning objects. */
+	COUNT;
+
+}
@@ -0,0 +1,71 @@
+package mx.nic.rdap.db.intercept;
+
+/**
+ * Key of a search operation: the pattern, the result limit and, if the search
+ * is paged, the cursor.
+ */
+public final class SearchKey {
+
+	private final String pattern;
+	private final String cursor;
+	private final int resultLimit;
+
+	public SearchKey(String pattern, int resultLimit) {
+		this(pattern, null, resultLimit);
+	}
+
+	public SearchKey(String pattern, String cursor, int resultLimit) {
+		this.pattern = pattern;
+		this.cursor = cursor;
+		this.resultLimit = resultLimit;
+	}
+
+	public String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * Returns the cursor of the requested page, or <code>null</code> if the
+	 * search is not paged or the first page was requested.
+	 */
+	public String getCursor() {
+		return cursor;
+	}
+
+	public int getResultLimit() {
+		return resultLimit;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((pattern == null) ? 0 : pattern.hashCode());
+		result = prime * result + ((cursor == null) ? 0 : cursor.hashCode());
+		result = prime * result + resultLimit;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof SearchKey))
+			return false;
+		SearchKey other = (SearchKey) obj;
+		if (resultLimit != other.resultLimit)
+			return false;
+		if ((cursor == null) ? (other.cursor != null) : !cursor.equals(other.cursor))
+			return false;
+		if (pattern == null)
+			return other.pattern == null;
+		return pattern.equals(other.pattern);
+	}
+
+	@Override
+	public String toString() {
+		String page = (cursor != null) ? ", after " + cursor : "";
+		return pattern + " (limit " + resultLimit + page + ")";
+	}
+
+}
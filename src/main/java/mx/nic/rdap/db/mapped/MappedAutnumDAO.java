@@ -0,0 +1,22 @@
+package mx.nic.rdap.db.mapped;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AutnumDAO} of the {@link MappedDataAccessImplementation}.
+ */
+class MappedAutnumDAO implements AutnumDAO {
+
+	private final MappedDataAccessImplementation implementation;
+
+	MappedAutnumDAO(MappedDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Autnum getByRange(long autnum) {
+		return implementation.getRegistry().autnums.get(autnum);
+	}
+
+}
@@ -0,0 +1,38 @@
+package mx.nic.rdap.db.mapped;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link MappedDataAccessImplementation} and the
+ * {@link MappedSnapshotLoader}, as read from the user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>mapped.snapshot-file</code>: Path of the snapshot, as written by
+ * {@link SnapshotWriter}. Mandatory.</li>
+ * </ul>
+ */
+public class MappedConfiguration {
+
+	public static final String FILE_PROPERTY = "mapped.snapshot-file";
+
+	private final Path file;
+
+	public MappedConfiguration(Properties config) throws InitializationException {
+		String value = ConfigurationUtils.getString(config, FILE_PROPERTY);
+		if (value == null) {
+			throw new InitializationException("The '" + FILE_PROPERTY + "' property is mandatory.");
+		}
+		file = Paths.get(value);
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+}
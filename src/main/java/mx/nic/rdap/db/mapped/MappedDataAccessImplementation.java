@@ -0,0 +1,109 @@
+package mx.nic.rdap.db.mapped;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link DataAccessImplementation} that serves a binary snapshot (see
+ * {@link SnapshotWriter}) straight from a memory-mapped file.
+ * <p>
+ * Domains, nameservers, entities and users stay in the file and are decoded
+ * per request, so startup is a single map call and the heap does not grow
+ * with the registry. Only the autnums and IP networks are indexed in the
+ * heap (see {@link MappedRegistry}).
+ * <p>
+ * The price is that only lookups are served; the searches throw
+ * {@link mx.nic.rdap.db.exception.http.NotImplementedException}. Registries
+ * that need searches should load the same file into
+ * {@link mx.nic.rdap.db.memory.InMemoryDataAccessImplementation} through the
+ * {@link MappedSnapshotLoader}.
+ * <p>
+ * Not listed in META-INF/services; select it through the
+ * <code>data-access-implementation</code> property.
+ */
+public class MappedDataAccessImplementation implements DataAccessImplementation {
+
+	private static final Logger logger = Logger.getLogger(MappedDataAccessImplementation.class.getName());
+
+	private volatile MappedRegistry registry;
+
+	private final AutnumDAO autnumDAO = new MappedAutnumDAO(this);
+	private final DomainDAO domainDAO = new MappedDomainDAO(this);
+	private final EntityDAO entityDAO = new MappedEntityDAO(this);
+	private final IpNetworkDAO ipNetworkDAO = new MappedIpNetworkDAO(this);
+	private final NameserverDAO nameserverDAO = new MappedNameserverDAO(this);
+	private final RdapUserDAO rdapUserDAO = new MappedRdapUserDAO(this);
+
+	@Override
+	public void init(Properties properties) throws InitializationException {
+		Path file = new MappedConfiguration(properties).getFile();
+		try {
+			reload(file);
+		} catch (IOException | RdapDataAccessException e) {
+			throw new InitializationException("Could not map snapshot " + file + ".", e);
+		}
+		logger.info("Registry snapshot mapped: " + file + " (" + registry.snapshot.getSize() + " bytes).");
+	}
+
+	/**
+	 * Starts serving the snapshot in <code>file</code>. The previous snapshot
+	 * is served until the new one is ready.
+	 * <p>
+	 * <code>file</code> should be a new file rather than the current one,
+	 * overwritten; writing to a mapped file changes it under the readers.
+	 */
+	public void reload(Path file) throws IOException, RdapDataAccessException {
+		registry = new MappedRegistry(MappedSnapshot.open(file));
+	}
+
+	MappedRegistry getRegistry() {
+		MappedRegistry result = registry;
+		if (result == null) {
+			throw new IllegalStateException("The snapshot has not been loaded yet.");
+		}
+		return result;
+	}
+
+	@Override
+	public AutnumDAO getAutnumDAO() {
+		return autnumDAO;
+	}
+
+	@Override
+	public DomainDAO getDomainDAO() {
+		return domainDAO;
+	}
+
+	@Override
+	public EntityDAO getEntityDAO() {
+		return entityDAO;
+	}
+
+	@Override
+	public IpNetworkDAO getIpNetworkDAO() {
+		return ipNetworkDAO;
+	}
+
+	@Override
+	public NameserverDAO getNameserverDAO() {
+		return nameserverDAO;
+	}
+
+	@Override
+	public RdapUserDAO getRdapUserDAO() {
+		return rdapUserDAO;
+	}
+
+}
@@ -0,0 +1,66 @@
+package mx.nic.rdap.db.mapped;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link DomainDAO} of the {@link MappedDataAccessImplementation}. Lookups
+ * only.
+ */
+class MappedDomainDAO implements DomainDAO {
+
+	private final MappedDataAccessImplementation implementation;
+
+	MappedDomainDAO(MappedDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Domain getByName(DomainLabel domainLabel) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.getDomain(domainLabel);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsLDHName(DomainLabel nsName, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexName(String regexName, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public boolean exists(DomainLabel domainLabel) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.containsDomain(domainLabel);
+	}
+
+}
@@ -0,0 +1,54 @@
+package mx.nic.rdap.db.mapped;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link EntityDAO} of the {@link MappedDataAccessImplementation}. Lookups
+ * only.
+ */
+class MappedEntityDAO implements EntityDAO {
+
+	private final MappedDataAccessImplementation implementation;
+
+	MappedEntityDAO(MappedDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Entity getByHandle(String entityHandle) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.getEntity(entityHandle);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public boolean existsByHandle(String entityHandle) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.containsEntity(entityHandle);
+	}
+
+}
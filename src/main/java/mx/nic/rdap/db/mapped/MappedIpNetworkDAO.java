@@ -0,0 +1,23 @@
+package mx.nic.rdap.db.mapped;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link IpNetworkDAO} of the {@link MappedDataAccessImplementation}.
+ */
+class MappedIpNetworkDAO implements IpNetworkDAO {
+
+	private final MappedDataAccessImplementation implementation;
+
+	MappedIpNetworkDAO(MappedDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public IpNetwork getByAddressBlock(AddressBlock block) {
+		return implementation.getRegistry().ipNetworks.longestPrefixMatch(block);
+	}
+
+}
@@ -0,0 +1,79 @@
+package mx.nic.rdap.db.mapped;
+
+import java.util.List;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link NameserverDAO} of the {@link MappedDataAccessImplementation}. Lookups
+ * only.
+ */
+class MappedNameserverDAO implements NameserverDAO {
+
+	private final MappedDataAccessImplementation implementation;
+
+	MappedNameserverDAO(MappedDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Nameserver getByName(DomainLabel name) throws RdapDataAccessException {
+		List<Nameserver> result = implementation.getRegistry().snapshot.getNameservers(name);
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	@Override
+	public Nameserver getByHandle(String handle) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.getNameserver(handle);
+	}
+
+	@Override
+	public boolean isNameserverSharingNameConformance() {
+		return true;
+	}
+
+	@Override
+	public int getNameserverCount(DomainLabel name) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.countNameservers(name);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	@Override
+	public boolean existsByName(DomainLabel name) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.countNameservers(name) > 0;
+	}
+
+	@Override
+	public boolean existsByHandle(String handle) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.containsNameserver(handle);
+	}
+
+}
@@ -0,0 +1,23 @@
+package mx.nic.rdap.db.mapped;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link RdapUserDAO} of the {@link MappedDataAccessImplementation}.
+ */
+class MappedRdapUserDAO implements RdapUserDAO {
+
+	private final MappedDataAccessImplementation implementation;
+
+	MappedRdapUserDAO(MappedDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public RdapUser getByUsername(String username) throws RdapDataAccessException {
+		return implementation.getRegistry().snapshot.getUser(username);
+	}
+
+}
@@ -0,0 +1,34 @@
+package mx.nic.rdap.db.mapped;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.index.AutnumRangeIndex;
+import mx.nic.rdap.db.index.IndexedIpNetworkDAO;
+import mx.nic.rdap.db.index.IpPrefixTrie;
+
+/**
+ * What the {@link MappedDataAccessImplementation} serves: a
+ * {@link MappedSnapshot}, plus heap indexes of its autnums and IP networks.
+ * <p>
+ * Range lookups are not exact-match lookups, so they cannot be answered by the
+ * snapshot's key sections. Allocation tables are orders of magnitude smaller
+ * than the domain, nameserver and entity tables, so they are decoded once and
+ * indexed in the heap instead.
+ */
+class MappedRegistry {
+
+	final MappedSnapshot snapshot;
+	final AutnumRangeIndex autnums;
+	final IpPrefixTrie<IpNetwork> ipNetworks;
+
+	MappedRegistry(MappedSnapshot snapshot) throws RdapDataAccessException {
+		this.snapshot = snapshot;
+		try {
+			this.autnums = AutnumRangeIndex.build(snapshot.readAutnums());
+		} catch (IllegalArgumentException e) {
+			throw new RdapDataAccessException(e.getMessage(), e);
+		}
+		this.ipNetworks = IndexedIpNetworkDAO.buildIndex(snapshot.readIpNetworks());
+	}
+
+}
@@ -0,0 +1,301 @@
+package mx.nic.rdap.db.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.LookupKeys;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+
+/**
+ * Read-only view of a binary snapshot file (see {@link SnapshotWriter}),
+ * memory-mapped rather than loaded.
+ * <p>
+ * Opening a snapshot maps the file and validates its header; nothing else is
+ * read. The lookup methods binary search the key sections in place and decode
+ * only the record they find, so the registry lives in the page cache instead
+ * of the Java heap, and a restart does not need a deserialization pass. Every
+ * lookup returns a freshly decoded object, which the caller is free to modify.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public class MappedSnapshot {
+
+	private final ByteBuffer buffer;
+	private final int[] offsets;
+	private final int[] counts;
+
+	private MappedSnapshot(ByteBuffer buffer, int[] offsets, int[] counts) {
+		this.buffer = buffer;
+		this.offsets = offsets;
+		this.counts = counts;
+	}
+
+	/**
+	 * Maps <code>file</code>.
+	 *
+	 * @throws IOException
+	 *             The file cannot be mapped, or it's not a snapshot this
+	 *             version understands.
+	 */
+	public static MappedSnapshot open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(file + " is larger than 2 GiB, so it's not a valid snapshot.");
+			}
+			// The mapping outlives the channel.
+			return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	/**
+	 * Returns a view of the snapshot contained in <code>buffer</code>, from
+	 * position 0 to its limit.
+	 */
+	public static MappedSnapshot wrap(ByteBuffer buffer) throws IOException {
+		ByteBuffer header = buffer.duplicate();
+		header.position(0);
+		if (header.remaining() < SnapshotFormat.HEADER_SIZE) {
+			throw new IOException("The snapshot is truncated.");
+		}
+
+		byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+		header.get(magic);
+		if (!Arrays.equals(magic, SnapshotFormat.MAGIC)) {
+			throw new IOException("This is not a registry snapshot.");
+		}
+		int version = header.getInt();
+		if (version != SnapshotFormat.VERSION) {
+			throw new IOException("Unsupported snapshot version: " + version);
+		}
+		if (header.getInt() != SnapshotFormat.SECTION_COUNT) {
+			throw new IOException("The snapshot's section table is corrupt.");
+		}
+
+		int[] offsets = new int[SnapshotFormat.SECTION_COUNT];
+		int[] counts = new int[SnapshotFormat.SECTION_COUNT];
+		for (int i = 0; i < SnapshotFormat.SECTION_COUNT; i++) {
+			offsets[i] = header.getInt();
+			counts[i] = header.getInt();
+			if (offsets[i] < SnapshotFormat.HEADER_SIZE || offsets[i] > header.limit() || counts[i] < 0) {
+				throw new IOException("The snapshot's section table is corrupt.");
+			}
+		}
+		return new MappedSnapshot(buffer, offsets, counts);
+	}
+
+	/**
+	 * Returns the domain named <code>name</code>, or <code>null</code>.
+	 */
+	public Domain getDomain(DomainLabel name) throws RdapDataAccessException {
+		List<Domain> result = find(SnapshotFormat.DOMAIN_NAMES, LookupKeys.of(name), false,
+				SnapshotDecoder::readDomain);
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	/**
+	 * Returns whether there is a domain named <code>name</code>, without
+	 * decoding it.
+	 */
+	public boolean containsDomain(DomainLabel name) throws RdapDataAccessException {
+		return contains(SnapshotFormat.DOMAIN_NAMES, LookupKeys.of(name));
+	}
+
+	/**
+	 * Returns the nameservers named <code>name</code>. (There can be more than
+	 * one.)
+	 */
+	public List<Nameserver> getNameservers(DomainLabel name) throws RdapDataAccessException {
+		return find(SnapshotFormat.NAMESERVER_NAMES, LookupKeys.of(name), true, SnapshotDecoder::readNameserver);
+	}
+
+	/**
+	 * Returns the number of nameservers named <code>name</code>, without
+	 * decoding them.
+	 */
+	public int countNameservers(DomainLabel name) throws RdapDataAccessException {
+		return find(SnapshotFormat.NAMESERVER_NAMES, LookupKeys.of(name), true, decoder -> null).size();
+	}
+
+	/**
+	 * Returns the nameserver whose handle is <code>handle</code>, or
+	 * <code>null</code>.
+	 */
+	public Nameserver getNameserver(String handle) throws RdapDataAccessException {
+		List<Nameserver> result = find(SnapshotFormat.NAMESERVER_HANDLES, handle, false,
+				SnapshotDecoder::readNameserver);
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	/**
+	 * Returns whether there is a nameserver whose handle is <code>handle</code>,
+	 * without decoding it.
+	 */
+	public boolean containsNameserver(String handle) throws RdapDataAccessException {
+		return contains(SnapshotFormat.NAMESERVER_HANDLES, handle);
+	}
+
+	/**
+	 * Returns the entity whose handle is <code>handle</code>, or
+	 * <code>null</code>.
+	 */
+	public Entity getEntity(String handle) throws RdapDataAccessException {
+		List<Entity> result = find(SnapshotFormat.ENTITY_HANDLES, handle, false, SnapshotDecoder::readEntity);
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	/**
+	 * Returns whether there is an entity whose handle is <code>handle</code>,
+	 * without decoding it.
+	 */
+	public boolean containsEntity(String handle) throws RdapDataAccessException {
+		return contains(SnapshotFormat.ENTITY_HANDLES, handle);
+	}
+
+	/**
+	 * Returns the user named <code>name</code>, or <code>null</code>.
+	 */
+	public RdapUser getUser(String name) throws RdapDataAccessException {
+		List<RdapUser> result = find(SnapshotFormat.USER_NAMES, name, false, SnapshotDecoder::readUser);
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	/**
+	 * Decodes every autnum.
+	 */
+	public List<Autnum> readAutnums() throws RdapDataAccessException {
+		return readAll(SnapshotFormat.AUTNUMS, SnapshotDecoder::readAutnum);
+	}
+
+	/**
+	 * Decodes every IP network.
+	 */
+	public List<IpNetwork> readIpNetworks() throws RdapDataAccessException {
+		return readAll(SnapshotFormat.IP_NETWORKS, SnapshotDecoder::readIpNetwork);
+	}
+
+	/**
+	 * Decodes the whole snapshot into the heap. Meant for consumers that need
+	 * every object anyway, such as
+	 * {@link mx.nic.rdap.db.memory.InMemoryDataAccessImplementation}.
+	 */
+	public RegistrySnapshot toRegistrySnapshot() throws RdapDataAccessException {
+		return new RegistrySnapshot.Builder() //
+				.addAutnums(readAutnums()) //
+				.addIpNetworks(readIpNetworks()) //
+				.addDomains(readAll(SnapshotFormat.DOMAINS, SnapshotDecoder::readDomain)) //
+				.addNameservers(readAll(SnapshotFormat.NAMESERVERS, SnapshotDecoder::readNameserver)) //
+				.addEntities(readAll(SnapshotFormat.ENTITIES, SnapshotDecoder::readEntity)) //
+				.addUsers(readAll(SnapshotFormat.USERS, SnapshotDecoder::readUser)) //
+				.build();
+	}
+
+	public int getDomainCount() {
+		return counts[SnapshotFormat.DOMAINS];
+	}
+
+	public int getNameserverCount() {
+		return counts[SnapshotFormat.NAMESERVERS];
+	}
+
+	public int getEntityCount() {
+		return counts[SnapshotFormat.ENTITIES];
+	}
+
+	/**
+	 * Returns the size of the snapshot, in bytes.
+	 */
+	public int getSize() {
+		return buffer.limit();
+	}
+
+	private <T> List<T> readAll(int section, Function<SnapshotDecoder, T> reader) throws RdapDataAccessException {
+		try {
+			SnapshotDecoder decoder = new SnapshotDecoder(buffer, offsets[section]);
+			List<T> result = new ArrayList<>(counts[section]);
+			for (int i = 0; i < counts[section]; i++) {
+				result.add(reader.apply(decoder));
+			}
+			return result;
+		} catch (RuntimeException e) {
+			throw corrupt(e);
+		}
+	}
+
+	/**
+	 * Returns the records the <code>section</code> key section associates with
+	 * <code>key</code>; all of them if <code>multiple</code>, otherwise the
+	 * first one.
+	 */
+	private <T> List<T> find(int section, String key, boolean multiple, Function<SnapshotDecoder, T> reader)
+			throws RdapDataAccessException {
+		if (key == null) {
+			return Collections.emptyList();
+		}
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		int table = offsets[section];
+		int count = counts[section];
+
+		try {
+			// First entry whose key is not less than the requested one.
+			int low = 0;
+			int high = count;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (compareEntry(table, middle, keyBytes) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+
+			List<T> result = new ArrayList<>(1);
+			for (int i = low; i < count && compareEntry(table, i, keyBytes) == 0; i++) {
+				result.add(reader.apply(new SnapshotDecoder(buffer, recordOffset(table, i))));
+				if (!multiple) {
+					break;
+				}
+			}
+			return result;
+		} catch (RuntimeException e) {
+			throw corrupt(e);
+		}
+	}
+
+	private boolean contains(int section, String key) throws RdapDataAccessException {
+		return !find(section, key, false, decoder -> null).isEmpty();
+	}
+
+	private int compareEntry(int table, int index, byte[] key) {
+		return new SnapshotDecoder(buffer, buffer.getInt(table + 4 * index)).compareString(key);
+	}
+
+	private int recordOffset(int table, int index) {
+		SnapshotDecoder decoder = new SnapshotDecoder(buffer, buffer.getInt(table + 4 * index));
+		int keyLength = decoder.readVarInt() - 1;
+		decoder.position(decoder.position() + keyLength);
+		return decoder.readInt();
+	}
+
+	private static RdapDataAccessException corrupt(RuntimeException e) {
+		return new RdapDataAccessException("The registry snapshot is corrupt.", e);
+	}
+
+}
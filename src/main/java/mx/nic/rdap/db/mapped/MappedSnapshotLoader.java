@@ -0,0 +1,40 @@
+package mx.nic.rdap.db.mapped;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+import mx.nic.rdap.db.memory.SnapshotLoader;
+
+/**
+ * {@link SnapshotLoader} of the binary snapshots written by
+ * {@link SnapshotWriter}. Its format is <code>binary</code>, and it reads the
+ * file named by {@link MappedConfiguration}.
+ * <p>
+ * The whole snapshot is decoded into the heap, which is what
+ * {@link mx.nic.rdap.db.memory.InMemoryDataAccessImplementation} needs to
+ * index it. To serve the snapshot without decoding it, use
+ * {@link MappedDataAccessImplementation} instead.
+ */
+public class MappedSnapshotLoader implements SnapshotLoader {
+
+	public static final String FORMAT = "binary";
+
+	@Override
+	public String getFormat() {
+		return FORMAT;
+	}
+
+	@Override
+	public RegistrySnapshot load(Properties properties) throws InitializationException {
+		MappedConfiguration config = new MappedConfiguration(properties);
+		try {
+			return MappedSnapshot.open(config.getFile()).toRegistrySnapshot();
+		} catch (IOException | RdapDataAccessException e) {
+			throw new InitializationException("Could not load snapshot " + config.getFile() + ".", e);
+		}
+	}
+
+}
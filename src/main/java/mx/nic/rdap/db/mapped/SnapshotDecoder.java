@@ -0,0 +1,531 @@
+package mx.nic.rdap.db.mapped;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import mx.nic.rdap.core.catalog.EventAction;
+import mx.nic.rdap.core.catalog.IpVersion;
+import mx.nic.rdap.core.catalog.Role;
+import mx.nic.rdap.core.catalog.Status;
+import mx.nic.rdap.core.catalog.VariantRelation;
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DsData;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.Event;
+import mx.nic.rdap.core.db.IpAddress;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.KeyData;
+import mx.nic.rdap.core.db.Link;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.core.db.PublicId;
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.core.db.Remark;
+import mx.nic.rdap.core.db.RemarkDescription;
+import mx.nic.rdap.core.db.SecureDNS;
+import mx.nic.rdap.core.db.VCard;
+import mx.nic.rdap.core.db.VCardPostalInfo;
+import mx.nic.rdap.core.db.Variant;
+import mx.nic.rdap.core.db.VariantName;
+import mx.nic.rdap.core.db.struct.NameserverIpAddressesStruct;
+import mx.nic.rdap.db.RdapUser;
+
+/**
+ * Reads registry objects out of a region of a snapshot. The reverse of
+ * {@link SnapshotEncoder}.
+ * <p>
+ * Not thread-safe, but cheap: every read creates its own decoder over a
+ * duplicate of the mapped buffer. The buffer's content is never copied, only
+ * the fields of the objects that are actually decoded.
+ * <p>
+ * Corrupt input surfaces as a {@link RuntimeException} (typically
+ * {@link java.nio.BufferUnderflowException} or
+ * {@link IllegalArgumentException}); {@link MappedSnapshot} translates it.
+ */
+class SnapshotDecoder {
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * Creates a decoder that will start reading at <code>offset</code>.
+	 * <code>buffer</code> itself is not modified.
+	 */
+	SnapshotDecoder(ByteBuffer buffer, int offset) {
+		this.buffer = buffer.duplicate();
+		this.buffer.position(offset);
+	}
+
+	int position() {
+		return buffer.position();
+	}
+
+	void position(int position) {
+		buffer.position(position);
+	}
+
+	/* Objects. */
+
+	Autnum readAutnum() {
+		Autnum autnum = new Autnum();
+		readCommon(autnum);
+		autnum.setId(readLong());
+		autnum.setStartAutnum(readLong());
+		autnum.setEndAutnum(readLong());
+		autnum.setName(readString());
+		autnum.setType(readString());
+		autnum.setCountry(readString());
+		return autnum;
+	}
+
+	Domain readDomain() {
+		Domain domain = new Domain();
+		readCommon(domain);
+		domain.setId(readLong());
+		domain.setLdhName(readString());
+		domain.setUnicodeName(readString());
+		domain.setZone(readString());
+		List<Nameserver> nameservers = readList(this::readNameserver);
+		if (nameservers != null) {
+			domain.setNameServers(nameservers);
+		}
+		List<Variant> variants = readList(this::readVariant);
+		if (variants != null) {
+			domain.setVariants(variants);
+		}
+		domain.setSecureDNS(readOptional(this::readSecureDns));
+		List<PublicId> publicIds = readList(this::readPublicId);
+		if (publicIds != null) {
+			domain.setPublicIds(publicIds);
+		}
+		domain.setIpNetwork(readOptional(this::readIpNetwork));
+		return domain;
+	}
+
+	Entity readEntity() {
+		Entity entity = new Entity();
+		readCommon(entity);
+		entity.setId(readLong());
+		List<VCard> vCards = readList(this::readVCard);
+		if (vCards != null) {
+			entity.setvCardList(vCards);
+		}
+		List<PublicId> publicIds = readList(this::readPublicId);
+		if (publicIds != null) {
+			entity.setPublicIds(publicIds);
+		}
+		List<Role> roles = readList(() -> Role.valueOf(readString()));
+		if (roles != null) {
+			entity.setRoles(roles);
+		}
+		List<IpNetwork> networks = readList(this::readIpNetwork);
+		if (networks != null) {
+			entity.setIpNetworks(networks);
+		}
+		List<Autnum> autnums = readList(this::readAutnum);
+		if (autnums != null) {
+			entity.setAutnums(autnums);
+		}
+		return entity;
+	}
+
+	IpNetwork readIpNetwork() {
+		IpNetwork network = new IpNetwork();
+		readCommon(network);
+		network.setId(readLong());
+		network.setIpVersion(readOptional(() -> IpVersion.valueOf(readString())));
+		network.setStartAddress(readAddress());
+		network.setEndAddress(readAddress());
+		network.setName(readString());
+		network.setType(readString());
+		network.setCountry(readString());
+		network.setParentHandle(readString());
+		network.setPrefix(readInteger());
+		return network;
+	}
+
+	Nameserver readNameserver() {
+		Nameserver nameserver = new Nameserver();
+		readCommon(nameserver);
+		nameserver.setId(readLong());
+		nameserver.setLdhName(readString());
+		nameserver.setUnicodeName(readString());
+		if (readBoolean()) {
+			NameserverIpAddressesStruct addresses = new NameserverIpAddressesStruct();
+			List<IpAddress> ipv4 = readList(this::readIpAddress);
+			if (ipv4 != null) {
+				addresses.setIpv4Adresses(ipv4);
+			}
+			List<IpAddress> ipv6 = readList(this::readIpAddress);
+			if (ipv6 != null) {
+				addresses.setIpv6Adresses(ipv6);
+			}
+			nameserver.setIpAddresses(addresses);
+		} else {
+			nameserver.setIpAddresses(null);
+		}
+		return nameserver;
+	}
+
+	RdapUser readUser() {
+		RdapUser user = new RdapUser();
+		user.setName(readString());
+		user.setPass(readString());
+		user.setMaxSearchResults(readInteger());
+		List<String> roles = readList(this::readString);
+		if (roles != null) {
+			user.setAccessRoles(new HashSet<>(roles));
+		}
+		return user;
+	}
+
+	private void readCommon(RdapObject object) {
+		object.setHandle(readString());
+		List<Remark> remarks = readList(this::readRemark);
+		if (remarks != null) {
+			object.setRemarks(remarks);
+		}
+		List<Link> links = readList(this::readLink);
+		if (links != null) {
+			object.setLinks(links);
+		}
+		List<Event> events = readList(this::readEvent);
+		if (events != null) {
+			object.setEvents(events);
+		}
+		List<Status> status = readList(() -> Status.valueOf(readString()));
+		if (status != null) {
+			object.setStatus(status);
+		}
+		object.setPort43(readString());
+		object.setLang(readString());
+		List<Entity> entities = readList(this::readEntity);
+		if (entities != null) {
+			object.setEntities(entities);
+		}
+	}
+
+	private Remark readRemark() {
+		Remark remark = new Remark();
+		remark.setId(readLong());
+		remark.setTitle(readString());
+		remark.setType(readString());
+		remark.setLanguage(readString());
+		List<RemarkDescription> descriptions = readList(this::readRemarkDescription);
+		if (descriptions != null) {
+			remark.setDescriptions(descriptions);
+		}
+		List<Link> links = readList(this::readLink);
+		if (links != null) {
+			remark.setLinks(links);
+		}
+		return remark;
+	}
+
+	private RemarkDescription readRemarkDescription() {
+		RemarkDescription description = new RemarkDescription();
+		description.setRemarkId(readLong());
+		description.setDescription(readString());
+		description.setOrder((int) readVarLong());
+		return description;
+	}
+
+	private Link readLink() {
+		Link link = new Link();
+		link.setId(readLong());
+		link.setValue(readString());
+		link.setRel(readString());
+		link.setHref(readString());
+		List<String> hreflang = readList(this::readString);
+		if (hreflang != null) {
+			link.setHreflang(hreflang);
+		}
+		link.setTitle(readString());
+		link.setMedia(readString());
+		link.setType(readString());
+		return link;
+	}
+
+	private Event readEvent() {
+		Event event = new Event();
+		event.setId(readLong());
+		event.setEventAction(readOptional(() -> EventAction.valueOf(readString())));
+		event.setEventActor(readString());
+		Long date = readLong();
+		event.setEventDate((date != null) ? new Date(date) : null);
+		List<Link> links = readList(this::readLink);
+		if (links != null) {
+			event.setLinks(links);
+		}
+		return event;
+	}
+
+	private Variant readVariant() {
+		Variant variant = new Variant();
+		variant.setId(readLong());
+		variant.setIdnTable(readString());
+		variant.setDomainId(readLong());
+		List<VariantName> names = readList(this::readVariantName);
+		if (names != null) {
+			variant.setVariantNames(names);
+		}
+		List<VariantRelation> relations = readList(() -> VariantRelation.valueOf(readString()));
+		if (relations != null) {
+			variant.setRelations(relations);
+		}
+		return variant;
+	}
+
+	private VariantName readVariantName() {
+		VariantName name = new VariantName();
+		name.setLdhName(readString());
+		name.setUnicodeName(readString());
+		return name;
+	}
+
+	private SecureDNS readSecureDns() {
+		SecureDNS secureDns = new SecureDNS();
+		secureDns.setId(readLong());
+		secureDns.setDomainId(readLong());
+		secureDns.setZoneSigned(readOptionalBoolean());
+		secureDns.setDelegationSigned(readOptionalBoolean());
+		secureDns.setMaxSigLife(readInteger());
+		List<DsData> dsData = readList(this::readDsData);
+		if (dsData != null) {
+			secureDns.setDsData(dsData);
+		}
+		List<KeyData> keyData = readList(this::readKeyData);
+		if (keyData != null) {
+			secureDns.setKeyData(keyData);
+		}
+		return secureDns;
+	}
+
+	private DsData readDsData() {
+		DsData dsData = new DsData();
+		dsData.setId(readLong());
+		dsData.setSecureDNSId(readLong());
+		dsData.setKeytag(readInteger());
+		dsData.setAlgorithm(readInteger());
+		dsData.setDigest(readString());
+		dsData.setDigestType(readInteger());
+		List<Event> events = readList(this::readEvent);
+		if (events != null) {
+			dsData.setEvents(events);
+		}
+		List<Link> links = readList(this::readLink);
+		if (links != null) {
+			dsData.setLinks(links);
+		}
+		return dsData;
+	}
+
+	private KeyData readKeyData() {
+		KeyData keyData = new KeyData();
+		keyData.setId(readLong());
+		keyData.setSecureDNSId(readLong());
+		keyData.setPublicKey(readString());
+		List<Event> events = readList(this::readEvent);
+		if (events != null) {
+			keyData.setEvents(events);
+		}
+		List<Link> links = readList(this::readLink);
+		if (links != null) {
+			keyData.setLinks(links);
+		}
+		keyData.setAlgorithm(readInteger());
+		keyData.setFlags(readInteger());
+		keyData.setProtocol(readInteger());
+		return keyData;
+	}
+
+	private PublicId readPublicId() {
+		PublicId publicId = new PublicId();
+		publicId.setId(readLong());
+		publicId.setPublicId(readString());
+		publicId.setType(readString());
+		return publicId;
+	}
+
+	private VCard readVCard() {
+		VCard vCard = new VCard();
+		vCard.setId(readLong());
+		vCard.setName(readString());
+		vCard.setCompanyName(readString());
+		vCard.setCompanyURL(readString());
+		List<String> contactUri = readList(this::readString);
+		if (contactUri != null) {
+			vCard.setContactUri(contactUri);
+		}
+		vCard.setEmail(readString());
+		vCard.setVoice(readString());
+		vCard.setCellphone(readString());
+		vCard.setFax(readString());
+		vCard.setJobTitle(readString());
+		List<VCardPostalInfo> postalInfo = readList(this::readPostalInfo);
+		if (postalInfo != null) {
+			vCard.setPostalInfo(postalInfo);
+		}
+		return vCard;
+	}
+
+	private VCardPostalInfo readPostalInfo() {
+		VCardPostalInfo info = new VCardPostalInfo();
+		info.setId(readLong());
+		info.setVCardId(readLong());
+		info.setType(readString());
+		info.setCountry(readString());
+		info.setCountryCode(readString());
+		info.setCity(readString());
+		info.setState(readString());
+		info.setStreet1(readString());
+		info.setStreet2(readString());
+		info.setStreet3(readString());
+		info.setPostalCode(readString());
+		return info;
+	}
+
+	private IpAddress readIpAddress() {
+		IpAddress address = new IpAddress();
+		Long id = readLong();
+		if (id != null) {
+			address.setId(id);
+		}
+		Long nameserverId = readLong();
+		if (nameserverId != null) {
+			address.setNameserverId(nameserverId);
+		}
+		Integer type = readInteger();
+		if (type != null) {
+			address.setType(type);
+		}
+		address.setAddress(readAddress());
+		return address;
+	}
+
+	/* Primitives. */
+
+	String readString() {
+		int length = readVarInt() - 1;
+		if (length == -1) {
+			return null;
+		}
+		String result;
+		if (buffer.hasArray()) {
+			result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+					StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + length);
+		} else {
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			result = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return result;
+	}
+
+	/**
+	 * Compares the string at the current position with the UTF-8
+	 * <code>key</code>, byte by byte (unsigned). Does not advance.
+	 */
+	int compareString(byte[] key) {
+		int start = buffer.position();
+		int length = readVarInt() - 1;
+		int offset = buffer.position();
+		buffer.position(start);
+
+		int common = Math.min(length, key.length);
+		for (int i = 0; i < common; i++) {
+			int difference = (buffer.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return length - key.length;
+	}
+
+	int readInt() {
+		return buffer.getInt();
+	}
+
+	private Long readLong() {
+		return readBoolean() ? readVarLong() : null;
+	}
+
+	private Integer readInteger() {
+		return readBoolean() ? (int) readVarLong() : null;
+	}
+
+	private boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	private Boolean readOptionalBoolean() {
+		byte value = buffer.get();
+		return (value == 0) ? null : (value == 2);
+	}
+
+	private InetAddress readAddress() {
+		int length = buffer.get();
+		if (length == 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		try {
+			return InetAddress.getByAddress(bytes);
+		} catch (UnknownHostException e) {
+			throw new IllegalArgumentException("Invalid address length: " + length, e);
+		}
+	}
+
+	private <T> List<T> readList(ElementReader<T> reader) {
+		int size = readVarInt() - 1;
+		if (size == -1) {
+			return null;
+		}
+		List<T> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(reader.read());
+		}
+		return result;
+	}
+
+	private <T> T readOptional(ElementReader<T> reader) {
+		return readBoolean() ? reader.read() : null;
+	}
+
+	int readVarInt() {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			result |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Malformed variable-length integer.");
+	}
+
+	private long readVarLong() {
+		long zigZag = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = buffer.get();
+			zigZag |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (zigZag >>> 1) ^ -(zigZag & 1);
+			}
+		}
+		throw new IllegalArgumentException("Malformed variable-length integer.");
+	}
+
+	@FunctionalInterface
+	private interface ElementReader<T> {
+		T read();
+	}
+
+}
@@ -0,0 +1,385 @@
+package mx.nic.rdap.db.mapped;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.function.Supplier;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DsData;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.Event;
+import mx.nic.rdap.core.db.IpAddress;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.KeyData;
+import mx.nic.rdap.core.db.Link;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.core.db.PublicId;
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.core.db.Remark;
+import mx.nic.rdap.core.db.RemarkDescription;
+import mx.nic.rdap.core.db.SecureDNS;
+import mx.nic.rdap.core.db.VCard;
+import mx.nic.rdap.core.db.VCardPostalInfo;
+import mx.nic.rdap.core.db.Variant;
+import mx.nic.rdap.core.db.VariantName;
+import mx.nic.rdap.core.db.struct.NameserverIpAddressesStruct;
+import mx.nic.rdap.db.RdapUser;
+
+/**
+ * Writes registry objects in the record encoding of the snapshot format. The
+ * reverse of {@link SnapshotDecoder}; the two must be kept in sync.
+ * <p>
+ * Every field is written in a fixed order, with no names or tags. Integers are
+ * variable-length (zig-zag for signed values), strings are UTF-8, and every
+ * nullable field and collection is preceded by its presence.
+ */
+class SnapshotEncoder {
+
+	/** Nested entities deeper than this are assumed to be a cycle. */
+	private static final int MAX_DEPTH = 32;
+
+	private final DataOutputStream out;
+	private int depth;
+
+	SnapshotEncoder(DataOutputStream out) {
+		this.out = out;
+	}
+
+	/* Objects. */
+
+	void writeAutnum(Autnum autnum) throws IOException {
+		writeCommon(autnum);
+		writeLong(autnum.getId());
+		writeLong(autnum.getStartAutnum());
+		writeLong(autnum.getEndAutnum());
+		writeString(autnum.getName());
+		writeString(autnum.getType());
+		writeString(autnum.getCountryCode());
+	}
+
+	void writeDomain(Domain domain) throws IOException {
+		writeCommon(domain);
+		writeLong(domain.getId());
+		writeString(domain.getLdhName());
+		writeString(domain.getUnicodeName());
+		writeString(domain.getZone());
+		writeList(domain.getNameServers(), this::writeNameserver);
+		writeList(domain.getVariants(), this::writeVariant);
+		writeOptional(domain.getSecureDNS(), this::writeSecureDns);
+		writeList(domain.getPublicIds(), this::writePublicId);
+		writeOptional(domain.getIpNetwork(), this::writeIpNetwork);
+	}
+
+	void writeEntity(Entity entity) throws IOException {
+		writeCommon(entity);
+		writeLong(entity.getId());
+		writeList(entity.getVCardList(), this::writeVCard);
+		writeList(entity.getPublicIds(), this::writePublicId);
+		writeList(entity.getRoles(), this::writeEnum);
+		writeList(entity.getIpNetworks(), this::writeIpNetwork);
+		writeList(entity.getAutnums(), this::writeAutnum);
+	}
+
+	void writeIpNetwork(IpNetwork network) throws IOException {
+		writeCommon(network);
+		writeLong(network.getId());
+		writeOptional(network.getIpVersion(), this::writeEnum);
+		writeAddress(network.getStartAddress());
+		writeAddress(network.getEndAddress());
+		writeString(network.getName());
+		writeString(network.getType());
+		writeString(network.getCountry());
+		writeString(network.getParentHandle());
+		writeInteger(network.getPrefix());
+	}
+
+	void writeNameserver(Nameserver nameserver) throws IOException {
+		writeCommon(nameserver);
+		writeLong(nameserver.getId());
+		writeString(nameserver.getLdhName());
+		writeString(nameserver.getUnicodeName());
+		NameserverIpAddressesStruct addresses = nameserver.getIpAddresses();
+		writeBoolean(addresses != null);
+		if (addresses != null) {
+			writeList(addresses.getIpv4Adresses(), this::writeIpAddress);
+			writeList(addresses.getIpv6Adresses(), this::writeIpAddress);
+		}
+	}
+
+	void writeUser(RdapUser user) throws IOException {
+		writeString(user.getName());
+		writeString(user.getPass());
+		writeInteger(user.getMaxSearchResults());
+		writeList(user.getAccessRoles(), this::writeString);
+	}
+
+	/**
+	 * Writes the fields every {@link RdapObject} has.
+	 */
+	private void writeCommon(RdapObject object) throws IOException {
+		if (++depth > MAX_DEPTH) {
+			throw new IOException("Object " + object.getHandle() + " is nested too deep. Is there a cycle?");
+		}
+		writeString(object.getHandle());
+		writeList(object.getRemarks(), this::writeRemark);
+		writeList(object.getLinks(), this::writeLink);
+		writeList(object.getEvents(), this::writeEvent);
+		writeList(object.getStatus(), this::writeEnum);
+		writeString(object.getPort43());
+		writeString(object.getLang());
+		writeList(object.getEntities(), this::writeEntity);
+		depth--;
+	}
+
+	private void writeRemark(Remark remark) throws IOException {
+		writeLong(remark.getId());
+		writeString(remark.getTitle());
+		writeString(remark.getType());
+		writeString(remark.getLanguage());
+		writeList(remark.getDescriptions(), this::writeRemarkDescription);
+		writeList(remark.getLinks(), this::writeLink);
+	}
+
+	private void writeRemarkDescription(RemarkDescription description) throws IOException {
+		writeLong(description.getRemarkId());
+		writeString(description.getDescription());
+		writeVarLong(description.getOrder());
+	}
+
+	private void writeLink(Link link) throws IOException {
+		writeLong(link.getId());
+		writeString(link.getValue());
+		writeString(link.getRel());
+		writeString(link.getHref());
+		writeList(link.getHreflang(), this::writeString);
+		writeString(link.getTitle());
+		writeString(link.getMedia());
+		writeString(link.getType());
+	}
+
+	private void writeEvent(Event event) throws IOException {
+		writeLong(event.getId());
+		writeOptional(event.getEventAction(), this::writeEnum);
+		writeString(event.getEventActor());
+		writeDate(event.getEventDate());
+		writeList(event.getLinks(), this::writeLink);
+	}
+
+	private void writeVariant(Variant variant) throws IOException {
+		writeLong(variant.getId());
+		writeString(variant.getIdnTable());
+		writeLong(variant.getDomainId());
+		writeList(variant.getVariantNames(), this::writeVariantName);
+		writeList(variant.getRelations(), this::writeEnum);
+	}
+
+	private void writeVariantName(VariantName name) throws IOException {
+		writeString(name.getLdhName());
+		writeString(name.getUnicodeName());
+	}
+
+	private void writeSecureDns(SecureDNS secureDns) throws IOException {
+		writeLong(secureDns.getId());
+		writeLong(secureDns.getDomainId());
+		writeOptionalBoolean(secureDns.getZoneSigned());
+		writeOptionalBoolean(secureDns.getDelegationSigned());
+		writeInteger(secureDns.getMaxSigLife());
+		writeList(secureDns.getDsData(), this::writeDsData);
+		writeList(secureDns.getKeyData(), this::writeKeyData);
+	}
+
+	private void writeDsData(DsData dsData) throws IOException {
+		writeLong(dsData.getId());
+		writeLong(dsData.getSecureDNSId());
+		writeInteger(dsData.getKeytag());
+		writeInteger(dsData.getAlgorithm());
+		writeString(dsData.getDigest());
+		writeInteger(dsData.getDigestType());
+		writeList(dsData.getEvents(), this::writeEvent);
+		writeList(dsData.getLinks(), this::writeLink);
+	}
+
+	private void writeKeyData(KeyData keyData) throws IOException {
+		writeLong(keyData.getId());
+		writeLong(keyData.getSecureDNSId());
+		writeString(keyData.getPublicKey());
+		writeList(keyData.getEvents(), this::writeEvent);
+		writeList(keyData.getLinks(), this::writeLink);
+		writeInteger(keyData.getAlgorithm());
+		writeInteger(keyData.getFlags());
+		writeInteger(keyData.getProtocol());
+	}
+
+	private void writePublicId(PublicId publicId) throws IOException {
+		writeLong(publicId.getId());
+		writeString(publicId.getPublicId());
+		writeString(publicId.getType());
+	}
+
+	private void writeVCard(VCard vCard) throws IOException {
+		writeLong(vCard.getId());
+		writeString(vCard.getName());
+		writeString(vCard.getCompanyName());
+		writeString(vCard.getCompanyURL());
+		writeList(vCard.getContactUri(), this::writeString);
+		writeString(vCard.getEmail());
+		writeString(vCard.getVoice());
+		writeString(vCard.getCellphone());
+		writeString(vCard.getFax());
+		writeString(vCard.getJobTitle());
+		writeList(vCard.getPostalInfo(), this::writePostalInfo);
+	}
+
+	private void writePostalInfo(VCardPostalInfo info) throws IOException {
+		writeLong(info.getId());
+		writeLong(info.getVCardId());
+		writeString(info.getType());
+		writeString(info.getCountry());
+		writeString(info.getCountryCode());
+		writeString(info.getCity());
+		writeString(info.getState());
+		writeString(info.getStreet1());
+		writeString(info.getStreet2());
+		writeString(info.getStreet3());
+		writeString(info.getPostalCode());
+	}
+
+	private void writeIpAddress(IpAddress address) throws IOException {
+		// IpAddress stores these as objects, but its getters unbox them.
+		writeLong(unboxed(address::getId));
+		writeLong(unboxed(address::getNameserverId));
+		writeInteger(unboxed(address::getType));
+		writeAddress(address.getAddress());
+	}
+
+	/**
+	 * Returns <code>getter</code>'s result, or <code>null</code> if the field
+	 * behind it is <code>null</code>.
+	 */
+	private static <T> T unboxed(Supplier<T> getter) {
+		try {
+			return getter.get();
+		} catch (NullPointerException e) {
+			return null;
+		}
+	}
+
+	/* Primitives. */
+
+	/**
+	 * Writes <code>value</code>'s length (plus one; zero means
+	 * <code>null</code>), then its UTF-8 bytes.
+	 */
+	void writeString(String value) throws IOException {
+		if (value == null) {
+			writeVarInt(0);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1);
+		out.write(bytes);
+	}
+
+	private void writeLong(Long value) throws IOException {
+		writeBoolean(value != null);
+		if (value != null) {
+			writeVarLong(value);
+		}
+	}
+
+	private void writeInteger(Integer value) throws IOException {
+		writeBoolean(value != null);
+		if (value != null) {
+			writeVarLong(value);
+		}
+	}
+
+	private void writeBoolean(boolean value) throws IOException {
+		out.writeByte(value ? 1 : 0);
+	}
+
+	/** 0 is <code>null</code>, 1 is <code>false</code>, 2 is <code>true</code>. */
+	private void writeOptionalBoolean(Boolean value) throws IOException {
+		out.writeByte((value == null) ? 0 : (value ? 2 : 1));
+	}
+
+	private void writeDate(Date date) throws IOException {
+		writeLong((date != null) ? date.getTime() : null);
+	}
+
+	/** Length (0, 4 or 16), then the bytes. */
+	private void writeAddress(InetAddress address) throws IOException {
+		byte[] bytes = (address != null) ? address.getAddress() : new byte[0];
+		out.writeByte(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeEnum(Enum<?> value) throws IOException {
+		writeString(value.name());
+	}
+
+	/**
+	 * Writes <code>list</code>'s size (plus one; zero means <code>null</code>),
+	 * then its elements.
+	 */
+	private <T> void writeList(Collection<T> list, ElementWriter<T> writer) throws IOException {
+		if (list == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(list.size() + 1);
+		for (T element : list) {
+			writer.write(element);
+		}
+	}
+
+	private <T> void writeOptional(T value, ElementWriter<T> writer) throws IOException {
+		writeBoolean(value != null);
+		if (value != null) {
+			writer.write(value);
+		}
+	}
+
+	/** Unsigned LEB128. */
+	void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/** Zig-zag, then unsigned LEB128. */
+	private void writeVarLong(long value) throws IOException {
+		long zigZag = (value << 1) ^ (value >> 63);
+		while ((zigZag & ~0x7FL) != 0) {
+			out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+			zigZag >>>= 7;
+		}
+		out.writeByte((int) zigZag);
+	}
+
+	/**
+	 * Returns the number of bytes {@link #writeVarInt(int)} would use to write
+	 * <code>value</code>.
+	 */
+	static int varIntSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			size++;
+			value >>>= 7;
+		}
+		return size;
+	}
+
+	@FunctionalInterface
+	private interface ElementWriter<T> {
+		void write(T element) throws IOException;
+	}
+
+}
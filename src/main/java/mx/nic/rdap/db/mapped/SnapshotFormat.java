@@ -0,0 +1,49 @@
+package mx.nic.rdap.db.mapped;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of the binary snapshot files {@link SnapshotWriter} writes and
+ * {@link MappedSnapshot} reads.
+ * <p>
+ * All fixed-width integers are big-endian. A file is:
+ * <ol>
+ * <li>A header: {@link #MAGIC}, {@link #VERSION}, the number of sections, and
+ * the offset and element count of every section.</li>
+ * <li>Record sections, one per object type: the objects, one after the
+ * other, in {@link SnapshotEncoder}'s encoding.</li>
+ * <li>Key sections, one per exact-match lookup: a table of the (absolute, 4
+ * byte) offsets of the entries, followed by the entries. Every entry is a key
+ * (as a {@link SnapshotEncoder} string) and the offset of its record. Entries
+ * are sorted by the bytes of their keys, so lookups are binary searches over
+ * the offset table.</li>
+ * </ol>
+ * Offsets are 32-bit, so a snapshot cannot exceed 2 GiB.
+ */
+class SnapshotFormat {
+
+	static final byte[] MAGIC = "RDAPSNAP".getBytes(StandardCharsets.US_ASCII);
+	static final int VERSION = 1;
+
+	/* Record sections. */
+	static final int AUTNUMS = 0;
+	static final int IP_NETWORKS = 1;
+	static final int DOMAINS = 2;
+	static final int NAMESERVERS = 3;
+	static final int ENTITIES = 4;
+	static final int USERS = 5;
+	/* Key sections. */
+	static final int DOMAIN_NAMES = 6;
+	static final int NAMESERVER_NAMES = 7;
+	static final int NAMESERVER_HANDLES = 8;
+	static final int ENTITY_HANDLES = 9;
+	static final int USER_NAMES = 10;
+
+	static final int SECTION_COUNT = 11;
+	static final int HEADER_SIZE = MAGIC.length + 4 + 4 + SECTION_COUNT * 8;
+
+	private SnapshotFormat() {
+		// No code.
+	}
+
+}
@@ -0,0 +1,246 @@
+package mx.nic.rdap.db.mapped;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.intercept.LookupKeys;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+
+/**
+ * Writes {@link RegistrySnapshot}s in the binary format {@link MappedSnapshot}
+ * reads. (See {@link SnapshotFormat}.)
+ * <p>
+ * The records are streamed to the file; only their keys and offsets are held
+ * in memory until the key sections are written.
+ */
+public class SnapshotWriter {
+
+	private SnapshotWriter() {
+		// No code.
+	}
+
+	/**
+	 * Writes <code>snapshot</code> to <code>file</code>, replacing it if it
+	 * exists.
+	 * <p>
+	 * As in {@link mx.nic.rdap.db.memory.InMemoryDataAccessImplementation},
+	 * the nameservers listed by the domains are also written as standalone
+	 * nameservers, unless a nameserver with the same handle already was.
+	 *
+	 * @throws IllegalArgumentException
+	 *             Some object lacks the fields it's indexed by, or two
+	 *             entities share a handle.
+	 */
+	public static void write(RegistrySnapshot snapshot, Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+					1 << 16));
+			SnapshotEncoder encoder = new SnapshotEncoder(out);
+			int[] offsets = new int[SnapshotFormat.SECTION_COUNT];
+			int[] counts = new int[SnapshotFormat.SECTION_COUNT];
+
+			out.write(new byte[SnapshotFormat.HEADER_SIZE]);
+
+			List<KeyEntry> domainNames = new ArrayList<>();
+			List<KeyEntry> nameserverNames = new ArrayList<>();
+			List<KeyEntry> nameserverHandles = new ArrayList<>();
+			List<KeyEntry> entityHandles = new ArrayList<>();
+			List<KeyEntry> userNames = new ArrayList<>();
+
+			offsets[SnapshotFormat.AUTNUMS] = position(out);
+			for (Autnum autnum : snapshot.getAutnums()) {
+				encoder.writeAutnum(autnum);
+				counts[SnapshotFormat.AUTNUMS]++;
+			}
+
+			offsets[SnapshotFormat.IP_NETWORKS] = position(out);
+			for (IpNetwork network : snapshot.getIpNetworks()) {
+				encoder.writeIpNetwork(network);
+				counts[SnapshotFormat.IP_NETWORKS]++;
+			}
+
+			offsets[SnapshotFormat.DOMAINS] = position(out);
+			for (Domain domain : snapshot.getDomains()) {
+				if (domain.getFQDN() == null) {
+					throw new IllegalArgumentException("Domain " + domain.getHandle() + " lacks a name.");
+				}
+				domainNames.add(new KeyEntry(LookupKeys.normalizeName(domain.getFQDN()), position(out)));
+				encoder.writeDomain(domain);
+				counts[SnapshotFormat.DOMAINS]++;
+			}
+
+			offsets[SnapshotFormat.NAMESERVERS] = position(out);
+			for (Nameserver nameserver : standaloneNameservers(snapshot)) {
+				int position = position(out);
+				if (nameserver.getLdhName() != null) {
+					nameserverNames.add(new KeyEntry(LookupKeys.normalizeName(nameserver.getLdhName()), position));
+				}
+				if (nameserver.getHandle() != null) {
+					nameserverHandles.add(new KeyEntry(nameserver.getHandle(), position));
+				}
+				encoder.writeNameserver(nameserver);
+				counts[SnapshotFormat.NAMESERVERS]++;
+			}
+
+			offsets[SnapshotFormat.ENTITIES] = position(out);
+			for (Entity entity : snapshot.getEntities()) {
+				if (entity.getHandle() == null) {
+					throw new IllegalArgumentException("There is an entity that lacks a handle.");
+				}
+				entityHandles.add(new KeyEntry(entity.getHandle(), position(out)));
+				encoder.writeEntity(entity);
+				counts[SnapshotFormat.ENTITIES]++;
+			}
+
+			offsets[SnapshotFormat.USERS] = position(out);
+			for (RdapUser user : snapshot.getUsers()) {
+				if (user.getName() == null) {
+					throw new IllegalArgumentException("There is a user that lacks a name.");
+				}
+				userNames.add(new KeyEntry(user.getName(), position(out)));
+				encoder.writeUser(user);
+				counts[SnapshotFormat.USERS]++;
+			}
+
+			writeKeys(SnapshotFormat.DOMAIN_NAMES, domainNames, true, out, encoder, offsets, counts);
+			writeKeys(SnapshotFormat.NAMESERVER_NAMES, nameserverNames, true, out, encoder, offsets, counts);
+			writeKeys(SnapshotFormat.NAMESERVER_HANDLES, nameserverHandles, false, out, encoder, offsets, counts);
+			writeKeys(SnapshotFormat.ENTITY_HANDLES, entityHandles, false, out, encoder, offsets, counts);
+			writeKeys(SnapshotFormat.USER_NAMES, userNames, false, out, encoder, offsets, counts);
+			out.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_SIZE);
+			header.put(SnapshotFormat.MAGIC);
+			header.putInt(SnapshotFormat.VERSION);
+			header.putInt(SnapshotFormat.SECTION_COUNT);
+			for (int i = 0; i < SnapshotFormat.SECTION_COUNT; i++) {
+				header.putInt(offsets[i]);
+				header.putInt(counts[i]);
+			}
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+	}
+
+	/**
+	 * Returns the nameservers of <code>snapshot</code>, plus the ones only
+	 * listed by its domains.
+	 */
+	private static List<Nameserver> standaloneNameservers(RegistrySnapshot snapshot) {
+		Set<Nameserver> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		Map<String, Nameserver> byHandle = new HashMap<>();
+		List<Nameserver> result = new ArrayList<>();
+
+		List<Nameserver> candidates = new ArrayList<>(snapshot.getNameservers());
+		for (Domain domain : snapshot.getDomains()) {
+			candidates.addAll(domain.getNameServers());
+		}
+		for (Nameserver nameserver : candidates) {
+			if (!seen.add(nameserver)) {
+				continue;
+			}
+			String handle = nameserver.getHandle();
+			if (handle != null && byHandle.putIfAbsent(handle, nameserver) != null) {
+				continue;
+			}
+			result.add(nameserver);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the key section <code>section</code>. Unless
+	 * <code>allowDuplicates</code>, two entries with the same key are an
+	 * error.
+	 */
+	private static void writeKeys(int section, List<KeyEntry> entries, boolean allowDuplicates,
+			DataOutputStream out, SnapshotEncoder encoder, int[] offsets, int[] counts) throws IOException {
+		// Stable, so duplicates keep their record order.
+		entries.sort((a, b) -> compare(a.key, b.key));
+		if (!allowDuplicates) {
+			for (int i = 1; i < entries.size(); i++) {
+				if (compare(entries.get(i - 1).key, entries.get(i).key) == 0) {
+					throw new IllegalArgumentException("Key '" + new String(entries.get(i).key, StandardCharsets.UTF_8)
+							+ "' is duplicated.");
+				}
+			}
+		}
+
+		int tableOffset = position(out);
+		offsets[section] = tableOffset;
+		counts[section] = entries.size();
+
+		long entryOffset = (long) tableOffset + 4L * entries.size();
+		for (KeyEntry entry : entries) {
+			if (entryOffset > Integer.MAX_VALUE) {
+				throw new IOException("The snapshot is larger than 2 GiB.");
+			}
+			out.writeInt((int) entryOffset);
+			entryOffset += SnapshotEncoder.varIntSize(entry.key.length + 1) + entry.key.length + 4;
+		}
+		for (KeyEntry entry : entries) {
+			encoder.writeVarInt(entry.key.length + 1);
+			out.write(entry.key);
+			out.writeInt(entry.recordOffset);
+		}
+	}
+
+	private static int position(DataOutputStream out) throws IOException {
+		int size = out.size();
+		// DataOutputStream saturates instead of overflowing.
+		if (size == Integer.MAX_VALUE) {
+			throw new IOException("The snapshot is larger than 2 GiB.");
+		}
+		return size;
+	}
+
+	/**
+	 * Unsigned, byte by byte. (Which, for UTF-8, is code point order.)
+	 */
+	private static int compare(byte[] a, byte[] b) {
+		int common = Math.min(a.length, b.length);
+		for (int i = 0; i < common; i++) {
+			int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return a.length - b.length;
+	}
+
+	private static class KeyEntry {
+
+		private final byte[] key;
+		private final int recordOffset;
+
+		private KeyEntry(String key, int recordOffset) {
+			this.key = key.getBytes(StandardCharsets.UTF_8);
+			this.recordOffset = recordOffset;
+		}
+
+	}
+
+}
@@ -0,0 +1,22 @@
+package mx.nic.rdap.db.memory;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AutnumDAO} of the {@link InMemoryDataAccessImplementation}.
+ */
+class InMemoryAutnumDAO implements AutnumDAO {
+
+	private final InMemoryDataAccessImplementation implementation;
+
+	InMemoryAutnumDAO(InMemoryDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Autnum getByRange(long autnum) {
+		return implementation.getRegistry().autnums.get(autnum);
+	}
+
+}
@@ -0,0 +1,47 @@
+package mx.nic.rdap.db.memory;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.regex.StepBudget;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link InMemoryDataAccessImplementation}, as read from
+ * the user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>memory.snapshot-format</code>: {@link SnapshotLoader#getFormat()}
+ * of the loader that should read the snapshot. Mandatory.</li>
+ * <li><code>memory.regex-step-limit</code>: {@link StepBudget} of every regular
+ * expression search. Default: {@value StepBudget#DEFAULT_STEPS}.</li>
+ * </ul>
+ * The loader itself usually needs more properties (such as the location of the
+ * snapshot); see its documentation.
+ */
+public class InMemoryConfiguration {
+
+	public static final String FORMAT_PROPERTY = "memory.snapshot-format";
+	public static final String STEP_LIMIT_PROPERTY = "memory.regex-step-limit";
+
+	private final String format;
+	private final long regexStepLimit;
+
+	public InMemoryConfiguration(Properties config) throws InitializationException {
+		format = ConfigurationUtils.getString(config, FORMAT_PROPERTY);
+		if (format == null) {
+			throw new InitializationException("The '" + FORMAT_PROPERTY + "' property is mandatory.");
+		}
+		regexStepLimit = ConfigurationUtils.getLong(config, STEP_LIMIT_PROPERTY, StepBudget.DEFAULT_STEPS);
+	}
+
+	public String getFormat() {
+		return format;
+	}
+
+	public long getRegexStepLimit() {
+		return regexStepLimit;
+	}
+
+}
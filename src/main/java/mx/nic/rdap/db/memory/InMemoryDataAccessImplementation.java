@@ -0,0 +1,148 @@
+package mx.nic.rdap.db.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.logging.Logger;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.regex.StepBudget;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link DataAccessImplementation} that serves a {@link RegistrySnapshot} out
+ * of the heap.
+ * <p>
+ * The snapshot is read during {@link #init(Properties)} by the
+ * {@link SnapshotLoader} the user selects (see {@link InMemoryConfiguration}),
+ * and every DAO method is then answered by the indexes of this project
+ * ({@link mx.nic.rdap.db.index.DomainNameIndex},
+ * {@link mx.nic.rdap.db.index.IpPrefixTrie},
+ * {@link mx.nic.rdap.db.index.AutnumRangeIndex},
+ * {@link mx.nic.rdap.db.regex.RegexSearchEngine}, hash tables), without I/O
+ * or locking.
+ * <p>
+ * The indexes are immutable. {@link #reload(RegistrySnapshot)} builds a new
+ * set on the side and publishes it in a single write, so readers never wait
+ * and never see a half-built registry. The DAOs always read the current set,
+ * so they can be retained across reloads.
+ * <p>
+ * This implementation is listed in this library's META-INF/services, but
+ * {@link mx.nic.rdap.db.service.DataAccessService} only falls back to it when
+ * there is no other implementation in the classpath.
+ */
+public class InMemoryDataAccessImplementation implements DataAccessImplementation {
+
+	private static final Logger logger = Logger.getLogger(InMemoryDataAccessImplementation.class.getName());
+
+	private volatile long regexStepLimit = StepBudget.DEFAULT_STEPS;
+	private volatile InMemoryRegistry registry;
+
+	private final AutnumDAO autnumDAO = new InMemoryAutnumDAO(this);
+	private final DomainDAO domainDAO = new InMemoryDomainDAO(this);
+	private final EntityDAO entityDAO = new InMemoryEntityDAO(this);
+	private final IpNetworkDAO ipNetworkDAO = new InMemoryIpNetworkDAO(this);
+	private final NameserverDAO nameserverDAO = new InMemoryNameserverDAO(this);
+	private final RdapUserDAO rdapUserDAO = new InMemoryRdapUserDAO(this);
+
+	/**
+	 * Creates an implementation that serves an empty registry until
+	 * {@link #init(Properties)} or {@link #reload(RegistrySnapshot)} are
+	 * called.
+	 */
+	public InMemoryDataAccessImplementation() {
+		try {
+			registry = new InMemoryRegistry(new RegistrySnapshot.Builder().build(), regexStepLimit);
+		} catch (RdapDataAccessException e) {
+			throw new IllegalStateException("An empty snapshot was deemed invalid.", e);
+		}
+	}
+
+	@Override
+	public void init(Properties properties) throws InitializationException {
+		InMemoryConfiguration config = new InMemoryConfiguration(properties);
+		regexStepLimit = config.getRegexStepLimit();
+
+		SnapshotLoader loader = findLoader(config.getFormat());
+		RegistrySnapshot snapshot = loader.load(properties);
+		try {
+			reload(snapshot);
+		} catch (RdapDataAccessException e) {
+			throw new InitializationException("The registry snapshot is invalid: " + e.getMessage(), e);
+		}
+		logger.info("Registry snapshot loaded: " + snapshot.getDomains().size() + " domains, "
+				+ snapshot.getEntities().size() + " entities, " + snapshot.getIpNetworks().size() + " IP networks, "
+				+ snapshot.getAutnums().size() + " autnums.");
+	}
+
+	/**
+	 * Returns the {@link SnapshotLoader} in the classpath whose format is
+	 * <code>format</code>.
+	 */
+	private static SnapshotLoader findLoader(String format) throws InitializationException {
+		List<String> available = new ArrayList<>();
+		for (SnapshotLoader loader : ServiceLoader.load(SnapshotLoader.class)) {
+			if (format.equalsIgnoreCase(loader.getFormat())) {
+				return loader;
+			}
+			available.add(loader.getFormat());
+		}
+		throw new InitializationException("There is no snapshot loader for format '" + format
+				+ "' in the classpath. Available formats: " + available);
+	}
+
+	/**
+	 * Replaces the registry being served with <code>snapshot</code>. The
+	 * current registry keeps being served while the new one is indexed.
+	 *
+	 * @throws RdapDataAccessException
+	 *             <code>snapshot</code> is invalid. The current registry is
+	 *             kept.
+	 */
+	public void reload(RegistrySnapshot snapshot) throws RdapDataAccessException {
+		registry = new InMemoryRegistry(snapshot, regexStepLimit);
+	}
+
+	InMemoryRegistry getRegistry() {
+		return registry;
+	}
+
+	@Override
+	public AutnumDAO getAutnumDAO() {
+		return autnumDAO;
+	}
+
+	@Override
+	public DomainDAO getDomainDAO() {
+		return domainDAO;
+	}
+
+	@Override
+	public EntityDAO getEntityDAO() {
+		return entityDAO;
+	}
+
+	@Override
+	public IpNetworkDAO getIpNetworkDAO() {
+		return ipNetworkDAO;
+	}
+
+	@Override
+	public NameserverDAO getNameserverDAO() {
+		return nameserverDAO;
+	}
+
+	@Override
+	public RdapUserDAO getRdapUserDAO() {
+		return rdapUserDAO;
+	}
+
+}
@@ -0,0 +1,128 @@
+package mx.nic.rdap.db.memory;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+import mx.nic.rdap.db.index.DomainNameIndex;
+import mx.nic.rdap.db.paging.PagedSearch;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link DomainDAO} of the {@link InMemoryDataAccessImplementation}.
+ * <p>
+ * Only the name and nameserver IP searches are paged. The nameserver name
+ * index is keyed by the nameservers, not the domains, and the regular
+ * expression searches have no order to seek.
+ */
+class InMemoryDomainDAO implements DomainDAO {
+
+	private final InMemoryDataAccessImplementation implementation;
+
+	InMemoryDomainDAO(InMemoryDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Domain getByName(DomainLabel domainLabel) {
+		return InMemoryRegistry.first(implementation.getRegistry().domainsByName.get(domainLabel));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().domainsByName.search(namePattern, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsLDHName(DomainLabel nsName, int resultLimit)
+			throws RdapDataAccessException {
+		return searchDistinct(implementation.getRegistry().domainsByNsName, nsName, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return InMemoryRegistry.searchByIp(implementation.getRegistry().domainsByNsIp, ip, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexName(String regexName, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().domainRegexByName.search(regexName, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().domainRegexByNsName.search(regexNsName, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return implementation.getRegistry().domainRegexByNsIp.search(ip, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		DomainNameIndex<Domain> index = implementation.getRegistry().domainsByName;
+		return Pages.page(PagedSearch.DOMAIN_BY_NAME.scope(namePattern), cursor, resultLimit, Pages::domainKey,
+				(after, limit) -> index.page(namePattern, after, limit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		InMemoryRegistry registry = implementation.getRegistry();
+		return Pages.page(PagedSearch.DOMAIN_BY_NS_IP.scope(ip), cursor, resultLimit, Pages::domainKey,
+				(after, limit) -> InMemoryRegistry.pageByIp(registry.domainsByNsIp, ip, after, limit,
+						Pages::domainKey));
+	}
+
+	/**
+	 * Searches <code>index</code>, skipping repeated domains.
+	 * <p>
+	 * A domain is indexed once per nameserver, so a wildcard can match it
+	 * several times. When the duplicates leave the page short, the search is
+	 * repeated with a larger limit.
+	 */
+	private static SearchResultStruct<Domain> searchDistinct(DomainNameIndex<Domain> index, DomainLabel pattern,
+			int resultLimit) throws UnprocessableEntityException {
+		int limit = resultLimit;
+		while (true) {
+			SearchResultStruct<Domain> matches = index.search(pattern, limit);
+			Set<Domain> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+			SearchResultStruct<Domain> result = new SearchResultStruct<>();
+			List<Domain> results = result.getResults();
+			boolean limited = false;
+			for (Domain domain : matches.getResults()) {
+				if (seen.add(domain)) {
+					if (results.size() == resultLimit) {
+						limited = true;
+						break;
+					}
+					results.add(domain);
+				}
+			}
+
+			if (limited || !matches.getResultSetWasLimitedByUserConfiguration() || limit == Integer.MAX_VALUE) {
+				result.setResultSetWasLimitedByUserConfiguration(limited);
+				return result;
+			}
+			limit = (limit > Integer.MAX_VALUE / 2) ? Integer.MAX_VALUE : Math.max(1, limit) * 2;
+		}
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return Math.min(implementation.getRegistry().domainsByName.count(namePattern), countLimit);
+	}
+
+}
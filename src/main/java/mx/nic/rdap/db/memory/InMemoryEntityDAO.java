@@ -0,0 +1,69 @@
+package mx.nic.rdap.db.memory;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.paging.PagedSearch;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link EntityDAO} of the {@link InMemoryDataAccessImplementation}.
+ * <p>
+ * Only {@link #pageByHandle(String, String, int)} is paged; an entity can
+ * have several vCard names, so the vCard name index is not sorted by page key.
+ */
+class InMemoryEntityDAO implements EntityDAO {
+
+	private final InMemoryDataAccessImplementation implementation;
+
+	InMemoryEntityDAO(InMemoryDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Entity getByHandle(String entityHandle) {
+		return implementation.getRegistry().entitiesByHandle.get(entityHandle);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		return implementation.getRegistry().entityHandles.search(handle, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().entityVCardNames.search(vCardName, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().entityRegexByHandle.search(regexHandle, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().entityRegexByVCardName.search(vCardName, resultLimit);
+	}
+
+	/**
+	 * Seeks the handle index to the cursor, instead of sorting every match.
+	 * (Handles are unique, so they are their own page keys.)
+	 */
+	@Override
+	public SearchResultStruct<Entity> pageByHandle(String handle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		PrefixIndex<Entity> index = implementation.getRegistry().entityHandles;
+		return Pages.page(PagedSearch.ENTITY_BY_HANDLE.scope(handle), cursor, resultLimit, Pages::entityKey,
+				(after, limit) -> index.page(handle, after, limit));
+	}
+
+	@Override
+	public int countByHandle(String handle, int countLimit) throws RdapDataAccessException {
+		return Math.min(implementation.getRegistry().entityHandles.count(handle), countLimit);
+	}
+
+}
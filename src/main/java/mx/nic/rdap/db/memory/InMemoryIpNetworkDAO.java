@@ -0,0 +1,23 @@
+package mx.nic.rdap.db.memory;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link IpNetworkDAO} of the {@link InMemoryDataAccessImplementation}.
+ */
+class InMemoryIpNetworkDAO implements IpNetworkDAO {
+
+	private final InMemoryDataAccessImplementation implementation;
+
+	InMemoryIpNetworkDAO(InMemoryDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public IpNetwork getByAddressBlock(AddressBlock block) {
+		return implementation.getRegistry().ipNetworks.longestPrefixMatch(block);
+	}
+
+}
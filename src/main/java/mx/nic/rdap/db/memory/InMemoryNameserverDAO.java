@@ -0,0 +1,96 @@
+package mx.nic.rdap.db.memory;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.index.DomainNameIndex;
+import mx.nic.rdap.db.paging.PagedSearch;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link NameserverDAO} of the {@link InMemoryDataAccessImplementation}.
+ * <p>
+ * Several nameservers can share a name, so this DAO conforms to
+ * draft-lozano-rdap-nameserver-sharing-name.
+ * <p>
+ * Only the name and IP searches are paged; the regular expression searches
+ * have no order to seek.
+ */
+class InMemoryNameserverDAO implements NameserverDAO {
+
+	private final InMemoryDataAccessImplementation implementation;
+
+	InMemoryNameserverDAO(InMemoryDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public Nameserver getByName(DomainLabel name) {
+		return InMemoryRegistry.first(implementation.getRegistry().nameserversByName.get(name));
+	}
+
+	@Override
+	public Nameserver getByHandle(String handle) {
+		return implementation.getRegistry().nameserversByHandle.get(handle);
+	}
+
+	@Override
+	public boolean isNameserverSharingNameConformance() {
+		return true;
+	}
+
+	@Override
+	public int getNameserverCount(DomainLabel name) {
+		return implementation.getRegistry().nameserversByName.get(name).size();
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().nameserversByName.search(namePattern, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return InMemoryRegistry.searchByIp(implementation.getRegistry().nameserversByIp, ipaddressPattern,
+				resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().nameserverRegexByName.search(namePattern, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return implementation.getRegistry().nameserverRegexByIp.search(ipaddressPattern, resultLimit);
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		DomainNameIndex<Nameserver> index = implementation.getRegistry().nameserversByName;
+		return Pages.page(PagedSearch.NAMESERVER_BY_NAME.scope(namePattern), cursor, resultLimit,
+				Pages::nameserverKey, (after, limit) -> index.page(namePattern, after, limit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		InMemoryRegistry registry = implementation.getRegistry();
+		return Pages.page(PagedSearch.NAMESERVER_BY_IP.scope(ipaddressPattern), cursor, resultLimit,
+				Pages::nameserverKey, (after, limit) -> InMemoryRegistry.pageByIp(registry.nameserversByIp,
+						ipaddressPattern, after, limit, Pages::nameserverKey));
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return Math.min(implementation.getRegistry().nameserversByName.count(namePattern), countLimit);
+	}
+
+}
@@ -0,0 +1,22 @@
+package mx.nic.rdap.db.memory;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link RdapUserDAO} of the {@link InMemoryDataAccessImplementation}.
+ */
+class InMemoryRdapUserDAO implements RdapUserDAO {
+
+	private final InMemoryDataAccessImplementation implementation;
+
+	InMemoryRdapUserDAO(InMemoryDataAccessImplementation implementation) {
+		this.implementation = implementation;
+	}
+
+	@Override
+	public RdapUser getByUsername(String username) {
+		return implementation.getRegistry().usersByName.get(username);
+	}
+
+}
@@ -0,0 +1,349 @@
+package mx.nic.rdap.db.memory;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.IpAddress;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.core.db.VCard;
+import mx.nic.rdap.core.db.struct.NameserverIpAddressesStruct;
+import mx.nic.rdap.core.ip.IpAddressFormatException;
+import mx.nic.rdap.core.ip.IpUtils;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.index.AutnumRangeIndex;
+import mx.nic.rdap.db.index.DomainNameIndex;
+import mx.nic.rdap.db.index.IndexedIpNetworkDAO;
+import mx.nic.rdap.db.index.IpPrefixTrie;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.regex.CompiledPatternCache;
+import mx.nic.rdap.db.regex.RegexSearchEngine;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Every index the {@link InMemoryDataAccessImplementation} serves a
+ * {@link RegistrySnapshot} from.
+ * <p>
+ * Immutable once built, so any number of threads can read it without
+ * synchronization, and replacing it is a matter of swapping a single
+ * reference.
+ */
+class InMemoryRegistry {
+
+	final AutnumRangeIndex autnums;
+	final IpPrefixTrie<IpNetwork> ipNetworks;
+
+	final DomainNameIndex<Domain> domainsByName;
+	final DomainNameIndex<Domain> domainsByNsName;
+	final Map<InetAddress, List<Domain>> domainsByNsIp;
+	final RegexSearchEngine<Domain> domainRegexByName;
+	final RegexSearchEngine<Domain> domainRegexByNsName;
+	final RegexSearchEngine<Domain> domainRegexByNsIp;
+
+	final Map<String, Entity> entitiesByHandle;
+	final PrefixIndex<Entity> entityHandles;
+	final PrefixIndex<Entity> entityVCardNames;
+	final RegexSearchEngine<Entity> entityRegexByHandle;
+	final RegexSearchEngine<Entity> entityRegexByVCardName;
+
+	final DomainNameIndex<Nameserver> nameserversByName;
+	final Map<String, Nameserver> nameserversByHandle;
+	final Map<InetAddress, List<Nameserver>> nameserversByIp;
+	final RegexSearchEngine<Nameserver> nameserverRegexByName;
+	final RegexSearchEngine<Nameserver> nameserverRegexByIp;
+
+	final Map<String, RdapUser> usersByName;
+
+	/**
+	 * Indexes <code>snapshot</code>. Every regular expression search will get
+	 * a budget of <code>regexStepLimit</code> steps.
+	 *
+	 * @throws RdapDataAccessException
+	 *             An object lacks the fields it's indexed by, or they are
+	 *             inconsistent.
+	 */
+	InMemoryRegistry(RegistrySnapshot snapshot, long regexStepLimit) throws RdapDataAccessException {
+		CompiledPatternCache patterns = new CompiledPatternCache();
+
+		try {
+			autnums = AutnumRangeIndex.build(snapshot.getAutnums());
+		} catch (IllegalArgumentException e) {
+			throw new RdapDataAccessException(e.getMessage(), e);
+		}
+		ipNetworks = IndexedIpNetworkDAO.buildIndex(snapshot.getIpNetworks());
+
+		// Nameservers: the standalone ones, plus the ones only listed by domains.
+		Map<String, Nameserver> nsByHandle = new HashMap<>();
+		Set<Nameserver> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Nameserver> nameservers = new ArrayList<>();
+		for (Nameserver nameserver : snapshot.getNameservers()) {
+			addNameserver(nameserver, seen, nsByHandle, nameservers);
+		}
+		for (Domain domain : snapshot.getDomains()) {
+			for (Nameserver nameserver : domain.getNameServers()) {
+				addNameserver(nameserver, seen, nsByHandle, nameservers);
+			}
+		}
+
+		DomainNameIndex.Builder<Nameserver> nsNames = new DomainNameIndex.Builder<>();
+		Map<InetAddress, List<Nameserver>> nsByIp = new HashMap<>();
+		RegexSearchEngine.Builder<Nameserver> nsRegexName = new RegexSearchEngine.Builder<Nameserver>()
+				.setStepLimit(regexStepLimit);
+		RegexSearchEngine.Builder<Nameserver> nsRegexIp = new RegexSearchEngine.Builder<Nameserver>()
+				.setStepLimit(regexStepLimit);
+		for (Nameserver nameserver : nameservers) {
+			String name = nameserver.getLdhName();
+			if (name != null) {
+				nsNames.add(name, nameserver);
+			}
+			nsRegexName.add(nameserver, name);
+
+			List<InetAddress> addresses = addressesOf(nameserver);
+			for (InetAddress address : addresses) {
+				nsByIp.computeIfAbsent(address, key -> new ArrayList<>(1)).add(nameserver);
+			}
+			nsRegexIp.add(nameserver, toText(addresses));
+		}
+		nameserversByName = nsNames.build();
+		nameserversByHandle = nsByHandle;
+		nameserversByIp = sortValues(nsByIp, Pages::nameserverKey);
+		nameserverRegexByName = nsRegexName.build(patterns);
+		nameserverRegexByIp = nsRegexIp.build(patterns);
+
+		// Domains.
+		DomainNameIndex.Builder<Domain> names = new DomainNameIndex.Builder<>();
+		DomainNameIndex.Builder<Domain> nsNameIndex = new DomainNameIndex.Builder<>();
+		Map<InetAddress, List<Domain>> byNsIp = new HashMap<>();
+		RegexSearchEngine.Builder<Domain> regexName = new RegexSearchEngine.Builder<Domain>()
+				.setStepLimit(regexStepLimit);
+		RegexSearchEngine.Builder<Domain> regexNsName = new RegexSearchEngine.Builder<Domain>()
+				.setStepLimit(regexStepLimit);
+		RegexSearchEngine.Builder<Domain> regexNsIp = new RegexSearchEngine.Builder<Domain>()
+				.setStepLimit(regexStepLimit);
+		for (Domain domain : snapshot.getDomains()) {
+			String fqdn = domain.getFQDN();
+			if (fqdn == null) {
+				throw new RdapDataAccessException("Domain " + domain.getHandle() + " lacks a name.");
+			}
+			names.add(fqdn, domain);
+			String unicodeFqdn = domain.getUnicodeFQDN();
+			regexName.add(domain, fqdn, fqdn.equals(unicodeFqdn) ? null : unicodeFqdn);
+
+			Set<String> domainNsNames = new LinkedHashSet<>();
+			Set<InetAddress> nsAddresses = new LinkedHashSet<>();
+			for (Nameserver nameserver : domain.getNameServers()) {
+				if (nameserver.getLdhName() != null) {
+					domainNsNames.add(nameserver.getLdhName());
+				}
+				nsAddresses.addAll(addressesOf(nameserver));
+			}
+			for (String nsName : domainNsNames) {
+				nsNameIndex.add(nsName, domain);
+			}
+			for (InetAddress address : nsAddresses) {
+				byNsIp.computeIfAbsent(address, key -> new ArrayList<>(1)).add(domain);
+			}
+			regexNsName.add(domain, domainNsNames);
+			regexNsIp.add(domain, toText(nsAddresses));
+		}
+		domainsByName = names.build();
+		domainsByNsName = nsNameIndex.build();
+		domainsByNsIp = sortValues(byNsIp, Pages::domainKey);
+		domainRegexByName = regexName.build(patterns);
+		domainRegexByNsName = regexNsName.build(patterns);
+		domainRegexByNsIp = regexNsIp.build(patterns);
+
+		// Entities.
+		Map<String, Entity> byHandle = new HashMap<>();
+		PrefixIndex.Builder<Entity> handles = new PrefixIndex.Builder<>(false);
+		PrefixIndex.Builder<Entity> vCardNames = new PrefixIndex.Builder<>(true);
+		RegexSearchEngine.Builder<Entity> regexHandle = new RegexSearchEngine.Builder<Entity>()
+				.setStepLimit(regexStepLimit);
+		RegexSearchEngine.Builder<Entity> regexVCardName = new RegexSearchEngine.Builder<Entity>()
+				.setStepLimit(regexStepLimit);
+		for (Entity entity : snapshot.getEntities()) {
+			if (entity.getHandle() == null) {
+				throw new RdapDataAccessException("There is an entity that lacks a handle.");
+			}
+			if (byHandle.putIfAbsent(entity.getHandle(), entity) != null) {
+				throw new RdapDataAccessException("Entity " + entity.getHandle() + " is duplicated.");
+			}
+			handles.add(entity.getHandle(), entity);
+			regexHandle.add(entity, entity.getHandle());
+
+			List<String> entityNames = new ArrayList<>(1);
+			for (VCard vCard : entity.getVCardList()) {
+				if (vCard.getName() != null) {
+					entityNames.add(vCard.getName());
+					vCardNames.add(vCard.getName(), entity);
+				}
+			}
+			regexVCardName.add(entity, entityNames);
+		}
+		entitiesByHandle = byHandle;
+		entityHandles = handles.build();
+		entityVCardNames = vCardNames.build();
+		entityRegexByHandle = regexHandle.build(patterns);
+		entityRegexByVCardName = regexVCardName.build(patterns);
+
+		// Users.
+		Map<String, RdapUser> users = new HashMap<>();
+		for (RdapUser user : snapshot.getUsers()) {
+			if (user.getName() == null) {
+				throw new RdapDataAccessException("There is a user that lacks a name.");
+			}
+			users.put(user.getName(), user);
+		}
+		usersByName = users;
+	}
+
+	/**
+	 * Returns the objects indexed under the <code>ip</code> address in
+	 * <code>index</code>, up to <code>resultLimit</code> of them.
+	 *
+	 * @throws BadRequestException
+	 *             <code>ip</code> is not an IP address.
+	 */
+	static <T extends RdapObject> SearchResultStruct<T> searchByIp(Map<InetAddress, List<T>> index, String ip,
+			int resultLimit) throws BadRequestException {
+		List<T> matches;
+		try {
+			matches = index.get(IpUtils.parseAddress(ip));
+		} catch (IpAddressFormatException e) {
+			throw new BadRequestException(e);
+		}
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		if (matches != null) {
+			result.getResults().addAll(matches.subList(0, Math.min(resultLimit, matches.size())));
+		}
+		result.setResultSetWasLimitedByUserConfiguration(matches != null && matches.size() > resultLimit);
+		return result;
+	}
+
+	/**
+	 * Returns the objects indexed under the <code>ip</code> address in
+	 * <code>index</code> whose page key is greater than <code>after</code>
+	 * (unless it's <code>null</code>), up to <code>resultLimit</code> of them.
+	 * The start of the page is found by binary search.
+	 *
+	 * @param keyOf
+	 *            The page key the lists of <code>index</code> are sorted by.
+	 * @throws BadRequestException
+	 *             <code>ip</code> is not an IP address.
+	 */
+	static <T extends RdapObject> SearchResultStruct<T> pageByIp(Map<InetAddress, List<T>> index, String ip,
+			String after, int resultLimit, Function<? super T, String> keyOf) throws BadRequestException {
+		List<T> matches;
+		try {
+			matches = index.get(IpUtils.parseAddress(ip));
+		} catch (IpAddressFormatException e) {
+			throw new BadRequestException(e);
+		}
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		if (matches == null) {
+			return result;
+		}
+		int start = 0;
+		if (after != null) {
+			int end = matches.size();
+			while (start < end) {
+				int middle = (start + end) >>> 1;
+				if (keyOf.apply(matches.get(middle)).compareTo(after) <= 0) {
+					start = middle + 1;
+				} else {
+					end = middle;
+				}
+			}
+		}
+		int end = (int) Math.min((long) start + resultLimit, matches.size());
+		result.getResults().addAll(matches.subList(start, end));
+		result.setResultSetWasLimitedByUserConfiguration(end < matches.size());
+		return result;
+	}
+
+	/**
+	 * Returns the first element of <code>list</code>, or <code>null</code> if
+	 * it's empty.
+	 */
+	static <T> T first(List<T> list) {
+		return list.isEmpty() ? null : list.get(0);
+	}
+
+	/**
+	 * Adds <code>nameserver</code> to <code>nameservers</code>, unless it (or
+	 * another nameserver with the same handle) was already added.
+	 */
+	private static void addNameserver(Nameserver nameserver, Set<Nameserver> seen, Map<String, Nameserver> byHandle,
+			List<Nameserver> nameservers) {
+		if (!seen.add(nameserver)) {
+			return;
+		}
+		String handle = nameserver.getHandle();
+		if (handle != null && byHandle.putIfAbsent(handle, nameserver) != null) {
+			return;
+		}
+		nameservers.add(nameserver);
+	}
+
+	/**
+	 * Sorts every list of <code>index</code> by page key, so they can be paged
+	 * through {@link #pageByIp(Map, String, String, int, Function)}.
+	 */
+	private static <T> Map<InetAddress, List<T>> sortValues(Map<InetAddress, List<T>> index,
+			Function<? super T, String> keyOf) {
+		Comparator<T> byKey = Comparator.comparing(keyOf);
+		for (List<T> list : index.values()) {
+			list.sort(byKey);
+		}
+		return index;
+	}
+
+	private static List<InetAddress> addressesOf(Nameserver nameserver) {
+		NameserverIpAddressesStruct struct = nameserver.getIpAddresses();
+		if (struct == null) {
+			return Collections.emptyList();
+		}
+
+		List<InetAddress> result = new ArrayList<>();
+		addAll(struct.getIpv4Adresses(), result);
+		addAll(struct.getIpv6Adresses(), result);
+		return result;
+	}
+
+	private static void addAll(List<IpAddress> addresses, List<InetAddress> result) {
+		if (addresses == null) {
+			return;
+		}
+		for (IpAddress address : addresses) {
+			if (address.getAddress() != null) {
+				result.add(address.getAddress());
+			}
+		}
+	}
+
+	private static List<String> toText(Collection<InetAddress> addresses) {
+		List<String> result = new ArrayList<>(addresses.size());
+		for (InetAddress address : addresses) {
+			result.add(address.getHostAddress());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,171 @@
+package mx.nic.rdap.db.memory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Immutable index of objects by a free-form key (such as an entity handle or a
+ * vCard name), for searches that may end with an asterisk.
+ * <p>
+ * The keys are stored in a sorted array, so a pattern is resolved by binary
+ * searching the range of keys that start with its prefix. This is the
+ * {@link mx.nic.rdap.db.index.DomainNameIndex} equivalent for keys that are
+ * not domain names.
+ */
+class PrefixIndex<T extends RdapObject> {
+
+	private static final char WILDCARD = '*';
+
+	private final boolean caseInsensitive;
+	/** Sorted. */
+	private final String[] keys;
+	/** Object of every entry of {@link #keys}. */
+	private final Object[] values;
+
+	private PrefixIndex(boolean caseInsensitive, String[] keys, Object[] values) {
+		this.caseInsensitive = caseInsensitive;
+		this.keys = keys;
+		this.values = values;
+	}
+
+	/**
+	 * Returns the objects whose key matches <code>pattern</code>, up to
+	 * <code>resultLimit</code> of them.
+	 */
+	SearchResultStruct<T> search(String pattern, int resultLimit) throws UnprocessableEntityException {
+		int[] range = range(pattern);
+		int from = range[0];
+		int to = range[1];
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		List<T> results = result.getResults();
+		for (int i = from; i < to && results.size() < resultLimit; i++) {
+			results.add(cast(values[i]));
+		}
+		result.setResultSetWasLimitedByUserConfiguration(to - from > resultLimit);
+		return result;
+	}
+
+	/**
+	 * Returns the objects whose key matches <code>pattern</code> and is
+	 * greater than <code>after</code> (unless it's <code>null</code>), up to
+	 * <code>resultLimit</code> of them. The start of the page is found by
+	 * binary search, so deep pages cost the same as the first one.
+	 * <p>
+	 * Meant for indexes whose keys are unique; matches that share the key of
+	 * the last object of a page would be skipped.
+	 */
+	SearchResultStruct<T> page(String pattern, String after, int resultLimit) throws UnprocessableEntityException {
+		int[] range = range(pattern);
+		int from = (after != null) ? Math.max(range[0], lowerBound(normalize(after), true, false)) : range[0];
+		int to = range[1];
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		List<T> results = result.getResults();
+		for (int i = from; i < to && results.size() < resultLimit; i++) {
+			results.add(cast(values[i]));
+		}
+		result.setResultSetWasLimitedByUserConfiguration(to - from > resultLimit);
+		return result;
+	}
+
+	/**
+	 * Returns the number of objects whose key matches <code>pattern</code>.
+	 * Does not visit the matches.
+	 */
+	int count(String pattern) throws UnprocessableEntityException {
+		int[] range = range(pattern);
+		return range[1] - range[0];
+	}
+
+	/**
+	 * Returns the indexes of the first entry that matches <code>pattern</code>
+	 * and of the first one that follows the matches.
+	 */
+	private int[] range(String pattern) throws UnprocessableEntityException {
+		String key = normalize(pattern);
+		int wildcard = key.indexOf(WILDCARD);
+		boolean prefix = (wildcard != -1);
+		if (prefix) {
+			if (wildcard != key.length() - 1) {
+				throw new UnprocessableEntityException("Only one trailing asterisk is supported.");
+			}
+			key = key.substring(0, wildcard);
+		}
+		return new int[] { lowerBound(key, false, false), lowerBound(key, true, prefix) };
+	}
+
+	/**
+	 * Returns the index of the first key that is not less than
+	 * <code>key</code> or, if <code>past</code>, the index of the first key
+	 * that is greater than <code>key</code> (and, if <code>prefix</code>, does
+	 * not start with it).
+	 */
+	private int lowerBound(String key, boolean past, boolean prefix) {
+		int low = 0;
+		int high = keys.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			String current = keys[middle];
+			int comparison = (prefix && current.startsWith(key)) ? 0 : current.compareTo(key);
+			if (comparison < 0 || (past && comparison == 0)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private String normalize(String key) {
+		return caseInsensitive ? key.toLowerCase(Locale.ROOT) : key;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T cast(Object value) {
+		return (T) value;
+	}
+
+	/**
+	 * Creates {@link PrefixIndex}es.
+	 */
+	static class Builder<T extends RdapObject> {
+
+		private final boolean caseInsensitive;
+		private final List<Object[]> entries = new ArrayList<>();
+
+		Builder(boolean caseInsensitive) {
+			this.caseInsensitive = caseInsensitive;
+		}
+
+		/**
+		 * Indexes <code>object</code> under <code>key</code>. <code>null</code>
+		 * keys are ignored.
+		 */
+		Builder<T> add(String key, T object) {
+			if (key != null) {
+				entries.add(new Object[] { caseInsensitive ? key.toLowerCase(Locale.ROOT) : key, object });
+			}
+			return this;
+		}
+
+		PrefixIndex<T> build() {
+			entries.sort(Comparator.comparing(entry -> (String) entry[0]));
+			String[] keys = new String[entries.size()];
+			Object[] values = new Object[entries.size()];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = (String) entries.get(i)[0];
+				values[i] = entries.get(i)[1];
+			}
+			return new PrefixIndex<>(caseInsensitive, keys, values);
+		}
+
+	}
+
+}
@@ -0,0 +1,146 @@
+package mx.nic.rdap.db.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.RdapUser;
+
+/**
+ * Every object of a registry, as of some point in time. This is what a
+ * {@link SnapshotLoader} hands to the {@link InMemoryDataAccessImplementation}.
+ * <p>
+ * The snapshot only lists the objects; indexing them is the implementation's
+ * job. The lists are unmodifiable, but the objects themselves are not copied,
+ * so the loader should not touch them once the snapshot has been built.
+ */
+public class RegistrySnapshot {
+
+	private final List<Autnum> autnums;
+	private final List<Domain> domains;
+	private final List<Entity> entities;
+	private final List<IpNetwork> ipNetworks;
+	private final List<Nameserver> nameservers;
+	private final List<RdapUser> users;
+
+	private RegistrySnapshot(Builder builder) {
+		this.autnums = Collections.unmodifiableList(new ArrayList<>(builder.autnums));
+		this.domains = Collections.unmodifiableList(new ArrayList<>(builder.domains));
+		this.entities = Collections.unmodifiableList(new ArrayList<>(builder.entities));
+		this.ipNetworks = Collections.unmodifiableList(new ArrayList<>(builder.ipNetworks));
+		this.nameservers = Collections.unmodifiableList(new ArrayList<>(builder.nameservers));
+		this.users = Collections.unmodifiableList(new ArrayList<>(builder.users));
+	}
+
+	public List<Autnum> getAutnums() {
+		return autnums;
+	}
+
+	public List<Domain> getDomains() {
+		return domains;
+	}
+
+	public List<Entity> getEntities() {
+		return entities;
+	}
+
+	public List<IpNetwork> getIpNetworks() {
+		return ipNetworks;
+	}
+
+	/**
+	 * Returns the standalone nameservers. (The nameservers listed by the
+	 * domains do not need to be repeated here, though they can be.)
+	 */
+	public List<Nameserver> getNameservers() {
+		return nameservers;
+	}
+
+	public List<RdapUser> getUsers() {
+		return users;
+	}
+
+	/**
+	 * Creates {@link RegistrySnapshot}s.
+	 */
+	public static class Builder {
+
+		private final List<Autnum> autnums = new ArrayList<>();
+		private final List<Domain> domains = new ArrayList<>();
+		private final List<Entity> entities = new ArrayList<>();
+		private final List<IpNetwork> ipNetworks = new ArrayList<>();
+		private final List<Nameserver> nameservers = new ArrayList<>();
+		private final List<RdapUser> users = new ArrayList<>();
+
+		public Builder addAutnum(Autnum autnum) {
+			autnums.add(autnum);
+			return this;
+		}
+
+		public Builder addAutnums(Iterable<Autnum> autnums) {
+			autnums.forEach(this.autnums::add);
+			return this;
+		}
+
+		public Builder addDomain(Domain domain) {
+			domains.add(domain);
+			return this;
+		}
+
+		public Builder addDomains(Iterable<Domain> domains) {
+			domains.forEach(this.domains::add);
+			return this;
+		}
+
+		public Builder addEntity(Entity entity) {
+			entities.add(entity);
+			return this;
+		}
+
+		public Builder addEntities(Iterable<Entity> entities) {
+			entities.forEach(this.entities::add);
+			return this;
+		}
+
+		public Builder addIpNetwork(IpNetwork ipNetwork) {
+			ipNetworks.add(ipNetwork);
+			return this;
+		}
+
+		public Builder addIpNetworks(Iterable<IpNetwork> ipNetworks) {
+			ipNetworks.forEach(this.ipNetworks::add);
+			return this;
+		}
+
+		public Builder addNameserver(Nameserver nameserver) {
+			nameservers.add(nameserver);
+			return this;
+		}
+
+		public Builder addNameservers(Iterable<Nameserver> nameservers) {
+			nameservers.forEach(this.nameservers::add);
+			return this;
+		}
+
+		public Builder addUser(RdapUser user) {
+			users.add(user);
+			return this;
+		}
+
+		public Builder addUsers(Iterable<RdapUser> users) {
+			users.forEach(this.users::add);
+			return this;
+		}
+
+		public RegistrySnapshot build() {
+			return new RegistrySnapshot(this);
+		}
+
+	}
+
+}
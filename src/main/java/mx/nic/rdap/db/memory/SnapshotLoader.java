@@ -0,0 +1,33 @@
+package mx.nic.rdap.db.memory;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+
+/**
+ * Reads a {@link RegistrySnapshot} out of some storage format.
+ * <p>
+ * Loaders are found through {@link java.util.ServiceLoader}, so a jar can
+ * contribute one by listing it in
+ * <code>META-INF/services/mx.nic.rdap.db.memory.SnapshotLoader</code>. The
+ * {@link InMemoryDataAccessImplementation} picks the one whose
+ * {@link #getFormat()} matches the user's
+ * {@value InMemoryConfiguration#FORMAT_PROPERTY} property.
+ */
+public interface SnapshotLoader {
+
+	/**
+	 * Returns the name users select this loader by. Case-insensitive.
+	 */
+	public String getFormat();
+
+	/**
+	 * Reads the snapshot.
+	 *
+	 * @param properties
+	 *            User-supplied configuration. Location of the snapshot and
+	 *            any other options the loader needs.
+	 */
+	public RegistrySnapshot load(Properties properties) throws InitializationException;
+
+}
@@ -0,0 +1,139 @@
+package mx.nic.rdap.db.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import mx.nic.rdap.db.exception.http.HttpException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+
+/**
+ * Counters and latency histogram of one DAO method.
+ */
+public class DAOMethodMetrics implements DAOMethodMetricsMXBean {
+
+	/** Status code that stands for exceptions that do not carry one. */
+	public static final int UNKNOWN_ERROR_STATUS = 500;
+
+	private final DAOOperation operation;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder results = new LongAdder();
+	private final Map<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	public DAOMethodMetrics(DAOOperation operation) {
+		this.operation = operation;
+	}
+
+	/**
+	 * Records a successful call that took <code>nanos</code> nanoseconds and
+	 * yielded <code>resultSize</code> objects.
+	 */
+	public void recordSuccess(long nanos, int resultSize) {
+		calls.increment();
+		results.add(resultSize);
+		latency.record(nanos);
+	}
+
+	/**
+	 * Records a call that took <code>nanos</code> nanoseconds and threw
+	 * <code>error</code>.
+	 */
+	public void recordFailure(long nanos, Throwable error) {
+		int status = (error instanceof HttpException) ? ((HttpException) error).getHttpResponseStatusCode()
+				: UNKNOWN_ERROR_STATUS;
+		calls.increment();
+		errors.computeIfAbsent(status, code -> new LongAdder()).increment();
+		latency.record(nanos);
+	}
+
+	public DAOOperation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the histogram of the durations of the calls, in nanoseconds.
+	 */
+	public LatencyHistogram getLatencyHistogram() {
+		return latency;
+	}
+
+	@Override
+	public long getCallCount() {
+		return calls.sum();
+	}
+
+	@Override
+	public Map<Integer, Long> getErrorCounts() {
+		Map<Integer, Long> result = new TreeMap<>();
+		for (Map.Entry<Integer, LongAdder> entry : errors.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().sum());
+		}
+		return result;
+	}
+
+	@Override
+	public long getErrorCount() {
+		long result = 0;
+		for (LongAdder counter : errors.values()) {
+			result += counter.sum();
+		}
+		return result;
+	}
+
+	@Override
+	public long getResultCount() {
+		return results.sum();
+	}
+
+	@Override
+	public double getMeanResultSize() {
+		long successes = getCallCount() - getErrorCount();
+		return (successes > 0) ? ((double) getResultCount()) / successes : 0;
+	}
+
+	@Override
+	public double getMeanLatency() {
+		return latency.getMean() / 1000;
+	}
+
+	@Override
+	public long getP50Latency() {
+		return toMicros(latency.getPercentile(50));
+	}
+
+	@Override
+	public long getP90Latency() {
+		return toMicros(latency.getPercentile(90));
+	}
+
+	@Override
+	public long getP99Latency() {
+		return toMicros(latency.getPercentile(99));
+	}
+
+	@Override
+	public long getP999Latency() {
+		return toMicros(latency.getPercentile(99.9));
+	}
+
+	@Override
+	public long getMaxLatency() {
+		return toMicros(latency.getMax());
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	@Override
+	public void reset() {
+		calls.reset();
+		results.reset();
+		errors.clear();
+		latency.reset();
+	}
+
+}
@@ -0,0 +1,47 @@
+package mx.nic.rdap.db.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link DAOMethodMetrics} of one DAO method. Durations are
+ * in microseconds.
+ */
+public interface DAOMethodMetricsMXBean {
+
+	public long getCallCount();
+
+	/**
+	 * Returns the number of calls that threw, by the HTTP status code of the
+	 * exception. (Exceptions that are not
+	 * {@link mx.nic.rdap.db.exception.http.HttpException}s are counted as
+	 * 500.)
+	 */
+	public Map<Integer, Long> getErrorCounts();
+
+	public long getErrorCount();
+
+	/**
+	 * Returns the number of objects handed out by the successful calls.
+	 */
+	public long getResultCount();
+
+	public double getMeanResultSize();
+
+	public double getMeanLatency();
+
+	public long getP50Latency();
+
+	public long getP90Latency();
+
+	public long getP99Latency();
+
+	public long getP999Latency();
+
+	public long getMaxLatency();
+
+	/**
+	 * Zeroes every counter.
+	 */
+	public void reset();
+
+}
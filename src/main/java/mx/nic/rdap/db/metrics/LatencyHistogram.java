@@ -0,0 +1,130 @@
+package mx.nic.rdap.db.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of durations, with a fixed memory footprint.
+ * <p>
+ * Values are sorted into log-linear buckets, the way HdrHistogram does: every
+ * power of two is split into {@value #SUB_BUCKETS} equal sub-buckets, so any
+ * recorded value is known to within about 3%, regardless of its magnitude.
+ * Values up to 2^{@value #MAX_MAGNITUDE} nanoseconds (about 18 minutes) are
+ * tracked; larger ones are clamped.
+ * <p>
+ * Recording is one bucket index computation and three non-blocking
+ * increments; it does not allocate.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_MAGNITUDE = 40;
+	private static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+	private static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Records a duration of <code>nanos</code> nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		} else if (nanos > MAX_VALUE) {
+			nanos = MAX_VALUE;
+		}
+		buckets.incrementAndGet(indexOf(nanos));
+		count.increment();
+		sum.add(nanos);
+		max.accumulate(nanos);
+	}
+
+	static int indexOf(long value) {
+		int magnitude = 63 - Long.numberOfLeadingZeros(value | 1);
+		if (magnitude < SUB_BUCKET_BITS) {
+			return (int) value;
+		}
+		int shift = magnitude - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	/**
+	 * Returns the largest value that lands in bucket <code>index</code>.
+	 */
+	static long highestValueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long lowest = ((long) ((index & (SUB_BUCKETS - 1)) + SUB_BUCKETS)) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the average duration, in nanoseconds.
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return (n != 0) ? ((double) sum.sum()) / n : 0;
+	}
+
+	/**
+	 * Returns the longest duration, in nanoseconds.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns (an upper bound of) the duration, in nanoseconds, below which
+	 * <code>percentile</code> percent of the recorded durations fall.
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		long[] snapshot = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		long target = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+		if (target == 0) {
+			target = 1;
+		}
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Forgets every recorded value. Values recorded concurrently with the
+	 * reset might be partially lost.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.reset();
+	}
+
+}
@@ -0,0 +1,42 @@
+package mx.nic.rdap.db.metrics;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link MetricsInterceptor}, as read from the
+ * user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>metrics.enabled</code>: Whether the DAO calls should be measured.
+ * Default: <code>false</code>.</li>
+ * <li><code>metrics.jmx</code>: Whether the measurements should be published
+ * as MBeans in the platform MBean server. Default: <code>true</code>.</li>
+ * </ul>
+ */
+public class MetricsConfiguration {
+
+	public static final String ENABLED_PROPERTY = "metrics.enabled";
+	public static final String JMX_PROPERTY = "metrics.jmx";
+
+	private final boolean jmxEnabled;
+
+	public MetricsConfiguration(Properties config) throws InitializationException {
+		jmxEnabled = ConfigurationUtils.getBoolean(config, JMX_PROPERTY, true);
+	}
+
+	/**
+	 * Returns whether the user wants the DAO calls measured.
+	 */
+	public static boolean isEnabled(Properties config) throws InitializationException {
+		return ConfigurationUtils.getBoolean(config, ENABLED_PROPERTY, false);
+	}
+
+	public boolean isJmxEnabled() {
+		return jmxEnabled;
+	}
+
+}
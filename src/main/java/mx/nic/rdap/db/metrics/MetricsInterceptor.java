@@ -0,0 +1,192 @@
+package mx.nic.rdap.db.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.BatchCall;
+import mx.nic.rdap.db.intercept.BatchCalls;
+import mx.nic.rdap.db.intercept.CursorCall;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.struct.ForwardingSearchCursor;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Interceptor that measures every DAO call: how many, how long, how many
+ * objects they yield and how they fail. See {@link DAOMethodMetrics}.
+ * <p>
+ * Batch calls are recorded under their single-key operation, as a single
+ * call. Cursors are recorded under their search operation, when they are
+ * closed.
+ * <p>
+ * The measurements can be published as MBeans named
+ * <code>{@value #DOMAIN}:type=DAOMethod,name=&lt;operation&gt;</code>.
+ */
+public class MetricsInterceptor implements DAOInterceptor {
+
+	private static final Logger logger = Logger.getLogger(MetricsInterceptor.class.getName());
+
+	public static final String DOMAIN = "mx.nic.rdap.db";
+
+	private final EnumMap<DAOOperation, DAOMethodMetrics> metrics = new EnumMap<>(DAOOperation.class);
+	private final List<ObjectName> registeredNames = new ArrayList<>();
+
+	public MetricsInterceptor() {
+		for (DAOOperation operation : DAOOperation.values()) {
+			metrics.put(operation, new DAOMethodMetrics(operation));
+		}
+	}
+
+	@Override
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException {
+		DAOMethodMetrics method = metrics.get(operation);
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = call.call();
+		} catch (RdapDataAccessException | RuntimeException e) {
+			method.recordFailure(System.nanoTime() - start, e);
+			throw e;
+		}
+		method.recordSuccess(System.nanoTime() - start, sizeOf(result));
+		return result;
+	}
+
+	@Override
+	public <T> List<T> interceptBatch(DAOOperation operation, List<?> keys, BatchCall<T> call)
+			throws RdapDataAccessException {
+		return intercept(operation, null, () -> call.call(BatchCalls.allPositions(keys.size())));
+	}
+
+	/**
+	 * A cursor is measured from the moment it is opened until it is closed,
+	 * counting only the time spent inside it, and the objects it yielded.
+	 */
+	@Override
+	public <T extends RdapObject> SearchCursor<T> interceptCursor(DAOOperation operation, Object key,
+			CursorCall<T> call) throws RdapDataAccessException {
+		DAOMethodMetrics method = metrics.get(operation);
+		long start = System.nanoTime();
+		SearchCursor<T> cursor;
+		try {
+			cursor = call.call();
+		} catch (RdapDataAccessException | RuntimeException e) {
+			method.recordFailure(System.nanoTime() - start, e);
+			throw e;
+		}
+		long openNanos = System.nanoTime() - start;
+
+		return new ForwardingSearchCursor<T>(cursor) {
+			private long busyNanos = openNanos;
+			private int yielded = 0;
+			private Exception failure;
+
+			@Override
+			public T next() throws RdapDataAccessException {
+				long nextStart = System.nanoTime();
+				try {
+					T result = delegate.next();
+					if (result != null) {
+						yielded++;
+					}
+					return result;
+				} catch (RdapDataAccessException | RuntimeException e) {
+					failure = e;
+					throw e;
+				} finally {
+					busyNanos += System.nanoTime() - nextStart;
+				}
+			}
+
+			@Override
+			protected void onClose() {
+				if (failure != null) {
+					method.recordFailure(busyNanos, failure);
+				} else {
+					method.recordSuccess(busyNanos, yielded);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of objects in <code>result</code>.
+	 */
+	private static int sizeOf(Object result) {
+		if (result == null) {
+			return 0;
+		}
+		if (result instanceof SearchResultStruct) {
+			List<?> results = ((SearchResultStruct<?>) result).getResults();
+			return (results != null) ? results.size() : 0;
+		}
+		if (result instanceof Collection) {
+			int size = 0;
+			for (Object object : (Collection<?>) result) {
+				if (object != null) {
+					size++;
+				}
+			}
+			return size;
+		}
+		return 1;
+	}
+
+	/**
+	 * Returns the measurements of <code>operation</code>.
+	 */
+	public DAOMethodMetrics getMetrics(DAOOperation operation) {
+		return metrics.get(operation);
+	}
+
+	/**
+	 * Publishes the measurements in the platform MBean server.
+	 */
+	public void registerMBeans() throws InitializationException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (DAOMethodMetrics method : metrics.values()) {
+				ObjectName name = new ObjectName(DOMAIN + ":type=DAOMethod,name=" + method.getOperation());
+				if (server.isRegistered(name)) {
+					// Leftover from a previous initialization.
+					server.unregisterMBean(name);
+				}
+				server.registerMBean(method, name);
+				registeredNames.add(name);
+			}
+		} catch (JMException e) {
+			unregisterMBeans();
+			throw new InitializationException("Could not register the DAO metrics MBeans.", e);
+		}
+	}
+
+	/**
+	 * Withdraws the MBeans registered by {@link #registerMBeans()}.
+	 */
+	public void unregisterMBeans() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName name : registeredNames) {
+			try {
+				server.unregisterMBean(name);
+			} catch (JMException e) {
+				logger.log(Level.WARNING, "Could not unregister MBean " + name + ".", e);
+			}
+		}
+		registeredNames.clear();
+	}
+
+}
@@ -0,0 +1,147 @@
+package mx.nic.rdap.db.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import mx.nic.rdap.db.exception.http.BadRequestException;
+
+/**
+ * Turns the position of a paged search (the key of the last object a page
+ * listed) into the opaque cursor token handed to the client, and back.
+ * <p>
+ * A token is the URL-safe Base64 form of a version byte, the key in UTF-8,
+ * and a truncated HMAC-SHA256 of both and of the search's <i>scope</i> (see
+ * {@link PagedSearch#scope(String)}). So a client cannot forge a position,
+ * nor reuse a token on a different search; but the key is not encrypted, so
+ * it should not contain anything the client is not allowed to see.
+ * <p>
+ * Tokens are only accepted by codecs that share the secret. The
+ * {@link #getDefault() default codec} makes up a random one, which does not
+ * survive restarts and is not shared between servers; configure
+ * <code>paging.secret</code> (see {@link PagingConfiguration}) if either
+ * matters.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class PageTokenCodec {
+
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final byte VERSION = 1;
+	/** Bytes of the MAC that are kept in the token. */
+	private static final int MAC_LENGTH = 12;
+
+	private static volatile PageTokenCodec defaultCodec = new PageTokenCodec(randomSecret());
+
+	private final SecretKeySpec secret;
+	private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             <code>secret</code> is empty.
+	 */
+	public PageTokenCodec(byte[] secret) {
+		if (secret.length == 0) {
+			throw new IllegalArgumentException("The paging secret is empty.");
+		}
+		this.secret = new SecretKeySpec(secret, ALGORITHM);
+	}
+
+	/**
+	 * Returns the codec the default paging methods of the DAOs use, and the
+	 * one implementations are expected to use, unless they have a reason not
+	 * to.
+	 */
+	public static PageTokenCodec getDefault() {
+		return defaultCodec;
+	}
+
+	/**
+	 * Replaces the default codec. Tokens issued by the previous one are no
+	 * longer accepted.
+	 */
+	public static void setDefault(PageTokenCodec codec) {
+		defaultCodec = codec;
+	}
+
+	/**
+	 * Returns the token that points past <code>lastKey</code> in the
+	 * <code>scope</code> search.
+	 */
+	public String encode(String scope, String lastKey) {
+		byte[] key = lastKey.getBytes(StandardCharsets.UTF_8);
+		byte[] token = new byte[1 + key.length + MAC_LENGTH];
+		token[0] = VERSION;
+		System.arraycopy(key, 0, token, 1, key.length);
+		System.arraycopy(mac(scope, token, 1 + key.length), 0, token, 1 + key.length, MAC_LENGTH);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+	}
+
+	/**
+	 * Returns the key <code>token</code> points past.
+	 *
+	 * @throws BadRequestException
+	 *             <code>token</code> is malformed, was tampered with, or was
+	 *             issued for a different search (or by a codec with a
+	 *             different secret).
+	 */
+	public String decode(String scope, String token) throws BadRequestException {
+		byte[] bytes;
+		try {
+			bytes = Base64.getUrlDecoder().decode(token);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Malformed cursor.", e);
+		}
+		if (bytes.length < 1 + MAC_LENGTH || bytes[0] != VERSION) {
+			throw new BadRequestException("Malformed cursor.");
+		}
+
+		int keyEnd = bytes.length - MAC_LENGTH;
+		byte[] expected = Arrays.copyOf(mac(scope, bytes, keyEnd), MAC_LENGTH);
+		if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, keyEnd, bytes.length))) {
+			throw new BadRequestException("The cursor does not belong to this search.");
+		}
+		return new String(bytes, 1, keyEnd - 1, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the MAC of <code>scope</code> and the first <code>length</code>
+	 * bytes of <code>token</code>.
+	 */
+	private byte[] mac(String scope, byte[] token, int length) {
+		byte[] scopeBytes = scope.getBytes(StandardCharsets.UTF_8);
+		Mac mac = macs.get();
+		// Length-prefixed, so the scope cannot bleed into the key.
+		int scopeLength = scopeBytes.length;
+		mac.update(new byte[] { (byte) (scopeLength >>> 24), (byte) (scopeLength >>> 16), (byte) (scopeLength >>> 8),
+				(byte) scopeLength });
+		mac.update(scopeBytes);
+		mac.update(token, 0, length);
+		return mac.doFinal();
+	}
+
+	private Mac newMac() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(secret);
+			return mac;
+		} catch (NoSuchAlgorithmException | InvalidKeyException e) {
+			// Every Java platform is required to support HmacSHA256.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] randomSecret() {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		return secret;
+	}
+
+}
@@ -0,0 +1,44 @@
+package mx.nic.rdap.db.paging;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.intercept.LookupKeys;
+
+/**
+ * The paged searches of the DAOs. Used to tie each cursor to the search that
+ * issued it (see {@link #scope(String)}).
+ */
+public enum PagedSearch {
+
+	DOMAIN_BY_NAME,
+	DOMAIN_BY_NS_LDH_NAME,
+	DOMAIN_BY_NS_IP,
+	DOMAIN_BY_REGEX_NAME,
+	DOMAIN_BY_REGEX_NS_LDH_NAME,
+	DOMAIN_BY_REGEX_NS_IP,
+	ENTITY_BY_HANDLE,
+	ENTITY_BY_VCARD_NAME,
+	ENTITY_BY_REGEX_HANDLE,
+	ENTITY_BY_REGEX_VCARD_NAME,
+	NAMESERVER_BY_NAME,
+	NAMESERVER_BY_IP,
+	NAMESERVER_BY_REGEX_NAME,
+	NAMESERVER_BY_REGEX_IP;
+
+	/**
+	 * Returns the scope of the cursors of this search for
+	 * <code>pattern</code>. (See {@link PageTokenCodec}.) A cursor is only
+	 * valid for the scope it was issued for.
+	 */
+	public String scope(String pattern) {
+		return name() + '\0' + pattern;
+	}
+
+	/**
+	 * Returns the scope of the cursors of this search for
+	 * <code>pattern</code>.
+	 */
+	public String scope(DomainLabel pattern) {
+		return scope(LookupKeys.of(pattern));
+	}
+
+}
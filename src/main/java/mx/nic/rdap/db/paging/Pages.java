@@ -0,0 +1,205 @@
+package mx.nic.rdap.db.paging;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.intercept.LookupKeys;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Keyset pagination helpers for the implementations of the paged searches of
+ * the DAOs (such as
+ * {@link mx.nic.rdap.db.spi.DomainDAO#pageByName(mx.nic.rdap.core.db.DomainLabel, String, int)}).
+ * <p>
+ * Pages are sorted by a key that is unique per object (see
+ * {@link #domainKey(Domain)}, {@link #nameserverKey(Nameserver)} and
+ * {@link #entityKey(Entity)}). The cursor of a page records the key of its last
+ * object, so the next page starts right after it, regardless of how many
+ * objects were added or removed before it meanwhile.
+ * <p>
+ * The backend only has to provide a {@link Seek}: a way to fetch the matches
+ * that follow a key, in key order. {@link #page(String, String, int, Function, Seek)}
+ * takes care of the cursors.
+ */
+public class Pages {
+
+	/**
+	 * Separates the labels of a name in its page key. Lower than any
+	 * character a label can contain, so that keys sort like the names'
+	 * labels do (<code>a.mx</code> before <code>a-b.mx</code>).
+	 */
+	private static final char LABEL_SEPARATOR = '\u0001';
+	/** Separates the name from the handle in a page key. */
+	private static final char HANDLE_SEPARATOR = '\0';
+
+	private Pages() {
+		// No code.
+	}
+
+	/**
+	 * Fetches the matches of a search that follow a page key.
+	 */
+	@FunctionalInterface
+	public interface Seek<T extends RdapObject> {
+
+		/**
+		 * Returns the matches whose page key is greater than
+		 * <code>after</code> (or all of them, if <code>after</code> is
+		 * <code>null</code>), sorted by page key, up to <code>limit</code> of
+		 * them. Should set
+		 * {@link SearchResultStruct#getResultSetWasLimitedByUserConfiguration()}
+		 * if it stopped before the end of the matches. Can return
+		 * <code>null</code> if there are no matches.
+		 */
+		SearchResultStruct<T> after(String after, int limit) throws RdapDataAccessException;
+
+	}
+
+	/**
+	 * Returns the key <code>cursor</code> points past, or <code>null</code> if
+	 * <code>cursor</code> is <code>null</code> (ie. the first page was
+	 * requested).
+	 *
+	 * @throws BadRequestException
+	 *             <code>cursor</code> was tampered with, or was issued for a
+	 *             different search.
+	 */
+	public static String after(String scope, String cursor) throws BadRequestException {
+		return (cursor != null) ? PageTokenCodec.getDefault().decode(scope, cursor) : null;
+	}
+
+	/**
+	 * Returns the page that follows <code>cursor</code>, up to
+	 * <code>resultLimit</code> objects long.
+	 * <p>
+	 * <code>seek</code> is asked for one object more than
+	 * <code>resultLimit</code>, to tell whether there is a next page without
+	 * another call. The page also counts as limited (and gets a next cursor)
+	 * if <code>seek</code> says it stopped early.
+	 *
+	 * @param scope
+	 *            See {@link PagedSearch#scope(String)}.
+	 * @param keyOf
+	 *            Returns the page key of an object.
+	 */
+	public static <T extends RdapObject> SearchResultStruct<T> page(String scope, String cursor, int resultLimit,
+			Function<? super T, String> keyOf, Seek<T> seek) throws RdapDataAccessException {
+		String after = after(scope, cursor);
+		int limit = (resultLimit < Integer.MAX_VALUE) ? resultLimit + 1 : resultLimit;
+		SearchResultStruct<T> found = seek.after(after, limit);
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		if (found == null) {
+			return result;
+		}
+		List<T> matches = found.getResults();
+		boolean limited = Boolean.TRUE.equals(found.getResultSetWasLimitedByUserConfiguration())
+				|| matches.size() > resultLimit;
+		result.getResults().addAll((matches.size() > resultLimit) ? matches.subList(0, resultLimit) : matches);
+		result.setResultSetWasLimitedByUserConfiguration(limited);
+		setNextCursor(result, keyOf, scope);
+		return result;
+	}
+
+	/**
+	 * Merges <code>pages</code> (pages of the same search, sorted by page key,
+	 * issued by different backends for the same cursor) into a single page up
+	 * to <code>resultLimit</code> objects long. Objects that share a page key
+	 * are only listed once.
+	 * <p>
+	 * The merged page is limited if any of <code>pages</code> is, or if they
+	 * add up to more than <code>resultLimit</code> objects.
+	 */
+	public static <T extends RdapObject> SearchResultStruct<T> merge(List<SearchResultStruct<T>> pages,
+			Function<? super T, String> keyOf, String scope, int resultLimit) {
+		List<T> all = new ArrayList<>();
+		boolean limited = false;
+		for (SearchResultStruct<T> page : pages) {
+			if (page == null) {
+				continue;
+			}
+			all.addAll(page.getResults());
+			limited |= Boolean.TRUE.equals(page.getResultSetWasLimitedByUserConfiguration());
+		}
+		all.sort(Comparator.comparing(keyOf));
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		List<T> results = result.getResults();
+		String lastKey = null;
+		for (T object : all) {
+			String key = keyOf.apply(object);
+			if (key.equals(lastKey)) {
+				continue;
+			}
+			if (results.size() == resultLimit) {
+				limited = true;
+				break;
+			}
+			results.add(object);
+			lastKey = key;
+		}
+		result.setResultSetWasLimitedByUserConfiguration(limited);
+		setNextCursor(result, keyOf, scope);
+		return result;
+	}
+
+	/**
+	 * If <code>page</code> is limited, sets its next cursor to point past its
+	 * last object.
+	 */
+	public static <T extends RdapObject> void setNextCursor(SearchResultStruct<T> page,
+			Function<? super T, String> keyOf, String scope) {
+		List<T> results = page.getResults();
+		if (Boolean.TRUE.equals(page.getResultSetWasLimitedByUserConfiguration()) && !results.isEmpty()) {
+			String lastKey = keyOf.apply(results.get(results.size() - 1));
+			page.setNextCursor(PageTokenCodec.getDefault().encode(scope, lastKey));
+		}
+	}
+
+	/**
+	 * Returns the page key of <code>domain</code>: its normalized name and its
+	 * handle.
+	 */
+	public static String domainKey(Domain domain) {
+		return nameKey(domain.getFQDN(), domain.getHandle());
+	}
+
+	/**
+	 * Returns the page key of <code>nameserver</code>: its normalized name and
+	 * its handle. (Several nameservers can share a name.)
+	 */
+	public static String nameserverKey(Nameserver nameserver) {
+		return nameKey(nameserver.getLdhName(), nameserver.getHandle());
+	}
+
+	/**
+	 * Returns the page key of <code>entity</code>: its handle.
+	 */
+	public static String entityKey(Entity entity) {
+		String handle = entity.getHandle();
+		return (handle != null) ? handle : "";
+	}
+
+	/**
+	 * Returns the page key of the object named <code>name</code> and
+	 * identified by <code>handle</code>.
+	 * <p>
+	 * Keys sort like names in a {@link mx.nic.rdap.db.index.DomainNameIndex}
+	 * whose patterns share everything but the leftmost label, and then by
+	 * handle.
+	 */
+	public static String nameKey(String name, String handle) {
+		String normalized = LookupKeys.normalizeName(name);
+		return ((normalized != null) ? normalized.replace('.', LABEL_SEPARATOR) : "") + HANDLE_SEPARATOR
+				+ ((handle != null) ? handle : "");
+	}
+
+}
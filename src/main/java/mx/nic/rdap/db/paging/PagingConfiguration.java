@@ -0,0 +1,38 @@
+package mx.nic.rdap.db.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the paged searches, as read from the user-supplied
+ * properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>paging.secret</code>: The key the cursor tokens are signed with
+ * (see {@link PageTokenCodec}). Servers that share it accept each other's
+ * tokens, also across restarts. Optional; if absent, a random secret is used.
+ * </li>
+ * </ul>
+ */
+public class PagingConfiguration {
+
+	private static final String SECRET_PROPERTY = "paging.secret";
+
+	private final byte[] secret;
+
+	public PagingConfiguration(Properties config) {
+		String value = ConfigurationUtils.getString(config, SECRET_PROPERTY);
+		this.secret = (value != null) ? value.getBytes(StandardCharsets.UTF_8) : null;
+	}
+
+	/**
+	 * Returns the configured secret, or <code>null</code> if there is none.
+	 */
+	public byte[] getSecret() {
+		return secret;
+	}
+
+}
@@ -0,0 +1,174 @@
+package mx.nic.rdap.db.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable set of characters, used by {@link LinearRegex}.
+ * <p>
+ * Stored as sorted, disjoint, inclusive ranges, plus a bitmap for the ASCII
+ * characters so the common case is a single bit test.
+ */
+class CharClass {
+
+	private static final CharClass DIGIT = new Builder().addRange('0', '9', false).build();
+	private static final CharClass WORD = new Builder().addRange('a', 'z', false).addRange('A', 'Z', false)
+			.addRange('0', '9', false).addRange('_', '_', false).build();
+	private static final CharClass SPACE = new Builder().addRange('\t', '\r', false).addRange(' ', ' ', false)
+			.build();
+
+	/** Lower and upper limits of every range, interleaved. */
+	private final char[] ranges;
+	private final long asciiLow;
+	private final long asciiHigh;
+
+	private CharClass(char[] ranges) {
+		this.ranges = ranges;
+
+		long low = 0;
+		long high = 0;
+		for (int c = 0; c < 128; c++) {
+			if (search(c)) {
+				if (c < 64) {
+					low |= 1L << c;
+				} else {
+					high |= 1L << c;
+				}
+			}
+		}
+		this.asciiLow = low;
+		this.asciiHigh = high;
+	}
+
+	boolean matches(char c) {
+		if (c < 64) {
+			return (asciiLow & (1L << c)) != 0;
+		}
+		if (c < 128) {
+			return (asciiHigh & (1L << c)) != 0;
+		}
+		return search(c);
+	}
+
+	private boolean search(int c) {
+		int low = 0;
+		int high = ranges.length / 2 - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (c < ranges[2 * middle]) {
+				high = middle - 1;
+			} else if (c > ranges[2 * middle + 1]) {
+				low = middle + 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the class represented by the <code>\c</code> escape sequence, or
+	 * <code>null</code> if <code>c</code> does not name a predefined class.
+	 */
+	static CharClass predefined(char c) {
+		switch (c) {
+		case 'd':
+			return DIGIT;
+		case 'D':
+			return new Builder().addAll(DIGIT).negate().build();
+		case 'w':
+			return WORD;
+		case 'W':
+			return new Builder().addAll(WORD).negate().build();
+		case 's':
+			return SPACE;
+		case 'S':
+			return new Builder().addAll(SPACE).negate().build();
+		default:
+			return null;
+		}
+	}
+
+	static class Builder {
+
+		private final List<char[]> ranges = new ArrayList<>();
+		private boolean negated;
+
+		/**
+		 * Complements the resulting class. (Regardless of when it is called.)
+		 */
+		Builder negate() {
+			negated = true;
+			return this;
+		}
+
+		/**
+		 * Adds the <code>low</code>-<code>high</code> range. If
+		 * <code>caseInsensitive</code>, the opposite case of the ASCII letters
+		 * in the range is added as well, like {@link java.util.regex.Pattern}
+		 * does by default.
+		 */
+		Builder addRange(char low, char high, boolean caseInsensitive) {
+			ranges.add(new char[] { low, high });
+			if (caseInsensitive) {
+				addFolded(low, high, 'a', 'z', 'A' - 'a');
+				addFolded(low, high, 'A', 'Z', 'a' - 'A');
+			}
+			return this;
+		}
+
+		private void addFolded(char low, char high, char letterLow, char letterHigh, int shift) {
+			int from = Math.max(low, letterLow);
+			int to = Math.min(high, letterHigh);
+			if (from <= to) {
+				ranges.add(new char[] { (char) (from + shift), (char) (to + shift) });
+			}
+		}
+
+		Builder addAll(CharClass other) {
+			for (int i = 0; i < other.ranges.length; i += 2) {
+				ranges.add(new char[] { other.ranges[i], other.ranges[i + 1] });
+			}
+			return this;
+		}
+
+		CharClass build() {
+			ranges.sort((a, b) -> a[0] - b[0]);
+
+			// Merge overlapping and adjacent ranges.
+			List<char[]> merged = new ArrayList<>();
+			for (char[] range : ranges) {
+				char[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+				if (last != null && range[0] <= last[1] + 1) {
+					last[1] = (char) Math.max(last[1], range[1]);
+				} else {
+					merged.add(new char[] { range[0], range[1] });
+				}
+			}
+
+			if (negated) {
+				List<char[]> complement = new ArrayList<>();
+				int next = 0;
+				for (char[] range : merged) {
+					if (range[0] > next) {
+						complement.add(new char[] { (char) next, (char) (range[0] - 1) });
+					}
+					next = range[1] + 1;
+				}
+				if (next <= Character.MAX_VALUE) {
+					complement.add(new char[] { (char) next, Character.MAX_VALUE });
+				}
+				merged = complement;
+			}
+
+			char[] result = new char[merged.size() * 2];
+			for (int i = 0; i < merged.size(); i++) {
+				result[2 * i] = merged.get(i)[0];
+				result[2 * i + 1] = merged.get(i)[1];
+			}
+			return new CharClass(result);
+		}
+
+	}
+
+}
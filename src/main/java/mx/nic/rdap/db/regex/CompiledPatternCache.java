@@ -0,0 +1,62 @@
+package mx.nic.rdap.db.regex;
+
+import mx.nic.rdap.db.cache.BoundedCache;
+import mx.nic.rdap.db.cache.CacheStatistics;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+
+/**
+ * Bounded cache of compiled regular expressions, so popular search patterns
+ * are only compiled once.
+ * <p>
+ * {@link CompiledRegex}es are immutable and thread-safe, so the cached
+ * instances can be shared freely.
+ */
+public class CompiledPatternCache {
+
+	public static final int DEFAULT_MAX_SIZE = 1000;
+	public static final long DEFAULT_TTL_MILLIS = 60 * 60 * 1000L;
+
+	private final BoundedCache<String, CompiledRegex> cache;
+	private final RegexCompiler compiler;
+
+	/**
+	 * Creates a default-sized cache that compiles through
+	 * {@link RegexCompiler#LINEAR}.
+	 */
+	public CompiledPatternCache() {
+		this(RegexCompiler.LINEAR);
+	}
+
+	public CompiledPatternCache(RegexCompiler compiler) {
+		this(compiler, DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+	}
+
+	public CompiledPatternCache(RegexCompiler compiler, int maxSize, long ttlMillis) {
+		this.cache = new BoundedCache<>(maxSize, ttlMillis);
+		this.compiler = compiler;
+	}
+
+	/**
+	 * Returns <code>regex</code>, compiled.
+	 *
+	 * @throws BadRequestException
+	 *             <code>regex</code> is not a valid regular expression.
+	 * @throws UnprocessableEntityException
+	 *             <code>regex</code> is valid, but the compiler does not
+	 *             support it.
+	 */
+	public CompiledRegex get(String regex) throws BadRequestException, UnprocessableEntityException {
+		CompiledRegex result = cache.get(regex);
+		if (result == null) {
+			result = compiler.compile(regex);
+			cache.put(regex, result);
+		}
+		return result;
+	}
+
+	public CacheStatistics getStatistics() {
+		return cache.getStatistics();
+	}
+
+}
@@ -0,0 +1,23 @@
+package mx.nic.rdap.db.regex;
+
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+
+/**
+ * A regular expression, ready to be run against texts. Implementations must be
+ * immutable and thread-safe.
+ */
+public interface CompiledRegex {
+
+	/**
+	 * Returns whether some substring of <code>text</code> matches the
+	 * expression.
+	 *
+	 * @param budget
+	 *            Work the evaluation is allowed to perform. Spent steps are
+	 *            subtracted from it.
+	 * @throws UnprocessableEntityException
+	 *             <code>budget</code> ran out.
+	 */
+	public boolean find(CharSequence text, StepBudget budget) throws UnprocessableEntityException;
+
+}
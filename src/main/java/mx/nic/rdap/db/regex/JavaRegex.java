@@ -0,0 +1,98 @@
+package mx.nic.rdap.db.regex;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+
+/**
+ * {@link CompiledRegex} backed by {@link java.util.regex.Pattern}.
+ * <p>
+ * <code>java.util.regex</code> backtracks, so some expressions take
+ * exponential time. To still honor the {@link StepBudget}, the text is handed
+ * to the matcher through a {@link CharSequence} that charges one step per
+ * character read, and aborts the match once the budget runs out.
+ */
+public class JavaRegex implements CompiledRegex {
+
+	private final Pattern pattern;
+
+	private JavaRegex(Pattern pattern) {
+		this.pattern = pattern;
+	}
+
+	public static JavaRegex compile(String regex) throws BadRequestException {
+		try {
+			return new JavaRegex(Pattern.compile(regex));
+		} catch (PatternSyntaxException e) {
+			throw new BadRequestException("Invalid regular expression: " + e.getDescription(), e);
+		}
+	}
+
+	@Override
+	public boolean find(CharSequence text, StepBudget budget) throws UnprocessableEntityException {
+		try {
+			return pattern.matcher(new BudgetedCharSequence(text, budget)).find();
+		} catch (BudgetExhausted | StackOverflowError e) {
+			// (The matcher recurses once per repetition; long texts overflow.)
+			throw budget.exhausted();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return pattern.pattern();
+	}
+
+	/**
+	 * Unchecked, stackless signal used to escape from the matcher.
+	 */
+	private static class BudgetExhausted extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private BudgetExhausted() {
+			super(null, null, false, false);
+		}
+
+	}
+
+	private static class BudgetedCharSequence implements CharSequence {
+
+		private final CharSequence text;
+		private final StepBudget budget;
+
+		private BudgetedCharSequence(CharSequence text, StepBudget budget) {
+			this.text = text;
+			this.budget = budget;
+		}
+
+		@Override
+		public char charAt(int index) {
+			try {
+				budget.consume(1);
+			} catch (UnprocessableEntityException e) {
+				throw new BudgetExhausted();
+			}
+			return text.charAt(index);
+		}
+
+		@Override
+		public int length() {
+			return text.length();
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new BudgetedCharSequence(text.subSequence(start, end), budget);
+		}
+
+		@Override
+		public String toString() {
+			return text.toString();
+		}
+
+	}
+
+}
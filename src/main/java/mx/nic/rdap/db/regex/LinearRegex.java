@@ -0,0 +1,849 @@
+package mx.nic.rdap.db.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+
+/**
+ * {@link CompiledRegex} that compiles the expression into a nondeterministic
+ * automaton (Thompson construction) and simulates it in lockstep over the text
+ * (Pike VM), so matching time is O(text length * expression size) regardless
+ * of the expression. There is no backtracking, so no pattern can make it
+ * explode.
+ * <p>
+ * Supported syntax is the regular subset of {@link java.util.regex.Pattern}:
+ * literals, <code>.</code>, classes (<code>[a-z]</code>, <code>[^0-9]</code>,
+ * <code>\d \w \s \D \W \S</code>), anchors (<code>^ $</code>), groups
+ * (capturing, non-capturing and named; captures are not reported),
+ * alternation, greedy and lazy quantifiers (<code>* + ? {n} {n,} {n,m}</code>),
+ * <code>\Q...\E</code> quoting and the <code>(?i)</code> flag. Features that
+ * cannot be matched by an automaton (backreferences, lookaround, possessive
+ * quantifiers, word boundaries) are rejected with
+ * {@link UnprocessableEntityException}.
+ */
+public class LinearRegex implements CompiledRegex {
+
+	/** Compiled programs larger than this are rejected. */
+	public static final int MAX_INSTRUCTIONS = 20000;
+	/** Groups nested deeper than this are rejected. */
+	public static final int MAX_NESTING = 100;
+
+	private static final int CHAR = 0;
+	private static final int CLASS = 1;
+	private static final int ANY = 2;
+	private static final int SPLIT = 3;
+	private static final int JUMP = 4;
+	private static final int LINE_START = 5;
+	private static final int LINE_END = 6;
+	private static final int MATCH = 7;
+
+	private final String regex;
+	private final int[] opcodes;
+	/** CHAR: the character. CLASS: index in {@link #classes}. SPLIT, JUMP: target. */
+	private final int[] arg1;
+	/** SPLIT: second target. */
+	private final int[] arg2;
+	private final CharClass[] classes;
+
+	private LinearRegex(String regex, Program program) {
+		this.regex = regex;
+		int size = program.opcodes.size();
+		this.opcodes = new int[size];
+		this.arg1 = new int[size];
+		this.arg2 = new int[size];
+		for (int i = 0; i < size; i++) {
+			opcodes[i] = program.opcodes.get(i);
+			arg1[i] = program.arg1.get(i);
+			arg2[i] = program.arg2.get(i);
+		}
+		this.classes = program.classes.toArray(new CharClass[program.classes.size()]);
+	}
+
+	/**
+	 * @throws BadRequestException
+	 *             <code>regex</code> is malformed.
+	 * @throws UnprocessableEntityException
+	 *             <code>regex</code> uses non-regular features or is too large.
+	 */
+	public static LinearRegex compile(String regex) throws BadRequestException, UnprocessableEntityException {
+		Node tree = new Parser(regex).parse();
+		Program program = new Program();
+		tree.emit(program);
+		program.add(MATCH, 0, 0);
+		return new LinearRegex(regex, program);
+	}
+
+	@Override
+	public boolean find(CharSequence text, StepBudget budget) throws UnprocessableEntityException {
+		int size = opcodes.length;
+		ThreadList current = new ThreadList(size);
+		ThreadList next = new ThreadList(size);
+		int[] stack = new int[2 * size + 1];
+		int length = text.length();
+
+		for (int position = 0; position <= length; position++) {
+			// Unanchored search: a new thread starts at every position.
+			if (addThread(current, 0, position, text, stack)) {
+				return true;
+			}
+			budget.consume(current.size);
+			if (position == length) {
+				return false;
+			}
+
+			char c = text.charAt(position);
+			next.clear();
+			for (int i = 0; i < current.size; i++) {
+				int pc = current.dense[i];
+				boolean advance;
+				switch (opcodes[pc]) {
+				case CHAR:
+					advance = (c == arg1[pc]);
+					break;
+				case CLASS:
+					advance = classes[arg1[pc]].matches(c);
+					break;
+				case ANY:
+					advance = !isLineTerminator(c);
+					break;
+				default:
+					advance = false;
+				}
+				if (advance && addThread(next, pc + 1, position + 1, text, stack)) {
+					return true;
+				}
+			}
+
+			ThreadList swap = current;
+			current = next;
+			next = swap;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds <code>start</code> to <code>list</code>, following the epsilon
+	 * transitions. Returns whether a MATCH state was reached.
+	 */
+	private boolean addThread(ThreadList list, int start, int position, CharSequence text, int[] stack) {
+		int top = 0;
+		stack[top++] = start;
+		while (top > 0) {
+			int pc = stack[--top];
+			if (list.contains(pc)) {
+				continue;
+			}
+			list.add(pc);
+
+			switch (opcodes[pc]) {
+			case MATCH:
+				return true;
+			case JUMP:
+				stack[top++] = arg1[pc];
+				break;
+			case SPLIT:
+				// Only reachability matters, so priority is irrelevant.
+				stack[top++] = arg2[pc];
+				stack[top++] = arg1[pc];
+				break;
+			case LINE_START:
+				if (position == 0) {
+					stack[top++] = pc + 1;
+				}
+				break;
+			case LINE_END:
+				if (isInputEnd(text, position)) {
+					stack[top++] = pc + 1;
+				}
+				break;
+			default:
+				// Consuming instruction; it waits for the next character.
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether <code>$</code> matches at <code>position</code>: at the
+	 * end of <code>text</code>, or right before its final line terminator
+	 * (<code>\r\n</code> counting as one), as in
+	 * {@link java.util.regex.Pattern}.
+	 */
+	private static boolean isInputEnd(CharSequence text, int position) {
+		int remaining = text.length() - position;
+		if (remaining == 0) {
+			return true;
+		}
+		if (remaining == 2) {
+			return text.charAt(position) == '\r' && text.charAt(position + 1) == '\n';
+		}
+		if (remaining != 1 || !isLineTerminator(text.charAt(position))) {
+			return false;
+		}
+		// Not between the characters of a final "\r\n".
+		return !(text.charAt(position) == '\n' && position > 0 && text.charAt(position - 1) == '\r');
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * Returns the number of instructions of the automaton.
+	 */
+	public int getProgramSize() {
+		return opcodes.length;
+	}
+
+	@Override
+	public String toString() {
+		return regex;
+	}
+
+	/**
+	 * Set of automaton states. Sparse set, so clearing is O(1) and iteration
+	 * follows insertion order.
+	 */
+	private static class ThreadList {
+
+		private final int[] dense;
+		private final int[] sparse;
+		private int size;
+
+		private ThreadList(int capacity) {
+			dense = new int[capacity];
+			sparse = new int[capacity];
+		}
+
+		private boolean contains(int pc) {
+			int index = sparse[pc];
+			return index < size && dense[index] == pc;
+		}
+
+		private void add(int pc) {
+			sparse[pc] = size;
+			dense[size++] = pc;
+		}
+
+		private void clear() {
+			size = 0;
+		}
+
+	}
+
+	/* Compilation. */
+
+	/**
+	 * Growable instruction list.
+	 */
+	private static class Program {
+
+		private final List<Integer> opcodes = new ArrayList<>();
+		private final List<Integer> arg1 = new ArrayList<>();
+		private final List<Integer> arg2 = new ArrayList<>();
+		private final List<CharClass> classes = new ArrayList<>();
+
+		private int add(int opcode, int a1, int a2) {
+			opcodes.add(opcode);
+			arg1.add(a1);
+			arg2.add(a2);
+			return opcodes.size() - 1;
+		}
+
+		private int size() {
+			return opcodes.size();
+		}
+
+		private void patch(int pc, int a1, int a2) {
+			arg1.set(pc, a1);
+			arg2.set(pc, a2);
+		}
+
+	}
+
+	/**
+	 * Node of the syntax tree.
+	 */
+	private static abstract class Node {
+
+		/**
+		 * Number of instructions this node compiles into. Used to reject huge
+		 * expansions of counted repetitions before emitting them.
+		 */
+		abstract long cost();
+
+		abstract void emit(Program program);
+
+	}
+
+	private static class CharNode extends Node {
+
+		private final char c;
+
+		private CharNode(char c) {
+			this.c = c;
+		}
+
+		@Override
+		long cost() {
+			return 1;
+		}
+
+		@Override
+		void emit(Program program) {
+			program.add(CHAR, c, 0);
+		}
+
+	}
+
+	private static class ClassNode extends Node {
+
+		private final CharClass charClass;
+
+		private ClassNode(CharClass charClass) {
+			this.charClass = charClass;
+		}
+
+		@Override
+		long cost() {
+			return 1;
+		}
+
+		@Override
+		void emit(Program program) {
+			program.classes.add(charClass);
+			program.add(CLASS, program.classes.size() - 1, 0);
+		}
+
+	}
+
+	private static class SimpleNode extends Node {
+
+		private final int opcode;
+
+		private SimpleNode(int opcode) {
+			this.opcode = opcode;
+		}
+
+		@Override
+		long cost() {
+			return 1;
+		}
+
+		@Override
+		void emit(Program program) {
+			program.add(opcode, 0, 0);
+		}
+
+	}
+
+	private static class ConcatNode extends Node {
+
+		private final List<Node> children;
+
+		private ConcatNode(List<Node> children) {
+			this.children = children;
+		}
+
+		@Override
+		long cost() {
+			long result = 0;
+			for (Node child : children) {
+				result += child.cost();
+			}
+			return result;
+		}
+
+		@Override
+		void emit(Program program) {
+			for (Node child : children) {
+				child.emit(program);
+			}
+		}
+
+	}
+
+	private static class AlternationNode extends Node {
+
+		private final List<Node> children;
+
+		private AlternationNode(List<Node> children) {
+			this.children = children;
+		}
+
+		@Override
+		long cost() {
+			long result = 0;
+			for (Node child : children) {
+				result += child.cost() + 2;
+			}
+			return result;
+		}
+
+		@Override
+		void emit(Program program) {
+			List<Integer> jumps = new ArrayList<>();
+			for (int i = 0; i < children.size() - 1; i++) {
+				int split = program.add(SPLIT, 0, 0);
+				children.get(i).emit(program);
+				jumps.add(program.add(JUMP, 0, 0));
+				program.patch(split, split + 1, program.size());
+			}
+			children.get(children.size() - 1).emit(program);
+			for (int jump : jumps) {
+				program.patch(jump, program.size(), 0);
+			}
+		}
+
+	}
+
+	private static class RepeatNode extends Node {
+
+		private final Node child;
+		private final int min;
+		/** -1 means unbounded. */
+		private final int max;
+
+		private RepeatNode(Node child, int min, int max) {
+			this.child = child;
+			this.min = min;
+			this.max = max;
+		}
+
+		@Override
+		long cost() {
+			long copies = (max == -1) ? min + 1 : max;
+			return copies * (child.cost() + 2);
+		}
+
+		@Override
+		void emit(Program program) {
+			for (int i = 0; i < min; i++) {
+				child.emit(program);
+			}
+
+			if (max == -1) {
+				// loop: SPLIT body, end; body; JUMP loop
+				int split = program.add(SPLIT, 0, 0);
+				child.emit(program);
+				program.add(JUMP, split, 0);
+				program.patch(split, split + 1, program.size());
+				return;
+			}
+
+			// Nested optionals: (x(x(x)?)?)?
+			List<Integer> splits = new ArrayList<>();
+			for (int i = min; i < max; i++) {
+				splits.add(program.add(SPLIT, 0, 0));
+				child.emit(program);
+			}
+			int end = program.size();
+			for (int split : splits) {
+				program.patch(split, split + 1, end);
+			}
+		}
+
+	}
+
+	/* Parsing. */
+
+	private static class Parser {
+
+		private final String regex;
+		private int position;
+		private boolean caseInsensitive;
+		private int depth;
+
+		private Parser(String regex) {
+			this.regex = regex;
+		}
+
+		private Node parse() throws BadRequestException, UnprocessableEntityException {
+			Node result = parseAlternation();
+			if (position < regex.length()) {
+				throw syntaxError("Unmatched closing ')'");
+			}
+			if (result.cost() + 1 > MAX_INSTRUCTIONS) {
+				throw tooLarge();
+			}
+			return result;
+		}
+
+		private Node parseAlternation() throws BadRequestException, UnprocessableEntityException {
+			List<Node> alternatives = new ArrayList<>();
+			alternatives.add(parseConcatenation());
+			while (peek('|')) {
+				position++;
+				alternatives.add(parseConcatenation());
+			}
+			return (alternatives.size() == 1) ? alternatives.get(0) : new AlternationNode(alternatives);
+		}
+
+		private Node parseConcatenation() throws BadRequestException, UnprocessableEntityException {
+			List<Node> sequence = new ArrayList<>();
+			while (position < regex.length() && !peek('|') && !peek(')')) {
+				Node atom = parseAtom();
+				if (atom != null) {
+					sequence.add(parseQuantifiers(atom));
+				}
+			}
+			return new ConcatNode(sequence);
+		}
+
+		private Node parseQuantifiers(Node atom) throws BadRequestException, UnprocessableEntityException {
+			while (position < regex.length()) {
+				int min;
+				int max;
+				char c = regex.charAt(position);
+				if (c == '*') {
+					min = 0;
+					max = -1;
+					position++;
+				} else if (c == '+') {
+					min = 1;
+					max = -1;
+					position++;
+				} else if (c == '?') {
+					min = 0;
+					max = 1;
+					position++;
+				} else if (c == '{' && isCountedRepetition()) {
+					int end = regex.indexOf('}', position);
+					String[] bounds = regex.substring(position + 1, end).split(",", -1);
+					min = parseBound(bounds[0]);
+					max = (bounds.length == 1) ? min : (bounds[1].isEmpty() ? -1 : parseBound(bounds[1]));
+					if (max != -1 && max < min) {
+						throw syntaxError("Illegal repetition range");
+					}
+					position = end + 1;
+				} else {
+					return atom;
+				}
+
+				if (peek('+')) {
+					throw unsupported("Possessive quantifiers");
+				}
+				if (peek('?')) {
+					position++; // Lazy; irrelevant for a yes/no match.
+				}
+
+				atom = new RepeatNode(atom, min, max);
+				if (atom.cost() > MAX_INSTRUCTIONS) {
+					throw tooLarge();
+				}
+			}
+			return atom;
+		}
+
+		private boolean isCountedRepetition() {
+			int end = regex.indexOf('}', position);
+			return end != -1 && regex.substring(position + 1, end).matches("\\d+(,\\d*)?");
+		}
+
+		private int parseBound(String bound) throws UnprocessableEntityException {
+			try {
+				return Integer.parseInt(bound);
+			} catch (NumberFormatException e) {
+				throw tooLarge();
+			}
+		}
+
+		/**
+		 * Returns <code>null</code> if the construct does not consume
+		 * characters and does not need to be represented (eg. a flag).
+		 */
+		private Node parseAtom() throws BadRequestException, UnprocessableEntityException {
+			char c = regex.charAt(position++);
+			switch (c) {
+			case '(':
+				return parseGroup();
+			case '[':
+				return new ClassNode(parseClass());
+			case '.':
+				return new SimpleNode(ANY);
+			case '^':
+				return new SimpleNode(LINE_START);
+			case '$':
+				return new SimpleNode(LINE_END);
+			case '\\':
+				return parseEscape();
+			case '*':
+			case '+':
+			case '?':
+				throw syntaxError("Dangling meta character '" + c + "'");
+			default:
+				return literal(c);
+			}
+		}
+
+		private Node parseGroup() throws BadRequestException, UnprocessableEntityException {
+			boolean outerCaseInsensitive = caseInsensitive;
+			if (depth >= MAX_NESTING) {
+				throw tooLarge();
+			}
+
+			if (peek('?')) {
+				position++;
+				if (position >= regex.length()) {
+					throw syntaxError("Unknown group type");
+				}
+				char type = regex.charAt(position);
+				if (type == ':') {
+					position++;
+				} else if (type == '=' || type == '!' || (type == '<' && (peek(position + 1, '=')
+						|| peek(position + 1, '!')))) {
+					throw unsupported("Lookaround");
+				} else if (type == '<') {
+					// Named group; the name is irrelevant.
+					int end = regex.indexOf('>', position);
+					if (end == -1) {
+						throw syntaxError("Unclosed group name");
+					}
+					position = end + 1;
+				} else {
+					boolean flagOnly = parseFlags();
+					if (flagOnly) {
+						// "(?i)" affects the rest of the enclosing group.
+						return null;
+					}
+				}
+			}
+
+			depth++;
+			Node result = parseAlternation();
+			depth--;
+			if (!peek(')')) {
+				throw syntaxError("Unclosed group");
+			}
+			position++;
+			caseInsensitive = outerCaseInsensitive;
+			return result;
+		}
+
+		/**
+		 * Parses "i)", "-i)", "i:", etc. Returns <code>true</code> if the
+		 * construct was a standalone flag group (ended in ')').
+		 */
+		private boolean parseFlags() throws BadRequestException, UnprocessableEntityException {
+			boolean enable = true;
+			boolean newCaseInsensitive = caseInsensitive;
+			while (position < regex.length()) {
+				char c = regex.charAt(position++);
+				switch (c) {
+				case '-':
+					enable = false;
+					break;
+				case 'i':
+					newCaseInsensitive = enable;
+					break;
+				case ')':
+					caseInsensitive = newCaseInsensitive;
+					return true;
+				case ':':
+					caseInsensitive = newCaseInsensitive;
+					return false;
+				default:
+					throw unsupported("Flag '" + c + "'");
+				}
+			}
+			throw syntaxError("Unclosed group");
+		}
+
+		private Node parseEscape() throws BadRequestException, UnprocessableEntityException {
+			if (position >= regex.length()) {
+				throw syntaxError("Unexpected internal error");
+			}
+			char c = regex.charAt(position++);
+			switch (c) {
+			case 'Q':
+				int end = regex.indexOf("\\E", position);
+				String quoted = regex.substring(position, (end == -1) ? regex.length() : end);
+				position = (end == -1) ? regex.length() : end + 2;
+				List<Node> characters = new ArrayList<>();
+				for (int i = 0; i < quoted.length(); i++) {
+					characters.add(literal(quoted.charAt(i)));
+				}
+				return new ConcatNode(characters);
+			case 'b':
+			case 'B':
+			case 'A':
+			case 'G':
+			case 'Z':
+			case 'z':
+				throw unsupported("Boundary matcher \\" + c);
+			case 'p':
+			case 'P':
+				throw unsupported("Unicode classes");
+			default:
+				if ('1' <= c && c <= '9' || c == 'k') {
+					throw unsupported("Backreferences");
+				}
+				CharClass predefined = CharClass.predefined(c);
+				if (predefined != null) {
+					return new ClassNode(predefined);
+				}
+				return literal(parseEscapedCharacter(c));
+			}
+		}
+
+		/**
+		 * Parses the escape sequences that stand for a single character.
+		 * <code>c</code> is the character that follows the backslash.
+		 */
+		private char parseEscapedCharacter(char c) throws BadRequestException, UnprocessableEntityException {
+			switch (c) {
+			case 't':
+				return '\t';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 'f':
+				return '\f';
+			case 'a':
+				return '\u0007';
+			case 'e':
+				return '\u001B';
+			case 'x':
+				if (peek('{')) {
+					throw unsupported("Code point escapes (\\x{...})");
+				}
+				return (char) parseHex(2);
+			case 'u':
+				return (char) parseHex(4);
+			case '0':
+				int value = 0;
+				int digits = 0;
+				while (digits < 3 && position < regex.length() && '0' <= regex.charAt(position)
+						&& regex.charAt(position) <= '7') {
+					value = value * 8 + (regex.charAt(position++) - '0');
+					digits++;
+				}
+				if (digits == 0) {
+					throw syntaxError("Illegal octal escape sequence");
+				}
+				return (char) value;
+			case 'c':
+				throw unsupported("Control character escapes (\\c)");
+			case 'h':
+			case 'H':
+			case 'v':
+			case 'V':
+			case 'R':
+				throw unsupported("Escape sequence \\" + c);
+			default:
+				if (Character.isLetterOrDigit(c)) {
+					throw syntaxError("Illegal/unsupported escape sequence");
+				}
+				return c;
+			}
+		}
+
+		private int parseHex(int digits) throws BadRequestException {
+			if (position + digits > regex.length()) {
+				throw syntaxError("Illegal hexadecimal escape sequence");
+			}
+			try {
+				int result = Integer.parseInt(regex.substring(position, position + digits), 16);
+				position += digits;
+				return result;
+			} catch (NumberFormatException e) {
+				throw syntaxError("Illegal hexadecimal escape sequence");
+			}
+		}
+
+		private CharClass parseClass() throws BadRequestException, UnprocessableEntityException {
+			CharClass.Builder builder = new CharClass.Builder();
+			if (peek('^')) {
+				builder.negate();
+				position++;
+			}
+
+			boolean first = true;
+			while (true) {
+				if (position >= regex.length()) {
+					throw syntaxError("Unclosed character class");
+				}
+				char c = regex.charAt(position++);
+				if (c == ']' && !first) {
+					break;
+				}
+				first = false;
+
+				if (c == '[' || (c == '&' && peek('&'))) {
+					throw unsupported("Nested classes and class intersections");
+				}
+
+				char low;
+				if (c == '\\') {
+					if (position >= regex.length()) {
+						throw syntaxError("Unclosed character class");
+					}
+					char escaped = regex.charAt(position++);
+					CharClass predefined = CharClass.predefined(escaped);
+					if (predefined != null) {
+						builder.addAll(predefined);
+						continue;
+					}
+					if (escaped == 'p' || escaped == 'P') {
+						throw unsupported("Unicode classes");
+					}
+					low = parseEscapedCharacter(escaped);
+				} else {
+					low = c;
+				}
+
+				char high = low;
+				if (peek('-') && position + 1 < regex.length() && regex.charAt(position + 1) != ']') {
+					position++;
+					char next = regex.charAt(position++);
+					if (next == '\\') {
+						if (position >= regex.length()) {
+							throw syntaxError("Unclosed character class");
+						}
+						high = parseEscapedCharacter(regex.charAt(position++));
+					} else {
+						high = next;
+					}
+					if (high < low) {
+						throw syntaxError("Illegal character range");
+					}
+				}
+				builder.addRange(low, high, caseInsensitive);
+			}
+			return builder.build();
+		}
+
+		private Node literal(char c) {
+			if (caseInsensitive && c < 128 && Character.isLetter(c)) {
+				return new ClassNode(new CharClass.Builder().addRange(c, c, true).build());
+			}
+			return new CharNode(c);
+		}
+
+		private boolean peek(char c) {
+			return peek(position, c);
+		}
+
+		private boolean peek(int index, char c) {
+			return index < regex.length() && regex.charAt(index) == c;
+		}
+
+		private BadRequestException syntaxError(String description) {
+			return new BadRequestException("Invalid regular expression: " + description + " near index " + position
+					+ ".");
+		}
+
+		private static UnprocessableEntityException unsupported(String feature) {
+			return new UnprocessableEntityException("Unsupported regular expression feature: " + feature + ".");
+		}
+
+		private static UnprocessableEntityException tooLarge() {
+			return new UnprocessableEntityException("The regular expression is too large.");
+		}
+
+	}
+
+}
@@ -0,0 +1,37 @@
+package mx.nic.rdap.db.regex;
+
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+
+/**
+ * Strategy that turns user-supplied regular expressions into
+ * {@link CompiledRegex}es.
+ */
+@FunctionalInterface
+public interface RegexCompiler {
+
+	/**
+	 * Compiles into {@link LinearRegex}es. Matching time is linear in the length
+	 * of the text, but some features (backreferences, lookaround) are not
+	 * supported. This is the default, since the expressions come from
+	 * anonymous users.
+	 */
+	public static final RegexCompiler LINEAR = LinearRegex::compile;
+
+	/**
+	 * Compiles into {@link JavaRegex}es. Supports the whole
+	 * {@link java.util.regex.Pattern} syntax, but matching can take
+	 * exponential time; the step budget is the only protection.
+	 */
+	public static final RegexCompiler JAVA = JavaRegex::compile;
+
+	/**
+	 * @throws BadRequestException
+	 *             <code>regex</code> is malformed.
+	 * @throws UnprocessableEntityException
+	 *             <code>regex</code> uses features this compiler does not
+	 *             support, or is too large.
+	 */
+	public CompiledRegex compile(String regex) throws BadRequestException, UnprocessableEntityException;
+
+}
@@ -0,0 +1,189 @@
+package mx.nic.rdap.db.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.deadline.Deadline;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * Immutable engine that serves regular expression searches (the
+ * <code>searchByRegex*</code> methods of the DAOs) over a fixed set of
+ * objects.
+ * <p>
+ * Every object is searchable through one or more texts (eg. an entity through
+ * the names of its vCards). A search happens in three stages:
+ * <ol>
+ * <li>The expression is compiled, or retrieved from a
+ * {@link CompiledPatternCache}.</li>
+ * <li>The literals every match must contain are extracted from the expression
+ * ({@link RequiredLiterals}), and a {@link TrigramIndex} narrows the texts
+ * down to the ones that contain all of them.</li>
+ * <li>The expression is only run on the surviving candidates.</li>
+ * </ol>
+ * An expression that yields no usable literals (eg. <code>.*</code>) degrades
+ * into a full scan, but the scan still stops as soon as the result limit is
+ * reached.
+ * <p>
+ * Every search gets a {@link StepBudget}, shared by all the texts it scans. A
+ * search that exhausts it fails with {@link UnprocessableEntityException}
+ * instead of hogging a thread. A search that outlives the request's
+ * {@link Deadline} stops early, and returns the results found so far, flagged
+ * as limited.
+ *
+ * @param <T>
+ *            type of the searchable objects.
+ */
+public class RegexSearchEngine<T extends RdapObject> {
+
+	/** The deadline is checked once every this many candidates, plus one. */
+	private static final int DEADLINE_CHECK_MASK = 0xFF;
+
+	private final Object[] objects;
+	private final String[] texts;
+	/** Index, in {@link #objects}, of the owner of every text. */
+	private final int[] owners;
+	private final TrigramIndex index;
+	private final CompiledPatternCache patterns;
+	private final long stepLimit;
+
+	private RegexSearchEngine(Builder<T> builder, CompiledPatternCache patterns) {
+		this.objects = builder.objects.toArray();
+		this.texts = builder.texts.toArray(new String[builder.texts.size()]);
+		this.owners = new int[texts.length];
+		for (int i = 0; i < owners.length; i++) {
+			owners[i] = builder.owners.get(i);
+		}
+		this.index = new TrigramIndex(texts);
+		this.patterns = patterns;
+		this.stepLimit = builder.stepLimit;
+	}
+
+	/**
+	 * Returns the objects that have at least one text matched by
+	 * <code>regex</code> (as in {@link java.util.regex.Matcher#find()}), up
+	 * to <code>resultLimit</code> of them.
+	 *
+	 * @throws BadRequestException
+	 *             <code>regex</code> is not a valid regular expression.
+	 * @throws UnprocessableEntityException
+	 *             <code>regex</code> is not supported by the compiler, or it
+	 *             exhausted the step budget.
+	 */
+	public SearchResultStruct<T> search(String regex, int resultLimit)
+			throws BadRequestException, UnprocessableEntityException {
+		CompiledRegex compiled = patterns.get(regex);
+		StepBudget budget = new StepBudget(stepLimit);
+		int[] candidates = index.candidates(RequiredLiterals.extract(regex));
+		int candidateCount = (candidates != null) ? candidates.length : texts.length;
+
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		List<T> results = result.getResults();
+		Deadline deadline = Deadline.current();
+		int lastOwner = -1;
+		for (int i = 0; i < candidateCount; i++) {
+			if (deadline != null && (i & DEADLINE_CHECK_MASK) == 0 && deadline.isExpired()) {
+				// Out of time; return what was found so far.
+				result.setResultSetWasLimitedByUserConfiguration(true);
+				break;
+			}
+
+			int text = (candidates != null) ? candidates[i] : i;
+			int owner = owners[text];
+			if (owner == lastOwner) {
+				continue; // Already matched through another text.
+			}
+
+			if (compiled.find(texts[text], budget)) {
+				if (results.size() == resultLimit) {
+					// There's at least one more; no need to look further.
+					result.setResultSetWasLimitedByUserConfiguration(true);
+					break;
+				}
+				results.add(cast(objects[owner]));
+				lastOwner = owner;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the cache this engine compiles its expressions through.
+	 */
+	public CompiledPatternCache getPatternCache() {
+		return patterns;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T cast(Object object) {
+		return (T) object;
+	}
+
+	/**
+	 * Creates {@link RegexSearchEngine}s.
+	 */
+	public static class Builder<T extends RdapObject> {
+
+		private final List<Object> objects = new ArrayList<>();
+		private final List<String> texts = new ArrayList<>();
+		private final List<Integer> owners = new ArrayList<>();
+		private long stepLimit = StepBudget.DEFAULT_STEPS;
+
+		/**
+		 * Makes <code>object</code> searchable through <code>searchable</code>.
+		 * <code>null</code> texts are ignored.
+		 */
+		public Builder<T> add(T object, String... searchable) {
+			int owner = objects.size();
+			objects.add(object);
+			for (String text : searchable) {
+				if (text != null) {
+					texts.add(text);
+					owners.add(owner);
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Makes <code>object</code> searchable through <code>searchable</code>.
+		 * <code>null</code> texts are ignored.
+		 */
+		public Builder<T> add(T object, Iterable<String> searchable) {
+			int owner = objects.size();
+			objects.add(object);
+			for (String text : searchable) {
+				if (text != null) {
+					texts.add(text);
+					owners.add(owner);
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Sets the size of the {@link StepBudget} every search will get.
+		 */
+		public Builder<T> setStepLimit(long stepLimit) {
+			this.stepLimit = stepLimit;
+			return this;
+		}
+
+		public RegexSearchEngine<T> build() {
+			return build(new CompiledPatternCache());
+		}
+
+		/**
+		 * Builds an engine that will share <code>patterns</code> with other
+		 * engines.
+		 */
+		public RegexSearchEngine<T> build(CompiledPatternCache patterns) {
+			return new RegexSearchEngine<>(this, patterns);
+		}
+
+	}
+
+}
@@ -0,0 +1,299 @@
+package mx.nic.rdap.db.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Extracts, from a regular expression, literal strings every match is bound
+ * to contain.
+ * <p>
+ * The analysis is deliberately conservative: it only looks at the top-level
+ * sequence of the expression, and any construct it does not fully understand
+ * (groups, classes, most escapes) simply ends the current literal. Escapes it
+ * does not recognize end the analysis altogether, since it cannot tell how
+ * many characters they span. The result might therefore miss required
+ * literals, but it never reports one that isn't required, which is all a
+ * prefilter needs.
+ */
+public class RequiredLiterals {
+
+	/**
+	 * Letters that, escaped, stand for a character, a class or an anchor, and
+	 * take no operands.
+	 */
+	private static final String OPERANDLESS_ESCAPES = "tnrfaedDsSwWhHvVRXbBAGZz";
+
+	private RequiredLiterals() {
+		// No code.
+	}
+
+	/**
+	 * Returns the literals (lowercased) every string matched by
+	 * <code>regex</code> must contain. Returns an empty list if nothing can be
+	 * inferred.
+	 */
+	public static List<String> extract(String regex) {
+		List<String> result = new ArrayList<>();
+		if (hasTopLevelAlternation(regex) || hasCommentsFlag(regex)) {
+			return result;
+		}
+
+		StringBuilder current = new StringBuilder();
+		int i = 0;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			switch (c) {
+			case '\\':
+				if (i + 1 < regex.length() && isEscapedLiteral(regex.charAt(i + 1))) {
+					current.append(regex.charAt(i + 1));
+					i += 2;
+					break;
+				}
+				flush(current, result);
+				i = skipEscape(regex, i);
+				if (i == -1) {
+					return result;
+				}
+				break;
+			case '*':
+			case '?':
+				// The previous character was optional after all.
+				dropLast(current);
+				flush(current, result);
+				i = skipLazyOrPossessive(regex, i + 1);
+				break;
+			case '+':
+				// The previous character is required, but what follows might
+				// not be adjacent to it.
+				flush(current, result);
+				i = skipLazyOrPossessive(regex, i + 1);
+				break;
+			case '{':
+				int end = regex.indexOf('}', i);
+				if (end == -1) {
+					// java.util.regex would reject this anyway.
+					return new ArrayList<>();
+				}
+				if (!hasPositiveMinimum(regex.substring(i + 1, end))) {
+					dropLast(current);
+				}
+				flush(current, result);
+				i = skipLazyOrPossessive(regex, end + 1);
+				break;
+			case '(':
+				flush(current, result);
+				i = skipGroup(regex, i);
+				if (i < regex.length() && isQuantifier(regex.charAt(i))) {
+					i = skipQuantifier(regex, i);
+				}
+				break;
+			case '[':
+				flush(current, result);
+				i = skipClass(regex, i);
+				break;
+			case '.':
+			case '^':
+			case '$':
+				flush(current, result);
+				i++;
+				break;
+			default:
+				current.append(c);
+				i++;
+			}
+		}
+		flush(current, result);
+		return result;
+	}
+
+	private static boolean hasTopLevelAlternation(String regex) {
+		int depth = 0;
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				i = skipClass(regex, i) - 1;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (c == '|' && depth == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Comments mode changes the meaning of whitespace, which this class does
+	 * not account for.
+	 */
+	private static boolean hasCommentsFlag(String regex) {
+		for (int i = regex.indexOf("(?"); i != -1; i = regex.indexOf("(?", i + 2)) {
+			for (int j = i + 2; j < regex.length() && Character.isLetter(regex.charAt(j)); j++) {
+				if (regex.charAt(j) == 'x') {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the <code>{min,max}</code> quantifier whose body is
+	 * <code>body</code> requires at least one repetition.
+	 */
+	private static boolean hasPositiveMinimum(String body) {
+		int comma = body.indexOf(',');
+		String min = (comma == -1) ? body : body.substring(0, comma);
+		try {
+			return Integer.parseInt(min.trim()) > 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/** Escapes that stand for the escaped character itself. */
+	private static boolean isEscapedLiteral(char c) {
+		return !Character.isLetterOrDigit(c);
+	}
+
+	/**
+	 * Returns the index that follows the escape that starts at
+	 * <code>i</code>, or -1 if the escape is not recognized (eg.
+	 * backreferences, whose length depends on the number of groups, and
+	 * <code>\\Q</code> quotes).
+	 */
+	private static int skipEscape(String regex, int i) {
+		if (i + 1 >= regex.length()) {
+			return regex.length();
+		}
+		char escaped = regex.charAt(i + 1);
+		int operand = i + 2;
+		if (OPERANDLESS_ESCAPES.indexOf(escaped) != -1) {
+			return operand;
+		}
+		switch (escaped) {
+		case 'x':
+			return (operand < regex.length() && regex.charAt(operand) == '{') ? skipPast(regex, operand, '}')
+					: Math.min(operand + 2, regex.length());
+		case 'u':
+			return Math.min(operand + 4, regex.length());
+		case '0':
+			int end = operand;
+			while (end < regex.length() && end < operand + 3 && isOctalDigit(regex.charAt(end))) {
+				end++;
+			}
+			return end;
+		case 'c':
+			return Math.min(operand + 1, regex.length());
+		case 'k':
+			return skipPast(regex, operand, '>');
+		case 'p':
+		case 'P':
+			return (operand < regex.length() && regex.charAt(operand) == '{') ? skipPast(regex, operand, '}')
+					: Math.min(operand + 1, regex.length());
+		case 'N':
+			return skipPast(regex, operand, '}');
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the index that follows the first <code>terminator</code> found
+	 * at or after <code>i</code>.
+	 */
+	private static int skipPast(String regex, int i, char terminator) {
+		int end = regex.indexOf(terminator, i);
+		return (end == -1) ? regex.length() : end + 1;
+	}
+
+	private static boolean isOctalDigit(char c) {
+		return '0' <= c && c <= '7';
+	}
+
+	private static boolean isQuantifier(char c) {
+		return c == '*' || c == '?' || c == '+' || c == '{';
+	}
+
+	private static int skipQuantifier(String regex, int i) {
+		if (regex.charAt(i) == '{') {
+			int end = regex.indexOf('}', i);
+			i = (end == -1) ? regex.length() : end + 1;
+		} else {
+			i++;
+		}
+		return skipLazyOrPossessive(regex, i);
+	}
+
+	private static int skipLazyOrPossessive(String regex, int i) {
+		if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+			return i + 1;
+		}
+		return i;
+	}
+
+	/** Returns the index that follows the group that starts at <code>i</code>. */
+	private static int skipGroup(String regex, int i) {
+		int depth = 0;
+		for (; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				i = skipClass(regex, i) - 1;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					return i + 1;
+				}
+			}
+		}
+		return regex.length();
+	}
+
+	/** Returns the index that follows the class that starts at <code>i</code>. */
+	private static int skipClass(String regex, int i) {
+		i++;
+		if (i < regex.length() && regex.charAt(i) == '^') {
+			i++;
+		}
+		if (i < regex.length() && regex.charAt(i) == ']') {
+			i++; // Literal ']' at the start of the class.
+		}
+		int depth = 1;
+		for (; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+				if (depth == 0) {
+					return i + 1;
+				}
+			}
+		}
+		return regex.length();
+	}
+
+	private static void dropLast(StringBuilder current) {
+		if (current.length() > 0) {
+			current.setLength(current.length() - 1);
+		}
+	}
+
+	private static void flush(StringBuilder current, List<String> result) {
+		if (current.length() > 0) {
+			result.add(current.toString().toLowerCase(Locale.ROOT));
+			current.setLength(0);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package mx.nic.rdap.db.regex;
+
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+
+/**
+ * Amount of work a single regular expression query is allowed to perform.
+ * <p>
+ * One step is roughly one automaton state visited while reading one
+ * character, so the budget bounds the CPU time of the query regardless of the
+ * expression or the data. A budget is meant to be shared by every text the
+ * query scans, and it is not thread-safe.
+ */
+public class StepBudget {
+
+	/** Default steps per query; in the order of tens of milliseconds of CPU. */
+	public static final long DEFAULT_STEPS = 20000000L;
+
+	private final long limit;
+	private long remaining;
+
+	public StepBudget(long limit) {
+		this.limit = limit;
+		this.remaining = limit;
+	}
+
+	/**
+	 * Spends <code>steps</code> steps.
+	 *
+	 * @throws UnprocessableEntityException
+	 *             The budget ran out.
+	 */
+	public void consume(long steps) throws UnprocessableEntityException {
+		remaining -= steps;
+		if (remaining < 0) {
+			throw exhausted();
+		}
+	}
+
+	/**
+	 * Returns whether there are steps left.
+	 */
+	public boolean hasRemaining() {
+		return remaining >= 0;
+	}
+
+	/**
+	 * Returns the number of steps that have been spent so far.
+	 */
+	public long getSpent() {
+		return limit - Math.max(remaining, 0);
+	}
+
+	UnprocessableEntityException exhausted() {
+		return new UnprocessableEntityException("The regular expression is too expensive to evaluate. (It ran out of its "
+				+ limit + " step budget.)");
+	}
+
+}
@@ -0,0 +1,172 @@
+package mx.nic.rdap.db.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable inverted index from trigrams (substrings of length 3) to the texts
+ * that contain them.
+ * <p>
+ * Texts are identified by their position in the array the index was built
+ * from. Posting lists are sorted <code>int[]</code>s, stored in an
+ * open-addressing table keyed by the trigram packed into a <code>long</code>.
+ * Text and queries are lowercased, so the index is case-insensitive.
+ */
+public class TrigramIndex {
+
+	private static final int[] EMPTY = new int[0];
+
+	private final int textCount;
+	/** Packed trigrams. 0 means empty slot. */
+	private final long[] keys;
+	private final int[][] postings;
+	private final int mask;
+
+	/**
+	 * Indexes <code>texts</code>. The index of each text in the array becomes
+	 * its identifier. <code>null</code> texts are skipped.
+	 */
+	public TrigramIndex(String[] texts) {
+		this.textCount = texts.length;
+
+		Map<Long, IntList> lists = new HashMap<>();
+		for (int id = 0; id < texts.length; id++) {
+			if (texts[id] == null) {
+				continue;
+			}
+			String text = texts[id].toLowerCase(Locale.ROOT);
+			for (int i = 0; i + 3 <= text.length(); i++) {
+				IntList list = lists.computeIfAbsent(pack(text, i), trigram -> new IntList());
+				list.addUnique(id);
+			}
+		}
+
+		int capacity = Integer.highestOneBit(Math.max(4, lists.size() * 2 - 1)) << 1;
+		this.keys = new long[capacity];
+		this.postings = new int[capacity][];
+		this.mask = capacity - 1;
+		for (Map.Entry<Long, IntList> entry : lists.entrySet()) {
+			long key = entry.getKey();
+			int slot = slot(key);
+			while (keys[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			postings[slot] = entry.getValue().toArray();
+		}
+	}
+
+	/**
+	 * Returns the sorted identifiers of the texts that contain every trigram of
+	 * every literal in <code>literals</code>.
+	 * <p>
+	 * Returns <code>null</code> if the literals are too short to narrow the
+	 * search (ie. every text is a candidate).
+	 */
+	public int[] candidates(Collection<String> literals) {
+		List<int[]> lists = new ArrayList<>();
+		for (String literal : literals) {
+			String text = literal.toLowerCase(Locale.ROOT);
+			for (int i = 0; i + 3 <= text.length(); i++) {
+				int[] list = get(pack(text, i));
+				if (list.length == 0) {
+					return EMPTY;
+				}
+				lists.add(list);
+			}
+		}
+		if (lists.isEmpty()) {
+			return null;
+		}
+
+		// Intersect the shortest lists first; the result only shrinks.
+		lists.sort((a, b) -> Integer.compare(a.length, b.length));
+		int[] result = lists.get(0);
+		for (int i = 1; i < lists.size() && result.length > 0; i++) {
+			result = intersect(result, lists.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of texts this index was built from.
+	 */
+	public int getTextCount() {
+		return textCount;
+	}
+
+	private int[] get(long key) {
+		int slot = slot(key);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				return postings[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return EMPTY;
+	}
+
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	/**
+	 * Packs the three characters that start at <code>offset</code>. The
+	 * result is never zero, so zero can mean "empty slot".
+	 */
+	private static long pack(String text, int offset) {
+		return (1L << 48) | ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16)
+				| text.charAt(offset + 2);
+	}
+
+	private static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[size++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Growable list of ascending ints.
+	 */
+	private static class IntList {
+
+		private int[] values = new int[4];
+		private int size;
+
+		/** Ids arrive in ascending order, so duplicates are always adjacent. */
+		private void addUnique(int value) {
+			if (size > 0 && values[size - 1] == value) {
+				return;
+			}
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+	}
+
+}
@@ -0,0 +1,77 @@
+package mx.nic.rdap.db.replica;
+
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+
+/**
+ * One of the backends of a {@link ReplicaSet}, along with what has been
+ * observed of it.
+ */
+class Replica {
+
+	/** Weight of the newest measurement in the latency average. */
+	private static final double ALPHA = 0.1;
+	/** Consecutive failures after which the replica is left out. */
+	private static final int FAILURE_THRESHOLD = 3;
+
+	private final String name;
+	private final DataAccessImplementation implementation;
+	private final long retryIntervalNanos;
+
+	private double averageLatency;
+	private int consecutiveFailures;
+	private long unhealthyUntil;
+
+	Replica(String name, DataAccessImplementation implementation, long retryIntervalMillis) {
+		this.name = name;
+		this.implementation = implementation;
+		this.retryIntervalNanos = retryIntervalMillis * 1000000L;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	DataAccessImplementation getImplementation() {
+		return implementation;
+	}
+
+	synchronized void recordSuccess(long latencyNanos) {
+		averageLatency = (averageLatency == 0)
+				? latencyNanos
+				: (averageLatency + ALPHA * (latencyNanos - averageLatency));
+		consecutiveFailures = 0;
+	}
+
+	/**
+	 * Records an answer whose latency is meaningless (eg. it lost a hedge), but
+	 * which proves the replica works.
+	 */
+	synchronized void recordAnswer() {
+		consecutiveFailures = 0;
+	}
+
+	synchronized void recordFailure() {
+		if (++consecutiveFailures >= FAILURE_THRESHOLD) {
+			unhealthyUntil = System.nanoTime() + retryIntervalNanos;
+			consecutiveFailures = 0;
+		}
+	}
+
+	/**
+	 * Returns the average latency of the replica's lookups, in nanoseconds.
+	 * Zero if it hasn't been measured yet.
+	 */
+	synchronized double getAverageLatency() {
+		return averageLatency;
+	}
+
+	/**
+	 * Returns whether the replica should be tried before the failing ones.
+	 * Failing replicas become healthy again once their retry interval is over,
+	 * so they get a chance to prove they recovered.
+	 */
+	synchronized boolean isHealthy() {
+		return unhealthyUntil == 0 || unhealthyUntil - System.nanoTime() <= 0;
+	}
+
+}
@@ -0,0 +1,17 @@
+package mx.nic.rdap.db.replica;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+
+/**
+ * A DAO call that can be performed on any replica.
+ *
+ * @param <T>
+ *            the return type of the DAO method.
+ */
+@FunctionalInterface
+interface ReplicaCall<T> {
+
+	public T call(DataAccessImplementation replica) throws RdapDataAccessException;
+
+}
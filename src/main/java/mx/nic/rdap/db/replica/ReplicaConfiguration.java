@@ -0,0 +1,116 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the {@link ReplicatedDataAccessImplementation}, as read
+ * from the user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>replica.names</code>: Comma-separated names of the replicas.
+ * Mandatory.</li>
+ * <li><code>replica.data-access-implementation</code>: Class of the
+ * {@link mx.nic.rdap.db.spi.DataAccessImplementation} of the replicas.
+ * Mandatory, unless every replica defines its own.</li>
+ * <li><code>replica.&lt;name&gt;.data-access-implementation</code>: Class of
+ * the implementation of replica <code>&lt;name&gt;</code>, if it differs.</li>
+ * <li><code>replica.&lt;name&gt;.&lt;property&gt;</code>: Value of
+ * <code>&lt;property&gt;</code> for replica <code>&lt;name&gt;</code>. (eg.
+ * its database URL.) Every replica is initialized with the whole
+ * configuration, overridden by its own properties.</li>
+ * <li><code>replica.hedging</code>: Whether lookups that take longer than
+ * usual should be repeated on a second replica. Default:
+ * <code>true</code>.</li>
+ * <li><code>replica.initial-hedge-delay</code>: Milliseconds a lookup waits
+ * before it's repeated, until there are enough measurements to use the 95th
+ * percentile instead. Default: {@value #DEFAULT_INITIAL_HEDGE_DELAY}.</li>
+ * <li><code>replica.retry-interval</code>: Milliseconds a replica that keeps
+ * failing is left out of the rotation. Default:
+ * {@value #DEFAULT_RETRY_INTERVAL}.</li>
+ * </ul>
+ */
+public class ReplicaConfiguration {
+
+	private static final String PREFIX = "replica.";
+	public static final String NAMES_PROPERTY = "replica.names";
+	public static final String IMPLEMENTATION_PROPERTY = "data-access-implementation";
+	private static final String HEDGING_PROPERTY = "replica.hedging";
+	private static final String INITIAL_HEDGE_DELAY_PROPERTY = "replica.initial-hedge-delay";
+	private static final String RETRY_INTERVAL_PROPERTY = "replica.retry-interval";
+
+	public static final long DEFAULT_INITIAL_HEDGE_DELAY = 50;
+	public static final long DEFAULT_RETRY_INTERVAL = 10000;
+
+	private final List<String> names;
+	private final boolean hedging;
+	private final long initialHedgeDelay;
+	private final long retryInterval;
+	private final Properties config;
+
+	public ReplicaConfiguration(Properties config) throws InitializationException {
+		List<String> names = ConfigurationUtils.getList(config, NAMES_PROPERTY);
+		if (names.isEmpty()) {
+			throw new InitializationException("The '" + NAMES_PROPERTY + "' property is mandatory.");
+		}
+
+		this.names = Collections.unmodifiableList(names);
+		this.hedging = ConfigurationUtils.getBoolean(config, HEDGING_PROPERTY, true);
+		this.initialHedgeDelay = ConfigurationUtils.getLong(config, INITIAL_HEDGE_DELAY_PROPERTY,
+				DEFAULT_INITIAL_HEDGE_DELAY);
+		this.retryInterval = ConfigurationUtils.getLong(config, RETRY_INTERVAL_PROPERTY, DEFAULT_RETRY_INTERVAL);
+		this.config = config;
+	}
+
+	public List<String> getNames() {
+		return names;
+	}
+
+	/**
+	 * Returns the class name of the implementation of replica
+	 * <code>name</code>.
+	 */
+	public String getImplementation(String name) throws InitializationException {
+		String result = ConfigurationUtils.getString(config, PREFIX + name + "." + IMPLEMENTATION_PROPERTY);
+		if (result == null) {
+			result = ConfigurationUtils.getString(config, PREFIX + IMPLEMENTATION_PROPERTY);
+		}
+		if (result == null) {
+			throw new InitializationException("Replica '" + name + "' lacks a data access implementation.");
+		}
+		return result.trim();
+	}
+
+	/**
+	 * Returns the configuration replica <code>name</code> should be
+	 * initialized with.
+	 */
+	public Properties getProperties(String name) {
+		return ConfigurationUtils.overlay(config, PREFIX + name + ".");
+	}
+
+	public boolean isHedging() {
+		return hedging;
+	}
+
+	/**
+	 * Returns the hedge delay to use before the percentile is known, in
+	 * milliseconds.
+	 */
+	public long getInitialHedgeDelay() {
+		return initialHedgeDelay;
+	}
+
+	/**
+	 * Returns the milliseconds a failing replica is left out of the rotation.
+	 */
+	public long getRetryInterval() {
+		return retryInterval;
+	}
+
+}
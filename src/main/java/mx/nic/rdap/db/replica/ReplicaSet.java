@@ -0,0 +1,267 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import mx.nic.rdap.db.deadline.Deadline;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+import mx.nic.rdap.db.exception.http.HttpException;
+import mx.nic.rdap.db.exception.http.ServiceUnavailableException;
+import mx.nic.rdap.db.fetch.FetchPlan;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.metrics.LatencyHistogram;
+
+/**
+ * Routes DAO calls to a set of equivalent backends.
+ * <p>
+ * Every call goes to the fastest healthy replica first (by average lookup
+ * latency), and fails over to the next one if the replica breaks. (Answers
+ * such as "not found" are not failures; overload and time outs are.)
+ * <p>
+ * Lookups and counts are also hedged: if the first replica takes longer than
+ * the 95th percentile of the previous window of lookups, the call is repeated
+ * on the second replica, and the first answer wins. This bounds the damage a
+ * single slow replica can do to the tail latency, at the cost of a few percent
+ * more lookups. Searches are not hedged, because they are too expensive to
+ * duplicate.
+ */
+class ReplicaSet {
+
+	/** Lookups per hedge delay window. */
+	private static final int WINDOW = 1000;
+	private static final double HEDGE_PERCENTILE = 95;
+
+	private final List<Replica> replicas;
+	private final boolean hedging;
+	private final ExecutorService executor;
+
+	private LatencyHistogram window = new LatencyHistogram();
+	private volatile long hedgeDelayNanos;
+
+	ReplicaSet(List<Replica> replicas, ReplicaConfiguration config, ExecutorService executor) {
+		this.replicas = replicas;
+		this.hedging = config.isHedging() && replicas.size() > 1;
+		this.executor = executor;
+		this.hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.getInitialHedgeDelay());
+	}
+
+	/**
+	 * Performs <code>call</code> on the best replica, hedging it if
+	 * <code>operation</code> is a lookup or a count.
+	 */
+	<T> T call(DAOOperation operation, ReplicaCall<T> call) throws RdapDataAccessException {
+		switch (operation.getOperationClass()) {
+		case LOOKUP:
+		case COUNT:
+			return hedging ? hedge(call) : route(call, true);
+		case SEARCH:
+		case REGEX_SEARCH:
+			break;
+		}
+		return route(call);
+	}
+
+	/**
+	 * Performs <code>call</code> on the best replica, on the current thread,
+	 * failing over to the others if necessary. Its latency is not recorded,
+	 * since it is not a lookup.
+	 */
+	<T> T route(ReplicaCall<T> call) throws RdapDataAccessException {
+		return route(call, false);
+	}
+
+	/**
+	 * Same as {@link #route(ReplicaCall)}, but records the latency of the
+	 * answer if <code>measured</code>, so the replicas can still be ranked
+	 * when lookups are not hedged.
+	 */
+	private <T> T route(ReplicaCall<T> call, boolean measured) throws RdapDataAccessException {
+		RdapDataAccessException lastFailure = null;
+		for (Replica replica : rank()) {
+			long start = System.nanoTime();
+			try {
+				T result = call.call(replica.getImplementation());
+				recordAnswer(replica, measured, System.nanoTime() - start);
+				return result;
+			} catch (RdapDataAccessException | RuntimeException e) {
+				if (isAnswer(e)) {
+					recordAnswer(replica, measured, System.nanoTime() - start);
+					throw e;
+				}
+				replica.recordFailure();
+				lastFailure = asDataAccessException(replica, e);
+			}
+		}
+		throw lastFailure;
+	}
+
+	private void recordAnswer(Replica replica, boolean measured, long latencyNanos) {
+		if (measured) {
+			record(replica, latencyNanos);
+		} else {
+			replica.recordAnswer();
+		}
+	}
+
+	private <T> T hedge(ReplicaCall<T> call) throws RdapDataAccessException {
+		List<Replica> ranked = rank();
+		BlockingQueue<Outcome<T>> outcomes = new LinkedBlockingQueue<>();
+		Deadline deadline = Deadline.current();
+
+		launch(ranked.get(0), call, outcomes, deadline);
+		int launched = 1;
+		int pending = 1;
+		boolean hedged = false;
+		RdapDataAccessException lastFailure = null;
+
+		while (true) {
+			long waitNanos = hedged ? Long.MAX_VALUE : hedgeDelayNanos;
+			if (deadline != null) {
+				waitNanos = Math.min(waitNanos, Math.max(deadline.remaining(TimeUnit.NANOSECONDS), 0));
+			}
+
+			Outcome<T> outcome;
+			try {
+				outcome = outcomes.poll(waitNanos, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RdapDataAccessException("Interrupted while waiting for a replica.", e);
+			}
+
+			if (outcome == null) {
+				if (deadline != null && deadline.isExpired()) {
+					throw new GatewayTimeoutException("No replica answered in time.");
+				}
+				// Slower than usual; ask another replica too.
+				hedged = true;
+				if (launched < ranked.size()) {
+					launch(ranked.get(launched++), call, outcomes, deadline);
+					pending++;
+				}
+				continue;
+			}
+
+			pending--;
+			if (outcome.failure == null || isAnswer(outcome.failure)) {
+				return outcome.get();
+			}
+			lastFailure = asDataAccessException(outcome.replica, outcome.failure);
+			if (launched < ranked.size()) {
+				launch(ranked.get(launched++), call, outcomes, deadline);
+				pending++;
+			} else if (pending == 0) {
+				throw lastFailure;
+			}
+		}
+	}
+
+	@SuppressWarnings("try") // The scopes are bound, not referenced.
+	private <T> void launch(Replica replica, ReplicaCall<T> call, BlockingQueue<Outcome<T>> outcomes,
+			Deadline deadline) {
+		FetchPlan plan = FetchPlan.current();
+		Runnable task = () -> {
+			long start = System.nanoTime();
+			try (Deadline.Scope scope = (deadline != null) ? deadline.bind() : null;
+					FetchPlan.Scope planScope = plan.bind()) {
+				T result = call.call(replica.getImplementation());
+				record(replica, System.nanoTime() - start);
+				outcomes.add(new Outcome<>(replica, result, null));
+			} catch (RdapDataAccessException | RuntimeException e) {
+				if (isAnswer(e)) {
+					record(replica, System.nanoTime() - start);
+				} else {
+					replica.recordFailure();
+				}
+				outcomes.add(new Outcome<>(replica, null, e));
+			}
+		};
+
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			outcomes.add(new Outcome<>(replica, null, e));
+		}
+	}
+
+	private void record(Replica replica, long latencyNanos) {
+		replica.recordSuccess(latencyNanos);
+		synchronized (this) {
+			window.record(latencyNanos);
+			if (window.getCount() >= WINDOW) {
+				hedgeDelayNanos = window.getPercentile(HEDGE_PERCENTILE);
+				window = new LatencyHistogram();
+			}
+		}
+	}
+
+	/**
+	 * Returns the replicas in the order they should be tried: the healthy ones
+	 * first, fastest first.
+	 */
+	private List<Replica> rank() {
+		List<Replica> result = new ArrayList<>(replicas);
+		Collections.sort(result, Comparator.comparing((Replica replica) -> !replica.isHealthy())
+				.thenComparingDouble(Replica::getAverageLatency));
+		return result;
+	}
+
+	/**
+	 * Returns whether <code>e</code> is a legitimate answer of the replica
+	 * (eg. "not found"), as opposed to a sign that the replica is in trouble.
+	 */
+	private static boolean isAnswer(Exception e) {
+		return e instanceof HttpException && !(e instanceof ServiceUnavailableException)
+				&& !(e instanceof GatewayTimeoutException);
+	}
+
+	private static RdapDataAccessException asDataAccessException(Replica replica, Exception e) {
+		if (e instanceof RdapDataAccessException) {
+			return (RdapDataAccessException) e;
+		}
+		return new RdapDataAccessException("Replica '" + replica.getName() + "' failed.", e);
+	}
+
+	/**
+	 * Returns the current hedge delay, in nanoseconds.
+	 */
+	long getHedgeDelay() {
+		return hedgeDelayNanos;
+	}
+
+	List<Replica> getReplicas() {
+		return replicas;
+	}
+
+	private static class Outcome<T> {
+
+		private final Replica replica;
+		private final T result;
+		private final Exception failure;
+
+		private Outcome(Replica replica, T result, Exception failure) {
+			this.replica = replica;
+			this.result = result;
+			this.failure = failure;
+		}
+
+		private T get() throws RdapDataAccessException {
+			if (failure instanceof RdapDataAccessException) {
+				throw (RdapDataAccessException) failure;
+			}
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+/**
+ * {@link AutnumDAO} of the {@link ReplicatedDataAccessImplementation}.
+ */
+class ReplicatedAutnumDAO implements AutnumDAO {
+
+	private final ReplicaSet replicas;
+
+	ReplicatedAutnumDAO(ReplicaSet replicas) {
+		this.replicas = replicas;
+	}
+
+	@Override
+	public Autnum getByRange(long autnum) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.AUTNUM_GET_BY_RANGE, replica -> replica.getAutnumDAO().getByRange(autnum));
+	}
+
+	@Override
+	public List<Autnum> getByRanges(Collection<Long> autnums) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getAutnumDAO().getByRanges(autnums));
+	}
+
+	@Override
+	public boolean existsByRange(long autnum) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.AUTNUM_EXISTS_BY_RANGE,
+				replica -> replica.getAutnumDAO().existsByRange(autnum));
+	}
+
+}
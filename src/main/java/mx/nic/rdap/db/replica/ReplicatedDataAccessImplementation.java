@@ -0,0 +1,145 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+import mx.nic.rdap.db.util.DaemonThreadFactory;
+
+/**
+ * {@link DataAccessImplementation} that spreads the DAO calls over several
+ * equivalent backends (eg. read replicas of the same database), and hedges
+ * the lookups so one slow replica does not drag the tail latency down. (See
+ * {@link ReplicaSet}.)
+ * <p>
+ * The replicas are implementations themselves, instantiated and initialized
+ * by this one as requested by the {@link ReplicaConfiguration}. They are
+ * expected to serve the same data, and to provide the same DAOs; the first
+ * replica decides which ones are available.
+ * <p>
+ * Not listed in META-INF/services; select it through the
+ * <code>data-access-implementation</code> property.
+ */
+public class ReplicatedDataAccessImplementation implements DataAccessImplementation, AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(ReplicatedDataAccessImplementation.class.getName());
+
+	private ReplicaSet replicas;
+
+	private List<Replica> replicaList;
+	private ExecutorService executor;
+
+	private AutnumDAO autnumDAO;
+	private DomainDAO domainDAO;
+	private EntityDAO entityDAO;
+	private IpNetworkDAO ipNetworkDAO;
+	private NameserverDAO nameserverDAO;
+	private RdapUserDAO rdapUserDAO;
+
+	@Override
+	public void init(Properties properties) throws InitializationException {
+		ReplicaConfiguration config = new ReplicaConfiguration(properties);
+
+		replicaList = new ArrayList<>();
+		for (String name : config.getNames()) {
+			DataAccessImplementation implementation = instantiate(config.getImplementation(name));
+			implementation.init(config.getProperties(name));
+			replicaList.add(new Replica(name, implementation, config.getRetryInterval()));
+		}
+		executor = Executors.newCachedThreadPool(new DaemonThreadFactory("rdap-replica-"));
+		replicas = new ReplicaSet(replicaList, config, executor);
+
+		DataAccessImplementation first = replicaList.get(0).getImplementation();
+		try {
+			autnumDAO = (first.getAutnumDAO() != null) ? new ReplicatedAutnumDAO(replicas) : null;
+			domainDAO = (first.getDomainDAO() != null) ? new ReplicatedDomainDAO(replicas) : null;
+			entityDAO = (first.getEntityDAO() != null) ? new ReplicatedEntityDAO(replicas) : null;
+			ipNetworkDAO = (first.getIpNetworkDAO() != null) ? new ReplicatedIpNetworkDAO(replicas) : null;
+			NameserverDAO firstNameserverDAO = first.getNameserverDAO();
+			nameserverDAO = (firstNameserverDAO != null)
+					? new ReplicatedNameserverDAO(replicas, firstNameserverDAO.isNameserverSharingNameConformance())
+					: null;
+			rdapUserDAO = (first.getRdapUserDAO() != null) ? new ReplicatedRdapUserDAO(replicas) : null;
+		} catch (RdapDataAccessException e) {
+			throw new InitializationException("Could not retrieve the DAOs of the first replica.", e);
+		}
+
+		logger.info("Replicated data access initialized: " + config.getNames());
+	}
+
+	private static DataAccessImplementation instantiate(String className) throws InitializationException {
+		try {
+			return (DataAccessImplementation) Class.forName(className).newInstance();
+		} catch (InstantiationException | IllegalAccessException | ClassNotFoundException | ClassCastException e) {
+			throw new InitializationException("Could not instantiate replica class " + className + ".", e);
+		}
+	}
+
+	/**
+	 * Stops the replica threads, and closes the replicas that can be closed.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+		for (Replica replica : replicaList) {
+			if (replica.getImplementation() instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) replica.getImplementation()).close();
+				} catch (Exception e) {
+					logger.log(Level.WARNING, "Could not close replica '" + replica.getName() + "'.", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public AutnumDAO getAutnumDAO() {
+		return autnumDAO;
+	}
+
+	@Override
+	public DomainDAO getDomainDAO() {
+		return domainDAO;
+	}
+
+	@Override
+	public EntityDAO getEntityDAO() {
+		return entityDAO;
+	}
+
+	@Override
+	public IpNetworkDAO getIpNetworkDAO() {
+		return ipNetworkDAO;
+	}
+
+	@Override
+	public NameserverDAO getNameserverDAO() {
+		return nameserverDAO;
+	}
+
+	@Override
+	public RdapUserDAO getRdapUserDAO() {
+		return rdapUserDAO;
+	}
+
+	/**
+	 * Returns the milliseconds a lookup currently waits before it's hedged.
+	 */
+	public long getHedgeDelay() {
+		return replicas.getHedgeDelay() / 1000000L;
+	}
+
+}
@@ -0,0 +1,159 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link DomainDAO} of the {@link ReplicatedDataAccessImplementation}.
+ */
+class ReplicatedDomainDAO implements DomainDAO {
+
+	private final ReplicaSet replicas;
+
+	ReplicatedDomainDAO(ReplicaSet replicas) {
+		this.replicas = replicas;
+	}
+
+	@Override
+	public Domain getByName(DomainLabel domainLabel) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_GET_BY_NAME, replica -> replica.getDomainDAO().getByName(domainLabel));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_SEARCH_BY_NAME,
+				replica -> replica.getDomainDAO().searchByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsLDHName(DomainLabel nsName, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_SEARCH_BY_NS_LDH_NAME,
+				replica -> replica.getDomainDAO().searchByNsLDHName(nsName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_SEARCH_BY_NS_IP,
+				replica -> replica.getDomainDAO().searchByNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexName(String regexName, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NAME,
+				replica -> replica.getDomainDAO().searchByRegexName(regexName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NS_LDH_NAME,
+				replica -> replica.getDomainDAO().searchByRegexNsLDHName(regexNsName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> searchByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_SEARCH_BY_REGEX_NS_IP,
+				replica -> replica.getDomainDAO().searchByRegexNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByName(DomainLabel namePattern, int resultLimit) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getDomainDAO().cursorByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByNsLDHName(DomainLabel nsName, int resultLimit) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getDomainDAO().cursorByNsLDHName(nsName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getDomainDAO().cursorByNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByRegexName(String regexName, int resultLimit) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getDomainDAO().cursorByRegexName(regexName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getDomainDAO().cursorByRegexNsLDHName(regexNsName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Domain> cursorByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getDomainDAO().cursorByRegexNsIp(ip, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_PAGE_BY_NAME,
+				replica -> replica.getDomainDAO().pageByName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByNsLDHName(DomainLabel nsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_PAGE_BY_NS_LDH_NAME,
+				replica -> replica.getDomainDAO().pageByNsLDHName(nsName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_PAGE_BY_NS_IP,
+				replica -> replica.getDomainDAO().pageByNsIp(ip, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexName(String regexName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_PAGE_BY_REGEX_NAME,
+				replica -> replica.getDomainDAO().pageByRegexName(regexName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexNsLDHName(String regexNsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_PAGE_BY_REGEX_NS_LDH_NAME,
+				replica -> replica.getDomainDAO().pageByRegexNsLDHName(regexNsName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Domain> pageByRegexNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_PAGE_BY_REGEX_NS_IP,
+				replica -> replica.getDomainDAO().pageByRegexNsIp(ip, cursor, resultLimit));
+	}
+
+	@Override
+	public List<Domain> getByNames(Collection<DomainLabel> domainLabels) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getDomainDAO().getByNames(domainLabels));
+	}
+
+	@Override
+	public boolean exists(DomainLabel domainLabel) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_EXISTS, replica -> replica.getDomainDAO().exists(domainLabel));
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.DOMAIN_COUNT_BY_NAME,
+				replica -> replica.getDomainDAO().countByName(namePattern, countLimit));
+	}
+
+}
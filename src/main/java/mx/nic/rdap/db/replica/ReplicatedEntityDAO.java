@@ -0,0 +1,124 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link EntityDAO} of the {@link ReplicatedDataAccessImplementation}.
+ */
+class ReplicatedEntityDAO implements EntityDAO {
+
+	private final ReplicaSet replicas;
+
+	ReplicatedEntityDAO(ReplicaSet replicas) {
+		this.replicas = replicas;
+	}
+
+	@Override
+	public Entity getByHandle(String entityHandle) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_GET_BY_HANDLE,
+				replica -> replica.getEntityDAO().getByHandle(entityHandle));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_SEARCH_BY_HANDLE,
+				replica -> replica.getEntityDAO().searchByHandle(handle, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_SEARCH_BY_VCARD_NAME,
+				replica -> replica.getEntityDAO().searchByVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_SEARCH_BY_REGEX_HANDLE,
+				replica -> replica.getEntityDAO().searchByRegexHandle(regexHandle, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> searchByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_SEARCH_BY_REGEX_VCARD_NAME,
+				replica -> replica.getEntityDAO().searchByRegexVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getEntityDAO().cursorByHandle(handle, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByVCardName(String vCardName, int resultLimit) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getEntityDAO().cursorByVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getEntityDAO().cursorByRegexHandle(regexHandle, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Entity> cursorByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getEntityDAO().cursorByRegexVCardName(vCardName, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByHandle(String handle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_PAGE_BY_HANDLE,
+				replica -> replica.getEntityDAO().pageByHandle(handle, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_PAGE_BY_VCARD_NAME,
+				replica -> replica.getEntityDAO().pageByVCardName(vCardName, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByRegexHandle(String regexHandle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_PAGE_BY_REGEX_HANDLE,
+				replica -> replica.getEntityDAO().pageByRegexHandle(regexHandle, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Entity> pageByRegexVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_PAGE_BY_REGEX_VCARD_NAME,
+				replica -> replica.getEntityDAO().pageByRegexVCardName(vCardName, cursor, resultLimit));
+	}
+
+	@Override
+	public List<Entity> getByHandles(Collection<String> entityHandles) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getEntityDAO().getByHandles(entityHandles));
+	}
+
+	@Override
+	public boolean existsByHandle(String entityHandle) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_EXISTS_BY_HANDLE,
+				replica -> replica.getEntityDAO().existsByHandle(entityHandle));
+	}
+
+	@Override
+	public int countByHandle(String handle, int countLimit) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.ENTITY_COUNT_BY_HANDLE,
+				replica -> replica.getEntityDAO().countByHandle(handle, countLimit));
+	}
+
+}
@@ -0,0 +1,40 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+
+/**
+ * {@link IpNetworkDAO} of the {@link ReplicatedDataAccessImplementation}.
+ */
+class ReplicatedIpNetworkDAO implements IpNetworkDAO {
+
+	private final ReplicaSet replicas;
+
+	ReplicatedIpNetworkDAO(ReplicaSet replicas) {
+		this.replicas = replicas;
+	}
+
+	@Override
+	public IpNetwork getByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.IP_NETWORK_GET_BY_ADDRESS_BLOCK,
+				replica -> replica.getIpNetworkDAO().getByAddressBlock(block));
+	}
+
+	@Override
+	public List<IpNetwork> getByAddressBlocks(Collection<AddressBlock> blocks) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getIpNetworkDAO().getByAddressBlocks(blocks));
+	}
+
+	@Override
+	public boolean existsByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.IP_NETWORK_EXISTS_BY_ADDRESS_BLOCK,
+				replica -> replica.getIpNetworkDAO().existsByAddressBlock(block));
+	}
+
+}
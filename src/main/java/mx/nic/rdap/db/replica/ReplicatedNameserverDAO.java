@@ -0,0 +1,158 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+/**
+ * {@link NameserverDAO} of the {@link ReplicatedDataAccessImplementation}.
+ */
+class ReplicatedNameserverDAO implements NameserverDAO {
+
+	private final ReplicaSet replicas;
+	private final boolean nameserverSharingNameConformance;
+
+	ReplicatedNameserverDAO(ReplicaSet replicas, boolean nameserverSharingNameConformance) {
+		this.replicas = replicas;
+		this.nameserverSharingNameConformance = nameserverSharingNameConformance;
+	}
+
+	@Override
+	public Nameserver getByName(DomainLabel name) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_GET_BY_NAME,
+				replica -> replica.getNameserverDAO().getByName(name));
+	}
+
+	@Override
+	public Nameserver getByHandle(String handle) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_GET_BY_HANDLE,
+				replica -> replica.getNameserverDAO().getByHandle(handle));
+	}
+
+	@Override
+	public boolean isNameserverSharingNameConformance() {
+		return nameserverSharingNameConformance;
+	}
+
+	@Override
+	public int getNameserverCount(DomainLabel name) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_GET_COUNT,
+				replica -> replica.getNameserverDAO().getNameserverCount(name));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_SEARCH_BY_NAME,
+				replica -> replica.getNameserverDAO().searchByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_SEARCH_BY_IP,
+				replica -> replica.getNameserverDAO().searchByIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_SEARCH_BY_REGEX_NAME,
+				replica -> replica.getNameserverDAO().searchByRegexName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> searchByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_SEARCH_BY_REGEX_IP,
+				replica -> replica.getNameserverDAO().searchByRegexIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getNameserverDAO().cursorByName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getNameserverDAO().cursorByIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getNameserverDAO().cursorByRegexName(namePattern, resultLimit));
+	}
+
+	@Override
+	public SearchCursor<Nameserver> cursorByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getNameserverDAO().cursorByRegexIp(ipaddressPattern, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_PAGE_BY_NAME,
+				replica -> replica.getNameserverDAO().pageByName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_PAGE_BY_IP,
+				replica -> replica.getNameserverDAO().pageByIp(ipaddressPattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByRegexName(String namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_PAGE_BY_REGEX_NAME,
+				replica -> replica.getNameserverDAO().pageByRegexName(namePattern, cursor, resultLimit));
+	}
+
+	@Override
+	public SearchResultStruct<Nameserver> pageByRegexIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_PAGE_BY_REGEX_IP,
+				replica -> replica.getNameserverDAO().pageByRegexIp(ipaddressPattern, cursor, resultLimit));
+	}
+
+	@Override
+	public List<Nameserver> getByNames(Collection<DomainLabel> names) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getNameserverDAO().getByNames(names));
+	}
+
+	@Override
+	public List<Nameserver> getByHandles(Collection<String> handles) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getNameserverDAO().getByHandles(handles));
+	}
+
+	@Override
+	public boolean existsByName(DomainLabel name) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_EXISTS_BY_NAME,
+				replica -> replica.getNameserverDAO().existsByName(name));
+	}
+
+	@Override
+	public boolean existsByHandle(String handle) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_EXISTS_BY_HANDLE,
+				replica -> replica.getNameserverDAO().existsByHandle(handle));
+	}
+
+	@Override
+	public int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.NAMESERVER_COUNT_BY_NAME,
+				replica -> replica.getNameserverDAO().countByName(namePattern, countLimit));
+	}
+
+}
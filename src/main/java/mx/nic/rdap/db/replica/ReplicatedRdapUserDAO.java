@@ -0,0 +1,33 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+/**
+ * {@link RdapUserDAO} of the {@link ReplicatedDataAccessImplementation}.
+ */
+class ReplicatedRdapUserDAO implements RdapUserDAO {
+
+	private final ReplicaSet replicas;
+
+	ReplicatedRdapUserDAO(ReplicaSet replicas) {
+		this.replicas = replicas;
+	}
+
+	@Override
+	public RdapUser getByUsername(String username) throws RdapDataAccessException {
+		return replicas.call(DAOOperation.RDAP_USER_GET_BY_USERNAME,
+				replica -> replica.getRdapUserDAO().getByUsername(username));
+	}
+
+	@Override
+	public List<RdapUser> getByUsernames(Collection<String> usernames) throws RdapDataAccessException {
+		return replicas.route(replica -> replica.getRdapUserDAO().getByUsernames(usernames));
+	}
+
+}
@@ -0,0 +1,200 @@
+package mx.nic.rdap.db.service;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mx.nic.rdap.db.async.AsyncAutnumDAO;
+import mx.nic.rdap.db.async.AsyncDataAccessImplementation;
+import mx.nic.rdap.db.async.AsyncDomainDAO;
+import mx.nic.rdap.db.async.AsyncEntityDAO;
+import mx.nic.rdap.db.async.AsyncIpNetworkDAO;
+import mx.nic.rdap.db.async.AsyncNameserverDAO;
+import mx.nic.rdap.db.async.AsyncRdapUserDAO;
+import mx.nic.rdap.db.auth.UserCache;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.intercept.InterceptedDataAccessImplementation;
+import mx.nic.rdap.db.metrics.MetricsConfiguration;
+import mx.nic.rdap.db.metrics.MetricsInterceptor;
+import mx.nic.rdap.db.paging.PageTokenCodec;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+
+/**
+ * Everything {@link DataAccessService} builds out of a single configuration:
+ * the loaded implementation, its decorators and its asynchronous view.
+ * <p>
+ * Backends are published as a whole, so a request never sees parts of two
+ * different ones.
+ */
+class Backend {
+
+	private static final Logger logger = Logger.getLogger(Backend.class.getName());
+
+	/** The implementation as instantiated, without decorators. */
+	private final DataAccessImplementation loaded;
+	/** {@link #loaded}, decorated. */
+	private final DataAccessImplementation decorated;
+	/** {@link #decorated}, with its DAOs resolved. */
+	private final DataAccessImplementation implementation;
+	private final AsyncDataAccessImplementation asyncImplementation;
+	private final ResolvedDAO<AsyncAutnumDAO> asyncAutnumDAO;
+	private final ResolvedDAO<AsyncDomainDAO> asyncDomainDAO;
+	private final ResolvedDAO<AsyncEntityDAO> asyncEntityDAO;
+	private final ResolvedDAO<AsyncIpNetworkDAO> asyncIpNetworkDAO;
+	private final ResolvedDAO<AsyncNameserverDAO> asyncNameserverDAO;
+	private final ResolvedDAO<AsyncRdapUserDAO> asyncRdapUserDAO;
+	/** Runs the blocking DAOs on behalf of {@link #asyncImplementation}. */
+	private final ExecutorService asyncExecutor;
+	/** Can be null. */
+	private final UserCache userCache;
+	private final InFlightInterceptor inFlight;
+	/** Becomes the default codec when the backend is published. */
+	private final PageTokenCodec pageTokens;
+	private final Properties config;
+
+	Backend(DataAccessImplementation loaded, DataAccessImplementation decorated,
+			DataAccessImplementation implementation, AsyncDataAccessImplementation asyncImplementation,
+			ExecutorService asyncExecutor, UserCache userCache, InFlightInterceptor inFlight,
+			PageTokenCodec pageTokens, Properties config) throws InitializationException {
+		this.loaded = loaded;
+		this.decorated = decorated;
+		this.implementation = implementation;
+		this.asyncImplementation = asyncImplementation;
+		// These are cheap (the blocking DAOs are resolved already), so they are
+		// resolved serially.
+		this.asyncAutnumDAO = resolve("autnum", asyncImplementation::getAsyncAutnumDAO);
+		this.asyncDomainDAO = resolve("domain", asyncImplementation::getAsyncDomainDAO);
+		this.asyncEntityDAO = resolve("entity", asyncImplementation::getAsyncEntityDAO);
+		this.asyncIpNetworkDAO = resolve("IP network", asyncImplementation::getAsyncIpNetworkDAO);
+		this.asyncNameserverDAO = resolve("nameserver", asyncImplementation::getAsyncNameserverDAO);
+		this.asyncRdapUserDAO = resolve("user", asyncImplementation::getAsyncRdapUserDAO);
+		this.asyncExecutor = asyncExecutor;
+		this.userCache = userCache;
+		this.inFlight = inFlight;
+		this.pageTokens = pageTokens;
+		this.config = config;
+	}
+
+	/**
+	 * Returns the implementation, decorated, with its DAOs resolved.
+	 */
+	DataAccessImplementation getImplementation() {
+		return implementation;
+	}
+
+	/**
+	 * Returns the implementation, decorated, as a chain of
+	 * {@link InterceptedDataAccessImplementation}s.
+	 */
+	DataAccessImplementation getDecorated() {
+		return decorated;
+	}
+
+	AsyncDataAccessImplementation getAsyncImplementation() {
+		return asyncImplementation;
+	}
+
+	AsyncAutnumDAO getAsyncAutnumDAO() throws NotImplementedException {
+		return asyncAutnumDAO.get();
+	}
+
+	AsyncDomainDAO getAsyncDomainDAO() throws NotImplementedException {
+		return asyncDomainDAO.get();
+	}
+
+	AsyncEntityDAO getAsyncEntityDAO() throws NotImplementedException {
+		return asyncEntityDAO.get();
+	}
+
+	AsyncIpNetworkDAO getAsyncIpNetworkDAO() throws NotImplementedException {
+		return asyncIpNetworkDAO.get();
+	}
+
+	AsyncNameserverDAO getAsyncNameserverDAO() throws NotImplementedException {
+		return asyncNameserverDAO.get();
+	}
+
+	AsyncRdapUserDAO getAsyncRdapUserDAO() throws NotImplementedException {
+		return asyncRdapUserDAO.get();
+	}
+
+	UserCache getUserCache() {
+		return userCache;
+	}
+
+	PageTokenCodec getPageTokens() {
+		return pageTokens;
+	}
+
+	/**
+	 * Claims the global resources of the backend (ie. the metrics MBeans).
+	 * Called when it's published.
+	 */
+	void activate() throws InitializationException {
+		MetricsInterceptor metrics = findMetrics();
+		if (metrics != null && new MetricsConfiguration(config).isJmxEnabled()) {
+			metrics.registerMBeans();
+		}
+	}
+
+	/**
+	 * Releases the global resources claimed by {@link #activate()}. Called when
+	 * the backend is replaced, before its successor is activated.
+	 */
+	void deactivate() {
+		MetricsInterceptor metrics = findMetrics();
+		if (metrics != null) {
+			metrics.unregisterMBeans();
+		}
+	}
+
+	/**
+	 * Waits (up to <code>drainTimeout</code> milliseconds) for the calls in
+	 * progress, then closes the backend. Calls that arrive afterwards are
+	 * rejected. (See {@link InFlightInterceptor}.)
+	 */
+	void close(long drainTimeout) {
+		try {
+			if (!inFlight.close(drainTimeout)) {
+				logger.warning("The replaced data access implementation is being closed with "
+						+ inFlight.getInFlightCount() + " calls in progress.");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		asyncExecutor.shutdown();
+		if (loaded instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) loaded).close();
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Could not close the replaced data access implementation.", e);
+			}
+		}
+	}
+
+	private MetricsInterceptor findMetrics() {
+		return InterceptedDataAccessImplementation.findInterceptor(decorated, MetricsInterceptor.class);
+	}
+
+	private static <T> ResolvedDAO<T> resolve(String name, AsyncGetter<T> getter) throws InitializationException {
+		try {
+			return new ResolvedDAO<>(getter.get(), null);
+		} catch (NotImplementedException e) {
+			return new ResolvedDAO<>(null, e);
+		} catch (RdapDataAccessException e) {
+			throw new InitializationException("Could not retrieve the asynchronous " + name + " DAO.", e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface AsyncGetter<T> {
+
+		public T get() throws RdapDataAccessException;
+
+	}
+
+}
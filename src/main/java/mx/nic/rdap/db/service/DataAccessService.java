@@ -3,11 +3,43 @@ package mx.nic.rdap.db.service;
 import java.util.Iterator;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import mx.nic.rdap.db.async.AsyncAutnumDAO;
+import mx.nic.rdap.db.async.AsyncConfiguration;
+import mx.nic.rdap.db.async.AsyncDataAccessImplementation;
+import mx.nic.rdap.db.async.AsyncDomainDAO;
+import mx.nic.rdap.db.async.AsyncEntityDAO;
+import mx.nic.rdap.db.async.AsyncExecutors;
+import mx.nic.rdap.db.async.AsyncIpNetworkDAO;
+import mx.nic.rdap.db.async.AsyncNameserverDAO;
+import mx.nic.rdap.db.async.AsyncRdapUserDAO;
+import mx.nic.rdap.db.async.BlockingAsyncDataAccessImplementation;
+import mx.nic.rdap.db.auth.UserCache;
+import mx.nic.rdap.db.auth.UserCacheConfiguration;
+import mx.nic.rdap.db.bulkhead.BulkheadConfiguration;
+import mx.nic.rdap.db.bulkhead.BulkheadInterceptor;
+import mx.nic.rdap.db.cache.CacheConfiguration;
+import mx.nic.rdap.db.cache.CachingInterceptor;
+import mx.nic.rdap.db.cache.CoalescingConfiguration;
+import mx.nic.rdap.db.cache.CoalescingInterceptor;
+import mx.nic.rdap.db.cache.NegativeLookupConfiguration;
+import mx.nic.rdap.db.cache.NegativeLookupInterceptor;
+import mx.nic.rdap.db.deadline.DeadlineConfiguration;
+import mx.nic.rdap.db.deadline.DeadlineInterceptor;
 import mx.nic.rdap.db.exception.InitializationException;
 import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.InterceptedDataAccessImplementation;
+import mx.nic.rdap.db.intercept.ObjectType;
+import mx.nic.rdap.db.metrics.MetricsConfiguration;
+import mx.nic.rdap.db.metrics.MetricsInterceptor;
+import mx.nic.rdap.db.paging.PageTokenCodec;
+import mx.nic.rdap.db.paging.PagingConfiguration;
 import mx.nic.rdap.db.spi.AutnumDAO;
 import mx.nic.rdap.db.spi.DataAccessImplementation;
 import mx.nic.rdap.db.spi.DomainDAO;
@@ -15,6 +47,7 @@ import mx.nic.rdap.db.spi.EntityDAO;
 import mx.nic.rdap.db.spi.IpNetworkDAO;
 import mx.nic.rdap.db.spi.NameserverDAO;
 import mx.nic.rdap.db.spi.RdapUserDAO;
+import mx.nic.rdap.db.util.DaemonThreadFactory;
 
 /**
  * This is the class that loads the global {@link DataAccessImplementation} the
@@ -26,7 +59,7 @@ public class DataAccessService {
 
 	/**
 	 * Name of the configuration property that points to the class that should
-	 * be loaded into {@link #implementation}.
+	 * be loaded by {@link #initialize(Properties)}.
 	 * <p>
 	 * This might seem like redundant configuration, since META-INF/services is
 	 * roughly the same thing. Thing is, META-INF is supposed to be jar meta
@@ -35,12 +68,243 @@ public class DataAccessService {
 	 * provider the user wants.
 	 */
 	private static final String CLASSNAME_PROPERTY = "data-access-implementation";
-	/** The implementation that was loaded. */
-	private static DataAccessImplementation implementation;
+	/** The backend that is currently serving; <code>null</code> until initialized. */
+	private static volatile Backend backend;
+	/** Performs the reloads, one at a time, and closes the replaced backends. */
+	private static final ExecutorService reloader = Executors
+			.newSingleThreadExecutor(new DaemonThreadFactory("rdap-reload-"));
 
+	/**
+	 * Loads the implementation <code>config</code> asks for, and starts serving
+	 * it, replacing the previous one if any.
+	 * <p>
+	 * The previous implementation is closed in the background once its calls
+	 * in progress finish. (See {@link ReloadConfiguration}.)
+	 */
 	public static void initialize(Properties config) throws InitializationException {
-		implementation = loadImplementation(config);
-		implementation.init(config);
+		Backend next = build(config);
+		Backend previous;
+		try {
+			previous = publish(next);
+		} catch (InitializationException e) {
+			next.close(0);
+			throw e;
+		}
+		if (previous != null) {
+			long drainTimeout = new ReloadConfiguration(config).getDrainTimeout();
+			reloader.execute(() -> previous.close(drainTimeout));
+		}
+	}
+
+	/**
+	 * Replaces the current implementation with the one <code>config</code>
+	 * asks for, without interrupting service.
+	 * <p>
+	 * The new implementation is initialized and, if <code>warmUp</code> is not
+	 * <code>null</code>, warmed up in the background; the current one keeps
+	 * serving meanwhile. Then every DAO getter switches to the new one at once.
+	 * The old implementation is closed once its calls in progress finish, or
+	 * once the drain timeout expires. (See {@link ReloadConfiguration}.)
+	 * <p>
+	 * If anything fails before the switch, the current implementation stays.
+	 * Reloads are performed one at a time.
+	 * <p>
+	 * Note that the drain only covers the DAO calls; DAOs and cursors should
+	 * not be held across requests.
+	 * 
+	 * @return Completes when the new implementation is serving, or
+	 *         exceptionally (with an {@link InitializationException}) if it
+	 *         could not be loaded.
+	 */
+	public static CompletableFuture<Void> reload(Properties config, WarmUp warmUp) {
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		reloader.execute(() -> {
+			try {
+				long drainTimeout = new ReloadConfiguration(config).getDrainTimeout();
+				Backend next = build(config);
+				if (warmUp != null) {
+					try {
+						warmUp.warm(next.getImplementation());
+					} catch (RdapDataAccessException | RuntimeException e) {
+						next.close(0);
+						throw new InitializationException("The new data access implementation failed to warm up.",
+								e);
+					}
+				}
+
+				Backend previous;
+				try {
+					previous = publish(next);
+				} catch (InitializationException e) {
+					next.close(0);
+					throw e;
+				}
+				logger.info("Data access implementation reloaded.");
+				result.complete(null);
+				if (previous != null) {
+					previous.close(drainTimeout);
+				}
+			} catch (InitializationException e) {
+				logger.log(Level.SEVERE, "Could not reload the data access implementation.", e);
+				result.completeExceptionally(e);
+			} catch (RuntimeException e) {
+				logger.log(Level.SEVERE, "Could not reload the data access implementation.", e);
+				result.completeExceptionally(new InitializationException("Could not load the new implementation.", e));
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Loads, initializes and decorates the implementation
+	 * <code>config</code> asks for. Does not publish it.
+	 */
+	private static Backend build(Properties config) throws InitializationException {
+		DataAccessImplementation loaded = loadImplementation(config);
+		// Parsed before init(), so a configuration error does not leave an
+		// initialized implementation behind. (decorate() parses its own; see
+		// below.)
+		AsyncConfiguration asyncConfig = new AsyncConfiguration(config);
+		byte[] pagingSecret = new PagingConfiguration(config).getSecret();
+
+		long start = System.nanoTime();
+		loaded.init(config);
+		logger.info("Data access implementation initialized in " + (System.nanoTime() - start) / 1000000L + " ms.");
+
+		ExecutorService executor = null;
+		try {
+			// Outermost, so it sees every call that can still reach the backend.
+			InFlightInterceptor inFlight = new InFlightInterceptor();
+			DataAccessImplementation decorated = new InterceptedDataAccessImplementation(decorate(loaded, config),
+					inFlight);
+			DataAccessImplementation implementation = new MemoizedDataAccessImplementation(decorated);
+
+			UserCache userCache = null;
+			if (UserCacheConfiguration.isEnabled(config)) {
+				RdapUserDAO users = username -> implementation.getRdapUserDAO().getByUsername(username);
+				userCache = new UserCache(users, new UserCacheConfiguration(config));
+			}
+
+			executor = AsyncExecutors.create(asyncConfig);
+			AsyncDataAccessImplementation nativeAsync = (loaded instanceof AsyncDataAccessImplementation)
+					? (AsyncDataAccessImplementation) loaded
+					: null;
+			AsyncDataAccessImplementation asyncImplementation = new BlockingAsyncDataAccessImplementation(
+					implementation, nativeAsync, executor);
+
+			// Without a secret, the current codec is kept, so a reload does not
+			// invalidate the cursors the clients hold.
+			PageTokenCodec pageTokens = (pagingSecret != null) ? new PageTokenCodec(pagingSecret)
+					: PageTokenCodec.getDefault();
+
+			return new Backend(loaded, decorated, implementation, asyncImplementation, executor, userCache,
+					inFlight, pageTokens, config);
+		} catch (InitializationException | RuntimeException e) {
+			// The implementation is initialized, so it might be holding
+			// connections already.
+			if (executor != null) {
+				executor.shutdown();
+			}
+			close(loaded);
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes <code>loaded</code> if it's {@link AutoCloseable}. Used when the
+	 * backend it belongs to could not be built.
+	 */
+	private static void close(DataAccessImplementation loaded) {
+		if (loaded instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) loaded).close();
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Could not close the data access implementation.", e);
+			}
+		}
+	}
+
+	/**
+	 * Makes <code>next</code> the backend that serves the requests. Returns
+	 * the one it replaced, which is still open.
+	 */
+	private static synchronized Backend publish(Backend next) throws InitializationException {
+		Backend previous = backend;
+		if (previous != null) {
+			previous.deactivate();
+		}
+		try {
+			next.activate();
+		} catch (InitializationException e) {
+			if (previous != null) {
+				try {
+					previous.activate();
+				} catch (InitializationException e2) {
+					logger.log(Level.WARNING, "Could not reactivate the current data access implementation.", e2);
+				}
+			}
+			throw e;
+		}
+		backend = next;
+		PageTokenCodec.setDefault(next.getPageTokens());
+		return previous;
+	}
+
+	/**
+	 * Wraps <code>loaded</code> with the decorators the user enabled in the
+	 * configuration. The implementation does not need to know about them.
+	 */
+	private static DataAccessImplementation decorate(DataAccessImplementation loaded, Properties config)
+			throws InitializationException {
+		DataAccessImplementation result = loaded;
+
+		// Innermost first.
+		if (BulkheadConfiguration.isEnabled(config)) {
+			// Closest to the backend, so it only limits (and measures) the calls
+			// that actually reach it.
+			BulkheadInterceptor bulkhead = new BulkheadInterceptor(new BulkheadConfiguration(config));
+			result = new InterceptedDataAccessImplementation(result, bulkhead);
+			logger.info("Data access bulkheads enabled.");
+		}
+		if (NegativeLookupConfiguration.isEnabled(config)) {
+			NegativeLookupInterceptor negativeCache = new NegativeLookupInterceptor(
+					new NegativeLookupConfiguration(config));
+			result = new InterceptedDataAccessImplementation(result, negativeCache);
+			logger.info("Negative lookup cache enabled.");
+		}
+		if (CoalescingConfiguration.isEnabled(config)) {
+			// Inside the cache, so only its misses are coalesced.
+			CoalescingInterceptor coalescing = new CoalescingInterceptor(new CoalescingConfiguration(config));
+			result = new InterceptedDataAccessImplementation(result, coalescing);
+			logger.info("Request coalescing enabled.");
+		}
+		if (CacheConfiguration.isEnabled(config)) {
+			CacheConfiguration cacheConfig = new CacheConfiguration(config);
+			if (UserCacheConfiguration.isEnabled(config)) {
+				// The user cache loads through this chain; if this cache kept
+				// users as well, invalidating one would just reload its stale
+				// copy from here.
+				cacheConfig.disable(ObjectType.RDAP_USER);
+			}
+			CachingInterceptor cache = new CachingInterceptor(cacheConfig);
+			result = new InterceptedDataAccessImplementation(result, cache);
+			logger.info("Data access cache enabled.");
+		}
+		if (DeadlineConfiguration.isEnabled(config)) {
+			// Outside the others, so expired calls don't even reach the cache.
+			DeadlineInterceptor deadlines = new DeadlineInterceptor(new DeadlineConfiguration(config));
+			result = new InterceptedDataAccessImplementation(result, deadlines);
+			logger.info("Data access deadlines enabled.");
+		}
+		if (MetricsConfiguration.isEnabled(config)) {
+			// Outermost, so it measures what the caller experiences. (The MBeans
+			// are registered when the backend is published.)
+			MetricsInterceptor metrics = new MetricsInterceptor();
+			result = new InterceptedDataAccessImplementation(result, metrics);
+			logger.info("Data access metrics enabled.");
+		}
+
+		return result;
 	}
 
 	private static DataAccessImplementation loadImplementation(Properties config) {
@@ -149,13 +413,64 @@ public class DataAccessService {
 		return result;
 	}
 
+	/**
+	 * Returns whether an implementation is initialized and serving, with its
+	 * DAOs resolved. Meant for readiness probes; until then, every getter of
+	 * this class fails.
+	 */
+	public static boolean isReady() {
+		return backend != null;
+	}
+
+	/**
+	 * Returns the loaded implementation, decorated. Its DAOs were resolved
+	 * during the initialization, so its getters are cheap.
+	 */
 	public static DataAccessImplementation getImplementation() {
-		if (implementation == null) {
+		return getBackend().getImplementation();
+	}
+
+	private static Backend getBackend() {
+		Backend result = backend;
+		if (result == null) {
 			throw new NullPointerException("The Data Access Implementation hasn't been initialized. "
 					+ "Please call DataAccessService#initialize(Properties) before trying to use this API.");
 		}
 
-		return implementation;
+		return result;
+	}
+
+	/**
+	 * Returns the decorator of type <code>type</code> that was applied to the
+	 * loaded implementation, or <code>null</code> if the configuration did not
+	 * enable it.
+	 * <p>
+	 * Mainly useful to query statistics or invalidate caches.
+	 */
+	public static <T extends DAOInterceptor> T getInterceptor(Class<T> type) {
+		return InterceptedDataAccessImplementation.findInterceptor(getBackend().getDecorated(), type);
+	}
+
+	/**
+	 * Returns the cache of authenticating users, or <code>null</code> if the
+	 * configuration did not enable it. (See {@link UserCacheConfiguration}.)
+	 */
+	public static UserCache getUserCache() {
+		Backend result = backend;
+		return (result != null) ? result.getUserCache() : null;
+	}
+
+	/**
+	 * Returns the asynchronous version of the implementation. DAOs the
+	 * implementation does not provide asynchronously (see
+	 * {@link AsyncDataAccessImplementation}) are run on an executor, configured
+	 * through {@link AsyncConfiguration}.
+	 * <p>
+	 * Note that native asynchronous DAOs are not covered by the decorators
+	 * (such as the cache); those only wrap the blocking DAOs.
+	 */
+	public static AsyncDataAccessImplementation getAsyncImplementation() {
+		return getBackend().getAsyncImplementation();
 	}
 
 	public static AutnumDAO getAutnumDAO() throws RdapDataAccessException {
@@ -182,4 +497,28 @@ public class DataAccessService {
 		return getImplementation().getRdapUserDAO();
 	}
 
+	public static AsyncAutnumDAO getAsyncAutnumDAO() throws RdapDataAccessException {
+		return getBackend().getAsyncAutnumDAO();
+	}
+
+	public static AsyncDomainDAO getAsyncDomainDAO() throws RdapDataAccessException {
+		return getBackend().getAsyncDomainDAO();
+	}
+
+	public static AsyncEntityDAO getAsyncEntityDAO() throws RdapDataAccessException {
+		return getBackend().getAsyncEntityDAO();
+	}
+
+	public static AsyncIpNetworkDAO getAsyncIpNetworkDAO() throws RdapDataAccessException {
+		return getBackend().getAsyncIpNetworkDAO();
+	}
+
+	public static AsyncNameserverDAO getAsyncNameserverDAO() throws RdapDataAccessException {
+		return getBackend().getAsyncNameserverDAO();
+	}
+
+	public static AsyncRdapUserDAO getAsyncRdapUserDAO() throws RdapDataAccessException {
+		return getBackend().getAsyncRdapUserDAO();
+	}
+
 }
@@ -0,0 +1,135 @@
+package mx.nic.rdap.db.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.ServiceUnavailableException;
+import mx.nic.rdap.db.intercept.BatchCall;
+import mx.nic.rdap.db.intercept.BatchCalls;
+import mx.nic.rdap.db.intercept.CursorCall;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOInterceptor;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.struct.ForwardingSearchCursor;
+import mx.nic.rdap.db.struct.SearchCursor;
+
+/**
+ * Interceptor that keeps track of the DAO calls in progress, so a replaced
+ * implementation can wait for them before it's closed.
+ * <p>
+ * Every call goes through here, so the count is a lock-free counter; the
+ * monitor is only taken to wake up {@link #awaitIdle(long)}, and only while
+ * somebody is draining.
+ * <p>
+ * A caller that got hold of a DAO before a reload can still call it after the
+ * replaced backend was closed. Such late calls are turned down with a
+ * {@link ServiceUnavailableException} rather than sent to a closed backend;
+ * callers that ask the {@link DataAccessService} for the DAO on every request
+ * never see this.
+ */
+class InFlightInterceptor implements DAOInterceptor {
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	/** Whether {@link #awaitIdle(long)} is waiting (or has waited). */
+	private volatile boolean draining = false;
+	/** Whether the backend is closing; set by {@link #close(long)}. */
+	private volatile boolean closed = false;
+
+	@Override
+	public <T> T intercept(DAOOperation operation, Object key, DAOCall<T> call) throws RdapDataAccessException {
+		enter();
+		try {
+			return call.call();
+		} finally {
+			exit();
+		}
+	}
+
+	/**
+	 * An open cursor counts as a call in progress until it's closed, so the
+	 * backend is not closed under it.
+	 */
+	@Override
+	public <T extends RdapObject> SearchCursor<T> interceptCursor(DAOOperation operation, Object key,
+			CursorCall<T> call) throws RdapDataAccessException {
+		enter();
+		SearchCursor<T> cursor;
+		try {
+			cursor = call.call();
+		} catch (RdapDataAccessException | RuntimeException | Error e) {
+			exit();
+			throw e;
+		}
+		return new ForwardingSearchCursor<T>(cursor) {
+			@Override
+			protected void onClose() {
+				exit();
+			}
+		};
+	}
+
+	private void enter() throws ServiceUnavailableException {
+		// Counted before the check, so close() either sees this call or this
+		// call sees close().
+		inFlight.incrementAndGet();
+		if (closed) {
+			exit();
+			throw new ServiceUnavailableException("The data access implementation was replaced.");
+		}
+	}
+
+	private void exit() {
+		if (inFlight.decrementAndGet() == 0 && draining) {
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+	}
+
+	@Override
+	public <T> List<T> interceptBatch(DAOOperation operation, List<?> keys, BatchCall<T> call)
+			throws RdapDataAccessException {
+		return intercept(operation, keys, () -> call.call(BatchCalls.allPositions(keys.size())));
+	}
+
+	/**
+	 * Waits until no calls are in progress, or <code>timeoutMillis</code>
+	 * milliseconds pass. Returns whether the calls finished. Calls are still
+	 * admitted meanwhile.
+	 */
+	boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+		draining = true;
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		synchronized (this) {
+			while (inFlight.get() > 0) {
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0) {
+					return false;
+				}
+				wait(remaining);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Waits (up to <code>timeoutMillis</code> milliseconds) for the calls in
+	 * progress, then stops admitting new ones, and waits for the calls that
+	 * slipped in meanwhile. Returns whether all of them finished.
+	 */
+	boolean close(long timeoutMillis) throws InterruptedException {
+		long start = System.nanoTime();
+		awaitIdle(timeoutMillis);
+		closed = true;
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		return awaitIdle(Math.max(timeoutMillis - elapsed, 0));
+	}
+
+	int getInFlightCount() {
+		return inFlight.get();
+	}
+
+}
@@ -0,0 +1,205 @@
+package mx.nic.rdap.db.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+import mx.nic.rdap.db.util.DaemonThreadFactory;
+
+/**
+ * {@link DataAccessImplementation} that serves the DAOs of another one,
+ * resolved once, in parallel, when it's built.
+ * <p>
+ * Implementations are allowed to do real work in their DAO getters (open
+ * connections, prepare statements, load indexes), so resolving them at
+ * startup, concurrently, both shortens the startup and takes that work out
+ * of the first requests. The time each getter takes is logged.
+ * <p>
+ * After that, every getter is a field read.
+ */
+class MemoizedDataAccessImplementation implements DataAccessImplementation {
+
+	private static final Logger logger = Logger.getLogger(MemoizedDataAccessImplementation.class.getName());
+
+	private final ResolvedDAO<AutnumDAO> autnumDAO;
+	private final ResolvedDAO<DomainDAO> domainDAO;
+	private final ResolvedDAO<EntityDAO> entityDAO;
+	private final ResolvedDAO<IpNetworkDAO> ipNetworkDAO;
+	private final ResolvedDAO<NameserverDAO> nameserverDAO;
+	private final ResolvedDAO<RdapUserDAO> rdapUserDAO;
+
+	/**
+	 * Asks <code>implementation</code>, which must be initialized already, for
+	 * its DAOs.
+	 * 
+	 * @throws InitializationException
+	 *             A getter failed (for a reason other than
+	 *             {@link NotImplementedException}). The other getters are
+	 *             abandoned as soon as this happens.
+	 */
+	MemoizedDataAccessImplementation(DataAccessImplementation implementation) throws InitializationException {
+		List<Resolution<?>> resolutions = new ArrayList<>();
+		Resolution<AutnumDAO> autnum = add(resolutions, "autnum", implementation::getAutnumDAO);
+		Resolution<DomainDAO> domain = add(resolutions, "domain", implementation::getDomainDAO);
+		Resolution<EntityDAO> entity = add(resolutions, "entity", implementation::getEntityDAO);
+		Resolution<IpNetworkDAO> ipNetwork = add(resolutions, "IP network", implementation::getIpNetworkDAO);
+		Resolution<NameserverDAO> nameserver = add(resolutions, "nameserver", implementation::getNameserverDAO);
+		Resolution<RdapUserDAO> rdapUser = add(resolutions, "user", implementation::getRdapUserDAO);
+
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(resolutions.size(),
+				new DaemonThreadFactory("rdap-startup-"));
+		try {
+			CompletionService<Resolution<?>> completion = new ExecutorCompletionService<>(executor);
+			List<Future<Resolution<?>>> futures = new ArrayList<>();
+			for (Resolution<?> resolution : resolutions) {
+				futures.add(completion.submit(resolution::run, resolution));
+			}
+			for (int pending = futures.size(); pending > 0; pending--) {
+				Resolution<?> resolution = completion.take().get();
+				if (resolution.error != null) {
+					throw new InitializationException("Could not retrieve the " + resolution.name + " DAO.",
+							resolution.error);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InitializationException("Interrupted while retrieving the DAOs.", e);
+		} catch (ExecutionException e) {
+			throw new InitializationException("Could not retrieve the DAOs.", e.getCause());
+		} finally {
+			// Fail fast: whoever is still working is not waited for.
+			executor.shutdownNow();
+		}
+
+		StringBuilder report = new StringBuilder("DAOs resolved in ");
+		report.append(millis(System.nanoTime() - start)).append(" ms (");
+		for (int i = 0; i < resolutions.size(); i++) {
+			Resolution<?> resolution = resolutions.get(i);
+			report.append((i > 0) ? ", " : "").append(resolution.name).append(": ");
+			report.append(millis(resolution.nanos)).append(" ms");
+		}
+		logger.info(report.append(").").toString());
+
+		this.autnumDAO = autnum.result();
+		this.domainDAO = domain.result();
+		this.entityDAO = entity.result();
+		this.ipNetworkDAO = ipNetwork.result();
+		this.nameserverDAO = nameserver.result();
+		this.rdapUserDAO = rdapUser.result();
+	}
+
+	/**
+	 * Not supported; the wrapped implementation was initialized before it was
+	 * wrapped.
+	 *
+	 * @throws InitializationException
+	 *             Always.
+	 */
+	@Override
+	public void init(Properties properties) throws InitializationException {
+		throw new InitializationException("The implementation is initialized already.");
+	}
+
+	@Override
+	public AutnumDAO getAutnumDAO() throws NotImplementedException {
+		return autnumDAO.get();
+	}
+
+	@Override
+	public DomainDAO getDomainDAO() throws NotImplementedException {
+		return domainDAO.get();
+	}
+
+	@Override
+	public EntityDAO getEntityDAO() throws NotImplementedException {
+		return entityDAO.get();
+	}
+
+	@Override
+	public IpNetworkDAO getIpNetworkDAO() throws NotImplementedException {
+		return ipNetworkDAO.get();
+	}
+
+	@Override
+	public NameserverDAO getNameserverDAO() throws NotImplementedException {
+		return nameserverDAO.get();
+	}
+
+	@Override
+	public RdapUserDAO getRdapUserDAO() throws NotImplementedException {
+		return rdapUserDAO.get();
+	}
+
+	private static <T> Resolution<T> add(List<Resolution<?>> resolutions, String name, Getter<T> getter) {
+		Resolution<T> result = new Resolution<>(name, getter);
+		resolutions.add(result);
+		return result;
+	}
+
+	private static long millis(long nanos) {
+		return nanos / 1000000L;
+	}
+
+	@FunctionalInterface
+	private interface Getter<T> {
+
+		public T get() throws RdapDataAccessException;
+
+	}
+
+	/**
+	 * A DAO getter call. Its fields are published to the caller through the
+	 * future.
+	 */
+	private static class Resolution<T> {
+
+		private final String name;
+		private final Getter<T> getter;
+
+		private T dao;
+		private NotImplementedException notImplemented;
+		private Exception error;
+		private long nanos;
+
+		private Resolution(String name, Getter<T> getter) {
+			this.name = name;
+			this.getter = getter;
+		}
+
+		private void run() {
+			long start = System.nanoTime();
+			try {
+				dao = getter.get();
+			} catch (NotImplementedException e) {
+				notImplemented = e;
+			} catch (RdapDataAccessException | RuntimeException e) {
+				error = e;
+			}
+			nanos = System.nanoTime() - start;
+		}
+
+		private ResolvedDAO<T> result() {
+			return new ResolvedDAO<>(dao, notImplemented);
+		}
+
+	}
+
+}
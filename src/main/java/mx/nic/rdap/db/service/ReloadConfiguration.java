@@ -0,0 +1,40 @@
+package mx.nic.rdap.db.service;
+
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.util.ConfigurationUtils;
+
+/**
+ * Configuration of the implementation swaps performed by
+ * {@link DataAccessService#reload(Properties, WarmUp)}, as read from the
+ * user-supplied properties.
+ * <p>
+ * Recognized properties:
+ * <ul>
+ * <li><code>reload.drain-timeout</code>: Milliseconds a replaced
+ * implementation is given to finish its calls in progress before it's closed
+ * anyway. Default: {@value #DEFAULT_DRAIN_TIMEOUT}.</li>
+ * </ul>
+ */
+public class ReloadConfiguration {
+
+	private static final String DRAIN_TIMEOUT_PROPERTY = "reload.drain-timeout";
+
+	public static final long DEFAULT_DRAIN_TIMEOUT = 30000;
+
+	private final long drainTimeout;
+
+	public ReloadConfiguration(Properties config) throws InitializationException {
+		this.drainTimeout = ConfigurationUtils.getLong(config, DRAIN_TIMEOUT_PROPERTY, DEFAULT_DRAIN_TIMEOUT);
+	}
+
+	/**
+	 * Returns the milliseconds a replaced implementation is given to finish
+	 * its calls.
+	 */
+	public long getDrainTimeout() {
+		return drainTimeout;
+	}
+
+}
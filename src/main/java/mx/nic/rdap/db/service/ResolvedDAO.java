@@ -0,0 +1,35 @@
+package mx.nic.rdap.db.service;
+
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+
+/**
+ * The outcome of asking an implementation for one of its DAOs, kept so the
+ * question is only asked once.
+ * 
+ * @param <T>
+ *            the type of the DAO.
+ */
+class ResolvedDAO<T> {
+
+	/** Can be null, if the implementation does not provide the DAO. */
+	private final T dao;
+	/** Why the implementation does not provide the DAO, if it said so. */
+	private final NotImplementedException failure;
+
+	ResolvedDAO(T dao, NotImplementedException failure) {
+		this.dao = dao;
+		this.failure = failure;
+	}
+
+	/**
+	 * Returns the DAO, or throws the exception the implementation threw when
+	 * it was asked for it.
+	 */
+	T get() throws NotImplementedException {
+		if (failure != null) {
+			throw failure;
+		}
+		return dao;
+	}
+
+}
@@ -0,0 +1,25 @@
+package mx.nic.rdap.db.service;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+
+/**
+ * Work performed on a freshly loaded implementation before it starts serving
+ * requests (see {@link DataAccessService#reload(java.util.Properties, WarmUp)}),
+ * such as issuing the most popular lookups so its caches and connection pools
+ * are ready for them.
+ */
+@FunctionalInterface
+public interface WarmUp {
+
+	/**
+	 * Warms up <code>implementation</code>, which already includes the
+	 * decorators the configuration enabled.
+	 * 
+	 * @throws RdapDataAccessException
+	 *             The implementation is not fit to serve; the reload is
+	 *             aborted.
+	 */
+	public void warm(DataAccessImplementation implementation) throws RdapDataAccessException;
+
+}
@@ -1,7 +1,12 @@
 package mx.nic.rdap.db.spi;
 
+import java.util.Collection;
+import java.util.List;
+
 import mx.nic.rdap.core.db.Autnum;
 import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.util.BatchLookups;
+import mx.nic.rdap.db.util.Probes;
 
 /**
  * Interface for {@link Autnum} DAO functions.
@@ -22,4 +27,29 @@ public interface AutnumDAO extends DAO {
 	 */
 	public Autnum getByRange(long autnum) throws RdapDataAccessException;
 
+	/**
+	 * Batch version of {@link #getByRange(long)}, for callers that need to
+	 * resolve many ASNs at once.
+	 * <p>
+	 * The default implementation performs one lookup per key. Backends that can
+	 * fetch several objects in a single query should override it.
+	 * 
+	 * @return One element per element of <code>autnums</code>, in iteration
+	 *         order. Blocks that were not found are represented by <code>null</code>.
+	 */
+	public default List<Autnum> getByRanges(Collection<Long> autnums) throws RdapDataAccessException {
+		return BatchLookups.lookUpEach(autnums, this::getByRange);
+	}
+
+	/**
+	 * Returns whether some {@link Autnum} block contains <code>autnum</code>,
+	 * without retrieving it.
+	 * <p>
+	 * The default implementation performs the lookup and discards the result.
+	 * Backends that can answer from an index should override it.
+	 */
+	public default boolean existsByRange(long autnum) throws RdapDataAccessException {
+		return Probes.exists(autnum, this::getByRange);
+	}
+
 }
\ No newline at end of file
@@ -12,6 +12,20 @@ import mx.nic.rdap.db.service.DataAccessService;
  * <p>
  * It's mainly just a hub that references the several implementation classes
  * that actually take care of the data access.
+ * <p>
+ * {@link DataAccessService} asks for each DAO once, right after
+ * {@link #init(Properties)}, and shares it between all the requests. The DAOs
+ * must therefore be thread-safe.
+ * <p>
+ * Implementations that hold resources (connections, threads) can also
+ * implement {@link AutoCloseable}; {@link DataAccessService} closes them once
+ * they are replaced and their calls in progress finish.
+ * <p>
+ * Callers that only need part of each object (typically, to list search
+ * results) bind a {@link mx.nic.rdap.db.fetch.FetchPlan} before calling the
+ * DAOs. Implementations that pay for every nested entity, event or remark
+ * they build should check {@link mx.nic.rdap.db.fetch.FetchPlan#current()}
+ * and skip what was not asked for.
  */
 public interface DataAccessImplementation {
 
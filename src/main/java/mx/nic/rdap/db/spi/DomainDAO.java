@@ -1,9 +1,17 @@
 package mx.nic.rdap.db.spi;
 
+import java.util.Collection;
+import java.util.List;
+
 import mx.nic.rdap.core.db.Domain;
 import mx.nic.rdap.core.db.DomainLabel;
 import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchCursors;
 import mx.nic.rdap.db.struct.SearchResultStruct;
+import mx.nic.rdap.db.util.BatchLookups;
+import mx.nic.rdap.db.util.Probes;
 
 /**
  * Interface for {@link Domain} DAO functions.
@@ -148,4 +156,171 @@ public interface DomainDAO extends DAO {
 	 */
 	public SearchResultStruct<Domain> searchByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException;
 
+	/**
+	 * Streaming version of {@link #searchByName(DomainLabel, int)}.
+	 * <p>
+	 * Implementations that can fetch results incrementally should override
+	 * this; the default one just wraps the materialized result. The caller
+	 * closes the cursor, and is expected to stop pulling after
+	 * <code>resultLimit</code> objects.
+	 */
+	public default SearchCursor<Domain> cursorByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByName(namePattern, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByNsLDHName(DomainLabel, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Domain> cursorByNsLDHName(DomainLabel nsName, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByNsLDHName(nsName, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByNsIp(String, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Domain> cursorByNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return SearchCursors.of(searchByNsIp(ip, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByRegexName(String, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Domain> cursorByRegexName(String regexName, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByRegexName(regexName, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByRegexNsLDHName(String, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Domain> cursorByRegexNsLDHName(String regexNsName, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByRegexNsLDHName(regexNsName, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByRegexNsIp(String, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Domain> cursorByRegexNsIp(String ip, int resultLimit) throws RdapDataAccessException {
+		return SearchCursors.of(searchByRegexNsIp(ip, resultLimit));
+	}
+
+	/**
+	 * Paged version of {@link #searchByName(DomainLabel, int)}.
+	 * <p>
+	 * Returns up to <code>resultLimit</code> domains, starting right after
+	 * the position <code>cursor</code> points to (or from the beginning, if
+	 * it's <code>null</code>). If there are more, the result carries the
+	 * cursor of the next page (see {@link SearchResultStruct#getNextCursor()}).
+	 * Cursors are opaque to the caller, and only valid for the search that
+	 * issued them; an invalid one yields a
+	 * {@link mx.nic.rdap.db.exception.http.BadRequestException}.
+	 * <p>
+	 * Each page must be sorted by the objects' page keys (see
+	 * {@link mx.nic.rdap.db.paging.Pages}), and the cursor must record the key
+	 * of its last object, so that pages from different backends can be merged.
+	 * <p>
+	 * Paging is only worth offering if the backend can seek an index to the
+	 * cursor's key; re-running the whole search for every page would cost
+	 * more than the unpaged search. So the default implementation throws
+	 * {@link NotImplementedException}.
+	 */
+	public default SearchResultStruct<Domain> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByNsLDHName(DomainLabel, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Domain> pageByNsLDHName(DomainLabel nsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByNsIp(String, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Domain> pageByNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByRegexName(String, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Domain> pageByRegexName(String regexName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByRegexNsLDHName(String, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Domain> pageByRegexNsLDHName(String regexNsName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByRegexNsIp(String, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Domain> pageByRegexNsIp(String ip, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Batch version of {@link #getByName(DomainLabel)}, for callers that need
+	 * to resolve many FQDNs at once.
+	 * <p>
+	 * The default implementation performs one lookup per key. Backends that can
+	 * fetch several objects in a single query should override it.
+	 * 
+	 * @return One element per element of <code>domainLabels</code>, in
+	 *         iteration order. Domains that were not found are represented by
+	 *         <code>null</code>.
+	 */
+	public default List<Domain> getByNames(Collection<DomainLabel> domainLabels) throws RdapDataAccessException {
+		return BatchLookups.lookUpEach(domainLabels, this::getByName);
+	}
+
+	/**
+	 * Returns whether the domain whose FQDN is <code>domainLabel</code>
+	 * exists, without retrieving it.
+	 * <p>
+	 * The default implementation performs the lookup and discards the result.
+	 * Backends that can answer from an index should override it.
+	 */
+	public default boolean exists(DomainLabel domainLabel) throws RdapDataAccessException {
+		return Probes.exists(domainLabel, this::getByName);
+	}
+
+	/**
+	 * Returns the number of domains that match <code>namePattern</code> (as in
+	 * {@link #searchByName(DomainLabel, int)}), without retrieving them.
+	 * <p>
+	 * The default implementation performs the search and discards the result.
+	 * Backends that can count from an index should override it.
+	 * 
+	 * @param countLimit
+	 *            The count stops here. If there are at least this many
+	 *            matches, <code>countLimit</code> is returned.
+	 */
+	public default int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return Probes.count(searchByName(namePattern, countLimit), countLimit);
+	}
+
 }
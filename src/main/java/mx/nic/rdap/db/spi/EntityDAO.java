@@ -1,8 +1,16 @@
 package mx.nic.rdap.db.spi;
 
+import java.util.Collection;
+import java.util.List;
+
 import mx.nic.rdap.core.db.Entity;
 import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchCursors;
 import mx.nic.rdap.db.struct.SearchResultStruct;
+import mx.nic.rdap.db.util.BatchLookups;
+import mx.nic.rdap.db.util.Probes;
 
 /**
  * Interface for {@link Entity} DAO functions.
@@ -106,4 +114,136 @@ public interface EntityDAO extends DAO {
 	public SearchResultStruct<Entity> searchByRegexVCardName(String vCardName, int resultLimit)
 			throws RdapDataAccessException;
 
+	/**
+	 * Streaming version of {@link #searchByHandle(String, int)}.
+	 * <p>
+	 * Implementations that can fetch results incrementally should override
+	 * this; the default one just wraps the materialized result. The caller
+	 * closes the cursor, and is expected to stop pulling after
+	 * <code>resultLimit</code> objects.
+	 */
+	public default SearchCursor<Entity> cursorByHandle(String handle, int resultLimit) throws RdapDataAccessException {
+		return SearchCursors.of(searchByHandle(handle, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByVCardName(String, int)}. See
+	 * {@link #cursorByHandle(String, int)}.
+	 */
+	public default SearchCursor<Entity> cursorByVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByVCardName(vCardName, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByRegexHandle(String, int)}. See
+	 * {@link #cursorByHandle(String, int)}.
+	 */
+	public default SearchCursor<Entity> cursorByRegexHandle(String regexHandle, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByRegexHandle(regexHandle, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByRegexVCardName(String, int)}. See
+	 * {@link #cursorByHandle(String, int)}.
+	 */
+	public default SearchCursor<Entity> cursorByRegexVCardName(String vCardName, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByRegexVCardName(vCardName, resultLimit));
+	}
+
+	/**
+	 * Paged version of {@link #searchByHandle(String, int)}.
+	 * <p>
+	 * Returns up to <code>resultLimit</code> entities, starting right after
+	 * the position <code>cursor</code> points to (or from the beginning, if
+	 * it's <code>null</code>). If there are more, the result carries the
+	 * cursor of the next page (see {@link SearchResultStruct#getNextCursor()}).
+	 * Cursors are opaque to the caller, and only valid for the search that
+	 * issued them; an invalid one yields a
+	 * {@link mx.nic.rdap.db.exception.http.BadRequestException}.
+	 * <p>
+	 * Each page must be sorted by the objects' page keys (see
+	 * {@link mx.nic.rdap.db.paging.Pages}), and the cursor must record the key
+	 * of its last object, so that pages from different backends can be merged.
+	 * <p>
+	 * Paging is only worth offering if the backend can seek an index to the
+	 * cursor's key; re-running the whole search for every page would cost
+	 * more than the unpaged search. So the default implementation throws
+	 * {@link NotImplementedException}.
+	 */
+	public default SearchResultStruct<Entity> pageByHandle(String handle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByVCardName(String, int)}. See
+	 * {@link #pageByHandle(String, String, int)}.
+	 */
+	public default SearchResultStruct<Entity> pageByVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByRegexHandle(String, int)}. See
+	 * {@link #pageByHandle(String, String, int)}.
+	 */
+	public default SearchResultStruct<Entity> pageByRegexHandle(String regexHandle, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByRegexVCardName(String, int)}. See
+	 * {@link #pageByHandle(String, String, int)}.
+	 */
+	public default SearchResultStruct<Entity> pageByRegexVCardName(String vCardName, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Batch version of {@link #getByHandle(String)}, for callers that need to
+	 * resolve many handles at once.
+	 * <p>
+	 * The default implementation performs one lookup per key. Backends that can
+	 * fetch several objects in a single query should override it.
+	 * 
+	 * @return One element per element of <code>entityHandles</code>, in
+	 *         iteration order. Entities that were not found are represented by
+	 *         <code>null</code>.
+	 */
+	public default List<Entity> getByHandles(Collection<String> entityHandles) throws RdapDataAccessException {
+		return BatchLookups.lookUpEach(entityHandles, this::getByHandle);
+	}
+
+	/**
+	 * Returns whether the entity whose handle is <code>entityHandle</code>
+	 * exists, without retrieving it.
+	 * <p>
+	 * The default implementation performs the lookup and discards the result.
+	 * Backends that can answer from an index should override it.
+	 */
+	public default boolean existsByHandle(String entityHandle) throws RdapDataAccessException {
+		return Probes.exists(entityHandle, this::getByHandle);
+	}
+
+	/**
+	 * Returns the number of entities that match <code>handle</code> (as in
+	 * {@link #searchByHandle(String, int)}), without retrieving them.
+	 * <p>
+	 * The default implementation performs the search and discards the result.
+	 * Backends that can count from an index should override it.
+	 * 
+	 * @param countLimit
+	 *            The count stops here. If there are at least this many
+	 *            matches, <code>countLimit</code> is returned.
+	 */
+	public default int countByHandle(String handle, int countLimit) throws RdapDataAccessException {
+		return Probes.count(searchByHandle(handle, countLimit), countLimit);
+	}
+
 }
@@ -1,8 +1,13 @@
 package mx.nic.rdap.db.spi;
 
+import java.util.Collection;
+import java.util.List;
+
 import mx.nic.rdap.core.db.IpNetwork;
 import mx.nic.rdap.core.ip.AddressBlock;
 import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.util.BatchLookups;
+import mx.nic.rdap.db.util.Probes;
 
 /**
  * Interface for {@link IpNetwork} DAO functions.
@@ -20,4 +25,29 @@ public interface IpNetworkDAO extends DAO {
 	 */
 	public IpNetwork getByAddressBlock(AddressBlock block) throws RdapDataAccessException;
 
+	/**
+	 * Batch version of {@link #getByAddressBlock(AddressBlock)}, for callers
+	 * that need to resolve many address blocks at once.
+	 * <p>
+	 * The default implementation performs one lookup per key. Backends that can
+	 * fetch several objects in a single query should override it.
+	 * 
+	 * @return One element per element of <code>blocks</code>, in iteration
+	 *         order. Networks that were not found are represented by <code>null</code>.
+	 */
+	public default List<IpNetwork> getByAddressBlocks(Collection<AddressBlock> blocks) throws RdapDataAccessException {
+		return BatchLookups.lookUpEach(blocks, this::getByAddressBlock);
+	}
+
+	/**
+	 * Returns whether some network contains <code>block</code>, without
+	 * retrieving it.
+	 * <p>
+	 * The default implementation performs the lookup and discards the result.
+	 * Backends that can answer from an index should override it.
+	 */
+	public default boolean existsByAddressBlock(AddressBlock block) throws RdapDataAccessException {
+		return Probes.exists(block, this::getByAddressBlock);
+	}
+
 }
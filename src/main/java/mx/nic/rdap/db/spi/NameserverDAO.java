@@ -1,10 +1,17 @@
 package mx.nic.rdap.db.spi;
 
+import java.util.Collection;
+import java.util.List;
+
 import mx.nic.rdap.core.db.DomainLabel;
 import mx.nic.rdap.core.db.Nameserver;
 import mx.nic.rdap.db.exception.RdapDataAccessException;
 import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchCursors;
 import mx.nic.rdap.db.struct.SearchResultStruct;
+import mx.nic.rdap.db.util.BatchLookups;
+import mx.nic.rdap.db.util.Probes;
 
 /**
  * Model for the {@link Nameserver} Object
@@ -129,4 +136,163 @@ public interface NameserverDAO extends DAO {
 	public SearchResultStruct<Nameserver> searchByRegexIp(String ipaddressPattern, int resultLimit)
 			throws RdapDataAccessException;
 
+	/**
+	 * Streaming version of {@link #searchByName(DomainLabel, int)}.
+	 * <p>
+	 * Implementations that can fetch results incrementally should override
+	 * this; the default one just wraps the materialized result. The caller
+	 * closes the cursor, and is expected to stop pulling after
+	 * <code>resultLimit</code> objects.
+	 */
+	public default SearchCursor<Nameserver> cursorByName(DomainLabel namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByName(namePattern, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByIp(String, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Nameserver> cursorByIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByIp(ipaddressPattern, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByRegexName(String, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Nameserver> cursorByRegexName(String namePattern, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByRegexName(namePattern, resultLimit));
+	}
+
+	/**
+	 * Streaming version of {@link #searchByRegexIp(String, int)}. See
+	 * {@link #cursorByName(DomainLabel, int)}.
+	 */
+	public default SearchCursor<Nameserver> cursorByRegexIp(String ipaddressPattern, int resultLimit)
+			throws RdapDataAccessException {
+		return SearchCursors.of(searchByRegexIp(ipaddressPattern, resultLimit));
+	}
+
+	/**
+	 * Paged version of {@link #searchByName(DomainLabel, int)}.
+	 * <p>
+	 * Returns up to <code>resultLimit</code> nameservers, starting right after
+	 * the position <code>cursor</code> points to (or from the beginning, if
+	 * it's <code>null</code>). If there are more, the result carries the
+	 * cursor of the next page (see {@link SearchResultStruct#getNextCursor()}).
+	 * Cursors are opaque to the caller, and only valid for the search that
+	 * issued them; an invalid one yields a
+	 * {@link mx.nic.rdap.db.exception.http.BadRequestException}.
+	 * <p>
+	 * Each page must be sorted by the objects' page keys (see
+	 * {@link mx.nic.rdap.db.paging.Pages}), and the cursor must record the key
+	 * of its last object, so that pages from different backends can be merged.
+	 * <p>
+	 * Paging is only worth offering if the backend can seek an index to the
+	 * cursor's key; re-running the whole search for every page would cost
+	 * more than the unpaged search. So the default implementation throws
+	 * {@link NotImplementedException}.
+	 */
+	public default SearchResultStruct<Nameserver> pageByName(DomainLabel namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByIp(String, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Nameserver> pageByIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByRegexName(String, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Nameserver> pageByRegexName(String namePattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Paged version of {@link #searchByRegexIp(String, int)}. See
+	 * {@link #pageByName(DomainLabel, String, int)}.
+	 */
+	public default SearchResultStruct<Nameserver> pageByRegexIp(String ipaddressPattern, String cursor, int resultLimit)
+			throws RdapDataAccessException {
+		throw new NotImplementedException();
+	}
+
+	/**
+	 * Batch version of {@link #getByName(DomainLabel)}, for callers that need
+	 * to resolve many host names at once.
+	 * <p>
+	 * The default implementation performs one lookup per key. Backends that can
+	 * fetch several objects in a single query should override it.
+	 * 
+	 * @return One element per element of <code>names</code>, in iteration
+	 *         order. Nameservers that were not found are represented by
+	 *         <code>null</code>.
+	 */
+	public default List<Nameserver> getByNames(Collection<DomainLabel> names) throws RdapDataAccessException {
+		return BatchLookups.lookUpEach(names, this::getByName);
+	}
+
+	/**
+	 * Batch version of {@link #getByHandle(String)}, for callers that need to
+	 * resolve many handles at once.
+	 * <p>
+	 * The default implementation performs one lookup per key. Backends that can
+	 * fetch several objects in a single query should override it.
+	 * 
+	 * @return One element per element of <code>handles</code>, in iteration
+	 *         order. Nameservers that were not found are represented by
+	 *         <code>null</code>.
+	 */
+	public default List<Nameserver> getByHandles(Collection<String> handles) throws RdapDataAccessException {
+		return BatchLookups.lookUpEach(handles, this::getByHandle);
+	}
+
+	/**
+	 * Returns whether a nameserver named <code>name</code> exists, without
+	 * retrieving it.
+	 * <p>
+	 * The default implementation performs the lookup and discards the result.
+	 * Backends that can answer from an index should override it.
+	 */
+	public default boolean existsByName(DomainLabel name) throws RdapDataAccessException {
+		return Probes.exists(name, this::getByName);
+	}
+
+	/**
+	 * Returns whether the nameserver whose handle is <code>handle</code>
+	 * exists, without retrieving it.
+	 * <p>
+	 * The default implementation performs the lookup and discards the result.
+	 * Backends that can answer from an index should override it.
+	 */
+	public default boolean existsByHandle(String handle) throws RdapDataAccessException {
+		return Probes.exists(handle, this::getByHandle);
+	}
+
+	/**
+	 * Returns the number of nameservers that match <code>namePattern</code> (as in
+	 * {@link #searchByName(DomainLabel, int)}), without retrieving them.
+	 * <p>
+	 * The default implementation performs the search and discards the result.
+	 * Backends that can count from an index should override it.
+	 * 
+	 * @param countLimit
+	 *            The count stops here. If there are at least this many
+	 *            matches, <code>countLimit</code> is returned.
+	 */
+	public default int countByName(DomainLabel namePattern, int countLimit) throws RdapDataAccessException {
+		return Probes.count(searchByName(namePattern, countLimit), countLimit);
+	}
+
 }
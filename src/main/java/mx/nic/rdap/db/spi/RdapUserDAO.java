@@ -1,7 +1,11 @@
 package mx.nic.rdap.db.spi;
 
+import java.util.Collection;
+import java.util.List;
+
 import mx.nic.rdap.db.RdapUser;
 import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.util.BatchLookups;
 
 /**
  * Interface for {@link RdapUser} DAO functions.
@@ -13,4 +17,18 @@ public interface RdapUserDAO extends DAO {
 	 */
 	public RdapUser getByUsername(String username) throws RdapDataAccessException;
 
+	/**
+	 * Batch version of {@link #getByUsername(String)}, for callers that need to
+	 * resolve many usernames at once.
+	 * <p>
+	 * The default implementation performs one lookup per key. Backends that can
+	 * fetch several objects in a single query should override it.
+	 * 
+	 * @return One element per element of <code>usernames</code>, in iteration
+	 *         order. Users that were not found are represented by <code>null</code>.
+	 */
+	public default List<RdapUser> getByUsernames(Collection<String> usernames) throws RdapDataAccessException {
+		return BatchLookups.lookUpEach(usernames, this::getByUsername);
+	}
+
 }
@@ -0,0 +1,18 @@
+package mx.nic.rdap.db.struct;
+
+/**
+ * Receives the objects of a {@link SearchCursor}, for example to write them to
+ * the response as they arrive.
+ *
+ * @param <T>
+ *            type of the objects.
+ * @param <E>
+ *            exception the consumer can throw (eg. {@link java.io.IOException}
+ *            if it writes somewhere).
+ */
+@FunctionalInterface
+public interface CursorConsumer<T, E extends Exception> {
+
+	public void accept(T object) throws E;
+
+}
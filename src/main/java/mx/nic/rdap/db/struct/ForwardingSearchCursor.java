@@ -0,0 +1,46 @@
+package mx.nic.rdap.db.struct;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+/**
+ * {@link SearchCursor} that forwards every call to another one. Meant to be
+ * extended by decorators that only need to act on some of them.
+ * <p>
+ * {@link #close()} only reaches the delegate (and {@link #onClose()}) once.
+ */
+public abstract class ForwardingSearchCursor<T extends RdapObject> implements SearchCursor<T> {
+
+	protected final SearchCursor<T> delegate;
+	private boolean closed;
+
+	protected ForwardingSearchCursor(SearchCursor<T> delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public T next() throws RdapDataAccessException {
+		return delegate.next();
+	}
+
+	@Override
+	public void close() throws RdapDataAccessException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			delegate.close();
+		} finally {
+			onClose();
+		}
+	}
+
+	/**
+	 * Called once, after the delegate was closed (even if closing it failed).
+	 */
+	protected void onClose() {
+		// No code.
+	}
+
+}
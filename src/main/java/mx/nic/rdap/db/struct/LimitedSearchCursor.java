@@ -0,0 +1,70 @@
+package mx.nic.rdap.db.struct;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+/**
+ * {@link SearchCursor} that yields at most <code>resultLimit</code> objects of
+ * another cursor, and then stops pulling from it.
+ * <p>
+ * This is the streaming version of {@link SearchResultStruct#truncate(int)}:
+ * it's meant to be applied by the RDAP server in case the implementation
+ * ignored the limit. Unlike truncation, the extra objects are never fetched
+ * (except for one, needed to tell whether the limit actually did its job; see
+ * {@link #wasLimited()}).
+ */
+public class LimitedSearchCursor<T extends RdapObject> implements SearchCursor<T> {
+
+	private final SearchCursor<T> delegate;
+	private final int resultLimit;
+	private int returned;
+	private Boolean limited;
+
+	public LimitedSearchCursor(SearchCursor<T> delegate, int resultLimit) {
+		this.delegate = delegate;
+		this.resultLimit = resultLimit;
+	}
+
+	@Override
+	public T next() throws RdapDataAccessException {
+		if (limited != null) {
+			return null;
+		}
+
+		T result = delegate.next();
+		if (result == null) {
+			limited = false;
+			return null;
+		}
+		if (returned >= resultLimit) {
+			limited = true;
+			return null;
+		}
+
+		returned++;
+		return result;
+	}
+
+	/**
+	 * Returns whether the delegate had more objects than the limit. Only
+	 * meaningful after {@link #next()} has returned <code>null</code>.
+	 * Equivalent to
+	 * {@link SearchResultStruct#getResultSetWasLimitedByUserConfiguration()}.
+	 */
+	public boolean wasLimited() {
+		return (limited != null) && limited;
+	}
+
+	/**
+	 * Returns the number of objects yielded so far.
+	 */
+	public int getReturnedCount() {
+		return returned;
+	}
+
+	@Override
+	public void close() throws RdapDataAccessException {
+		delegate.close();
+	}
+
+}
@@ -0,0 +1,52 @@
+package mx.nic.rdap.db.struct;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+/**
+ * Streaming alternative to {@link SearchResultStruct}. Yields the results of a
+ * search one at a time, so neither the implementation nor the caller needs to
+ * hold them all in memory.
+ * <p>
+ * The caller pulls objects through {@link #next()} until it has enough (or
+ * the cursor runs out) and then must {@link #close()} the cursor, which
+ * releases whatever the implementation is holding (database cursors,
+ * connections, etc.). Use {@link LimitedSearchCursor} to stop pulling once the
+ * result limit has been reached.
+ * <p>
+ * (This is not a {@link java.util.Iterator} because fetching the next object
+ * is a data access, so it needs to be able to throw
+ * {@link RdapDataAccessException}.)
+ * <p>
+ * Cursors are not thread-safe.
+ *
+ * @param <T>
+ *            type of the objects found.
+ */
+public interface SearchCursor<T extends RdapObject> extends AutoCloseable {
+
+	/**
+	 * Returns the next object found, or <code>null</code> if there are no
+	 * more.
+	 */
+	public T next() throws RdapDataAccessException;
+
+	/**
+	 * Hands every remaining object to <code>consumer</code>, in order, as
+	 * soon as it's fetched. Does not close the cursor.
+	 */
+	public default <E extends Exception> void forEachRemaining(CursorConsumer<? super T, E> consumer)
+			throws RdapDataAccessException, E {
+		for (T object = next(); object != null; object = next()) {
+			consumer.accept(object);
+		}
+	}
+
+	/**
+	 * Releases the resources of the cursor. Further calls to {@link #next()}
+	 * are illegal. Calling this more than once has no effect.
+	 */
+	@Override
+	public void close() throws RdapDataAccessException;
+
+}
@@ -0,0 +1,81 @@
+package mx.nic.rdap.db.struct;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import mx.nic.rdap.core.db.RdapObject;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+/**
+ * Conversions between {@link SearchCursor}s and other representations of
+ * search results.
+ */
+public class SearchCursors {
+
+	private SearchCursors() {
+		// No code.
+	}
+
+	/**
+	 * Returns a cursor with no results.
+	 */
+	public static <T extends RdapObject> SearchCursor<T> empty() {
+		return of(Collections.<T> emptyIterator());
+	}
+
+	/**
+	 * Returns a cursor over the already materialized <code>result</code>. This
+	 * is what the default cursor methods of the DAOs do, so implementations
+	 * that do not stream keep working.
+	 *
+	 * @param result
+	 *            can be <code>null</code>, which is treated as an empty
+	 *            result.
+	 */
+	public static <T extends RdapObject> SearchCursor<T> of(SearchResultStruct<T> result) {
+		if (result == null || result.getResults() == null) {
+			return empty();
+		}
+		return of(result.getResults().iterator());
+	}
+
+	/**
+	 * Returns a cursor over <code>iterator</code>. <code>null</code> elements
+	 * are skipped, since they would otherwise end the cursor.
+	 */
+	public static <T extends RdapObject> SearchCursor<T> of(Iterator<T> iterator) {
+		return new SearchCursor<T>() {
+			@Override
+			public T next() {
+				while (iterator.hasNext()) {
+					T next = iterator.next();
+					if (next != null) {
+						return next;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public void close() {
+				// No code.
+			}
+		};
+	}
+
+	/**
+	 * Pulls up to <code>resultLimit</code> objects out of <code>cursor</code>
+	 * into a {@link SearchResultStruct}, and closes the cursor. For callers
+	 * that still need the whole list.
+	 */
+	public static <T extends RdapObject> SearchResultStruct<T> collect(SearchCursor<T> cursor, int resultLimit)
+			throws RdapDataAccessException {
+		SearchResultStruct<T> result = new SearchResultStruct<>();
+		try (LimitedSearchCursor<T> limited = new LimitedSearchCursor<>(cursor, resultLimit)) {
+			limited.forEachRemaining(result.getResults()::add);
+			result.setResultSetWasLimitedByUserConfiguration(limited.wasLimited());
+		}
+		return result;
+	}
+
+}
@@ -18,6 +18,8 @@ public class SearchResultStruct<T extends RdapObject> {
 
 	private Integer searchResultsLimitForUser;
 
+	private String nextCursor;
+
 	public SearchResultStruct() {
 		results = new ArrayList<T>();
 		resultSetWasLimitedByUserConfiguration = false;
@@ -47,6 +49,21 @@ public class SearchResultStruct<T extends RdapObject> {
 		this.searchResultsLimitForUser = searchResultsLimitForUser;
 	}
 
+	/**
+	 * Returns the opaque token that requests the page that follows this one,
+	 * or <code>null</code> if this is the last page (or the search was not
+	 * paged).
+	 * <p>
+	 * See {@link mx.nic.rdap.db.spi.DomainDAO#pageByName(mx.nic.rdap.core.db.DomainLabel, String, int)}.
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
 	/**
 	 * Truncates the inner list to the specified amount of elements.
 	 * 
@@ -0,0 +1,54 @@
+package mx.nic.rdap.db.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+
+/**
+ * Helpers for the batch lookup methods of the DAOs (such as
+ * {@link mx.nic.rdap.db.spi.DomainDAO#getByNames(Collection)}).
+ */
+public class BatchLookups {
+
+	private BatchLookups() {
+		// No code.
+	}
+
+	/**
+	 * A single-key lookup.
+	 */
+	@FunctionalInterface
+	public static interface Lookup<K, T> {
+
+		public T get(K key) throws RdapDataAccessException;
+
+	}
+
+	/**
+	 * Looks up every element of <code>keys</code> one by one, and returns the
+	 * results in the same order. Objects that do not exist (the lookup either
+	 * returned <code>null</code> or threw {@link NotFoundException}) are
+	 * represented by <code>null</code>; any other exception aborts the whole
+	 * batch.
+	 * <p>
+	 * This is the default implementation of the batch methods. Backends that
+	 * can fetch several objects in a single round trip should override them.
+	 */
+	public static <K, T> List<T> lookUpEach(Collection<K> keys, Lookup<K, T> lookup) throws RdapDataAccessException {
+		List<T> result = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			T object;
+			try {
+				object = lookup.get(key);
+			} catch (NotFoundException e) {
+				object = null;
+			}
+			result.add(object);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,107 @@
+package mx.nic.rdap.db.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import mx.nic.rdap.db.exception.InitializationException;
+
+/**
+ * Helpers to read typed values out of the user-supplied configuration.
+ */
+public class ConfigurationUtils {
+
+	private ConfigurationUtils() {
+		// No code.
+	}
+
+	/**
+	 * Returns the trimmed value of property <code>name</code>, or
+	 * <code>null</code> if it's absent or empty.
+	 */
+	public static String getString(Properties config, String name) {
+		String value = config.getProperty(name);
+		if (value == null) {
+			return null;
+		}
+		value = value.trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	public static boolean getBoolean(Properties config, String name, boolean defaultValue)
+			throws InitializationException {
+		String value = getString(config, name);
+		if (value == null) {
+			return defaultValue;
+		}
+		if ("true".equalsIgnoreCase(value)) {
+			return true;
+		}
+		if ("false".equalsIgnoreCase(value)) {
+			return false;
+		}
+		throw new InitializationException("Property '" + name + "' is supposed to be a boolean. (Found '" + value
+				+ "'.)");
+	}
+
+	public static int getInt(Properties config, String name, int defaultValue) throws InitializationException {
+		long value = getLong(config, name, defaultValue);
+		if (value < Integer.MIN_VALUE || Integer.MAX_VALUE < value) {
+			throw new InitializationException("Property '" + name + "' is out of range. (Found " + value + ".)");
+		}
+		return (int) value;
+	}
+
+	public static long getLong(Properties config, String name, long defaultValue) throws InitializationException {
+		String value = getString(config, name);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new InitializationException("Property '" + name + "' is supposed to be a number. (Found '" + value
+					+ "'.)", e);
+		}
+	}
+
+	/**
+	 * Returns the comma-separated values of property <code>name</code>,
+	 * trimmed. Empty if the property is absent.
+	 */
+	public static List<String> getList(Properties config, String name) {
+		List<String> result = new ArrayList<>();
+		String value = getString(config, name);
+		if (value != null) {
+			for (String element : value.split(",")) {
+				if (!element.trim().isEmpty()) {
+					result.add(element.trim());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a copy of <code>config</code> in which the properties that start
+	 * with <code>prefix</code> override the ones named after the rest of their
+	 * names. (eg. with prefix <code>"replica.a."</code>,
+	 * <code>replica.a.db.url</code> overrides <code>db.url</code>.)
+	 * <p>
+	 * Meant for implementations that initialize other implementations, each
+	 * with its own version of the configuration.
+	 */
+	public static Properties overlay(Properties config, String prefix) {
+		Properties result = new Properties();
+		for (String key : config.stringPropertyNames()) {
+			result.setProperty(key, config.getProperty(key));
+		}
+		for (String key : config.stringPropertyNames()) {
+			if (key.startsWith(prefix)) {
+				result.setProperty(key.substring(prefix.length()), config.getProperty(key));
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,31 @@
+package mx.nic.rdap.db.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates numbered daemon threads, so the pools of this library never keep the
+ * JVM alive.
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+
+	private final String prefix;
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * @param prefix
+	 *            The threads will be named <code>prefix</code> followed by a
+	 *            number.
+	 */
+	public DaemonThreadFactory(String prefix) {
+		this.prefix = prefix;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+}
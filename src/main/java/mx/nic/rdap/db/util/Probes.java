@@ -0,0 +1,46 @@
+package mx.nic.rdap.db.util;
+
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+import mx.nic.rdap.db.util.BatchLookups.Lookup;
+
+/**
+ * Default implementations of the existence and count methods of the DAOs
+ * (such as {@link mx.nic.rdap.db.spi.DomainDAO#exists(mx.nic.rdap.core.db.DomainLabel)}),
+ * in terms of the lookups and searches.
+ * <p>
+ * They fetch the objects they are asked about, so they save nothing; backends
+ * that can answer from an index should override the DAO methods.
+ */
+public class Probes {
+
+	private Probes() {
+		// No code.
+	}
+
+	/**
+	 * Returns whether <code>lookup</code> finds <code>key</code>. (ie. it
+	 * neither returns <code>null</code> nor throws {@link NotFoundException}.)
+	 */
+	public static <K> boolean exists(K key, Lookup<K, ?> lookup) throws RdapDataAccessException {
+		try {
+			return lookup.get(key) != null;
+		} catch (NotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the number of objects listed by <code>result</code>, or
+	 * <code>countLimit</code> if there are more. <code>result</code> can be
+	 * <code>null</code>.
+	 */
+	public static int count(SearchResultStruct<?> result, int countLimit) {
+		if (result == null || result.getResults() == null) {
+			return 0;
+		}
+		return Math.min(result.getResults().size(), countLimit);
+	}
+
+}
@@ -0,0 +1,123 @@
+package mx.nic.rdap.db.async;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+
+public class BlockingAsyncDAOTest extends TestCase {
+
+	@Test
+	public void testAdapter() throws Exception {
+		AutnumDAO blocking = autnum -> {
+			if (autnum == 0) {
+				throw new NotFoundException();
+			}
+			Autnum result = new Autnum();
+			result.setStartAutnum(autnum);
+			result.setEndAutnum(autnum);
+			return result;
+		};
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			AsyncAutnumDAO dao = new BlockingAsyncAutnumDAO(blocking, executor);
+			TestCase.assertEquals(Long.valueOf(1234), dao.getByRange(1234).get().getStartAutnum());
+
+			CompletableFuture<Autnum> failure = dao.getByRange(0);
+			try {
+				failure.get();
+				TestCase.fail("The future should have failed.");
+			} catch (ExecutionException e) {
+				// The original exception must not be wrapped twice.
+				TestCase.assertTrue(e.getCause() instanceof NotFoundException);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRejectedExecution() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.shutdown();
+		AsyncAutnumDAO dao = new BlockingAsyncAutnumDAO(autnum -> null, executor);
+		TestCase.assertTrue(dao.getByRange(1).isCompletedExceptionally());
+	}
+
+	@Test
+	public void testBatchAndExistenceDefaults() throws Exception {
+		AsyncAutnumDAO dao = autnum -> {
+			CompletableFuture<Autnum> result = new CompletableFuture<>();
+			if (autnum == 0) {
+				result.completeExceptionally(new NotFoundException());
+			} else if (autnum == 1) {
+				result.completeExceptionally(new RdapDataAccessException("Connection refused."));
+			} else {
+				Autnum found = new Autnum();
+				found.setStartAutnum(autnum);
+				result.complete(found);
+			}
+			return result;
+		};
+
+		List<Autnum> batch = dao.getByRanges(Arrays.asList(2L, 0L, 3L)).get();
+		TestCase.assertEquals(Long.valueOf(2), batch.get(0).getStartAutnum());
+		TestCase.assertNull(batch.get(1));
+		TestCase.assertEquals(Long.valueOf(3), batch.get(2).getStartAutnum());
+		TestCase.assertTrue(dao.existsByRange(2).get());
+		TestCase.assertFalse(dao.existsByRange(0).get());
+
+		// Other failures are not absences, and are not wrapped.
+		try {
+			dao.getByRanges(Arrays.asList(2L, 1L)).get();
+			TestCase.fail("Expected an exception.");
+		} catch (ExecutionException e) {
+			TestCase.assertEquals(RdapDataAccessException.class, e.getCause().getClass());
+		}
+		try {
+			dao.existsByRange(1).get();
+			TestCase.fail("Expected an exception.");
+		} catch (ExecutionException e) {
+			TestCase.assertEquals(RdapDataAccessException.class, e.getCause().getClass());
+		}
+	}
+
+	@Test
+	public void testAdapterForwardsEverything() throws Exception {
+		AutnumDAO blocking = new AutnumDAO() {
+
+			@Override
+			public Autnum getByRange(long autnum) {
+				return null;
+			}
+
+			@Override
+			public boolean existsByRange(long autnum) {
+				// Answered from an index, without the lookup.
+				return true;
+			}
+
+		};
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			AsyncAutnumDAO dao = new BlockingAsyncAutnumDAO(blocking, executor);
+			TestCase.assertTrue(dao.existsByRange(1).get());
+			TestCase.assertEquals(Arrays.asList(null, null), dao.getByRanges(Arrays.asList(1L, 2L)).get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
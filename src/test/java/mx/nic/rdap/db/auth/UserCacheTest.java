@@ -0,0 +1,77 @@
+package mx.nic.rdap.db.auth;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.RdapUser;
+
+public class UserCacheTest extends TestCase {
+
+	@Test
+	public void testRoleMasks() {
+		RoleMasks masks = new RoleMasks();
+		long admin = masks.bitOf("admin");
+		TestCase.assertEquals(admin, masks.bitOf("admin"));
+		TestCase.assertEquals(admin | masks.bitOf("auditor"), masks.maskOf("auditor", "admin"));
+		TestCase.assertEquals(admin, masks.findBitOf("admin"));
+		// Looking up an unknown role does not use up a bit.
+		TestCase.assertEquals(0, masks.findBitOf("unknown"));
+
+		for (int i = 2; i < RoleMasks.MAX_ROLES; i++) {
+			masks.bitOf("role" + i);
+		}
+		try {
+			masks.bitOf("one too many");
+			TestCase.fail("Expected an exception.");
+		} catch (IllegalStateException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		AtomicInteger lookups = new AtomicInteger();
+		UserCache cache = new UserCache(username -> {
+			lookups.incrementAndGet();
+			if (!username.equals("alice")) {
+				return null;
+			}
+			RdapUser user = new RdapUser();
+			user.setName("alice");
+			user.setPass("secret");
+			user.getAccessRoles().add("authenticated");
+			user.getAccessRoles().add("auditor");
+			return user;
+		}, new UserCacheConfiguration(new Properties()));
+
+		long auditor = cache.getRoleMasks().maskOf("auditor");
+		long admin = cache.getRoleMasks().maskOf("admin");
+
+		AuthenticatedUser alice = cache.get("alice");
+		TestCase.assertTrue(alice.checkPassword("secret"));
+		TestCase.assertFalse(alice.checkPassword("secret "));
+		TestCase.assertFalse(alice.checkPassword(null));
+		TestCase.assertTrue(alice.hasAnyRole(auditor | admin));
+		TestCase.assertFalse(alice.hasAllRoles(auditor | admin));
+		TestCase.assertTrue(alice.hasRole("authenticated"));
+		TestCase.assertFalse(alice.hasRole("admin"));
+		TestCase.assertFalse(alice.hasRole("made up"));
+		TestCase.assertEquals(0, cache.getRoleMasks().findBitOf("made up"));
+
+		TestCase.assertSame(alice, cache.get("alice"));
+		TestCase.assertEquals(1, lookups.get());
+
+		// Misses are not cached.
+		TestCase.assertNull(cache.get("bob"));
+		TestCase.assertNull(cache.get("bob"));
+		TestCase.assertEquals(3, lookups.get());
+
+		cache.invalidate("alice");
+		TestCase.assertNotSame(alice, cache.get("alice"));
+		TestCase.assertEquals(4, lookups.get());
+	}
+
+}
@@ -0,0 +1,189 @@
+package mx.nic.rdap.db.bulkhead;
+
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.BulkheadRejectedException;
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.intercept.OperationClass;
+import mx.nic.rdap.db.struct.SearchCursor;
+import mx.nic.rdap.db.struct.SearchCursors;
+
+public class BulkheadInterceptorTest extends TestCase {
+
+	private static final long FAST = 1000000L;
+	private static final long SLOW = 50 * FAST;
+
+	@Test
+	public void testRejection() throws Exception {
+		Properties config = new Properties();
+		config.setProperty("bulkhead.lookup.initial-limit", "1");
+		config.setProperty("bulkhead.lookup.min-limit", "1");
+		config.setProperty("bulkhead.lookup.max-limit", "1");
+		BulkheadInterceptor bulkhead = new BulkheadInterceptor(new BulkheadConfiguration(config));
+
+		RdapUser user = bulkhead.intercept(DAOOperation.RDAP_USER_GET_BY_USERNAME, "alice", () -> {
+			try {
+				bulkhead.intercept(DAOOperation.RDAP_USER_GET_BY_USERNAME, "bob", RdapUser::new);
+				TestCase.fail("The second lookup should have been rejected.");
+			} catch (BulkheadRejectedException e) {
+				TestCase.assertEquals(503, e.getHttpResponseStatusCode());
+			}
+			// Other classes have their own limits.
+			bulkhead.intercept(DAOOperation.DOMAIN_SEARCH_BY_NAME, "ex*", () -> null);
+			return new RdapUser();
+		});
+
+		TestCase.assertNotNull(user);
+		TestCase.assertEquals(1, bulkhead.getRejectedCount(OperationClass.LOOKUP));
+		TestCase.assertEquals(0, bulkhead.getRejectedCount(OperationClass.SEARCH));
+		TestCase.assertEquals(0, bulkhead.getInFlight(OperationClass.LOOKUP));
+	}
+
+	@Test
+	public void testCursors() throws Exception {
+		Properties config = new Properties();
+		config.setProperty("bulkhead.regex-search.initial-limit", "1");
+		config.setProperty("bulkhead.regex-search.min-limit", "1");
+		config.setProperty("bulkhead.regex-search.max-limit", "1");
+		BulkheadInterceptor bulkhead = new BulkheadInterceptor(new BulkheadConfiguration(config));
+		DAOOperation operation = DAOOperation.DOMAIN_SEARCH_BY_REGEX_NAME;
+
+		// An open cursor holds its slot until it is closed.
+		SearchCursor<Domain> cursor = bulkhead.interceptCursor(operation, "^ex", SearchCursors::empty);
+		TestCase.assertEquals(1, bulkhead.getInFlight(OperationClass.REGEX_SEARCH));
+		try {
+			bulkhead.interceptCursor(operation, "^ex", SearchCursors::<Domain> empty);
+			TestCase.fail("The second cursor should have been rejected.");
+		} catch (BulkheadRejectedException e) {
+			// No code; success.
+		}
+		cursor.close();
+		cursor.close();
+		TestCase.assertEquals(0, bulkhead.getInFlight(OperationClass.REGEX_SEARCH));
+		bulkhead.interceptCursor(operation, "^ex", SearchCursors::<Domain> empty).close();
+	}
+
+	@Test
+	public void testAdaptation() {
+		AdaptiveLimit limit = new AdaptiveLimit(10, 2, 20);
+
+		// Fast calls at full concurrency grow the limit.
+		for (int i = 0; i < 200; i++) {
+			saturate(limit, FAST);
+		}
+		TestCase.assertEquals(20, limit.getLimit());
+
+		// Queuing shrinks it, down to the minimum...
+		int lowest = limit.getLimit();
+		for (int i = 0; i < 200; i++) {
+			saturate(limit, SLOW);
+			lowest = Math.min(lowest, limit.getLimit());
+		}
+		TestCase.assertEquals(2, lowest);
+
+		// ...until the new latency becomes the norm.
+		for (int i = 0; i < 1000; i++) {
+			saturate(limit, SLOW);
+		}
+		TestCase.assertEquals(20, limit.getLimit());
+	}
+
+	@Test
+	public void testVariableLatency() {
+		AdaptiveLimit limit = new AdaptiveLimit(10, 2, 20);
+		Random random = new Random(42);
+
+		// Latencies that vary tenfold, but do not trend up, are no sign of
+		// queuing.
+		for (int i = 0; i < 500; i++) {
+			saturate(limit, FAST + (long) (random.nextDouble() * 9 * FAST));
+		}
+		TestCase.assertEquals(20, limit.getLimit());
+
+		// Neither are cheap and expensive operations taking turns.
+		for (int i = 0; i < 500; i++) {
+			saturate(limit, DAOOperation.DOMAIN_GET_BY_NAME, FAST);
+			saturate(limit, DAOOperation.DOMAIN_SEARCH_BY_REGEX_NAME, SLOW);
+		}
+		TestCase.assertEquals(20, limit.getLimit());
+
+		// Nor are failures.
+		for (int i = 0; i < 100; i++) {
+			TestCase.assertTrue(limit.tryAcquire());
+			limit.release();
+		}
+		TestCase.assertEquals(20, limit.getLimit());
+		TestCase.assertEquals(0, limit.getInFlight());
+	}
+
+	@Test
+	public void testOverload() throws Exception {
+		Properties config = new Properties();
+		config.setProperty("bulkhead.lookup.initial-limit", "10");
+		config.setProperty("bulkhead.lookup.min-limit", "2");
+		BulkheadInterceptor bulkhead = new BulkheadInterceptor(new BulkheadConfiguration(config));
+		DAOOperation operation = DAOOperation.RDAP_USER_GET_BY_USERNAME;
+
+		// Legitimate answers are no sign of overload.
+		for (int i = 0; i < 100; i++) {
+			try {
+				bulkhead.intercept(operation, "ghost", () -> {
+					throw new NotFoundException();
+				});
+			} catch (NotFoundException e) {
+				// Expected.
+			}
+		}
+		TestCase.assertEquals(10, bulkhead.getLimit(OperationClass.LOOKUP));
+
+		// Time outs and backend errors are.
+		for (int i = 0; i < 100; i++) {
+			try {
+				bulkhead.intercept(operation, "alice", () -> {
+					throw new GatewayTimeoutException();
+				});
+			} catch (GatewayTimeoutException e) {
+				// Expected.
+			}
+			try {
+				bulkhead.intercept(operation, "alice", () -> {
+					throw new RdapDataAccessException("Connection refused.");
+				});
+			} catch (RdapDataAccessException e) {
+				// Expected.
+			}
+		}
+		TestCase.assertEquals(2, bulkhead.getLimit(OperationClass.LOOKUP));
+		TestCase.assertEquals(0, bulkhead.getInFlight(OperationClass.LOOKUP));
+	}
+
+	/** Fills <code>limit</code>, then releases every slot. */
+	private static void saturate(AdaptiveLimit limit, long latency) {
+		saturate(limit, DAOOperation.DOMAIN_GET_BY_NAME, latency);
+	}
+
+	/**
+	 * Fills <code>limit</code>, then releases every slot as
+	 * <code>operation</code> calls that took <code>latency</code>.
+	 */
+	private static void saturate(AdaptiveLimit limit, DAOOperation operation, long latency) {
+		int acquired = 0;
+		while (limit.tryAcquire()) {
+			acquired++;
+		}
+		for (int i = 0; i < acquired; i++) {
+			limit.release(operation, latency);
+		}
+		TestCase.assertEquals(0, limit.getInFlight());
+	}
+
+}
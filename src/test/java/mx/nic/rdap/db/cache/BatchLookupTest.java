@@ -0,0 +1,87 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.intercept.InterceptedRdapUserDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+public class BatchLookupTest extends TestCase {
+
+	@Test
+	public void testDefaultImplementation() throws RdapDataAccessException {
+		RdapUserDAO dao = username -> {
+			if (username.equals("thrower")) {
+				throw new NotFoundException();
+			}
+			return username.equals("ghost") ? null : user(username);
+		};
+
+		List<RdapUser> users = dao.getByUsernames(Arrays.asList("alice", "ghost", "thrower", "bob"));
+		TestCase.assertEquals(4, users.size());
+		TestCase.assertEquals("alice", users.get(0).getName());
+		TestCase.assertNull(users.get(1));
+		TestCase.assertNull(users.get(2));
+		TestCase.assertEquals("bob", users.get(3).getName());
+	}
+
+	@Test
+	public void testCachedBatch() throws RdapDataAccessException {
+		BatchCountingDAO backend = new BatchCountingDAO();
+		Properties config = new Properties();
+		config.setProperty("cache.enabled", "true");
+		RdapUserDAO dao = new InterceptedRdapUserDAO(backend,
+				new CachingInterceptor(new CacheConfiguration(config)));
+
+		dao.getByUsername("alice");
+		List<RdapUser> users = dao.getByUsernames(Arrays.asList("alice", "bob", "ghost", "carol"));
+		TestCase.assertEquals("alice", users.get(0).getName());
+		TestCase.assertEquals("bob", users.get(1).getName());
+		TestCase.assertNull(users.get(2));
+		TestCase.assertEquals("carol", users.get(3).getName());
+
+		// "alice" was cached, so the backend only received the others, at once.
+		TestCase.assertEquals(1, backend.batches.size());
+		TestCase.assertEquals(Arrays.asList("bob", "ghost", "carol"), backend.batches.get(0));
+
+		dao.getByUsernames(Arrays.asList("bob", "carol"));
+		TestCase.assertEquals(1, backend.batches.size());
+	}
+
+	private static RdapUser user(String name) {
+		RdapUser user = new RdapUser();
+		user.setName(name);
+		return user;
+	}
+
+	private static class BatchCountingDAO implements RdapUserDAO {
+
+		private final List<List<String>> batches = new ArrayList<>();
+
+		@Override
+		public RdapUser getByUsername(String username) {
+			return username.equals("ghost") ? null : user(username);
+		}
+
+		@Override
+		public List<RdapUser> getByUsernames(Collection<String> usernames) {
+			batches.add(new ArrayList<>(usernames));
+			List<RdapUser> result = new ArrayList<>();
+			for (String username : usernames) {
+				result.add(getByUsername(username));
+			}
+			return result;
+		}
+
+	}
+
+}
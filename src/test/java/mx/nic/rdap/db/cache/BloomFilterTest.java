@@ -0,0 +1,52 @@
+package mx.nic.rdap.db.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class BloomFilterTest extends TestCase {
+
+	@Test
+	public void testNoFalseNegatives() throws IOException {
+		BloomFilter filter = BloomFilter.create(10000, 0.01);
+		for (int i = 0; i < 10000; i++) {
+			filter.put("domain" + i + ".mx");
+		}
+		assertAllPresent(filter);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		filter.writeTo(out);
+		BloomFilter restored = BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+		assertAllPresent(restored);
+		TestCase.assertEquals(10000, restored.getInsertionCount());
+	}
+
+	private void assertAllPresent(BloomFilter filter) {
+		for (int i = 0; i < 10000; i++) {
+			TestCase.assertTrue(filter.mightContain("domain" + i + ".mx"));
+		}
+	}
+
+	@Test
+	public void testFalsePositiveRate() {
+		BloomFilter filter = BloomFilter.create(10000, 0.01);
+		for (int i = 0; i < 10000; i++) {
+			filter.put("domain" + i + ".mx");
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10000; i++) {
+			if (filter.mightContain("absent" + i + ".mx")) {
+				falsePositives++;
+			}
+		}
+		// Expected around 100.
+		TestCase.assertTrue("False positives: " + falsePositives, falsePositives < 200);
+		TestCase.assertEquals(0.01, filter.getExpectedFalsePositiveProbability(), 0.005);
+	}
+
+}
@@ -0,0 +1,71 @@
+package mx.nic.rdap.db.cache;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class BoundedCacheTest extends TestCase {
+
+	@Test
+	public void testHitsAndMisses() {
+		BoundedCache<String, String> cache = new BoundedCache<>(10, 60000);
+		TestCase.assertNull(cache.get("a"));
+		cache.put("a", "A");
+		TestCase.assertEquals("A", cache.get("a"));
+		TestCase.assertEquals("A", cache.get("a"));
+
+		CacheStatistics stats = cache.getStatistics();
+		TestCase.assertEquals(2, stats.getHitCount());
+		TestCase.assertEquals(1, stats.getMissCount());
+		TestCase.assertEquals(1, stats.getSize());
+	}
+
+	@Test
+	public void testSizeLimit() {
+		BoundedCache<Integer, Integer> cache = new BoundedCache<>(10, 60000);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i);
+		}
+		TestCase.assertEquals(10, cache.size());
+		TestCase.assertEquals(90, cache.getStatistics().getEvictionCount());
+	}
+
+	@Test
+	public void testPopularEntriesSurviveScans() {
+		BoundedCache<Integer, Integer> cache = new BoundedCache<>(10, 60000);
+		for (int i = 0; i < 5; i++) {
+			cache.put(i, i);
+			cache.get(i); // Promote.
+		}
+
+		// One-hit wonders.
+		for (int i = 100; i < 200; i++) {
+			cache.put(i, i);
+		}
+
+		for (int i = 0; i < 5; i++) {
+			TestCase.assertEquals(Integer.valueOf(i), cache.get(i));
+		}
+	}
+
+	@Test
+	public void testExpiration() throws InterruptedException {
+		BoundedCache<String, String> cache = new BoundedCache<>(10, 1);
+		cache.put("a", "A");
+		Thread.sleep(5);
+		TestCase.assertNull(cache.get("a"));
+		TestCase.assertEquals(1, cache.getStatistics().getExpirationCount());
+	}
+
+	@Test
+	public void testDisabled() {
+		BoundedCache<String, String> cache = new BoundedCache<>(0, 60000);
+		cache.put("a", "A");
+		TestCase.assertNull(cache.get("a"));
+
+		cache = new BoundedCache<>(10, 0);
+		cache.put("a", "A");
+		TestCase.assertNull(cache.get("a"));
+	}
+
+}
@@ -0,0 +1,43 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.intercept.DAOOperation;
+
+public class CachingInterceptorTest extends TestCase {
+
+	@Test
+	public void testAbsencesAreNotCached() throws Exception {
+		Properties config = new Properties();
+		config.setProperty("cache.enabled", "true");
+		CachingInterceptor cache = new CachingInterceptor(new CacheConfiguration(config));
+		AtomicInteger calls = new AtomicInteger();
+
+		// The object is created after the first call; the cache must not hide it.
+		for (int i = 0; i < 2; i++) {
+			boolean expected = (i > 0);
+			TestCase.assertEquals(Boolean.valueOf(expected),
+					cache.intercept(DAOOperation.ENTITY_EXISTS_BY_HANDLE, "ENT-1", () -> {
+						calls.incrementAndGet();
+						return expected;
+					}));
+		}
+		TestCase.assertEquals(2, calls.get());
+
+		// Once it exists, it's cached.
+		TestCase.assertEquals(Boolean.TRUE, cache.intercept(DAOOperation.ENTITY_EXISTS_BY_HANDLE, "ENT-1", () -> {
+			calls.incrementAndGet();
+			return false;
+		}));
+		TestCase.assertEquals(2, calls.get());
+
+		// Same for counts.
+		TestCase.assertEquals(Long.valueOf(0), cache.intercept(DAOOperation.ENTITY_COUNT_BY_HANDLE, "ENT*", () -> 0L));
+		TestCase.assertEquals(Long.valueOf(3), cache.intercept(DAOOperation.ENTITY_COUNT_BY_HANDLE, "ENT*", () -> 3L));
+	}
+
+}
@@ -0,0 +1,148 @@
+package mx.nic.rdap.db.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.deadline.Deadline;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.intercept.InterceptedRdapUserDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+public class CoalescingInterceptorTest extends TestCase {
+
+	private static final int THREADS = 8;
+
+	@Test
+	public void testConcurrentCallsShareTheResult() throws Exception {
+		CoalescingInterceptor coalescing = new CoalescingInterceptor(new CoalescingConfiguration(new Properties()));
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger backendCalls = new AtomicInteger();
+		RdapUserDAO dao = new InterceptedRdapUserDAO(username -> {
+			backendCalls.incrementAndGet();
+			await(release);
+			return new RdapUser();
+		}, coalescing);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<RdapUser>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> dao.getByUsername("alice")));
+			}
+			awaitCoalesced(coalescing, THREADS - 1);
+			release.countDown();
+
+			RdapUser first = results.get(0).get();
+			for (Future<RdapUser> result : results) {
+				TestCase.assertSame(first, result.get());
+			}
+			TestCase.assertEquals(1, backendCalls.get());
+			TestCase.assertEquals(0, coalescing.getInFlightCount());
+
+			// Nothing is remembered once the call is over.
+			TestCase.assertNotSame(first, dao.getByUsername("alice"));
+			TestCase.assertEquals(2, backendCalls.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentCallsShareTheException() throws Exception {
+		CoalescingInterceptor coalescing = new CoalescingInterceptor(new CoalescingConfiguration(new Properties()));
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger backendCalls = new AtomicInteger();
+		RdapUserDAO dao = new InterceptedRdapUserDAO(username -> {
+			backendCalls.incrementAndGet();
+			await(release);
+			throw new NotFoundException();
+		}, coalescing);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Throwable>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> {
+					try {
+						dao.getByUsername("ghost");
+						return null;
+					} catch (NotFoundException e) {
+						return e;
+					}
+				}));
+			}
+			awaitCoalesced(coalescing, THREADS - 1);
+			release.countDown();
+
+			Throwable first = results.get(0).get();
+			TestCase.assertNotNull(first);
+			for (Future<Throwable> result : results) {
+				TestCase.assertSame(first, result.get());
+			}
+			TestCase.assertEquals(1, backendCalls.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFollowersKeepTheirDeadlines() throws Exception {
+		CoalescingInterceptor coalescing = new CoalescingInterceptor(new CoalescingConfiguration(new Properties()));
+		CountDownLatch release = new CountDownLatch(1);
+		RdapUserDAO dao = new InterceptedRdapUserDAO(username -> {
+			await(release);
+			return new RdapUser();
+		}, coalescing);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<RdapUser> leader = executor.submit(() -> dao.getByUsername("alice"));
+			for (int i = 0; i < 500 && coalescing.getInFlightCount() == 0; i++) {
+				Thread.sleep(10);
+			}
+
+			long start = System.nanoTime();
+			try (Deadline.Scope scope = Deadline.after(100, TimeUnit.MILLISECONDS).bind()) {
+				dao.getByUsername("alice");
+				TestCase.fail("The follower should have run out of time.");
+			} catch (GatewayTimeoutException e) {
+				// No code; success.
+			}
+			TestCase.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+			release.countDown();
+			TestCase.assertNotNull(leader.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) throws RdapDataAccessException {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new RdapDataAccessException(e);
+		}
+	}
+
+	private static void awaitCoalesced(CoalescingInterceptor coalescing, long expected) throws InterruptedException {
+		for (int i = 0; i < 500 && coalescing.getCoalescedCount() < expected; i++) {
+			Thread.sleep(10);
+		}
+		TestCase.assertEquals(expected, coalescing.getCoalescedCount());
+	}
+
+}
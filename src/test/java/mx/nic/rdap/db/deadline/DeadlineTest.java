@@ -0,0 +1,82 @@
+package mx.nic.rdap.db.deadline;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.http.GatewayTimeoutException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.regex.CompiledPatternCache;
+import mx.nic.rdap.db.regex.RegexSearchEngine;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+public class DeadlineTest extends TestCase {
+
+	@Test
+	public void testBinding() {
+		TestCase.assertNull(Deadline.current());
+		Deadline outer = Deadline.after(1, TimeUnit.SECONDS);
+		try (Deadline.Scope outerScope = outer.bind()) {
+			TestCase.assertSame(outer, Deadline.current());
+
+			// Nested calls cannot extend their caller's deadline...
+			try (Deadline.Scope innerScope = Deadline.after(1, TimeUnit.HOURS).bind()) {
+				TestCase.assertSame(outer, Deadline.current());
+			}
+			// ...but they can shorten it.
+			Deadline shorter = Deadline.after(1, TimeUnit.MILLISECONDS);
+			try (Deadline.Scope innerScope = shorter.bind()) {
+				TestCase.assertSame(shorter, Deadline.current());
+			}
+			TestCase.assertSame(outer, Deadline.current());
+			TestCase.assertEquals(1, outer.getQueryTimeout());
+		}
+		TestCase.assertNull(Deadline.current());
+	}
+
+	@Test
+	public void testInterceptor() throws Exception {
+		Properties config = new Properties();
+		config.setProperty("deadline.default-timeout", "60000");
+		DeadlineInterceptor interceptor = new DeadlineInterceptor(new DeadlineConfiguration(config));
+
+		// Calls without a deadline get the default one.
+		long remaining = interceptor.intercept(DAOOperation.ENTITY_GET_BY_HANDLE, "E1",
+				() -> Deadline.current().remaining(TimeUnit.SECONDS));
+		TestCase.assertTrue(remaining > 50 && remaining <= 60);
+
+		try (Deadline.Scope scope = Deadline.after(-1, TimeUnit.SECONDS).bind()) {
+			interceptor.intercept(DAOOperation.ENTITY_GET_BY_HANDLE, "E1", () -> {
+				TestCase.fail("An expired call should not reach the DAO.");
+				return null;
+			});
+			TestCase.fail("Expected an exception.");
+		} catch (GatewayTimeoutException e) {
+			TestCase.assertEquals(504, e.getHttpResponseStatusCode());
+		}
+	}
+
+	@Test
+	public void testPartialRegexSearch() throws Exception {
+		RegexSearchEngine.Builder<Entity> builder = new RegexSearchEngine.Builder<>();
+		for (int i = 0; i < 1000; i++) {
+			Entity entity = new Entity();
+			entity.setHandle("E" + i);
+			builder.add(entity, entity.getHandle());
+		}
+		RegexSearchEngine<Entity> engine = builder.build(new CompiledPatternCache());
+
+		SearchResultStruct<Entity> result = engine.search("E", 10);
+		TestCase.assertEquals(10, result.getResults().size());
+
+		try (Deadline.Scope scope = Deadline.after(-1, TimeUnit.SECONDS).bind()) {
+			result = engine.search("E", 10);
+		}
+		TestCase.assertTrue(result.getResults().isEmpty());
+		TestCase.assertEquals(Boolean.TRUE, result.getResultSetWasLimitedByUserConfiguration());
+	}
+
+}
@@ -0,0 +1,247 @@
+package mx.nic.rdap.db.federation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.paging.PagedSearch;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.StubImplementation;
+import mx.nic.rdap.db.spi.StubImplementation.Stub;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+public class FederatedDataAccessImplementationTest extends TestCase {
+
+	/** Entities every shard holds. */
+	private static final int ENTITIES = 4;
+
+	@Test
+	public void testAutnumRouting() throws Exception {
+		shards("low", "high");
+		Properties config = config("low, high");
+		config.setProperty("federation.low.autnum-ranges", "1-100, 200");
+		config.setProperty("federation.high.autnum-ranges", "101-199");
+		FederatedDataAccessImplementation federated = new FederatedDataAccessImplementation();
+		federated.init(config);
+		AutnumDAO dao = federated.getAutnumDAO();
+
+		TestCase.assertEquals("low", dao.getByRange(1).getHandle());
+		TestCase.assertEquals("low", dao.getByRange(100).getHandle());
+		TestCase.assertEquals("high", dao.getByRange(101).getHandle());
+		TestCase.assertEquals("low", dao.getByRange(200).getHandle());
+		TestCase.assertNull(dao.getByRange(201));
+		TestCase.assertNull(federated.getDomainDAO());
+	}
+
+	@Test
+	public void testOverlappingRanges() throws Exception {
+		shards("a", "b");
+		Properties config = config("a, b");
+		config.setProperty("federation.a.autnum-ranges", "1-100");
+		config.setProperty("federation.b.autnum-ranges", "100-200");
+		try {
+			new FederatedDataAccessImplementation().init(config);
+			TestCase.fail("Expected an exception.");
+		} catch (InitializationException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testEarlyTermination() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		shards("fast");
+		shard("slow", 5000, started, cancelled);
+		Properties config = config("fast, slow");
+		FederatedDataAccessImplementation federated = new FederatedDataAccessImplementation();
+		federated.init(config);
+
+		long start = System.nanoTime();
+		SearchResultStruct<Entity> result = federated.getEntityDAO().searchByHandle("*", 3);
+		long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+		// The fast shard filled the result, so the slow one was not waited for.
+		TestCase.assertTrue("Took " + elapsedMillis + " ms.", elapsedMillis < 2000);
+		TestCase.assertEquals(3, result.getResults().size());
+		TestCase.assertEquals("fast", result.getResults().get(0).getHandle());
+		TestCase.assertTrue(result.getResultSetWasLimitedByUserConfiguration());
+		// Unless it was cancelled before it even started, it was interrupted.
+		if (started.await(100, TimeUnit.MILLISECONDS)) {
+			TestCase.assertTrue(cancelled.await(2, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		shards("one", "two");
+		FederatedDataAccessImplementation federated = new FederatedDataAccessImplementation();
+		federated.init(config("one, two"));
+
+		SearchResultStruct<Entity> result = federated.getEntityDAO().searchByHandle("*", 10);
+		TestCase.assertEquals(8, result.getResults().size());
+		TestCase.assertFalse(result.getResultSetWasLimitedByUserConfiguration());
+	}
+
+	@Test
+	public void testPaging() throws Exception {
+		shards("one", "two");
+		FederatedDataAccessImplementation federated = new FederatedDataAccessImplementation();
+		federated.init(config("two, one"));
+		EntityDAO dao = federated.getEntityDAO();
+
+		// The pages of both shards are interleaved by handle.
+		List<String> handles = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			SearchResultStruct<Entity> page = dao.pageByHandle("*", cursor, 3);
+			for (Entity entity : page.getResults()) {
+				handles.add(entity.getHandle());
+			}
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		TestCase.assertEquals(3, pages);
+		TestCase.assertEquals(Arrays.asList("one-0", "one-1", "one-2", "one-3", "two-0", "two-1", "two-2", "two-3"),
+				handles);
+	}
+
+	@Test
+	public void testDomainPatternRouting() throws Exception {
+		Properties config = config("mx, commx, net");
+		config.setProperty("federation.mx.zones", "mx");
+		config.setProperty("federation.commx.zones", "com.mx");
+		config.setProperty("federation.net.zones", "net");
+		FederationConfiguration federation = new FederationConfiguration(config);
+		Shard mx = new Shard("mx", null);
+		Shard commx = new Shard("commx", null);
+		Shard net = new Shard("net", null);
+		ShardRouter router = new ShardRouter(Arrays.asList(mx, commx, net), federation);
+
+		TestCase.assertSame(commx, router.routeDomain("nic.com.mx"));
+		TestCase.assertSame(mx, router.routeDomain("nic.mx"));
+		TestCase.assertNull(router.routeDomain("nic.org"));
+
+		TestCase.assertEquals(Arrays.asList(commx), router.routeDomainPattern("nic.com.mx"));
+		TestCase.assertEquals(Arrays.asList(commx), router.routeDomainPattern("ni*.com.mx"));
+		// "*.mx" matches "nic.mx", and "com.mx" too, which lives in its own
+		// zone; it cannot reach the domains below com.mx, though.
+		TestCase.assertSame(commx, router.routeDomain("com.mx"));
+		TestCase.assertEquals(Arrays.asList(mx, commx), router.routeDomainPattern("*.mx"));
+		TestCase.assertEquals(new HashSet<>(Arrays.asList(mx, commx)),
+				new HashSet<>(router.routeDomainPattern("*.*.mx")));
+		TestCase.assertEquals(3, router.routeDomainPattern("nic.*").size());
+	}
+
+	private static Properties config(String shards) {
+		Properties config = new Properties();
+		config.setProperty("federation.shards", shards);
+		config.setProperty("federation.data-access-implementation", StubImplementation.class.getName());
+		for (String name : shards.split(",")) {
+			config.setProperty("federation." + name.trim() + "." + StubImplementation.NAME_PROPERTY, name.trim());
+		}
+		return config;
+	}
+
+	private static void shards(String... names) {
+		for (String name : names) {
+			shard(name, 0, new CountDownLatch(1), new CountDownLatch(1));
+		}
+	}
+
+	/**
+	 * Registers a shard that serves autnums and entity searches, named after
+	 * itself. Its searches take <code>delay</code> milliseconds; they release
+	 * <code>started</code> when they start, and <code>cancelled</code> if they
+	 * are interrupted.
+	 */
+	private static void shard(String name, long delay, CountDownLatch started, CountDownLatch cancelled) {
+		Stub stub = StubImplementation.register(name);
+		stub.autnums(autnum -> {
+			Autnum result = new Autnum();
+			result.setHandle(name);
+			return result;
+		});
+		stub.entities(new EntityDAO() {
+
+			@Override
+			public Entity getByHandle(String entityHandle) {
+				return null;
+			}
+
+			@Override
+			public SearchResultStruct<Entity> searchByHandle(String handle, int resultLimit)
+					throws RdapDataAccessException {
+				started.countDown();
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					cancelled.countDown();
+					throw new RdapDataAccessException(e);
+				}
+				SearchResultStruct<Entity> result = new SearchResultStruct<>();
+				for (int i = 0; i < ENTITIES; i++) {
+					Entity entity = new Entity();
+					entity.setHandle(name);
+					result.getResults().add(entity);
+				}
+				return result;
+			}
+
+			@Override
+			public SearchResultStruct<Entity> pageByHandle(String handle, String cursor, int resultLimit)
+					throws RdapDataAccessException {
+				return Pages.page(PagedSearch.ENTITY_BY_HANDLE.scope(handle), cursor, resultLimit,
+						Pages::entityKey, (after, limit) -> {
+							SearchResultStruct<Entity> result = new SearchResultStruct<>();
+							for (int i = 0; i < ENTITIES; i++) {
+								String current = name + "-" + i;
+								if (after != null && current.compareTo(after) <= 0) {
+									continue;
+								}
+								if (result.getResults().size() == limit) {
+									result.setResultSetWasLimitedByUserConfiguration(true);
+									break;
+								}
+								Entity entity = new Entity();
+								entity.setHandle(current);
+								result.getResults().add(entity);
+							}
+							return result;
+						});
+			}
+
+			@Override
+			public SearchResultStruct<Entity> searchByVCardName(String vCardName, int resultLimit) {
+				return new SearchResultStruct<>();
+			}
+
+			@Override
+			public SearchResultStruct<Entity> searchByRegexHandle(String regexHandle, int resultLimit) {
+				return new SearchResultStruct<>();
+			}
+
+			@Override
+			public SearchResultStruct<Entity> searchByRegexVCardName(String vCardName, int resultLimit) {
+				return new SearchResultStruct<>();
+			}
+
+		});
+	}
+
+}
@@ -0,0 +1,72 @@
+package mx.nic.rdap.db.fetch;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.db.cache.CacheConfiguration;
+import mx.nic.rdap.db.cache.CachingInterceptor;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.intercept.DAOCall;
+import mx.nic.rdap.db.intercept.DAOOperation;
+
+public class FetchPlanTest extends TestCase {
+
+	@Test
+	public void testScopes() {
+		TestCase.assertEquals(FetchPlan.FULL, FetchPlan.current());
+		try (FetchPlan.Scope outer = FetchPlan.SHALLOW.bind()) {
+			TestCase.assertEquals(FetchPlan.SHALLOW, FetchPlan.current());
+			try (FetchPlan.Scope inner = FetchPlan.WITH_ENTITIES.bind()) {
+				TestCase.assertEquals(FetchPlan.WITH_ENTITIES, FetchPlan.current());
+			}
+			TestCase.assertEquals(FetchPlan.SHALLOW, FetchPlan.current());
+		}
+		TestCase.assertEquals(FetchPlan.FULL, FetchPlan.current());
+
+		TestCase.assertTrue(FetchPlan.FULL.covers(FetchPlan.SHALLOW));
+		TestCase.assertFalse(FetchPlan.SHALLOW.covers(FetchPlan.WITH_ENTITIES));
+		TestCase.assertFalse(FetchPlan.SHALLOW.includesEntities());
+		TestCase.assertTrue(FetchPlan.WITH_ENTITIES.includesEntities());
+		TestCase.assertFalse(FetchPlan.WITH_ENTITIES.includesDetails());
+	}
+
+	@Test
+	public void testCachedByPlan() throws RdapDataAccessException {
+		Properties config = new Properties();
+		config.setProperty("cache.enabled", "true");
+		CachingInterceptor cache = new CachingInterceptor(new CacheConfiguration(config));
+		Object key = "example.mx";
+
+		AtomicInteger calls = new AtomicInteger();
+		DAOCall<Domain> call = () -> {
+			calls.incrementAndGet();
+			Domain domain = new Domain();
+			domain.setHandle(FetchPlan.current().name());
+			return domain;
+		};
+
+		// A shallow result cannot answer a full request...
+		try (FetchPlan.Scope scope = FetchPlan.SHALLOW.bind()) {
+			TestCase.assertEquals("SHALLOW", cache.intercept(DAOOperation.DOMAIN_GET_BY_NAME, key, call).getHandle());
+		}
+		TestCase.assertEquals("FULL", cache.intercept(DAOOperation.DOMAIN_GET_BY_NAME, key, call).getHandle());
+		TestCase.assertEquals(2, calls.get());
+
+		// ...but a full one can answer anything.
+		try (FetchPlan.Scope scope = FetchPlan.WITH_ENTITIES.bind()) {
+			TestCase.assertEquals("FULL", cache.intercept(DAOOperation.DOMAIN_GET_BY_NAME, key, call).getHandle());
+		}
+		TestCase.assertEquals(2, calls.get());
+
+		cache.invalidate(DAOOperation.DOMAIN_GET_BY_NAME, key);
+		try (FetchPlan.Scope scope = FetchPlan.SHALLOW.bind()) {
+			cache.intercept(DAOOperation.DOMAIN_GET_BY_NAME, key, call);
+		}
+		TestCase.assertEquals(3, calls.get());
+	}
+
+}
@@ -0,0 +1,110 @@
+package mx.nic.rdap.db.index;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Autnum;
+
+public class AutnumRangeIndexTest extends TestCase {
+
+	@Test
+	public void testDisjointBlocks() {
+		Autnum a = autnum("A", 100, 199);
+		Autnum b = autnum("B", 300, 300);
+		Autnum c = autnum("C", 200, 250);
+		AutnumRangeIndex index = AutnumRangeIndex.build(Arrays.asList(a, b, c));
+
+		TestCase.assertNull(index.get(0));
+		TestCase.assertNull(index.get(99));
+		TestCase.assertSame(a, index.get(100));
+		TestCase.assertSame(a, index.get(199));
+		TestCase.assertSame(c, index.get(200));
+		TestCase.assertSame(c, index.get(250));
+		TestCase.assertNull(index.get(251));
+		TestCase.assertSame(b, index.get(300));
+		TestCase.assertNull(index.get(4294967295L));
+	}
+
+	@Test
+	public void testNestedBlocks() {
+		Autnum outer = autnum("outer", 0, 1000);
+		Autnum inner = autnum("inner", 100, 200);
+		Autnum innermost = autnum("innermost", 150, 150);
+		Autnum tail = autnum("tail", 900, 1000);
+		AutnumRangeIndex index = AutnumRangeIndex.build(Arrays.asList(tail, innermost, outer, inner));
+
+		TestCase.assertSame(outer, index.get(0));
+		TestCase.assertSame(outer, index.get(99));
+		TestCase.assertSame(inner, index.get(100));
+		TestCase.assertSame(innermost, index.get(150));
+		TestCase.assertSame(inner, index.get(151));
+		TestCase.assertSame(outer, index.get(201));
+		TestCase.assertSame(tail, index.get(1000));
+		TestCase.assertNull(index.get(1001));
+	}
+
+	@Test
+	public void testPartialOverlap() {
+		try {
+			AutnumRangeIndex.build(Arrays.asList(autnum("A", 0, 100), autnum("B", 50, 150)));
+			TestCase.fail("Partially overlapping blocks should have been rejected.");
+		} catch (IllegalArgumentException e) {
+			// No code; success.
+		}
+	}
+
+	@Test
+	public void testIndexedDAOFallback() throws Exception {
+		Autnum indexed = autnum("indexed", 0, 1000);
+		Autnum nested = autnum("nested", 100, 200);
+		Autnum single = autnum("single", 500, 500);
+		// The fallback has the complete table; the index, part of it.
+		IndexedAutnumDAO fallback = new IndexedAutnumDAO();
+		fallback.reload(Arrays.asList(indexed, nested, single));
+		IndexedAutnumDAO dao = new IndexedAutnumDAO(fallback);
+		dao.reload(Arrays.asList(indexed, single));
+
+		TestCase.assertSame(nested, dao.getByRange(150));
+		TestCase.assertSame(indexed, dao.getByRange(300));
+		TestCase.assertSame(single, dao.getByRange(500));
+		TestCase.assertNull(dao.getByRange(2000));
+	}
+
+	@Test
+	public void testIndexedDAOCoverage() throws Exception {
+		Autnum indexed = autnum("indexed", 0, 1000);
+		Autnum nested = autnum("nested", 100, 200);
+		Autnum other = autnum("other", 2000, 3000);
+		IndexedAutnumDAO fallback = new IndexedAutnumDAO();
+		fallback.reload(Arrays.asList(indexed, nested, other));
+		// The index is complete for 0-1000, and knows nothing else.
+		IndexedAutnumDAO dao = new IndexedAutnumDAO(fallback, Arrays.asList(autnum("covered", 0, 1000)));
+		dao.reload(Arrays.asList(indexed));
+
+		// Covered, so the index's answer is final, even if it's incomplete.
+		TestCase.assertSame(indexed, dao.getByRange(150));
+		// Not covered; the fallback is still consulted.
+		TestCase.assertSame(other, dao.getByRange(2500));
+
+		// Authoritative index: misses are final too.
+		dao = new IndexedAutnumDAO(fallback, Arrays.asList(autnum("all", 0, 4294967295L)));
+		dao.reload(Arrays.asList(indexed));
+		TestCase.assertNull(dao.getByRange(2500));
+	}
+
+	@Test
+	public void testEmpty() {
+		TestCase.assertNull(AutnumRangeIndex.empty().get(1));
+	}
+
+	private static Autnum autnum(String handle, long start, long end) {
+		Autnum result = new Autnum();
+		result.setHandle(handle);
+		result.setStartAutnum(start);
+		result.setEndAutnum(end);
+		return result;
+	}
+
+}
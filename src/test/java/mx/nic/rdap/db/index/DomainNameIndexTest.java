@@ -0,0 +1,151 @@
+package mx.nic.rdap.db.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.DomainLabelException;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+import mx.nic.rdap.db.paging.Pages;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+public class DomainNameIndexTest extends TestCase {
+
+	private static final String[] NAMES = { "ns1.example.mx", "ns2.example.mx", "ns.exam.mx", "ns1.example.com",
+			"ns1.other.mx", "a.ns1.example.mx", "NS3.Example.MX." };
+
+	@Test
+	public void testExactMatch() throws Exception {
+		DomainNameIndex<Nameserver> index = buildIndex();
+		assertSearch(index, "ns1.example.mx", 10, false, "ns1.example.mx");
+		assertSearch(index, "ns3.example.mx", 10, false, "NS3.Example.MX.");
+		assertSearch(index, "example.mx", 10, false);
+		TestCase.assertEquals(1, index.get(new DomainLabel("ns1.example.com")).size());
+	}
+
+	@Test
+	public void testSuffixedWildcard() throws Exception {
+		DomainNameIndex<Nameserver> index = buildIndex();
+		assertSearch(index, "ns*.example.mx", 10, false, "ns1.example.mx", "ns2.example.mx", "NS3.Example.MX.");
+		assertSearch(index, "ns*.example.mx", 2, true, "ns1.example.mx", "ns2.example.mx");
+		assertSearch(index, "*.example.mx", 10, false, "ns1.example.mx", "ns2.example.mx", "NS3.Example.MX.");
+		assertSearch(index, "ns1*.example.com", 10, false, "ns1.example.com");
+		assertSearch(index, "x*.example.mx", 10, false);
+		assertSearch(index, "ns*.nothing.mx", 10, false);
+		TestCase.assertEquals(3, index.count(new DomainLabel("ns*.example.mx", false)));
+	}
+
+	@Test
+	public void testBareWildcard() throws Exception {
+		DomainNameIndex<Nameserver> index = buildIndex();
+		TestCase.assertEquals(6, index.count(new DomainLabel("ns*", false)));
+		TestCase.assertEquals(3, index.count(new DomainLabel("ns1*", false)));
+		assertSearch(index, "a*", 10, false, "a.ns1.example.mx");
+		assertSearch(index, "ns*", 1, true, 1);
+	}
+
+	@Test
+	public void testPage() throws Exception {
+		// Two nameservers share this name; they are told apart by handle.
+		DomainNameIndex<Nameserver> index = builder().add("ns1.example.mx", nameserver("ns1.example.mx", "NS-TWIN"))
+				.build();
+		assertPages(index, "ns1.example.mx", "ns1.example.mx", "ns1.example.mx");
+		// Note "ns.exam.mx" sorts before "ns1.example.mx", even though '.' > '1'.
+		assertPages(index, "ns*", "ns.exam.mx", "ns1.example.com", "ns1.example.mx", "ns1.example.mx",
+				"ns1.other.mx", "ns2.example.mx", "NS3.Example.MX.");
+		assertPages(index, "ns*.example.mx", "ns1.example.mx", "ns1.example.mx", "ns2.example.mx",
+				"NS3.Example.MX.");
+		assertPages(index, "x*.example.mx");
+	}
+
+	/**
+	 * Pages through the matches of <code>pattern</code>, two at a time, and
+	 * checks they are listed in order, once each.
+	 */
+	private static void assertPages(DomainNameIndex<Nameserver> index, String pattern, String... expected)
+			throws Exception {
+		DomainLabel label = new DomainLabel(pattern, false);
+		List<String> actual = new ArrayList<>();
+		String after = null;
+		while (true) {
+			SearchResultStruct<Nameserver> page = index.page(label, after, 2);
+			for (Nameserver nameserver : page.getResults()) {
+				String key = Pages.nameserverKey(nameserver);
+				TestCase.assertTrue(after == null || key.compareTo(after) > 0);
+				actual.add(nameserver.getLdhName());
+				after = key;
+			}
+			if (!page.getResultSetWasLimitedByUserConfiguration()) {
+				break;
+			}
+		}
+
+		List<String> expectedList = new ArrayList<>();
+		for (String name : expected) {
+			expectedList.add(name);
+		}
+		TestCase.assertEquals(expectedList, actual);
+	}
+
+	@Test
+	public void testUnsupportedPatterns() throws Exception {
+		DomainNameIndex<Nameserver> index = buildIndex();
+		assertUnprocessable(index, "ns1.ex*.mx");
+		assertUnprocessable(index, "n*s1.example.mx");
+	}
+
+	private void assertUnprocessable(DomainNameIndex<Nameserver> index, String pattern) throws DomainLabelException {
+		try {
+			index.search(new DomainLabel(pattern, false), 10);
+			TestCase.fail("Pattern " + pattern + " should have been rejected.");
+		} catch (UnprocessableEntityException e) {
+			// No code; success.
+		}
+	}
+
+	private static DomainNameIndex<Nameserver> buildIndex() {
+		return builder().build();
+	}
+
+	private static DomainNameIndex.Builder<Nameserver> builder() {
+		DomainNameIndex.Builder<Nameserver> builder = new DomainNameIndex.Builder<>();
+		for (String name : NAMES) {
+			builder.add(name, nameserver(name, "NS-" + name));
+		}
+		return builder;
+	}
+
+	private static Nameserver nameserver(String name, String handle) {
+		Nameserver nameserver = new Nameserver();
+		nameserver.setLdhName(name);
+		nameserver.setHandle(handle);
+		return nameserver;
+	}
+
+	private static void assertSearch(DomainNameIndex<Nameserver> index, String pattern, int limit, boolean limited,
+			String... expected) throws Exception {
+		SearchResultStruct<Nameserver> result = index.search(new DomainLabel(pattern, false), limit);
+		List<String> actual = new ArrayList<>();
+		for (Nameserver nameserver : result.getResults()) {
+			actual.add(nameserver.getLdhName());
+		}
+		List<String> expectedList = new ArrayList<>();
+		for (String name : expected) {
+			expectedList.add(name);
+		}
+		TestCase.assertEquals(expectedList, actual);
+		TestCase.assertEquals(Boolean.valueOf(limited), result.getResultSetWasLimitedByUserConfiguration());
+	}
+
+	private static void assertSearch(DomainNameIndex<Nameserver> index, String pattern, int limit, boolean limited,
+			int expectedSize) throws Exception {
+		SearchResultStruct<Nameserver> result = index.search(new DomainLabel(pattern, false), limit);
+		TestCase.assertEquals(expectedSize, result.getResults().size());
+		TestCase.assertEquals(Boolean.valueOf(limited), result.getResultSetWasLimitedByUserConfiguration());
+	}
+
+}
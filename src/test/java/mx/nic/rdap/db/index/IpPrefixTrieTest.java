@@ -0,0 +1,146 @@
+package mx.nic.rdap.db.index;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.core.ip.IpAddressFormatException;
+
+public class IpPrefixTrieTest extends TestCase {
+
+	@Test
+	public void testIpv4LongestPrefixMatch() throws IpAddressFormatException {
+		IpPrefixTrie<String> trie = new IpPrefixTrie<>();
+		trie.put(new AddressBlock("192.0.0.0", 8), "/8");
+		trie.put(new AddressBlock("192.0.2.0", 24), "/24");
+		trie.put(new AddressBlock("192.0.2.128", 25), "/25");
+		trie.put(new AddressBlock("10.0.0.0", 8), "10/8");
+		TestCase.assertEquals(4, trie.size());
+
+		assertMatch(trie, "192.0.2.200", 32, "/25");
+		assertMatch(trie, "192.0.2.100", 32, "/24");
+		assertMatch(trie, "192.0.2.0", 24, "/24");
+		assertMatch(trie, "192.0.2.0", 23, "/8");
+		assertMatch(trie, "192.1.0.0", 16, "/8");
+		assertMatch(trie, "10.1.2.3", 32, "10/8");
+		assertMatch(trie, "11.0.0.0", 8, null);
+		assertMatch(trie, "0.0.0.0", 0, null);
+
+		trie.put(new AddressBlock("0.0.0.0", 0), "default");
+		assertMatch(trie, "11.0.0.0", 8, "default");
+		assertMatch(trie, "192.0.2.200", 32, "/25");
+	}
+
+	@Test
+	public void testIndexedDAOFallback() throws Exception {
+		IpNetwork indexed = network("10.0.0.0", 8);
+		IpNetwork nested = network("10.1.0.0", 16);
+		IpNetwork other = network("192.0.2.0", 24);
+		// The fallback has the complete table; the index, part of it.
+		IndexedIpNetworkDAO fallback = new IndexedIpNetworkDAO();
+		fallback.reload(Arrays.asList(indexed, nested, other));
+		IndexedIpNetworkDAO dao = new IndexedIpNetworkDAO(fallback);
+		dao.reload(Arrays.asList(indexed));
+
+		TestCase.assertSame(nested, dao.getByAddressBlock(new AddressBlock("10.1.2.0", 24)));
+		TestCase.assertSame(indexed, dao.getByAddressBlock(new AddressBlock("10.2.0.0", 16)));
+		TestCase.assertSame(indexed, dao.getByAddressBlock(new AddressBlock("10.0.0.0", 8)));
+		TestCase.assertSame(other, dao.getByAddressBlock(new AddressBlock("192.0.2.1", 32)));
+		TestCase.assertNull(dao.getByAddressBlock(new AddressBlock("11.0.0.0", 8)));
+	}
+
+	@Test
+	public void testIndexedDAOCoverage() throws Exception {
+		IpNetwork indexed = network("10.0.0.0", 8);
+		IpNetwork nested = network("10.1.0.0", 16);
+		IpNetwork other = network("192.0.2.0", 24);
+		IndexedIpNetworkDAO fallback = new IndexedIpNetworkDAO();
+		fallback.reload(Arrays.asList(indexed, nested, other));
+		// The index is complete inside 10/8, and knows nothing else.
+		IndexedIpNetworkDAO dao = new IndexedIpNetworkDAO(fallback,
+				Arrays.asList(new AddressBlock("10.0.0.0", 8)));
+		dao.reload(Arrays.asList(indexed));
+
+		// Covered, so the index's answer is final, even if it's incomplete.
+		TestCase.assertSame(indexed, dao.getByAddressBlock(new AddressBlock("10.1.2.0", 24)));
+		// Not covered; the fallback is still consulted.
+		TestCase.assertSame(other, dao.getByAddressBlock(new AddressBlock("192.0.2.1", 32)));
+
+		// Authoritative index: misses are final too.
+		dao = new IndexedIpNetworkDAO(fallback,
+				Arrays.asList(new AddressBlock("0.0.0.0", 0), new AddressBlock("::", 0)));
+		dao.reload(Arrays.asList(indexed));
+		TestCase.assertNull(dao.getByAddressBlock(new AddressBlock("192.0.2.1", 32)));
+	}
+
+	@Test
+	public void testRangeFallback() throws Exception {
+		IpNetwork indexed = network("10.0.0.0", 8);
+		IpNetwork range = new IpNetwork();
+		range.setHandle("range");
+		range.setStartAddress(InetAddress.getByName("10.1.0.0"));
+		range.setEndAddress(InetAddress.getByName("10.1.2.255"));
+		IndexedIpNetworkDAO fallback = new IndexedIpNetworkDAO();
+		fallback.reload(Arrays.asList(indexed, range));
+		IndexedIpNetworkDAO dao = new IndexedIpNetworkDAO(fallback);
+		dao.reload(Arrays.asList(indexed));
+
+		TestCase.assertSame(range, dao.getByAddressBlock(new AddressBlock("10.1.1.0", 24)));
+		TestCase.assertSame(indexed, dao.getByAddressBlock(new AddressBlock("10.1.3.0", 24)));
+	}
+
+	@Test
+	public void testIpv6LongestPrefixMatch() throws IpAddressFormatException {
+		IpPrefixTrie<String> trie = new IpPrefixTrie<>();
+		trie.put(new AddressBlock("2001:db8::", 32), "/32");
+		trie.put(new AddressBlock("2001:db8:0:0:8000::", 65), "/65");
+		trie.put(new AddressBlock("2001:db8::1", 128), "/128");
+
+		assertMatch(trie, "2001:db8::1", 128, "/128");
+		assertMatch(trie, "2001:db8::2", 128, "/32");
+		assertMatch(trie, "2001:db8:0:0:8000::5", 128, "/65");
+		assertMatch(trie, "2001:db9::", 32, null);
+
+		// IPv4 and IPv6 must not see each other.
+		assertMatch(trie, "32.1.13.184", 32, null);
+	}
+
+	@Test
+	public void testRanges() throws UnknownHostException, IpAddressFormatException {
+		IpPrefixTrie<String> trie = new IpPrefixTrie<>();
+		trie.putRange(InetAddress.getByName("192.0.2.10"), InetAddress.getByName("192.0.3.5"), "range");
+		// .10/31, .12/30, .16/28, .32/27, .64/26, .128/25, 3.0/30, 3.4/31
+		TestCase.assertEquals(8, trie.size());
+
+		assertMatch(trie, "192.0.2.9", 32, null);
+		assertMatch(trie, "192.0.2.10", 32, "range");
+		assertMatch(trie, "192.0.2.128", 25, "range");
+		assertMatch(trie, "192.0.3.5", 32, "range");
+		assertMatch(trie, "192.0.3.6", 32, null);
+
+		trie = new IpPrefixTrie<>();
+		trie.putRange(InetAddress.getByName("::"), InetAddress.getByName("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"),
+				"all");
+		TestCase.assertEquals(1, trie.size());
+		assertMatch(trie, "2001:db8::", 48, "all");
+	}
+
+	private void assertMatch(IpPrefixTrie<String> trie, String address, int prefix, String expected)
+			throws IpAddressFormatException {
+		TestCase.assertEquals(expected, trie.longestPrefixMatch(new AddressBlock(address, prefix)));
+	}
+
+	private static IpNetwork network(String address, int prefix) throws UnknownHostException {
+		IpNetwork result = new IpNetwork();
+		result.setHandle(address + "/" + prefix);
+		result.setStartAddress(InetAddress.getByName(address));
+		result.setPrefix(prefix);
+		return result;
+	}
+
+}
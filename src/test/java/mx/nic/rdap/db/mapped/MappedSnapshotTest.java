@@ -0,0 +1,196 @@
+package mx.nic.rdap.db.mapped;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.catalog.EventAction;
+import mx.nic.rdap.core.catalog.Role;
+import mx.nic.rdap.core.catalog.Status;
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.DsData;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.Event;
+import mx.nic.rdap.core.db.IpAddress;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.core.db.Remark;
+import mx.nic.rdap.core.db.RemarkDescription;
+import mx.nic.rdap.core.db.SecureDNS;
+import mx.nic.rdap.core.db.VCard;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.memory.InMemoryConfiguration;
+import mx.nic.rdap.db.memory.InMemoryDataAccessImplementation;
+import mx.nic.rdap.db.memory.RegistrySnapshot;
+
+public class MappedSnapshotTest extends TestCase {
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Path file = write(fixture());
+		try {
+			MappedSnapshot snapshot = MappedSnapshot.open(file);
+			TestCase.assertEquals(2, snapshot.getDomainCount());
+			TestCase.assertEquals(2, snapshot.getNameserverCount());
+
+			Domain domain = snapshot.getDomain(new DomainLabel("EXAMPLE.mx"));
+			TestCase.assertEquals("DOM-1", domain.getHandle());
+			TestCase.assertEquals("example", domain.getLdhName());
+			TestCase.assertEquals(Arrays.asList(Status.ACTIVE), domain.getStatus());
+			TestCase.assertEquals(EventAction.REGISTRATION, domain.getEvents().get(0).getEventAction());
+			TestCase.assertEquals(new Date(1500000000000L), domain.getEvents().get(0).getEventDate());
+			TestCase.assertEquals("Text", domain.getRemarks().get(0).getDescriptions().get(0).getDescription());
+			TestCase.assertEquals(Boolean.TRUE, domain.getSecureDNS().getZoneSigned());
+			TestCase.assertNull(domain.getSecureDNS().getDelegationSigned());
+			TestCase.assertEquals(Integer.valueOf(12345), domain.getSecureDNS().getDsData().get(0).getKeytag());
+			TestCase.assertEquals("ENT-1", domain.getEntities().get(0).getHandle());
+			TestCase.assertEquals(Arrays.asList(Role.REGISTRANT), domain.getEntities().get(0).getRoles());
+			TestCase.assertEquals(InetAddress.getByName("2001:db8::1"),
+					domain.getNameServers().get(0).getIpAddresses().getIpv6Adresses().get(0).getAddress());
+			TestCase.assertNull(snapshot.getDomain(new DomainLabel("missing.mx")));
+
+			TestCase.assertEquals(2, snapshot.getNameservers(new DomainLabel("ns.example.mx")).size());
+			TestCase.assertEquals(2, snapshot.countNameservers(new DomainLabel("ns.example.mx")));
+			TestCase.assertEquals("NS-2", snapshot.getNameserver("NS-2").getHandle());
+			TestCase.assertEquals("Alice", snapshot.getEntity("ENT-1").getVCardList().get(0).getName());
+			TestCase.assertEquals(Integer.valueOf(50), snapshot.getUser("alice").getMaxSearchResults());
+			TestCase.assertEquals(Long.valueOf(64511), snapshot.readAutnums().get(0).getEndAutnum());
+			TestCase.assertEquals("MX", snapshot.readAutnums().get(0).getCountryCode());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testImplementations() throws Exception {
+		Path file = write(fixture());
+		try {
+			Properties config = new Properties();
+			config.setProperty(MappedConfiguration.FILE_PROPERTY, file.toString());
+
+			MappedDataAccessImplementation mapped = new MappedDataAccessImplementation();
+			mapped.init(config);
+			TestCase.assertEquals("DOM-2", mapped.getDomainDAO().getByName(new DomainLabel("other.mx")).getHandle());
+			TestCase.assertTrue(mapped.getDomainDAO().exists(new DomainLabel("OTHER.mx")));
+			TestCase.assertFalse(mapped.getDomainDAO().exists(new DomainLabel("missing.mx")));
+			TestCase.assertTrue(mapped.getEntityDAO().existsByHandle("ENT-1"));
+			TestCase.assertFalse(mapped.getNameserverDAO().existsByHandle("NS-9"));
+			TestCase.assertEquals("AS-1", mapped.getAutnumDAO().getByRange(64500).getHandle());
+			AddressBlock host = new AddressBlock(InetAddress.getByName("192.0.2.9"), 32);
+			TestCase.assertEquals("NET-1", mapped.getIpNetworkDAO().getByAddressBlock(host).getHandle());
+			try {
+				mapped.getDomainDAO().searchByRegexName(".*", 10);
+				TestCase.fail("Expected an exception.");
+			} catch (NotImplementedException e) {
+				// Expected.
+			}
+
+			config.setProperty(InMemoryConfiguration.FORMAT_PROPERTY, MappedSnapshotLoader.FORMAT);
+			InMemoryDataAccessImplementation memory = new InMemoryDataAccessImplementation();
+			memory.init(config);
+			TestCase.assertEquals(1, memory.getDomainDAO().searchByRegexName("^oth", 10).getResults().size());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testCorruptSnapshot() {
+		try {
+			MappedSnapshot.wrap(ByteBuffer.wrap(new byte[SnapshotFormat.HEADER_SIZE]));
+			TestCase.fail("Expected an exception.");
+		} catch (IOException e) {
+			// Expected.
+		}
+	}
+
+	private static Path write(RegistrySnapshot snapshot) throws IOException {
+		Path file = Files.createTempFile("registry", ".snapshot");
+		SnapshotWriter.write(snapshot, file);
+		return file;
+	}
+
+	private static RegistrySnapshot fixture() throws Exception {
+		Entity entity = new Entity();
+		entity.setHandle("ENT-1");
+		entity.getRoles().add(Role.REGISTRANT);
+		VCard vCard = new VCard();
+		vCard.setName("Alice");
+		entity.getVCardList().add(vCard);
+
+		Event event = new Event();
+		event.setEventAction(EventAction.REGISTRATION);
+		event.setEventDate(new Date(1500000000000L));
+		RemarkDescription description = new RemarkDescription();
+		description.setDescription("Text");
+		Remark remark = new Remark();
+		remark.getDescriptions().add(description);
+		DsData dsData = new DsData();
+		dsData.setKeytag(12345);
+		SecureDNS secureDns = new SecureDNS();
+		secureDns.setZoneSigned(true);
+		secureDns.getDsData().add(dsData);
+
+		Domain example = new Domain();
+		example.setHandle("DOM-1");
+		example.setLdhName("example");
+		example.setZone("mx");
+		example.getStatus().add(Status.ACTIVE);
+		example.getEvents().add(event);
+		example.getRemarks().add(remark);
+		example.setSecureDNS(secureDns);
+		example.getEntities().add(entity);
+		example.getNameServers().add(nameserver("NS-1", "2001:db8::1"));
+
+		Domain other = new Domain();
+		other.setHandle("DOM-2");
+		other.setLdhName("other");
+		other.setZone("mx");
+		other.getNameServers().add(nameserver("NS-2", "192.0.2.1"));
+
+		Autnum autnum = new Autnum();
+		autnum.setHandle("AS-1");
+		autnum.setStartAutnum(64496L);
+		autnum.setEndAutnum(64511L);
+		autnum.setCountry("MX");
+
+		IpNetwork network = new IpNetwork();
+		network.setHandle("NET-1");
+		network.setStartAddress(InetAddress.getByName("192.0.2.0"));
+		network.setPrefix(24);
+
+		RdapUser user = new RdapUser();
+		user.setName("alice");
+		user.setMaxSearchResults(50);
+
+		return new RegistrySnapshot.Builder().addDomain(example).addDomain(other).addEntity(entity)
+				.addAutnum(autnum).addIpNetwork(network).addUser(user).build();
+	}
+
+	private static Nameserver nameserver(String handle, String address) throws Exception {
+		Nameserver nameserver = new Nameserver();
+		nameserver.setHandle(handle);
+		nameserver.setLdhName("ns.example.mx");
+		IpAddress ipAddress = new IpAddress();
+		ipAddress.setAddress(InetAddress.getByName(address));
+		if (address.contains(":")) {
+			nameserver.getIpAddresses().getIpv6Adresses().add(ipAddress);
+		} else {
+			nameserver.getIpAddresses().getIpv4Adresses().add(ipAddress);
+		}
+		return nameserver;
+	}
+
+}
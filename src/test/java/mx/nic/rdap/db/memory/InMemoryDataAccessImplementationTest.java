@@ -0,0 +1,327 @@
+package mx.nic.rdap.db.memory;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Autnum;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.core.db.DomainLabel;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.core.db.IpAddress;
+import mx.nic.rdap.core.db.IpNetwork;
+import mx.nic.rdap.core.db.Nameserver;
+import mx.nic.rdap.core.db.VCard;
+import mx.nic.rdap.core.ip.AddressBlock;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.cache.CacheConfiguration;
+import mx.nic.rdap.db.cache.CachingInterceptor;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.intercept.InterceptedDomainDAO;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+public class InMemoryDataAccessImplementationTest extends TestCase {
+
+	@Test
+	public void testInitThroughLoader() throws Exception {
+		InMemoryDataAccessImplementation implementation = new InMemoryDataAccessImplementation();
+		Properties config = new Properties();
+		config.setProperty(InMemoryConfiguration.FORMAT_PROPERTY, "FIXTURE");
+		implementation.init(config);
+
+		Domain domain = implementation.getDomainDAO().getByName(new DomainLabel("Example.MX"));
+		TestCase.assertEquals("DOM-1", domain.getHandle());
+		TestCase.assertEquals("AS-1", implementation.getAutnumDAO().getByRange(64500).getHandle());
+		TestCase.assertNull(implementation.getAutnumDAO().getByRange(1));
+		AddressBlock host = new AddressBlock(InetAddress.getByName("192.0.2.77"), 32);
+		TestCase.assertEquals("NET-1", implementation.getIpNetworkDAO().getByAddressBlock(host).getHandle());
+		TestCase.assertEquals("alice", implementation.getRdapUserDAO().getByUsername("alice").getName());
+
+		config.setProperty(InMemoryConfiguration.FORMAT_PROPERTY, "unknown");
+		try {
+			implementation.init(config);
+			TestCase.fail("Expected an exception.");
+		} catch (InitializationException e) {
+			// Expected.
+		}
+		// The previous registry survives a failed initialization.
+		TestCase.assertNotNull(implementation.getRdapUserDAO().getByUsername("alice"));
+	}
+
+	@Test
+	public void testDomains() throws Exception {
+		InMemoryDataAccessImplementation implementation = new InMemoryDataAccessImplementation();
+		implementation.reload(fixture());
+		DomainDAO dao = implementation.getDomainDAO();
+
+		TestCase.assertNull(dao.getByName(new DomainLabel("missing.mx")));
+		TestCase.assertEquals(2, dao.searchByName(new DomainLabel("exa*.mx", false), 10).getResults().size());
+
+		// Both nameservers of example.mx match, but the domain is listed once.
+		SearchResultStruct<Domain> result = dao.searchByNsLDHName(new DomainLabel("ns*.example.mx", false), 1);
+		TestCase.assertEquals(1, result.getResults().size());
+		TestCase.assertEquals("DOM-1", result.getResults().get(0).getHandle());
+		TestCase.assertFalse(result.getResultSetWasLimitedByUserConfiguration());
+
+		TestCase.assertEquals(2, dao.searchByNsIp("192.0.2.1", 10).getResults().size());
+		TestCase.assertEquals(1, dao.searchByNsIp("2001:db8:0:0::1", 10).getResults().size());
+		try {
+			dao.searchByNsIp("not an address", 10);
+			TestCase.fail("Expected an exception.");
+		} catch (BadRequestException e) {
+			// Expected.
+		}
+
+		TestCase.assertEquals("DOM-2", dao.searchByRegexName("^example2\\.", 10).getResults().get(0).getHandle());
+		TestCase.assertEquals(1, dao.searchByRegexNsLDHName("^ns2\\.", 10).getResults().size());
+		TestCase.assertEquals(1, dao.searchByRegexNsIp("^2001:", 10).getResults().size());
+	}
+
+	@Test
+	public void testNameserversAndEntities() throws Exception {
+		InMemoryDataAccessImplementation implementation = new InMemoryDataAccessImplementation();
+		implementation.reload(fixture());
+
+		NameserverDAO nameservers = implementation.getNameserverDAO();
+		TestCase.assertEquals("NS-1", nameservers.getByHandle("NS-1").getHandle());
+		TestCase.assertEquals(1, nameservers.getNameserverCount(new DomainLabel("ns1.example.mx")));
+		TestCase.assertEquals(3, nameservers.searchByName(new DomainLabel("ns*", false), 10).getResults().size());
+		TestCase.assertEquals(2, nameservers.searchByIp("192.0.2.1", 10).getResults().size());
+
+		EntityDAO entities = implementation.getEntityDAO();
+		TestCase.assertEquals("ENT-1", entities.getByHandle("ENT-1").getHandle());
+		SearchResultStruct<Entity> byHandle = entities.searchByHandle("ENT-*", 1);
+		TestCase.assertEquals(1, byHandle.getResults().size());
+		TestCase.assertTrue(byHandle.getResultSetWasLimitedByUserConfiguration());
+		TestCase.assertEquals("ENT-2", entities.searchByVCardName("bob*", 10).getResults().get(0).getHandle());
+		TestCase.assertEquals("ENT-1", entities.searchByRegexVCardName("^Ali", 10).getResults().get(0).getHandle());
+	}
+
+	@Test
+	public void testExistenceAndCounts() throws Exception {
+		InMemoryDataAccessImplementation implementation = new InMemoryDataAccessImplementation();
+		implementation.reload(fixture());
+
+		DomainDAO domains = implementation.getDomainDAO();
+		TestCase.assertTrue(domains.exists(new DomainLabel("EXAMPLE.mx")));
+		TestCase.assertFalse(domains.exists(new DomainLabel("missing.mx")));
+		TestCase.assertEquals(2, domains.countByName(new DomainLabel("exa*.mx", false), 10));
+		TestCase.assertEquals(1, domains.countByName(new DomainLabel("exa*.mx", false), 1));
+
+		NameserverDAO nameservers = implementation.getNameserverDAO();
+		TestCase.assertTrue(nameservers.existsByName(new DomainLabel("ns1.example.mx")));
+		TestCase.assertFalse(nameservers.existsByHandle("NS-9"));
+		TestCase.assertEquals(3, nameservers.countByName(new DomainLabel("ns*", false), 10));
+
+		EntityDAO entities = implementation.getEntityDAO();
+		TestCase.assertTrue(entities.existsByHandle("ENT-2"));
+		TestCase.assertEquals(2, entities.countByHandle("ENT-*", 10));
+
+		// Defaults.
+		TestCase.assertTrue(implementation.getAutnumDAO().existsByRange(64500));
+		AddressBlock host = new AddressBlock(InetAddress.getByName("198.51.100.1"), 32);
+		TestCase.assertFalse(implementation.getIpNetworkDAO().existsByAddressBlock(host));
+	}
+
+	@Test
+	public void testPaging() throws Exception {
+		InMemoryDataAccessImplementation implementation = new InMemoryDataAccessImplementation();
+		implementation.reload(fixture());
+
+		// Seeks the handle index.
+		EntityDAO entities = implementation.getEntityDAO();
+		SearchResultStruct<Entity> entityPage = entities.pageByHandle("ENT-*", null, 1);
+		TestCase.assertEquals("ENT-1", entityPage.getResults().get(0).getHandle());
+		TestCase.assertNotNull(entityPage.getNextCursor());
+		entityPage = entities.pageByHandle("ENT-*", entityPage.getNextCursor(), 1);
+		TestCase.assertEquals(1, entityPage.getResults().size());
+		TestCase.assertEquals("ENT-2", entityPage.getResults().get(0).getHandle());
+		TestCase.assertNull(entityPage.getNextCursor());
+
+		// Seeks the name indexes, and the sorted IP lists.
+		NameserverDAO nameservers = implementation.getNameserverDAO();
+		DomainLabel pattern = new DomainLabel("ns*", false);
+		SearchResultStruct<Nameserver> nsPage = nameservers.pageByName(pattern, null, 2);
+		TestCase.assertEquals(2, nsPage.getResults().size());
+		TestCase.assertEquals("NS-3", nsPage.getResults().get(0).getHandle());
+		TestCase.assertEquals("NS-1", nsPage.getResults().get(1).getHandle());
+		String cursor = nsPage.getNextCursor();
+		nsPage = nameservers.pageByName(pattern, cursor, 2);
+		TestCase.assertEquals(1, nsPage.getResults().size());
+		TestCase.assertEquals("NS-2", nsPage.getResults().get(0).getHandle());
+		TestCase.assertNull(nsPage.getNextCursor());
+
+		nsPage = nameservers.pageByIp("192.0.2.1", null, 1);
+		TestCase.assertEquals("NS-3", nsPage.getResults().get(0).getHandle());
+		nsPage = nameservers.pageByIp("192.0.2.1", nsPage.getNextCursor(), 1);
+		TestCase.assertEquals("NS-1", nsPage.getResults().get(0).getHandle());
+		TestCase.assertNull(nsPage.getNextCursor());
+
+		DomainDAO domains = implementation.getDomainDAO();
+		DomainLabel domainPattern = new DomainLabel("exa*.mx", false);
+		SearchResultStruct<Domain> domainPage = domains.pageByName(domainPattern, null, 1);
+		TestCase.assertEquals("DOM-1", domainPage.getResults().get(0).getHandle());
+		domainPage = domains.pageByName(domainPattern, domainPage.getNextCursor(), 1);
+		TestCase.assertEquals("DOM-2", domainPage.getResults().get(0).getHandle());
+		TestCase.assertNull(domainPage.getNextCursor());
+
+		domainPage = domains.pageByNsIp("192.0.2.1", null, 1);
+		TestCase.assertEquals("DOM-1", domainPage.getResults().get(0).getHandle());
+		domainPage = domains.pageByNsIp("192.0.2.1", domainPage.getNextCursor(), 1);
+		TestCase.assertEquals("DOM-2", domainPage.getResults().get(0).getHandle());
+		TestCase.assertNull(domainPage.getNextCursor());
+
+		// Cursors only work on the search that issued them.
+		try {
+			nameservers.pageByName(new DomainLabel("ns1*", false), cursor, 2);
+			TestCase.fail("Expected an exception.");
+		} catch (BadRequestException e) {
+			// Expected.
+		}
+
+		// Searches that cannot seek are not paged.
+		try {
+			domains.pageByRegexName("^example", null, 1);
+			TestCase.fail("Expected an exception.");
+		} catch (NotImplementedException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testCachedPaging() throws Exception {
+		InMemoryDataAccessImplementation implementation = new InMemoryDataAccessImplementation();
+		implementation.reload(fixture());
+		Properties config = new Properties();
+		config.setProperty("cache.searches", "true");
+		DomainDAO domains = new InterceptedDomainDAO(implementation.getDomainDAO(),
+				new CachingInterceptor(new CacheConfiguration(config)));
+
+		// The cached search must not answer the first page; it has no cursor.
+		DomainLabel pattern = new DomainLabel("exa*.mx", false);
+		TestCase.assertEquals(1, domains.searchByName(pattern, 1).getResults().size());
+		SearchResultStruct<Domain> page = domains.pageByName(pattern, null, 1);
+		TestCase.assertNotNull(page.getNextCursor());
+		page = domains.pageByName(pattern, page.getNextCursor(), 1);
+		TestCase.assertEquals("DOM-2", page.getResults().get(0).getHandle());
+
+		try {
+			domains.searchByRegexName("^example", 1);
+			domains.pageByRegexName("^example", null, 1);
+			TestCase.fail("Expected an exception.");
+		} catch (NotImplementedException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testReload() throws Exception {
+		InMemoryDataAccessImplementation implementation = new InMemoryDataAccessImplementation();
+		EntityDAO dao = implementation.getEntityDAO();
+		TestCase.assertNull(dao.getByHandle("ENT-1"));
+
+		implementation.reload(fixture());
+		TestCase.assertNotNull(dao.getByHandle("ENT-1"));
+
+		Entity duplicate = new Entity();
+		duplicate.setHandle("ENT-1");
+		try {
+			implementation.reload(new RegistrySnapshot.Builder().addEntity(duplicate).addEntity(duplicate).build());
+			TestCase.fail("Expected an exception.");
+		} catch (RdapDataAccessException e) {
+			// Expected.
+		}
+		TestCase.assertNotNull(dao.getByHandle("ENT-2"));
+	}
+
+	static RegistrySnapshot fixture() throws Exception {
+		Nameserver ns1 = nameserver("NS-1", "ns1.example.mx", "192.0.2.1");
+		Nameserver ns2 = nameserver("NS-2", "ns2.example.mx", "2001:db8::1");
+		Nameserver ns3 = nameserver("NS-3", "ns.other.mx", "192.0.2.1");
+
+		Autnum autnum = new Autnum();
+		autnum.setHandle("AS-1");
+		autnum.setStartAutnum(64496L);
+		autnum.setEndAutnum(64511L);
+
+		IpNetwork network = new IpNetwork();
+		network.setHandle("NET-1");
+		network.setStartAddress(InetAddress.getByName("192.0.2.0"));
+		network.setPrefix(24);
+
+		RdapUser user = new RdapUser();
+		user.setName("alice");
+
+		return new RegistrySnapshot.Builder() //
+				.addDomain(domain("DOM-1", "example", ns1, ns2)) //
+				.addDomain(domain("DOM-2", "example2", ns3)) //
+				.addEntities(Arrays.asList(entity("ENT-1", "Alice"), entity("ENT-2", "Bob"))) //
+				.addAutnum(autnum) //
+				.addIpNetwork(network) //
+				.addUser(user) //
+				.build();
+	}
+
+	private static Domain domain(String handle, String name, Nameserver... nameservers) {
+		Domain domain = new Domain();
+		domain.setHandle(handle);
+		domain.setLdhName(name);
+		domain.setZone("mx");
+		domain.getNameServers().addAll(Arrays.asList(nameservers));
+		return domain;
+	}
+
+	private static Nameserver nameserver(String handle, String name, String address) throws Exception {
+		Nameserver nameserver = new Nameserver();
+		nameserver.setHandle(handle);
+		nameserver.setLdhName(name);
+		IpAddress ipAddress = new IpAddress();
+		ipAddress.setAddress(InetAddress.getByName(address));
+		if (address.contains(":")) {
+			nameserver.getIpAddresses().getIpv6Adresses().add(ipAddress);
+		} else {
+			nameserver.getIpAddresses().getIpv4Adresses().add(ipAddress);
+		}
+		return nameserver;
+	}
+
+	private static Entity entity(String handle, String name) {
+		Entity entity = new Entity();
+		entity.setHandle(handle);
+		VCard vCard = new VCard();
+		vCard.setName(name);
+		entity.getVCardList().add(vCard);
+		return entity;
+	}
+
+	/**
+	 * Serves {@link InMemoryDataAccessImplementationTest#fixture()}.
+	 */
+	public static class FixtureLoader implements SnapshotLoader {
+
+		@Override
+		public String getFormat() {
+			return "fixture";
+		}
+
+		@Override
+		public RegistrySnapshot load(Properties properties) throws InitializationException {
+			try {
+				return fixture();
+			} catch (Exception e) {
+				throw new InitializationException("Could not build the fixture.", e);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,92 @@
+package mx.nic.rdap.db.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.intercept.DAOOperation;
+import mx.nic.rdap.db.intercept.InterceptedRdapUserDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+public class MetricsInterceptorTest extends TestCase {
+
+	@Test
+	public void testHistogramBuckets() {
+		long[] values = { 0, 1, 31, 32, 33, 1000, 123456789, 1L << 39 };
+		for (long value : values) {
+			int index = LatencyHistogram.indexOf(value);
+			TestCase.assertTrue(value + " is out of its bucket.", value <= LatencyHistogram.highestValueOf(index));
+			if (index > 0) {
+				TestCase.assertTrue(value + " is out of its bucket.",
+						value > LatencyHistogram.highestValueOf(index - 1));
+			}
+			// The bucket is at most ~3% wide.
+			TestCase.assertTrue(LatencyHistogram.highestValueOf(index) - value <= value / 32);
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		TestCase.assertEquals(1000, histogram.getCount());
+		TestCase.assertEquals(500500.0, histogram.getMean(), 0.1);
+		TestCase.assertEquals(1000000, histogram.getMax());
+		assertClose(500000, histogram.getPercentile(50));
+		assertClose(990000, histogram.getPercentile(99));
+		TestCase.assertEquals(1000000, histogram.getPercentile(100));
+	}
+
+	private static void assertClose(long expected, long actual) {
+		TestCase.assertTrue(expected + " vs " + actual, Math.abs(expected - actual) <= expected / 32);
+	}
+
+	@Test
+	public void testInterceptor() throws Exception {
+		MetricsInterceptor metrics = new MetricsInterceptor();
+		RdapUserDAO dao = new InterceptedRdapUserDAO(username -> {
+			if (username.isEmpty()) {
+				throw new NotFoundException();
+			}
+			return new RdapUser();
+		}, metrics);
+
+		dao.getByUsername("alice");
+		dao.getByUsername("bob");
+		try {
+			dao.getByUsername("");
+			TestCase.fail("The exception should have been propagated.");
+		} catch (NotFoundException e) {
+			// No code; success.
+		}
+
+		DAOMethodMetrics method = metrics.getMetrics(DAOOperation.RDAP_USER_GET_BY_USERNAME);
+		TestCase.assertEquals(3, method.getCallCount());
+		TestCase.assertEquals(1, method.getErrorCount());
+		TestCase.assertEquals(Long.valueOf(1), method.getErrorCounts().get(404));
+		TestCase.assertEquals(2, method.getResultCount());
+		TestCase.assertEquals(0, metrics.getMetrics(DAOOperation.DOMAIN_GET_BY_NAME).getCallCount());
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("mx.nic.rdap.db:type=DAOMethod,name=RDAP_USER_GET_BY_USERNAME");
+		try {
+			metrics.registerMBeans();
+			TestCase.assertEquals(3L, server.getAttribute(name, "CallCount"));
+		} catch (InitializationException e) {
+			TestCase.fail(e.getMessage());
+		} finally {
+			metrics.unregisterMBeans();
+		}
+		TestCase.assertFalse(server.isRegistered(name));
+	}
+
+}
@@ -0,0 +1,49 @@
+package mx.nic.rdap.db.paging;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+
+public class PageTokenCodecTest extends TestCase {
+
+	@Test
+	public void testRoundTrip() throws BadRequestException {
+		PageTokenCodec codec = new PageTokenCodec("secret".getBytes(StandardCharsets.UTF_8));
+		String token = codec.encode("scope", "example.mx\0DOM-1");
+		TestCase.assertEquals("example.mx\0DOM-1", codec.decode("scope", token));
+		TestCase.assertEquals("", codec.decode("scope", codec.encode("scope", "")));
+
+		// Same secret, same tokens.
+		PageTokenCodec other = new PageTokenCodec("secret".getBytes(StandardCharsets.UTF_8));
+		TestCase.assertEquals("example.mx\0DOM-1", other.decode("scope", token));
+	}
+
+	@Test
+	public void testRejections() {
+		PageTokenCodec codec = new PageTokenCodec("secret".getBytes(StandardCharsets.UTF_8));
+		String token = codec.encode("scope", "ENT-1");
+
+		assertRejected(codec, "other scope", token);
+		assertRejected(new PageTokenCodec("other".getBytes(StandardCharsets.UTF_8)), "scope", token);
+		assertRejected(codec, "scope", "not base64!");
+		assertRejected(codec, "scope", "AQ");
+
+		// Flip a bit of the key.
+		char[] tampered = token.toCharArray();
+		tampered[2] = (tampered[2] == 'A') ? 'B' : 'A';
+		assertRejected(codec, "scope", new String(tampered));
+	}
+
+	private static void assertRejected(PageTokenCodec codec, String scope, String token) {
+		try {
+			codec.decode(scope, token);
+			TestCase.fail("Expected an exception: " + token);
+		} catch (BadRequestException e) {
+			// Expected.
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+package mx.nic.rdap.db.paging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+public class PagesTest extends TestCase {
+
+	private static final String SCOPE = PagedSearch.ENTITY_BY_HANDLE.scope("*");
+
+	@Test
+	public void testWalk() throws RdapDataAccessException {
+		Pages.Seek<Entity> seek = seek(100, "E1", "E2", "E3", "E4", "E5");
+		TestCase.assertEquals(Arrays.asList("E1", "E2", "E3", "E4", "E5"), walk(seek, 2));
+		TestCase.assertEquals(Arrays.asList("E1", "E2", "E3", "E4", "E5"), walk(seek, 5));
+
+		SearchResultStruct<Entity> last = Pages.page(SCOPE, null, 5, Pages::entityKey, seek);
+		TestCase.assertFalse(last.getResultSetWasLimitedByUserConfiguration());
+		TestCase.assertNull(last.getNextCursor());
+	}
+
+	@Test
+	public void testBackendLimited() throws RdapDataAccessException {
+		// The backend never returns more than two objects, and says so.
+		Pages.Seek<Entity> seek = seek(2, "E1", "E2", "E3", "E4", "E5");
+
+		SearchResultStruct<Entity> page = Pages.page(SCOPE, null, 10, Pages::entityKey, seek);
+		TestCase.assertEquals(2, page.getResults().size());
+		TestCase.assertTrue(page.getResultSetWasLimitedByUserConfiguration());
+		TestCase.assertNotNull(page.getNextCursor());
+
+		TestCase.assertEquals(Arrays.asList("E1", "E2", "E3", "E4", "E5"), walk(seek, 10));
+	}
+
+	@Test
+	public void testRejectedCursors() throws RdapDataAccessException {
+		Pages.Seek<Entity> seek = seek(100, "E1", "E2", "E3");
+		String cursor = Pages.page(SCOPE, null, 1, Pages::entityKey, seek).getNextCursor();
+
+		// Issued by a different search.
+		assertRejected(PagedSearch.ENTITY_BY_HANDLE.scope("E*"), cursor, seek);
+		assertRejected(PagedSearch.ENTITY_BY_VCARD_NAME.scope("*"), cursor, seek);
+
+		// Tampered with.
+		char[] tampered = cursor.toCharArray();
+		tampered[2] = (tampered[2] == 'A') ? 'B' : 'A';
+		assertRejected(SCOPE, new String(tampered), seek);
+		assertRejected(SCOPE, "garbage", seek);
+	}
+
+	@Test
+	public void testMerge() {
+		SearchResultStruct<Entity> a = result(false, "A", "C", "E");
+		SearchResultStruct<Entity> b = result(false, "B", "C", "D");
+
+		SearchResultStruct<Entity> merged = Pages.merge(Arrays.asList(a, b, null), Pages::entityKey, SCOPE, 4);
+		TestCase.assertEquals(Arrays.asList("A", "B", "C", "D"), handles(merged));
+		TestCase.assertTrue(merged.getResultSetWasLimitedByUserConfiguration());
+		TestCase.assertNotNull(merged.getNextCursor());
+
+		merged = Pages.merge(Arrays.asList(a, b), Pages::entityKey, SCOPE, 10);
+		TestCase.assertEquals(Arrays.asList("A", "B", "C", "D", "E"), handles(merged));
+		TestCase.assertNull(merged.getNextCursor());
+
+		// A partial page that was cut short carries on to the merged page.
+		merged = Pages.merge(Arrays.asList(a, result(true, "B")), Pages::entityKey, SCOPE, 10);
+		TestCase.assertTrue(merged.getResultSetWasLimitedByUserConfiguration());
+		TestCase.assertNotNull(merged.getNextCursor());
+	}
+
+	private static void assertRejected(String scope, String cursor, Pages.Seek<Entity> seek)
+			throws RdapDataAccessException {
+		try {
+			Pages.page(scope, cursor, 1, Pages::entityKey, seek);
+			TestCase.fail("Expected an exception: " + cursor);
+		} catch (BadRequestException e) {
+			// Expected.
+		}
+	}
+
+	/**
+	 * Follows the cursors from the first page to the last one, and returns
+	 * the handles listed.
+	 */
+	private static List<String> walk(Pages.Seek<Entity> seek, int resultLimit) throws RdapDataAccessException {
+		List<String> result = new ArrayList<>();
+		String cursor = null;
+		do {
+			SearchResultStruct<Entity> page = Pages.page(SCOPE, cursor, resultLimit, Pages::entityKey, seek);
+			result.addAll(handles(page));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return result;
+	}
+
+	/**
+	 * Returns a seek over <code>handles</code> (which must be sorted) that
+	 * never returns more than <code>backendLimit</code> objects.
+	 */
+	private static Pages.Seek<Entity> seek(int backendLimit, String... handles) {
+		return (after, limit) -> {
+			SearchResultStruct<Entity> result = new SearchResultStruct<>();
+			for (String handle : handles) {
+				if (after != null && handle.compareTo(after) <= 0) {
+					continue;
+				}
+				if (result.getResults().size() == Math.min(limit, backendLimit)) {
+					result.setResultSetWasLimitedByUserConfiguration(true);
+					break;
+				}
+				result.getResults().add(entity(handle));
+			}
+			return result;
+		};
+	}
+
+	private static SearchResultStruct<Entity> result(boolean limited, String... handles) {
+		SearchResultStruct<Entity> result = new SearchResultStruct<>();
+		for (String handle : handles) {
+			result.getResults().add(entity(handle));
+		}
+		result.setResultSetWasLimitedByUserConfiguration(limited);
+		return result;
+	}
+
+	private static Entity entity(String handle) {
+		Entity entity = new Entity();
+		entity.setHandle(handle);
+		return entity;
+	}
+
+	private static List<String> handles(SearchResultStruct<Entity> page) {
+		List<String> result = new ArrayList<>();
+		for (Entity entity : page.getResults()) {
+			result.add(entity.getHandle());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,80 @@
+package mx.nic.rdap.db.regex;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.HttpException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+
+public class LinearRegexTest extends TestCase {
+
+	@Test
+	public void testSameResultsAsPattern() throws HttpException {
+		String[] regexes = { "abc", "^abc$", "a.c", "a[b-d]+c", "[^a-c]", "\\d{2,3}", "x{2}y?", "(ab|cd)*e",
+				"(?:foo|bar)baz", "(?i)EXAMPLE\\.MX", "a(?i:B)c", "\\w+@\\w+\\.com", "\\Q.*\\E", "colou?r",
+				"^$", "a{0}b", "[\\d.]+", "\\x41\\u0042", "a+?b", "(?<name>ab)c" };
+		String[] texts = { "", "abc", "xabcx", "aXc", "abbbdc", "12", "1234", "xxy", "ababe", "e", "foobaz",
+				"www.example.mx", "aBc", "abc", "me@example.com", ".*", "color", "colour", "b", "1.2.3", "AB",
+				"aaab", "abc", "abc\n", "abc\r\n", "abc\r", "abc\n\n", "abc\nx", "\n", "\r\n", "\u2028" };
+
+		for (String regex : regexes) {
+			CompiledRegex linear = LinearRegex.compile(regex);
+			CompiledRegex java = JavaRegex.compile(regex);
+			for (String text : texts) {
+				StepBudget budget = new StepBudget(StepBudget.DEFAULT_STEPS);
+				TestCase.assertEquals(regex + " on '" + text + "'", java.find(text, budget), linear.find(text,
+						budget));
+			}
+		}
+	}
+
+	@Test
+	public void testPathologicalExpression() throws HttpException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			text.append('a');
+		}
+		text.append('!');
+
+		// Backtracking engines take O(n^10) time on this one.
+		StepBudget budget = new StepBudget(10000000);
+		TestCase.assertFalse(LinearRegex.compile("(.*a){10}x").find(text, budget));
+		TestCase.assertTrue(budget.getSpent() < 10000000);
+
+		try {
+			JavaRegex.compile("(.*a){10}x").find(text.substring(9950), new StepBudget(1000000));
+			TestCase.fail("The budget should have run out.");
+		} catch (UnprocessableEntityException e) {
+			// No code; success.
+		}
+	}
+
+	@Test
+	public void testUnsupportedFeatures() throws BadRequestException {
+		String[] regexes = { "(a)\\1", "a(?=b)", "a(?!b)", "(?<=a)b", "\\bword\\b", "a*+", "\\p{L}", "(?x)a", "\\v",
+				"a\\hb", "\\R", "\\cA", "\\x{41}", "[\\h]" };
+		for (String regex : regexes) {
+			try {
+				LinearRegex.compile(regex);
+				TestCase.fail(regex + " should have been rejected.");
+			} catch (UnprocessableEntityException e) {
+				// No code; success.
+			}
+		}
+	}
+
+	@Test
+	public void testLimits() throws BadRequestException {
+		String[] regexes = { "(a{1000}){1000}", "a{99999999999}" };
+		for (String regex : regexes) {
+			try {
+				LinearRegex.compile(regex);
+				TestCase.fail(regex + " should have been rejected.");
+			} catch (UnprocessableEntityException e) {
+				// No code; success.
+			}
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package mx.nic.rdap.db.regex;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Domain;
+import mx.nic.rdap.db.exception.http.BadRequestException;
+import mx.nic.rdap.db.exception.http.HttpException;
+import mx.nic.rdap.db.exception.http.UnprocessableEntityException;
+import mx.nic.rdap.db.struct.SearchResultStruct;
+
+public class RegexSearchEngineTest extends TestCase {
+
+	@Test
+	public void testRequiredLiterals() {
+		TestCase.assertEquals(Arrays.asList("example.mx"), RequiredLiterals.extract("^example\\.mx$"));
+		TestCase.assertEquals(Arrays.asList("exampl", "mx"), RequiredLiterals.extract("example?.mx"));
+		TestCase.assertEquals(Arrays.asList("ab", "c"), RequiredLiterals.extract("ab+c"));
+		TestCase.assertEquals(Arrays.asList("foo", "bar"), RequiredLiterals.extract("foo[0-9]*bar"));
+		TestCase.assertEquals(Arrays.asList("foo", "bar"), RequiredLiterals.extract("foo(x|y)?bar"));
+		TestCase.assertEquals(Arrays.asList("ab"), RequiredLiterals.extract("abc{0,2}"));
+		TestCase.assertEquals(Arrays.asList("abc"), RequiredLiterals.extract("abc{2}"));
+		TestCase.assertEquals(Collections.emptyList(), RequiredLiterals.extract("foo|bar"));
+		TestCase.assertEquals(Collections.emptyList(), RequiredLiterals.extract("(?x)f o o"));
+
+		// The operands of escapes are not literals.
+		TestCase.assertEquals(Arrays.asList("bc"), RequiredLiterals.extract("\\x41bc"));
+		TestCase.assertEquals(Arrays.asList("bc"), RequiredLiterals.extract("\\x{41}bc"));
+		TestCase.assertEquals(Arrays.asList("bcd"), RequiredLiterals.extract("\\u0041bcd"));
+		TestCase.assertEquals(Arrays.asList("bc"), RequiredLiterals.extract("\\0101bc"));
+		TestCase.assertEquals(Arrays.asList("ab", "xyz"), RequiredLiterals.extract("ab\\cAxyz"));
+		TestCase.assertEquals(Arrays.asList("zzz"), RequiredLiterals.extract("(?<n>a)\\k<n>zzz"));
+		TestCase.assertEquals(Arrays.asList("a", "b"), RequiredLiterals.extract("a\\p{Lu}b"));
+		// Unknown escapes end the analysis.
+		TestCase.assertEquals(Arrays.asList("ab"), RequiredLiterals.extract("ab\\Qcd\\E"));
+		TestCase.assertEquals(Arrays.asList("a"), RequiredLiterals.extract("(a)a\\11"));
+	}
+
+	@Test
+	public void testSearch() throws HttpException {
+		RegexSearchEngine.Builder<Domain> builder = new RegexSearchEngine.Builder<>();
+		for (int i = 0; i < 1000; i++) {
+			builder.add(domain("domain" + i + ".mx"), "domain" + i + ".mx", "alias" + i + ".mx");
+		}
+		builder.add(domain("example.com"), "example.com");
+		RegexSearchEngine<Domain> engine = builder.build();
+
+		SearchResultStruct<Domain> result = engine.search("^exam.le\\.com$", 10);
+		TestCase.assertEquals(1, result.getResults().size());
+		TestCase.assertEquals("example.com", result.getResults().get(0).getLdhName());
+
+		result = engine.search("domain99[0-9]\\.mx", 100);
+		TestCase.assertEquals(10, result.getResults().size());
+		TestCase.assertFalse(result.getResultSetWasLimitedByUserConfiguration());
+
+		// Both texts match, but the object must be listed once.
+		result = engine.search("(domain|alias)500\\.", 100);
+		TestCase.assertEquals(1, result.getResults().size());
+
+		result = engine.search(".*", 5);
+		TestCase.assertEquals(5, result.getResults().size());
+		TestCase.assertTrue(result.getResultSetWasLimitedByUserConfiguration());
+
+		TestCase.assertTrue(engine.search("nothing", 5).getResults().isEmpty());
+
+		// The prefilter must not mistake the operand of an escape for a literal.
+		result = engine.search("\\x65xample\\u002ecom", 10);
+		TestCase.assertEquals(1, result.getResults().size());
+	}
+
+	@Test
+	public void testInvalidExpression() {
+		RegexSearchEngine<Domain> engine = new RegexSearchEngine.Builder<Domain>().build();
+		try {
+			engine.search("(unclosed", 10);
+			TestCase.fail("The expression should have been rejected.");
+		} catch (BadRequestException e) {
+			// No code; success.
+		} catch (UnprocessableEntityException e) {
+			TestCase.fail("Syntax errors are bad requests.");
+		}
+	}
+
+	@Test
+	public void testStepBudget() throws HttpException {
+		RegexSearchEngine.Builder<Domain> builder = new RegexSearchEngine.Builder<Domain>().setStepLimit(1000000);
+		for (int i = 0; i < 100; i++) {
+			builder.add(domain("domain" + i + ".mx"), "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa" + i);
+		}
+
+		// The linear engine is unaffected by the shape of the expression.
+		RegexSearchEngine<Domain> engine = builder.build();
+		TestCase.assertEquals(1, engine.search("a+42", 10).getResults().size());
+		TestCase.assertTrue(engine.search("(.*a){10}b", 10).getResults().isEmpty());
+
+		engine = builder.build(new CompiledPatternCache(RegexCompiler.JAVA));
+		try {
+			engine.search("(.*a){10}b", 10);
+			TestCase.fail("The search should have run out of budget.");
+		} catch (UnprocessableEntityException e) {
+			// No code; success.
+		}
+	}
+
+	private static Domain domain(String name) {
+		Domain domain = new Domain();
+		domain.setLdhName(name);
+		return domain;
+	}
+
+}
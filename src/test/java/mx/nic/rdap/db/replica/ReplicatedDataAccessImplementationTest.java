@@ -0,0 +1,118 @@
+package mx.nic.rdap.db.replica;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotFoundException;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+import mx.nic.rdap.db.spi.StubImplementation;
+
+public class ReplicatedDataAccessImplementationTest extends TestCase {
+
+	@Test
+	public void testHedging() throws Exception {
+		AtomicInteger slowCalls = replica("slow1", 2000, false);
+		AtomicInteger fastCalls = replica("fast1", 0, false);
+		Properties config = config("slow1, fast1");
+		config.setProperty("replica.initial-hedge-delay", "20");
+		ReplicatedDataAccessImplementation replicated = new ReplicatedDataAccessImplementation();
+		replicated.init(config);
+		TestCase.assertNull(replicated.getDomainDAO());
+
+		long start = System.nanoTime();
+		RdapUser user = replicated.getRdapUserDAO().getByUsername("alice");
+		long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+		// The slow replica was asked first, but the hedge answered.
+		TestCase.assertEquals("fast1", user.getName());
+		TestCase.assertTrue("Took " + elapsedMillis + " ms.", elapsedMillis < 1000);
+		TestCase.assertEquals(1, slowCalls.get());
+		TestCase.assertEquals(1, fastCalls.get());
+	}
+
+	@Test
+	public void testFailover() throws Exception {
+		AtomicInteger brokenCalls = replica("broken2", 0, true);
+		AtomicInteger workingCalls = replica("working2", 0, false);
+		Properties config = config("broken2, working2");
+		config.setProperty("replica.hedging", "false");
+		ReplicatedDataAccessImplementation replicated = new ReplicatedDataAccessImplementation();
+		replicated.init(config);
+		RdapUserDAO dao = replicated.getRdapUserDAO();
+
+		for (int i = 0; i < 10; i++) {
+			TestCase.assertEquals("working2", dao.getByUsername("alice").getName());
+		}
+		// After a few failures, the broken replica is left alone.
+		TestCase.assertEquals(3, brokenCalls.get());
+
+		// Legitimate answers are not failures, and are not retried elsewhere.
+		try {
+			dao.getByUsername("");
+			TestCase.fail("Expected an exception.");
+		} catch (NotFoundException e) {
+			// Expected.
+		}
+		TestCase.assertEquals(11, workingCalls.get());
+	}
+
+	@Test
+	public void testRankingWithoutHedging() throws Exception {
+		AtomicInteger slowCalls = replica("slow3", 50, false);
+		AtomicInteger fastCalls = replica("fast3", 0, false);
+		Properties config = config("slow3, fast3");
+		config.setProperty("replica.hedging", "false");
+		ReplicatedDataAccessImplementation replicated = new ReplicatedDataAccessImplementation();
+		replicated.init(config);
+		RdapUserDAO dao = replicated.getRdapUserDAO();
+
+		// Unhedged lookups are still measured, so the fast replica takes over.
+		for (int i = 0; i < 5; i++) {
+			dao.getByUsername("alice");
+		}
+		TestCase.assertEquals(1, slowCalls.get());
+		TestCase.assertEquals(4, fastCalls.get());
+	}
+
+	private static Properties config(String names) {
+		Properties config = new Properties();
+		config.setProperty("replica.names", names);
+		config.setProperty("replica.data-access-implementation", StubImplementation.class.getName());
+		for (String name : names.split(",")) {
+			config.setProperty("replica." + name.trim() + "." + StubImplementation.NAME_PROPERTY, name.trim());
+		}
+		return config;
+	}
+
+	/**
+	 * Registers a replica that only serves users, named after itself. Returns
+	 * the number of lookups it receives.
+	 */
+	private static AtomicInteger replica(String name, long delay, boolean broken) {
+		AtomicInteger calls = new AtomicInteger();
+		StubImplementation.register(name).users(username -> {
+			calls.incrementAndGet();
+			if (broken) {
+				throw new RdapDataAccessException("Connection refused.");
+			}
+			if (username.isEmpty()) {
+				throw new NotFoundException();
+			}
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				throw new RdapDataAccessException(e);
+			}
+			RdapUser user = new RdapUser();
+			user.setName(name);
+			return user;
+		});
+		return calls;
+	}
+
+}
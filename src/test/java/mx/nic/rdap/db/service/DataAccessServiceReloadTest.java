@@ -0,0 +1,149 @@
+package mx.nic.rdap.db.service;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.RdapUser;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.ServiceUnavailableException;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+import mx.nic.rdap.db.spi.StubImplementation;
+import mx.nic.rdap.db.spi.StubImplementation.Stub;
+
+public class DataAccessServiceReloadTest extends TestCase {
+
+	@Test
+	public void testReload() throws Exception {
+		Stub old = stub("old1");
+		Stub next = stub("new1");
+		DataAccessService.initialize(config(old));
+		TestCase.assertEquals("old1", currentName());
+		RdapUserDAO stale = DataAccessService.getRdapUserDAO();
+
+		CountDownLatch warmed = new CountDownLatch(1);
+		DataAccessService.reload(config(next), implementation -> {
+			// Warmed up through its own decorators, while the old one serves.
+			TestCase.assertEquals("new1", implementation.getRdapUserDAO().getByUsername("warm").getName());
+			TestCase.assertEquals("old1", currentName());
+			warmed.countDown();
+		}).get(5, TimeUnit.SECONDS);
+
+		TestCase.assertEquals(0, warmed.getCount());
+		TestCase.assertEquals("new1", currentName());
+		TestCase.assertTrue(old.awaitClose(5, TimeUnit.SECONDS));
+		TestCase.assertFalse(next.isClosed());
+
+		// Calls that reach the closed implementation late are turned down.
+		try {
+			stale.getByUsername("anyone");
+			TestCase.fail("Expected an exception.");
+		} catch (ServiceUnavailableException e) {
+			// No code; success.
+		}
+	}
+
+	@Test
+	public void testDrain() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Stub old = StubImplementation.register("old2").users(username -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new RdapDataAccessException(e);
+			}
+			return user("old2");
+		});
+
+		DataAccessService.initialize(config(old));
+		Thread slowCall = new Thread(() -> {
+			try {
+				DataAccessService.getRdapUserDAO().getByUsername("slow");
+			} catch (RdapDataAccessException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		slowCall.start();
+		TestCase.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		DataAccessService.reload(config(stub("new2")), null).get(5, TimeUnit.SECONDS);
+		TestCase.assertEquals("new2", currentName());
+
+		// The old implementation waits for the call in progress.
+		TestCase.assertFalse(old.awaitClose(200, TimeUnit.MILLISECONDS));
+		release.countDown();
+		TestCase.assertTrue(old.awaitClose(5, TimeUnit.SECONDS));
+		slowCall.join();
+	}
+
+	@Test
+	public void testFailedWarmUp() throws Exception {
+		Stub old = stub("old3");
+		Stub next = stub("new3");
+		DataAccessService.initialize(config(old));
+		try {
+			DataAccessService.reload(config(next), implementation -> {
+				throw new RdapDataAccessException("Cold.");
+			}).get(5, TimeUnit.SECONDS);
+			TestCase.fail("Expected an exception.");
+		} catch (ExecutionException e) {
+			TestCase.assertTrue(e.getCause() instanceof InitializationException);
+		}
+
+		TestCase.assertEquals("old3", currentName());
+		TestCase.assertFalse(old.isClosed());
+		TestCase.assertTrue(next.isClosed());
+	}
+
+	@Test
+	public void testFailedDecoration() throws Exception {
+		Stub old = stub("old4");
+		Stub next = stub("new4");
+		DataAccessService.initialize(config(old));
+		Properties broken = config(next);
+		broken.setProperty("bulkhead.enabled", "true");
+		broken.setProperty("bulkhead.lookup.initial-limit", "many");
+		try {
+			DataAccessService.reload(broken, null).get(5, TimeUnit.SECONDS);
+			TestCase.fail("Expected an exception.");
+		} catch (ExecutionException e) {
+			TestCase.assertTrue(e.getCause() instanceof InitializationException);
+		}
+
+		// The new implementation was initialized, so it has to be closed.
+		TestCase.assertEquals("old4", currentName());
+		TestCase.assertTrue(next.isClosed());
+	}
+
+	private static String currentName() throws RdapDataAccessException {
+		return DataAccessService.getRdapUserDAO().getByUsername("anyone").getName();
+	}
+
+	/**
+	 * Returns a stub that only serves users, named after itself.
+	 */
+	private static Stub stub(String name) {
+		return StubImplementation.register(name).users(username -> user(name));
+	}
+
+	private static RdapUser user(String name) {
+		RdapUser user = new RdapUser();
+		user.setName(name);
+		return user;
+	}
+
+	private static Properties config(Stub stub) {
+		Properties config = new Properties();
+		config.setProperty("data-access-implementation", StubImplementation.class.getName());
+		config.setProperty(StubImplementation.NAME_PROPERTY, stub.getName());
+		return config;
+	}
+
+}
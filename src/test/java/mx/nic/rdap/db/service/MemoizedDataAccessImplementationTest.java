@@ -0,0 +1,111 @@
+package mx.nic.rdap.db.service;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.db.exception.InitializationException;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+import mx.nic.rdap.db.exception.http.NotImplementedException;
+import mx.nic.rdap.db.spi.AutnumDAO;
+import mx.nic.rdap.db.spi.DataAccessImplementation;
+import mx.nic.rdap.db.spi.DomainDAO;
+import mx.nic.rdap.db.spi.EntityDAO;
+import mx.nic.rdap.db.spi.IpNetworkDAO;
+import mx.nic.rdap.db.spi.NameserverDAO;
+import mx.nic.rdap.db.spi.RdapUserDAO;
+
+public class MemoizedDataAccessImplementationTest extends TestCase {
+
+	@Test
+	public void testMemoization() throws Exception {
+		StubImplementation stub = new StubImplementation(false);
+		MemoizedDataAccessImplementation memoized = new MemoizedDataAccessImplementation(stub);
+		TestCase.assertEquals(6, stub.getterCalls.get());
+
+		RdapUserDAO users = memoized.getRdapUserDAO();
+		TestCase.assertNotNull(users);
+		TestCase.assertSame(users, memoized.getRdapUserDAO());
+		TestCase.assertNull(memoized.getDomainDAO());
+		for (int i = 0; i < 2; i++) {
+			try {
+				memoized.getAutnumDAO();
+				TestCase.fail("Expected an exception.");
+			} catch (NotImplementedException e) {
+				// Expected.
+			}
+		}
+		TestCase.assertEquals(6, stub.getterCalls.get());
+	}
+
+	@Test
+	public void testFailFast() throws Exception {
+		try {
+			new MemoizedDataAccessImplementation(new StubImplementation(true));
+			TestCase.fail("Expected an exception.");
+		} catch (InitializationException e) {
+			TestCase.assertTrue(e.getMessage().contains("entity"));
+		}
+	}
+
+	/**
+	 * Implementation that counts the calls to its getters.
+	 */
+	private static class StubImplementation implements DataAccessImplementation {
+
+		private final AtomicInteger getterCalls = new AtomicInteger();
+		private final boolean brokenEntities;
+
+		private StubImplementation(boolean brokenEntities) {
+			this.brokenEntities = brokenEntities;
+		}
+
+		@Override
+		public void init(Properties properties) {
+			// No code.
+		}
+
+		@Override
+		public AutnumDAO getAutnumDAO() throws RdapDataAccessException {
+			getterCalls.incrementAndGet();
+			throw new NotImplementedException();
+		}
+
+		@Override
+		public DomainDAO getDomainDAO() {
+			getterCalls.incrementAndGet();
+			return null;
+		}
+
+		@Override
+		public EntityDAO getEntityDAO() throws RdapDataAccessException {
+			getterCalls.incrementAndGet();
+			if (brokenEntities) {
+				throw new RdapDataAccessException("Connection refused.");
+			}
+			return null;
+		}
+
+		@Override
+		public IpNetworkDAO getIpNetworkDAO() {
+			getterCalls.incrementAndGet();
+			return null;
+		}
+
+		@Override
+		public NameserverDAO getNameserverDAO() {
+			getterCalls.incrementAndGet();
+			return null;
+		}
+
+		@Override
+		public RdapUserDAO getRdapUserDAO() {
+			getterCalls.incrementAndGet();
+			return username -> null;
+		}
+
+	}
+
+}
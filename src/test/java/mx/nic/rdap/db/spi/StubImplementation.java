@@ -0,0 +1,135 @@
+package mx.nic.rdap.db.spi;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import mx.nic.rdap.db.exception.InitializationException;
+
+/**
+ * {@link DataAccessImplementation} whose DAOs are supplied by the test.
+ * <p>
+ * Implementations are instantiated by class name, so the test cannot hand
+ * the DAOs to the instance directly. Instead, it {@link #register(String)}s a
+ * {@link Stub} under a name (unique to the test), and points the instance to
+ * it through the {@value #NAME_PROPERTY} property. DAOs the stub lacks are
+ * <code>null</code>, ie. not implemented.
+ */
+public class StubImplementation implements DataAccessImplementation, AutoCloseable {
+
+	public static final String NAME_PROPERTY = "stub.name";
+
+	private static final Map<String, Stub> STUBS = new ConcurrentHashMap<>();
+
+	private Stub stub;
+
+	/**
+	 * Creates a stub named <code>name</code>, replacing the previous one, if
+	 * any.
+	 */
+	public static Stub register(String name) {
+		Stub stub = new Stub(name);
+		STUBS.put(name, stub);
+		return stub;
+	}
+
+	@Override
+	public void init(Properties properties) throws InitializationException {
+		String name = properties.getProperty(NAME_PROPERTY);
+		stub = STUBS.get(name);
+		if (stub == null) {
+			throw new InitializationException("There is no stub named '" + name + "'.");
+		}
+	}
+
+	@Override
+	public void close() {
+		stub.closed.countDown();
+	}
+
+	@Override
+	public AutnumDAO getAutnumDAO() {
+		return stub.autnumDAO;
+	}
+
+	@Override
+	public DomainDAO getDomainDAO() {
+		return null;
+	}
+
+	@Override
+	public EntityDAO getEntityDAO() {
+		return stub.entityDAO;
+	}
+
+	@Override
+	public IpNetworkDAO getIpNetworkDAO() {
+		return null;
+	}
+
+	@Override
+	public NameserverDAO getNameserverDAO() {
+		return null;
+	}
+
+	@Override
+	public RdapUserDAO getRdapUserDAO() {
+		return stub.rdapUserDAO;
+	}
+
+	/**
+	 * What the implementations registered under a name serve, and what
+	 * happened to them.
+	 */
+	public static class Stub {
+
+		private final String name;
+		private final CountDownLatch closed = new CountDownLatch(1);
+		private volatile AutnumDAO autnumDAO;
+		private volatile EntityDAO entityDAO;
+		private volatile RdapUserDAO rdapUserDAO;
+
+		private Stub(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Stub autnums(AutnumDAO dao) {
+			this.autnumDAO = dao;
+			return this;
+		}
+
+		public Stub entities(EntityDAO dao) {
+			this.entityDAO = dao;
+			return this;
+		}
+
+		public Stub users(RdapUserDAO dao) {
+			this.rdapUserDAO = dao;
+			return this;
+		}
+
+		/**
+		 * Returns whether an implementation that used this stub has been
+		 * closed.
+		 */
+		public boolean isClosed() {
+			return closed.getCount() == 0;
+		}
+
+		/**
+		 * Waits up to <code>timeout</code> for an implementation that uses this
+		 * stub to be closed. Returns whether it was.
+		 */
+		public boolean awaitClose(long timeout, TimeUnit unit) throws InterruptedException {
+			return closed.await(timeout, unit);
+		}
+
+	}
+
+}
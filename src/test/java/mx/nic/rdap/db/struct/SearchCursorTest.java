@@ -0,0 +1,83 @@
+package mx.nic.rdap.db.struct;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mx.nic.rdap.core.db.Entity;
+import mx.nic.rdap.db.exception.RdapDataAccessException;
+
+public class SearchCursorTest extends TestCase {
+
+	@Test
+	public void testLimit() throws RdapDataAccessException {
+		CountingCursor source = new CountingCursor(100);
+		List<Entity> written = new ArrayList<>();
+		try (LimitedSearchCursor<Entity> cursor = new LimitedSearchCursor<>(source, 10)) {
+			cursor.forEachRemaining(written::add);
+			TestCase.assertTrue(cursor.wasLimited());
+		}
+
+		TestCase.assertEquals(10, written.size());
+		TestCase.assertEquals("9", written.get(9).getHandle());
+		// Only one extra object should have been pulled.
+		TestCase.assertEquals(11, source.fetched);
+		TestCase.assertTrue(source.closed);
+	}
+
+	@Test
+	public void testUnderLimit() throws RdapDataAccessException {
+		SearchResultStruct<Entity> result = SearchCursors.collect(new CountingCursor(5), 5);
+		TestCase.assertEquals(5, result.getResults().size());
+		TestCase.assertFalse(result.getResultSetWasLimitedByUserConfiguration());
+
+		result = SearchCursors.collect(new CountingCursor(6), 5);
+		TestCase.assertEquals(5, result.getResults().size());
+		TestCase.assertTrue(result.getResultSetWasLimitedByUserConfiguration());
+	}
+
+	@Test
+	public void testMaterialized() throws RdapDataAccessException {
+		TestCase.assertNull(SearchCursors.of((SearchResultStruct<Entity>) null).next());
+
+		SearchResultStruct<Entity> struct = new SearchResultStruct<>();
+		struct.getResults().add(entity(0));
+		struct.getResults().add(null);
+		struct.getResults().add(entity(1));
+		SearchCursor<Entity> cursor = SearchCursors.of(struct);
+		TestCase.assertEquals("0", cursor.next().getHandle());
+		TestCase.assertEquals("1", cursor.next().getHandle());
+		TestCase.assertNull(cursor.next());
+	}
+
+	private static Entity entity(int handle) {
+		Entity entity = new Entity();
+		entity.setHandle(Integer.toString(handle));
+		return entity;
+	}
+
+	private static class CountingCursor implements SearchCursor<Entity> {
+
+		private final int total;
+		private int fetched;
+		private boolean closed;
+
+		private CountingCursor(int total) {
+			this.total = total;
+		}
+
+		@Override
+		public Entity next() {
+			return (fetched < total) ? entity(fetched++) : null;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+	}
+
+}